@@ -1,4 +1,5 @@
 module.exports = {
     env: 'production',
-    urlPrefix: __API_URL__
+    urlPrefix: __API_URL__,
+    bamBinaryFormat: false
 };
@@ -0,0 +1,157 @@
+const READS_FRAME = 1;
+const TRACK_FRAME = 2;
+const ERROR_FRAME = 3;
+
+const BYTE_SIZE = 1;
+const INT_SIZE = 4;
+
+const INT_COLUMNS = ['startIndex', 'endIndex', 'flagMask', 'tlen', 'pnext'];
+const DICTIONARY_COLUMNS = ['name', 'cigarString', 'readGroup', 'rname', 'rnext', 'pairedReadName'];
+const SEQUENCE_COLUMNS = ['headSequence', 'tailSequence'];
+
+const utf8Decoder = new TextDecoder('utf-8');
+
+/**
+ * Sequential reader of big-endian values from an ArrayBuffer
+ */
+class BinaryReader {
+    constructor(buffer) {
+        this.view = new DataView(buffer);
+        this.bytes = new Uint8Array(buffer);
+        this.offset = 0;
+    }
+
+    get hasMore() {
+        return this.offset < this.view.byteLength;
+    }
+
+    readByte() {
+        const value = this.view.getUint8(this.offset);
+        this.offset += BYTE_SIZE;
+        return value;
+    }
+
+    readInt() {
+        const value = this.view.getInt32(this.offset);
+        this.offset += INT_SIZE;
+        return value;
+    }
+
+    readString(length) {
+        const value = utf8Decoder.decode(this.bytes.subarray(this.offset, this.offset + length));
+        this.offset += length;
+        return value;
+    }
+
+    readAscii(length) {
+        let value = '';
+        for (let i = 0; i < length; i++) {
+            value += String.fromCharCode(this.bytes[this.offset + i]);
+        }
+        this.offset += length;
+        return value;
+    }
+}
+
+function decodeReads(reader, blocks) {
+    const count = reader.readInt();
+    const reads = new Array(count);
+    for (let i = 0; i < count; i++) {
+        reads[i] = {};
+    }
+    for (const column of INT_COLUMNS) {
+        for (let i = 0; i < count; i++) {
+            reads[i][column] = reader.readInt();
+        }
+    }
+    for (let i = 0; i < count; i++) {
+        reads[i].mappingQuality = reader.readByte();
+    }
+    for (let i = 0; i < count; i++) {
+        reads[i].stand = reader.readByte() === 1;
+    }
+    for (const column of DICTIONARY_COLUMNS) {
+        const dictionary = new Array(reader.readInt());
+        for (let d = 0; d < dictionary.length; d++) {
+            dictionary[d] = reader.readString(reader.readInt());
+        }
+        for (let i = 0; i < count; i++) {
+            const index = reader.readInt();
+            if (index >= 0) {
+                reads[i][column] = dictionary[index];
+            }
+        }
+    }
+    for (const column of SEQUENCE_COLUMNS) {
+        const lengths = new Array(count);
+        for (let i = 0; i < count; i++) {
+            lengths[i] = reader.readInt();
+        }
+        for (let i = 0; i < count; i++) {
+            if (lengths[i] >= 0) {
+                reads[i][column] = reader.readAscii(lengths[i]);
+            }
+        }
+    }
+    const differentBaseCounts = new Array(count);
+    for (let i = 0; i < count; i++) {
+        differentBaseCounts[i] = reader.readInt();
+    }
+    for (let i = 0; i < count; i++) {
+        if (differentBaseCounts[i] > 0) {
+            const differentBase = new Array(differentBaseCounts[i]);
+            for (let d = 0; d < differentBase.length; d++) {
+                differentBase[d] = {relativePosition: reader.readInt()};
+            }
+            reads[i].differentBase = differentBase;
+        }
+    }
+    for (let i = 0; i < count; i++) {
+        if (reads[i].differentBase) {
+            for (const base of reads[i].differentBase) {
+                base.base = String.fromCharCode(reader.readByte());
+            }
+        }
+    }
+    for (let i = 0; i < count; i++) {
+        blocks.push(reads[i]);
+    }
+}
+
+/**
+ * Decodes a BAM track, streamed by the server in a binary columnar format, into the same structure,
+ * that is returned in JSON format: track metadata with reads in 'blocks' field.
+ * Frames layout is described in the server's BinaryBamTrackEmitter
+ * @param {ArrayBuffer} buffer
+ * @returns {{status: string, payload: Object}|{status: string, message: string}}
+ */
+export function decodeBamTrack(buffer) {
+    const reader = new BinaryReader(buffer);
+    const blocks = [];
+    while (reader.hasMore) {
+        const type = reader.readByte();
+        const length = reader.readInt();
+        switch (type) {
+            case READS_FRAME:
+                decodeReads(reader, blocks);
+                break;
+            case TRACK_FRAME:
+                return {
+                    status: 'OK',
+                    payload: Object.assign(JSON.parse(reader.readString(length)), {blocks})
+                };
+            case ERROR_FRAME:
+                return {
+                    status: 'ERROR',
+                    message: reader.readString(length)
+                };
+            default:
+                reader.offset += length;
+                break;
+        }
+    }
+    return {
+        status: 'ERROR',
+        message: 'Incomplete BAM track response'
+    };
+}
@@ -1,4 +1,5 @@
 import {DataService} from '../data-service';
+import {decodeBamTrack} from './bam-binary-decoder';
 
 class BamDataInit {
     id: number;
@@ -192,7 +193,7 @@ export class BamDataService extends DataService {
         if (props.file && props.index) {
             url = `bam/track/get?fileUrl=${encodeURIComponent(props.file)}&indexUrl=${encodeURIComponent(props.index)}`;
         }
-        return this.post(url, payload);
+        return this.loadTrack(url, payload);
     }
 
     /**
@@ -224,7 +225,7 @@ export class BamDataService extends DataService {
         if (props.file && props.index) {
             url = `bam/track/get?fileUrl=${encodeURIComponent(props.file)}&indexUrl=${encodeURIComponent(props.index)}`;
         }
-        return this.post(url, payload);
+        return this.loadTrack(url, payload);
     }
 
     /**
@@ -257,7 +258,23 @@ export class BamDataService extends DataService {
         if (props.file && props.index) {
             url = `bam/track/get?fileUrl=${encodeURIComponent(props.file)}&indexUrl=${encodeURIComponent(props.index)}`;
         }
-        return this.post(url, payload);
+        return this.loadTrack(url, payload);
+    }
+
+    /**
+     * Requests a bam track in a compact binary format, if it is enabled, otherwise in JSON
+     * @returns {promise}
+     */
+    loadTrack(url, payload) {
+        if (!this.ngbConstants.bamBinaryFormat) {
+            return this.post(url, payload);
+        }
+        const binaryUrl = `${url}${url.indexOf('?') >= 0 ? '&' : '?'}format=binary`;
+        return this.downloadFile('post', binaryUrl, payload, {customResponseType: 'arraybuffer'})
+            .then((buffer) => {
+                const response = decodeBamTrack(buffer);
+                return response.status === 'OK' ? response.payload : Promise.reject(response);
+            });
     }
 
     /**
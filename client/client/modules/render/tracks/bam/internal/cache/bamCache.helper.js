@@ -33,8 +33,12 @@ export default function addCoverage(spliceJunctions, baseCoverage = []) {
         for (let k = startNumber || 0; k < (baseCoverage || []).length; k++) {
             const item = baseCoverage[k];
             const endIndex = item.endIndex ? item.endIndex : item.startIndex;
-            if (section.start <= item.startIndex && endIndex <= section.end) {
-                startNumber = k;
+            // run-length coverage ranges may straddle section boundaries: a range counts for every section
+            // it overlaps, the same as if it was split at the boundaries
+            if (item.startIndex <= section.end && endIndex >= section.start) {
+                if (section.coverage === undefined) {
+                    startNumber = k;
+                }
                 section.coverage = Math.max(item.value, (section.coverage || 0));
             }
             if (item.startIndex > section.end) {
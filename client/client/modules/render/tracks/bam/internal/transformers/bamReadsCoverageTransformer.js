@@ -69,7 +69,9 @@ export default class BamReadsCoverageTransformer extends WIGTransformer {
             n: item.nCov,
             t: item.tCov
         };
-        if (locusLetter && locusInfo[locusLetter.toLowerCase()] !== undefined) {
+        // runs of positions without mismatches have no per-base details
+        const isRun = item.endIndex !== undefined && item.endIndex > item.startIndex;
+        if (!isRun && locusLetter && locusInfo[locusLetter.toLowerCase()] !== undefined) {
             locusInfo[locusLetter.toLowerCase()] = item.value - item.totalMismatches;
         }
         else {
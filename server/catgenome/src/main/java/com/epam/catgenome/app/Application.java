@@ -3,6 +3,7 @@ package com.epam.catgenome.app;
 import java.io.PrintStream;
 
 import com.epam.catgenome.util.NgbSeekableStreamFactory;
+import com.epam.catgenome.util.RemoteBlockCache;
 import com.epam.catgenome.util.aws.S3Client;
 import com.epam.catgenome.util.azure.AzureBlobClient;
 import htsjdk.samtools.seekablestream.ISeekableStreamFactory;
@@ -82,4 +83,11 @@ public class Application extends SpringBootServletInitializer {
                                            @Value("${azure.storage.key}") final String storageKey) {
         return new AzureBlobClient(storageAccount, storageKey);
     }
+
+    @Bean
+    RemoteBlockCache remoteBlockCache(@Value("${remote.stream.block.size:131072}") final int blockSize,
+                                      @Value("${remote.stream.cache.max.size:268435456}") final long maxSize,
+                                      @Value("${remote.stream.read.ahead.blocks:4}") final int readAheadBlocks) {
+        return RemoteBlockCache.configure(blockSize, maxSize, readAheadBlocks);
+    }
 }
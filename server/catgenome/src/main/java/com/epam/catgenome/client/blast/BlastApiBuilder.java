@@ -27,6 +27,7 @@ package com.epam.catgenome.client.blast;
 import com.epam.catgenome.controller.JsonMapper;
 import com.epam.catgenome.util.QueryUtils;
 import lombok.RequiredArgsConstructor;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
@@ -42,6 +43,7 @@ public class BlastApiBuilder {
     private final int connectTimeout;
     private final int readTimeout;
     private final String apiHost;
+    private final int maxRequests;
 
     public BlastApi buildClient() {
         return new Retrofit.Builder()
@@ -53,7 +55,11 @@ public class BlastApiBuilder {
     }
 
     private OkHttpClient buildHttpClient() {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequests);
         return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
                 .hostnameVerifier((hostname, session) -> true)
                 .readTimeout(readTimeout, TimeUnit.SECONDS)
                 .connectTimeout(connectTimeout, TimeUnit.SECONDS)
@@ -85,6 +85,7 @@ public final class MessagesConstants {
 
     public static final String ERROR_UNSUPPORTED_FEATURE_FILE_TYPE = "error.unsupported.featurefiletype";
     public static final String ERROR_UNSUPPORTED_FEATURE_FILE_SORT_TYPE = "error.unsupported.featurefilesorttype";
+    public static final String ERROR_SORT_INDEX_UNCOMPRESSED = "error.sort.index.uncompressed";
     public static final String INFO_BOUNDS_METADATA_WRITE = "info.bounds.metadata.write";
     public static final String INFO_BOUNDS_METADATA_LOAD = "info.bounds.metadata.load";
     public static final String INFO_HISTOGRAM_WRITE = "info.histogram.write";
@@ -271,6 +272,12 @@ public final class MessagesConstants {
     public static final String ERROR_BLAST_ORGANISMS_MAPPING = "error.blast.organisms.mapping";
     public static final String ERROR_DATABASE_NOT_FOUND = "error.blast.database.not.found";
 
+    // REGISTRATION JOB
+    public static final String ERROR_REGISTRATION_JOB_NOT_FOUND = "error.registration.job.not.found";
+    public static final String ERROR_REGISTRATION_JOB_FINISHED = "error.registration.job.finished";
+    public static final String ERROR_REGISTRATION_JOB_INTERRUPTED = "error.registration.job.interrupted";
+    public static final String ERROR_REGISTRATION_JOB_NOT_CANCELABLE = "error.registration.job.not.cancelable";
+
     private MessagesConstants() {
         // No-op
     }
@@ -135,6 +135,32 @@ public abstract class AbstractRESTController {
         return dst;
     }
 
+    /**
+     * Sets an ETag of a track to a response and checks, if a client already has the same track
+     * @param eTag ETag of a track, if it's {@code null} the track is always sent
+     * @param ifNoneMatch If-None-Match header of a request, it lists ETags of tracks, cached by a client
+     * @param response to set ETag header or Not Modified status
+     * @return {@code true} if a client's copy is still valid and the track shouldn't be sent
+     */
+    protected boolean checkNotModified(final String eTag, final String ifNoneMatch,
+                                       final HttpServletResponse response) {
+        if (eTag == null) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String value : ifNoneMatch.split(",")) {
+            final String tag = value.trim();
+            if (eTag.equals(tag) || eTag.equals(tag.replaceFirst("^W/", ""))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Writes passed content to {@code HttpServletResponse} to allow it's downloading from
      * the client
@@ -30,6 +30,8 @@ import static com.epam.catgenome.controller.vo.Query2TrackConverter.convertToTra
 import java.io.IOException;
 
 import com.epam.catgenome.entity.bam.BamFile;
+import com.epam.catgenome.entity.bam.BamQueryOption;
+import com.epam.catgenome.entity.bam.BamTrackEncoding;
 import com.epam.catgenome.entity.bam.Read;
 import com.epam.catgenome.manager.bam.BamSecurityService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,6 +41,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -136,7 +139,9 @@ public class BamController extends AbstractRESTController {
                     "6) <b>mode</b> controls BAM display mode: REGIONS - return only regions of possible read " +
                     "location; <br/>" +
                     "COVERAGE - return only BAM coverage;<br/>" +
-                    "FULL - return both reads and coverage",
+                    "FULL - return both reads and coverage<br/><br/>" +
+                    "Response is JSON by default. A compact binary encoding of reads is returned, if " +
+                    "<b>format</b> parameter is 'binary' or 'application/octet-stream' is requested in Accept header.",
             produces = MediaType.APPLICATION_JSON_VALUE)
     @ApiResponses(
             value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
@@ -144,18 +149,23 @@ public class BamController extends AbstractRESTController {
     public final ResponseEntity<ResponseBodyEmitter> loadTrackStream(
             @RequestBody final TrackQuery query,
             @RequestParam(required = false) final String fileUrl,
-            @RequestParam(required = false) final String indexUrl)
+            @RequestParam(required = false) final String indexUrl,
+            @RequestParam(required = false) final String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept)
             throws IOException {
 
+        final BamQueryOption option = query.getOption() == null ? new BamQueryOption() : query.getOption();
+        option.setEncoding(resolveEncoding(format, accept));
         final ResponseBodyEmitter emitter = new ResponseBodyEmitter(EMITTER_TIMEOUT);
         if (fileUrl == null) {
-            bamSecurityService.sendBamTrackToEmitter(convertToTrack(query), query.getOption(), emitter);
+            bamSecurityService.sendBamTrackToEmitter(convertToTrack(query), option, emitter);
         } else {
-            bamSecurityService.sendBamTrackToEmitterFromUrl(convertToTrack(query), query.getOption(), fileUrl,
+            bamSecurityService.sendBamTrackToEmitterFromUrl(convertToTrack(query), option, fileUrl,
                     indexUrl, emitter);
         }
         HttpHeaders responseHeaders = new HttpHeaders();
-        responseHeaders.setContentType(MediaType.APPLICATION_JSON_UTF8);
+        responseHeaders.setContentType(option.getEncoding() == BamTrackEncoding.BINARY
+                ? MediaType.APPLICATION_OCTET_STREAM : MediaType.APPLICATION_JSON_UTF8);
         return new ResponseEntity<>(emitter, responseHeaders, HttpStatus.OK);
     }
 
@@ -204,4 +214,13 @@ public class BamController extends AbstractRESTController {
                                  @RequestParam(required = false) final String indexUrl) throws IOException {
         return Result.success(bamSecurityService.loadRead(query, fileUrl, indexUrl));
     }
+
+    private static BamTrackEncoding resolveEncoding(final String format, final String accept) {
+        if (format != null) {
+            return BamTrackEncoding.BINARY.name().equalsIgnoreCase(format)
+                    ? BamTrackEncoding.BINARY : BamTrackEncoding.JSON;
+        }
+        return accept != null && accept.contains(MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                ? BamTrackEncoding.BINARY : BamTrackEncoding.JSON;
+    }
 }
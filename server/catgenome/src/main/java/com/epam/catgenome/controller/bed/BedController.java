@@ -29,12 +29,17 @@ import static com.epam.catgenome.controller.vo.Query2TrackConverter.convertToTra
 
 import java.io.IOException;
 
+import javax.servlet.http.HttpServletResponse;
+
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.manager.bed.BedSecurityService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -121,11 +126,16 @@ public class BedController extends AbstractRESTController {
             })
     public Result<Track<BedRecord>> loadTrack(@RequestBody final TrackQuery trackQuery,
                                               @RequestParam(required = false) final String fileUrl,
-                                              @RequestParam(required = false) final String indexUrl)
+                                              @RequestParam(required = false) final String indexUrl,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                              final String ifNoneMatch,
+                                              final HttpServletResponse response)
         throws FeatureFileReadingException {
         final Track<BedRecord> track = convertToTrack(trackQuery);
         if (fileUrl == null) {
-            return Result.success(bedSecurityService.loadFeatures(track));
+            final TrackTileCache.CachedTrack<BedRecord> cached = bedSecurityService.loadCachedFeatures(track);
+            return checkNotModified(cached.getETag(), ifNoneMatch, response) ? null
+                    : Result.success(cached.getTrack());
         } else {
             return Result.success(bedSecurityService.loadFeatures(track, fileUrl, indexUrl));
         }
@@ -220,8 +220,8 @@ public class FilterController extends AbstractRESTController {
                           @RequestParam final ExportFormat format,
                           @RequestParam final boolean includeHeader,
                           HttpServletResponse response) throws IOException {
-        byte[] bytes = featureIndexSecurityService.exportVariations(filterForm, format, includeHeader);
-        response.getOutputStream().write(bytes);
+        featureIndexSecurityService.exportVariations(filterForm, format, includeHeader,
+                response.getOutputStream());
         response.flushBuffer();
     }
 
@@ -28,14 +28,18 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletResponse;
+
 import com.epam.catgenome.entity.activity.Activity;
 import com.epam.catgenome.entity.protein.ProteinSequence;
 import com.epam.catgenome.entity.protein.ProteinSequenceConstructRequest;
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.manager.gene.GeneSecurityService;
 import com.epam.catgenome.manager.protein.ProteinSequenceSecurityService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 
@@ -72,6 +76,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -165,13 +170,19 @@ public class GeneController extends AbstractRESTController {
     public Result<Track<GeneHighLevel>> loadTrack(@RequestBody final TrackQuery trackQuery,
             @PathVariable(value = REFERENCE_ID_FIELD) final Long referenceId,
             @RequestParam(required = false) final String fileUrl,
-            @RequestParam(required = false) final String indexUrl) throws GeneReadingException {
+            @RequestParam(required = false) final String indexUrl,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+            final HttpServletResponse response) throws GeneReadingException {
         final Track<Gene> geneTrack = Query2TrackConverter.convertToTrack(trackQuery);
         boolean collapsed = trackQuery.getCollapsed() != null && trackQuery.getCollapsed();
 
         Track<Gene> genes;
         if (fileUrl == null) {
-            genes = geneSecurityService.loadGenes(geneTrack, collapsed);
+            final TrackTileCache.CachedTrack<Gene> cached = geneSecurityService.loadCachedGenes(geneTrack, collapsed);
+            if (checkNotModified(cached.getETag(), ifNoneMatch, response)) {
+                return null;
+            }
+            genes = cached.getTrack();
         } else {
             genes = geneSecurityService.loadGenes(geneTrack, collapsed, fileUrl, indexUrl);
         }
@@ -185,7 +196,7 @@ public class GeneController extends AbstractRESTController {
         double time2 = Utils.getSystemTimeMilliseconds();
         LOGGER.debug("Loading aminoacids took {} ms", time2 - time1);
 
-        final Track<GeneHighLevel> result = new Track<>(geneTrack);
+        final Track<GeneHighLevel> result = new Track<>(genes);
         time1 = Utils.getSystemTimeMilliseconds();
         result.setBlocks(geneSecurityService.convertGeneTrackForClient(genes.getBlocks(), aminoAcids));
         time2 = Utils.getSystemTimeMilliseconds();
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.controller.job;
+
+import com.epam.catgenome.controller.AbstractRESTController;
+import com.epam.catgenome.controller.Result;
+import com.epam.catgenome.controller.vo.registration.FeatureIndexedFileRegistrationRequest;
+import com.epam.catgenome.controller.vo.registration.FileReindexRequest;
+import com.epam.catgenome.controller.vo.registration.IndexedFileRegistrationRequest;
+import com.epam.catgenome.controller.vo.registration.ReferenceRegistrationRequest;
+import com.epam.catgenome.entity.job.RegistrationJob;
+import com.epam.catgenome.manager.job.RegistrationJobSecurityService;
+import com.wordnik.swagger.annotations.Api;
+import com.wordnik.swagger.annotations.ApiOperation;
+import com.wordnik.swagger.annotations.ApiResponse;
+import com.wordnik.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@Api(value = "job", description = "Background Registration Jobs Management")
+@RequiredArgsConstructor
+public class RegistrationJobController extends AbstractRESTController {
+
+    private final RegistrationJobSecurityService registrationJobSecurityService;
+
+    @PostMapping(value = "/job/reference")
+    @ApiOperation(
+            value = "Submits a reference registration job",
+            notes = "Reference is registered in background, job status and progress are available by job id",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses(
+            value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
+            })
+    public Result<RegistrationJob> registerReference(@RequestBody final ReferenceRegistrationRequest request) {
+        return Result.success(registrationJobSecurityService.registerReference(request));
+    }
+
+    @PostMapping(value = "/job/bam")
+    @ApiOperation(
+            value = "Submits a BAM file registration job",
+            notes = "BAM file is registered in background, job status and progress are available by job id",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses(
+            value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
+            })
+    public Result<RegistrationJob> registerBam(@RequestBody final IndexedFileRegistrationRequest request) {
+        return Result.success(registrationJobSecurityService.registerBam(request));
+    }
+
+    @PostMapping(value = "/job/vcf")
+    @ApiOperation(
+            value = "Submits a VCF file registration job",
+            notes = "VCF file is registered in background, job status and progress are available by job id",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses(
+            value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
+            })
+    public Result<RegistrationJob> registerVcf(@RequestBody final FeatureIndexedFileRegistrationRequest request) {
+        return Result.success(registrationJobSecurityService.registerVcf(request));
+    }
+
+    @PutMapping(value = "/job/vcf/{vcfFileId}/index")
+    @ApiOperation(
+            value = "Submits a job to rebuild a feature index of a VCF file",
+            notes = "Feature index is rebuilt in background, job status and progress are available by job id",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses(
+            value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
+            })
+    public Result<RegistrationJob> reindexVcf(@PathVariable final long vcfFileId,
+            @RequestParam(defaultValue = "false") final boolean createTabixIndex) {
+        final FileReindexRequest request = new FileReindexRequest();
+        request.setFileId(vcfFileId);
+        request.setCreateTabixIndex(createTabixIndex);
+        return Result.success(registrationJobSecurityService.reindexVcf(request));
+    }
+
+    @PostMapping(value = "/job/gene")
+    @ApiOperation(
+            value = "Submits a gene file registration job",
+            notes = "Gene file is registered in background, job status and progress are available by job id",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses(
+            value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
+            })
+    public Result<RegistrationJob> registerGene(@RequestBody final FeatureIndexedFileRegistrationRequest request) {
+        return Result.success(registrationJobSecurityService.registerGene(request));
+    }
+
+    @PutMapping(value = "/job/gene/{geneFileId}/index")
+    @ApiOperation(
+            value = "Submits a job to rebuild a feature index of a gene file",
+            notes = "Feature index is rebuilt in background, job status and progress are available by job id",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses(
+            value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
+            })
+    public Result<RegistrationJob> reindexGene(@PathVariable final long geneFileId,
+            @RequestParam(defaultValue = "false") final boolean full,
+            @RequestParam(defaultValue = "false") final boolean createTabixIndex) {
+        final FileReindexRequest request = new FileReindexRequest();
+        request.setFileId(geneFileId);
+        request.setFull(full);
+        request.setCreateTabixIndex(createTabixIndex);
+        return Result.success(registrationJobSecurityService.reindexGene(request));
+    }
+
+    @GetMapping(value = "/job/{jobId}")
+    @ApiOperation(
+            value = "Returns a registration job by given id",
+            notes = "Returns status, result id and progress of a registration job of the current user",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses(
+            value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
+            })
+    public Result<RegistrationJob> loadJob(@PathVariable final long jobId) {
+        return Result.success(registrationJobSecurityService.load(jobId));
+    }
+
+    @GetMapping(value = "/job")
+    @ApiOperation(
+            value = "Returns registration jobs of the current user",
+            notes = "Returns registration jobs of the current user, the most recent jobs go first",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses(
+            value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
+            })
+    public Result<List<RegistrationJob>> loadJobs() {
+        return Result.success(registrationJobSecurityService.loadJobs());
+    }
+
+    @PutMapping(value = "/job/{jobId}/cancel")
+    @ApiOperation(
+            value = "Cancels a registration job",
+            notes = "Queued job is canceled immediately, running job stops on the next progress update",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses(
+            value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
+            })
+    public Result<RegistrationJob> cancelJob(@PathVariable final long jobId) {
+        return Result.success(registrationJobSecurityService.cancel(jobId));
+    }
+}
@@ -41,10 +41,12 @@ import java.util.concurrent.Callable;
 
 import com.epam.catgenome.exception.FeatureIndexException;
 import com.epam.catgenome.manager.FeatureIndexSecurityService;
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.manager.export.GeneExportFilterForm;
 import com.epam.catgenome.manager.reference.ReferenceSecurityService;
 import com.epam.catgenome.manager.export.ExportFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 
@@ -66,6 +68,7 @@ import com.wordnik.swagger.annotations.ApiResponses;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -182,10 +185,12 @@ public class ReferenceController extends AbstractRESTController {
     @ApiResponses(
             value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
             })
-    public final Result<Track<Sequence>> loadTrack(@RequestBody final TrackQuery query) throws
-            ReferenceReadingException {
-        final Track<Sequence> track = referenceSecurityService.getNucleotidesResultFromNib(convertToTrack(query));
-        return Result.success(track);
+    public final Result<Track<Sequence>> loadTrack(@RequestBody final TrackQuery query,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+            final HttpServletResponse response) throws ReferenceReadingException {
+        final TrackTileCache.CachedTrack<Sequence> track = referenceSecurityService
+                .getCachedNucleotides(convertToTrack(query));
+        return checkNotModified(track.getETag(), ifNoneMatch, response) ? null : Result.success(track.getTrack());
     }
 
     @RequestMapping(value = "/reference/{referenceId}/search", method = RequestMethod.GET)
@@ -234,9 +239,8 @@ public class ReferenceController extends AbstractRESTController {
                                                 @RequestBody final GeneExportFilterForm geneFilterForm,
                                                 final HttpServletResponse response)
             throws IOException {
-        byte[] bytes = featureIndexSecurityService.exportFeaturesByReference(geneFilterForm, referenceId,
-                format, includeHeader);
-        response.getOutputStream().write(bytes);
+        featureIndexSecurityService.exportFeaturesByReference(geneFilterForm, referenceId,
+                format, includeHeader, response.getOutputStream());
         response.flushBuffer();
     }
 
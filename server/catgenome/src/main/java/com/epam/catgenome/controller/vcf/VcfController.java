@@ -32,13 +32,18 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.concurrent.Callable;
 
+import javax.servlet.http.HttpServletResponse;
+
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.manager.vcf.VcfSecurityService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -148,15 +153,20 @@ public class VcfController extends AbstractRESTController {
             })
     public Callable<Result<Track<Variation>>> loadTrack(@RequestBody final VcfTrackQuery trackQuery,
                                               @RequestParam(required = false) final String fileUrl,
-                                              @RequestParam(required = false) final String indexUrl)
+                                              @RequestParam(required = false) final String indexUrl,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                              final String ifNoneMatch,
+                                              final HttpServletResponse response)
         throws VcfReadingException {
         return () -> {
             final Track<Variation> variationTrack = convertToTrack(trackQuery);
             final boolean collapsed = trackQuery.getCollapsed() == null || trackQuery.getCollapsed();
 
             if (fileUrl == null) {
-                return Result.success(vcfSecurityService
-                        .loadVariations(variationTrack, trackQuery.getSampleId(), loadInfoForTrack, collapsed));
+                final TrackTileCache.CachedTrack<Variation> cached = vcfSecurityService
+                        .loadCachedVariations(variationTrack, trackQuery.getSampleId(), loadInfoForTrack, collapsed);
+                return checkNotModified(cached.getETag(), ifNoneMatch, response) ? null
+                        : Result.success(cached.getTrack());
             } else {
                 return Result.success(vcfSecurityService.loadVariations(variationTrack, fileUrl, indexUrl,
                         trackQuery.getSampleId() != null ?
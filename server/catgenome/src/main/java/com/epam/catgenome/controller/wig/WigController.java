@@ -30,12 +30,17 @@ import static com.epam.catgenome.controller.vo.Query2TrackConverter.convertToTra
 import java.io.IOException;
 import java.util.concurrent.Callable;
 
+import javax.servlet.http.HttpServletResponse;
+
 import com.epam.catgenome.controller.vo.registration.IndexedFileRegistrationRequest;
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.manager.wig.WigSecurityService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -105,9 +110,12 @@ public class WigController extends AbstractRESTController {
     @ApiResponses(
             value = {@ApiResponse(code = HTTP_STATUS_OK, message = API_STATUS_DESCRIPTION)
             })
-    public final Callable<Result<Track<Wig>>> loadTrack(@RequestBody final TrackQuery query) throws IOException {
-        final Track<Wig> track = wigSecurityService.getWigTrack(convertToTrack(query));
-        return () ->  Result.success(track);
+    public final Callable<Result<Track<Wig>>> loadTrack(@RequestBody final TrackQuery query,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+            final HttpServletResponse response) throws IOException {
+        final TrackTileCache.CachedTrack<Wig> track = wigSecurityService.getCachedWigTrack(convertToTrack(query));
+        return () -> checkNotModified(track.getETag(), ifNoneMatch, response) ? null
+                : Result.success(track.getTrack());
     }
 
 
@@ -25,6 +25,8 @@
 package com.epam.catgenome.dao;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
@@ -48,6 +50,9 @@ import org.springframework.util.Assert;
  * <p>
  * {@code DaoHelper} is designed to keep different DAO activities shared between different
  * DAOs oriented to deal with certain business entity.
+ * <p>
+ * Identifiers of sequences with a configured block size greater than one are reserved by blocks:
+ * a single query reserves a range of sequence values, that are then handed out from memory.
  */
 public class DaoHelper extends NamedParameterJdbcDaoSupport {
 
@@ -60,6 +65,14 @@ public class DaoHelper extends NamedParameterJdbcDaoSupport {
 
     private String createIdsQuery;
 
+    private String reserveIdsQuery;
+
+    private int defaultIdBlockSize = 1;
+
+    private Map<String, Integer> idBlockSizes = Collections.emptyMap();
+
+    private final ConcurrentMap<String, IdBlock> idBlocks = new ConcurrentHashMap<>();
+
     @Required
     public void setCreateIdQuery(final String createIdQuery) {
         this.createIdQuery = createIdQuery;
@@ -77,6 +90,10 @@ public class DaoHelper extends NamedParameterJdbcDaoSupport {
     @Transactional(propagation = Propagation.MANDATORY)
     public Long createId(final String sequenceName) {
         Assert.isTrue(StringUtils.isNotBlank(sequenceName));
+        final IdBlock block = getIdBlock(sequenceName);
+        if (block != null) {
+            return block.take(1).get(0);
+        }
         return getNamedParameterJdbcTemplate().queryForObject(createIdQuery,
             new MapSqlParameterSource(HelperParameters.SEQUENCE_NAME.name(), sequenceName), Long.class);
     }
@@ -118,6 +135,10 @@ public class DaoHelper extends NamedParameterJdbcDaoSupport {
         if (count == 0) {
             return Collections.emptyList();
         }
+        final IdBlock block = getIdBlock(sequenceName);
+        if (block != null) {
+            return block.take(count);
+        }
         // creates a new temporary list: list.size() == count
         final List<String> rows = LongStream.range(0L, count).mapToObj(l -> "(" + l + ") ")
             .collect(Collectors.toList());
@@ -128,6 +149,48 @@ public class DaoHelper extends NamedParameterJdbcDaoSupport {
         return getNamedParameterJdbcTemplate().queryForList(query, params, Long.class);
     }
 
+    @Required
+    public void setReserveIdsQuery(final String reserveIdsQuery) {
+        this.reserveIdsQuery = reserveIdsQuery;
+    }
+
+    /**
+     * Sets a number of identifiers, reserved at once, for sequences without an explicit block size
+     * @param defaultIdBlockSize block size, 1 means that identifiers are requested one by one
+     */
+    public void setDefaultIdBlockSize(final int defaultIdBlockSize) {
+        this.defaultIdBlockSize = defaultIdBlockSize;
+    }
+
+    /**
+     * Sets numbers of identifiers, reserved at once, for specific sequences
+     * @param idBlockSizes block sizes by full-qualified sequence names
+     */
+    public void setIdBlockSizes(final Map<String, Integer> idBlockSizes) {
+        this.idBlockSizes = idBlockSizes;
+    }
+
+    private IdBlock getIdBlock(final String sequenceName) {
+        final String name = sequenceName.trim();
+        final int blockSize = idBlockSizes.getOrDefault(name, defaultIdBlockSize);
+        if (blockSize <= 1) {
+            return null;
+        }
+        return idBlocks.computeIfAbsent(name, key -> new IdBlock(key, blockSize));
+    }
+
+    /**
+     * Reserves a number of next values of a sequence by a single query
+     */
+    private List<Long> reserveIds(final String sequenceName, final int count) {
+        final MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue(HelperParameters.SEQUENCE_NAME.name(), sequenceName);
+        params.addValue(HelperParameters.COUNT.name(), count);
+        final List<Long> ids = getNamedParameterJdbcTemplate().queryForList(reserveIdsQuery, params, Long.class);
+        Collections.sort(ids);
+        return ids;
+    }
+
     /**
      * Escapes underscore '_' symbol with backslash
      * @param query from LIKE clause
@@ -152,7 +215,34 @@ public class DaoHelper extends NamedParameterJdbcDaoSupport {
     enum HelperParameters {
         LIST_ID,
         LIST_VALUE,
-        SEQUENCE_NAME
+        SEQUENCE_NAME,
+        COUNT
+    }
+
+    /**
+     * Reserved, but not yet used values of a sequence. Sequence values are not transactional, so reserved
+     * identifiers stay valid if a transaction, that has reserved them, is rolled back.
+     */
+    private final class IdBlock {
+        private final String sequenceName;
+        private final int blockSize;
+        private final Deque<Long> ids = new ArrayDeque<>();
+
+        private IdBlock(final String sequenceName, final int blockSize) {
+            this.sequenceName = sequenceName;
+            this.blockSize = blockSize;
+        }
+
+        private synchronized List<Long> take(final int count) {
+            if (ids.size() < count) {
+                ids.addAll(reserveIds(sequenceName, Math.max(blockSize, count - ids.size())));
+            }
+            final List<Long> taken = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                taken.add(ids.poll());
+            }
+            return taken;
+        }
     }
 
 }
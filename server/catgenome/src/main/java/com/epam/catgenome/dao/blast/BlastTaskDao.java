@@ -96,6 +96,17 @@ public class BlastTaskDao extends NamedParameterJdbcDaoSupport {
         getNamedParameterJdbcTemplate().update(updateTaskStatusQuery, TaskParameters.getParameters(blastTask));
     }
 
+    /**
+     * Updates statuses of several {@code Task} instances with a single batch update
+     * @param blastTasks to update
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updateTasks(final List<BlastTask> blastTasks) {
+        getNamedParameterJdbcTemplate().batchUpdate(updateTaskStatusQuery, blastTasks.stream()
+                .map(TaskParameters::getParameters)
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
     /**
      * Loads a {@code Task} instance from the database specified by it's ID
      * @param id of the task
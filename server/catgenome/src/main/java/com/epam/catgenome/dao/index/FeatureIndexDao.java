@@ -102,7 +102,6 @@ import org.apache.lucene.search.SortedSetSortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.SimpleFSDirectory;
 import org.apache.lucene.util.BytesRef;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -113,6 +112,9 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -146,6 +148,9 @@ public class FeatureIndexDao {
     @Autowired
     private FileManager fileManager;
 
+    @Autowired
+    private FeatureIndexReaderPool featureIndexReaderPool;
+
     @Autowired
     private BookmarkManager bookmarkManager;
 
@@ -313,9 +318,7 @@ public class FeatureIndexDao {
         if (indexedFiles.isEmpty()) {
             return new IndexSearchResult<>(Collections.emptyList(), false, 0);
         }
-        SimpleFSDirectory[] indexes = fileManager.getIndexesForFiles(files);
-
-        try (MultiReader reader = openMultiReader(indexes)) {
+        try (MultiReader reader = openMultiReader(files)) {
             if (reader.numDocs() == 0) {
                 return new IndexSearchResult<>(Collections.emptyList(), false, 0);
             }
@@ -359,11 +362,6 @@ public class FeatureIndexDao {
 
             return searchFileIndexes(files, mainBuilder.build(), null,
                     reader.numDocs(), null);
-
-        } finally {
-            for (SimpleFSDirectory index : indexes) {
-                IOUtils.closeQuietly(index);
-            }
         }
     }
 
@@ -478,15 +476,12 @@ public class FeatureIndexDao {
         final Set<String> availableFields = new HashSet<>();
         final Set<String> mainFields = Arrays.stream(FeatureIndexFields.values())
                 .map(FeatureIndexFields::getFieldName).collect(Collectors.toSet());
-        try {
-            for (SimpleFSDirectory file : fileManager.getIndexesForFiles(files)) {
-                DirectoryReader reader = DirectoryReader.open(file);
-                for (LeafReaderContext subReader : reader.leaves()) {
-                    Fields fields = subReader.reader().fields();
-                    for (String field : fields) {
-                        if (!mainFields.contains(field)) {
-                            availableFields.add(field);
-                        }
+        try (MultiReader reader = openMultiReader(files)) {
+            for (LeafReaderContext subReader : reader.leaves()) {
+                Fields fields = subReader.reader().fields();
+                for (String field : fields) {
+                    if (!mainFields.contains(field)) {
+                        availableFields.add(field);
                     }
                 }
             }
@@ -500,18 +495,15 @@ public class FeatureIndexDao {
     public Set<String> getAvailableFieldValues(final List<? extends FeatureFile> files, final String fieldName) {
         final Set<String> termValues = new HashSet<>();
         int i = 0;
-        try {
-            for (SimpleFSDirectory file : fileManager.getIndexesForFiles(files)) {
-                DirectoryReader reader = DirectoryReader.open(file);
-                for (LeafReaderContext subReader : reader.leaves()) {
-                    Terms terms = subReader.reader().terms(fieldName);
-                    TermsEnum termsEnum = terms.iterator();
-                    BytesRef byteRef = termsEnum.next();
-                    while (byteRef != null && i < luceneRequestMaxValues) {
-                        termValues.add(byteRef.utf8ToString().toLowerCase(Locale.ROOT));
-                        byteRef = termsEnum.next();
-                        i++;
-                    }
+        try (MultiReader reader = openMultiReader(files)) {
+            for (LeafReaderContext subReader : reader.leaves()) {
+                Terms terms = subReader.reader().terms(fieldName);
+                TermsEnum termsEnum = terms.iterator();
+                BytesRef byteRef = termsEnum.next();
+                while (byteRef != null && i < luceneRequestMaxValues) {
+                    termValues.add(byteRef.utf8ToString().toLowerCase(Locale.ROOT));
+                    byteRef = termsEnum.next();
+                    i++;
                 }
             }
         } catch (IOException e) {
@@ -542,9 +534,7 @@ public class FeatureIndexDao {
 
         Map<Integer, FeatureIndexEntry> entryMap = new LinkedHashMap<>();
 
-        SimpleFSDirectory[] indexes = fileManager.getIndexesForFiles(files);
-
-        try (MultiReader reader = openMultiReader(indexes)) {
+        try (MultiReader reader = openMultiReader(files)) {
             if (reader.numDocs() == 0) {
                 return new IndexSearchResult<>(Collections.emptyList(), false, 0);
             }
@@ -564,10 +554,6 @@ public class FeatureIndexDao {
             return new IndexSearchResult<>(new ArrayList<T>((Collection<? extends T>) entryMap.values()),
                                            maxResultsCount != null &&
                                            totalHits > maxResultsCount, totalHits);
-        } finally {
-            for (SimpleFSDirectory index : indexes) {
-                IOUtils.closeQuietly(index);
-            }
         }
     }
 
@@ -582,8 +568,7 @@ public class FeatureIndexDao {
     public GeneIndexEntry searchGeneFeatureByUid(final GeneFile featureFile, final String uid)
             throws IOException {
         final Term uidTerm = new Term(FeatureIndexFields.UID.getFieldName(), uid);
-        final SimpleFSDirectory[] indexes = fileManager.getIndexesForFiles(Collections.singletonList(featureFile));
-        try (MultiReader reader = openMultiReader(indexes)) {
+        try (MultiReader reader = openMultiReader(Collections.singletonList(featureFile))) {
             if (reader.numDocs() == 0) {
                 return null;
             }
@@ -594,10 +579,6 @@ public class FeatureIndexDao {
             final Document document = searcher.doc(docId);
 
             return buildGeneIndexEntry(documentCreator, document);
-        } finally {
-            for (SimpleFSDirectory index : indexes) {
-                IOUtils.closeQuietly(index);
-            }
         }
     }
 
@@ -615,10 +596,10 @@ public class FeatureIndexDao {
             throws IOException {
         final Term uidTerm = new Term(FeatureIndexFields.UID.getFieldName(), uid);
         final GeneHighLevel newGeneContent = prepareGeneContentForDocument(geneContent);
-        final SimpleFSDirectory index = fileManager.createIndexForFile(featureFile);
+        final Directory index = fileManager.createIndexForFile(featureFile);
         final GeneIndexEntry oldEntry;
         try (StandardAnalyzer analyzer = new StandardAnalyzer();
-             MultiReader reader = openMultiReader(new SimpleFSDirectory[] {index});
+             MultiReader reader = openMultiReader(Collections.singletonList(featureFile));
              IndexWriter writer = new IndexWriter(index, new IndexWriterConfig(analyzer)
                      .setOpenMode(IndexWriterConfig.OpenMode.APPEND))) {
             if (reader.numDocs() == 0) {
@@ -657,13 +638,12 @@ public class FeatureIndexDao {
             return 0;
         }
 
-        SimpleFSDirectory[] indexes = fileManager.getIndexesForFiles(files);
-        long totalIndexSize = getTotalIndexSize(indexes);
+        long totalIndexSize = getTotalIndexSize(files);
         if (totalIndexSize > luceneIndexMaxSizeForGrouping) {
             return 0;
         }
 
-        try (MultiReader reader = openMultiReader(indexes)) {
+        try (MultiReader reader = openMultiReader(files)) {
             if (reader.numDocs() == 0) {
                 return 0;
             }
@@ -680,10 +660,6 @@ public class FeatureIndexDao {
             }
 
             return res.childCount;
-        } finally {
-            for (SimpleFSDirectory index : indexes) {
-                IOUtils.closeQuietly(index);
-            }
         }
     }
 
@@ -806,13 +782,12 @@ public class FeatureIndexDao {
             return Collections.emptyList();
         }
 
-        SimpleFSDirectory[] indexes = fileManager.getIndexesForFiles(files);
-        long totalIndexSize = getTotalIndexSize(indexes);
+        long totalIndexSize = getTotalIndexSize(files);
         if (totalIndexSize > luceneIndexMaxSizeForGrouping) {
             throw new IllegalArgumentException(getMessage(MessagesConstants.ERROR_FEATURE_INEDX_TOO_LARGE));
         }
 
-        try (MultiReader reader = openMultiReader(indexes)) {
+        try (MultiReader reader = openMultiReader(files)) {
             if (reader.numDocs() == 0) {
                 return Collections.emptyList();
             }
@@ -831,31 +806,25 @@ public class FeatureIndexDao {
                 LabelAndValue lv = result.labelValues[i];
                 res.add(new Group(lv.label, lv.value.intValue()));
             }
-        } finally {
-            for (SimpleFSDirectory index : indexes) {
-                IOUtils.closeQuietly(index);
-            }
         }
 
         return res;
     }
 
-    public long getTotalIndexSize(SimpleFSDirectory[] indexes) throws IOException {
+    public long getTotalIndexSize(List<? extends FeatureFile> files) throws IOException {
         long totalIndexSize = 0;
-        for (SimpleFSDirectory index : indexes) {
+        for (Path index : fileManager.getIndexPathsForFiles(files)) {
             totalIndexSize += getTotalIndexSize(index);
         }
         return totalIndexSize;
     }
 
-    private long getTotalIndexSize(Directory index) throws IOException {
+    private long getTotalIndexSize(Path index) throws IOException {
         long totalFileSize = 0L;
-        String[] files = index.listAll();
-        if (files == null) {
-            return 0;
-        }
-        for (int i = 0; i < files.length; i++) {
-            totalFileSize += index.fileLength(files[i]);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(index, Files::isRegularFile)) {
+            for (Path file : files) {
+                totalFileSize += Files.size(file);
+            }
         }
         return totalFileSize;
     }
@@ -885,13 +854,16 @@ public class FeatureIndexDao {
         }
     }
 
-    public MultiReader openMultiReader(SimpleFSDirectory[] indexes) throws IOException {
-        IndexReader[] readers = new IndexReader[indexes.length];
-        for (int i = 0; i < indexes.length; i++) {
-            readers[i] = DirectoryReader.open(indexes[i]);
-        }
-
-        return new MultiReader(readers, true);
+    /**
+     * Opens a reader over feature indexes of specified files. Readers are taken from
+     * {@link FeatureIndexReaderPool}, so the returned reader should always be closed by a caller.
+     *
+     * @param files a {@link List} of {@link FeatureFile}, which indexes to open
+     * @return a {@link MultiReader} over existing indexes of the files
+     * @throws IOException if something goes wrong with the file system
+     */
+    public MultiReader openMultiReader(List<? extends FeatureFile> files) throws IOException {
+        return featureIndexReaderPool.acquire(fileManager.getIndexPathsForFiles(files));
     }
 
 
@@ -954,9 +926,7 @@ public class FeatureIndexDao {
 
         List<Long> chromosomeIds = new ArrayList<>();
 
-        SimpleFSDirectory[] indexes = fileManager.getIndexesForFiles(files);
-
-        try (MultiReader reader = openMultiReader(indexes)) {
+        try (MultiReader reader = openMultiReader(files)) {
             if (reader.numDocs() == 0) {
                 return Collections.emptyList();
             }
@@ -975,8 +945,6 @@ public class FeatureIndexDao {
             for (LabelAndValue labelAndValue : res.labelValues) {
                 chromosomeIds.add(Long.parseLong(labelAndValue.label));
             }
-        } finally {
-            closeIndexes(indexes);
         }
 
         return chromosomeIds;
@@ -986,12 +954,6 @@ public class FeatureIndexDao {
         return luceneIndexMaxSizeForGrouping;
     }
 
-    private void closeIndexes(SimpleFSDirectory[] indexes) {
-        for (SimpleFSDirectory index : indexes) {
-            IOUtils.closeQuietly(index);
-        }
-    }
-
     public Set<String> searchGenesInVcfFiles(String gene, List<VcfFile> vcfFiles) throws IOException {
         if (CollectionUtils.isEmpty(vcfFiles)) {
             return Collections.emptySet();
@@ -1012,9 +974,7 @@ public class FeatureIndexDao {
 
         Set<String> geneIds = new HashSet<>();
 
-        SimpleFSDirectory[] indexes = fileManager.getIndexesForFiles(vcfFiles);
-
-        try (MultiReader reader = openMultiReader(indexes)) {
+        try (MultiReader reader = openMultiReader(vcfFiles)) {
             if (reader.numDocs() == 0) {
                 return Collections.emptySet();
             }
@@ -0,0 +1,235 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.dao.index;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.index.ReaderManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps Lucene readers of feature file indexes open between requests.
+ * <p>
+ * Each feature index directory is opened once with {@link FSDirectory#open(Path)} (MMap or NIO implementation,
+ * depending on platform) and is served by a {@link ReaderManager}, that is refreshed on each acquisition, so
+ * that newly written segments become visible without reopening the whole index. Readers are handed out
+ * wrapped into a {@link MultiReader}, that holds a reference to each pooled {@link DirectoryReader}: closing
+ * it releases the references, but doesn't close shared segment readers.
+ * </p>
+ * <p>
+ * Entries are keyed by an index directory path, since feature files of different formats may share IDs.
+ * The pool is bounded, the least recently used entries are closed when the limit is exceeded.
+ * </p>
+ */
+@Component
+public class FeatureIndexReaderPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeatureIndexReaderPool.class);
+
+    @Value("${lucene.reader.pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${lucene.reader.pool.max.size:200}")
+    private int maxSize;
+
+    private final Map<Path, PooledIndex> pool = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Returns a {@link MultiReader} over the up-to-date readers of specified index directories. The returned
+     * reader should be closed by a caller to release pooled readers.
+     *
+     * @param indexes paths of Lucene index directories
+     * @return a {@link MultiReader} over specified indexes
+     * @throws IOException if an index can't be opened
+     */
+    public MultiReader acquire(final Collection<Path> indexes) throws IOException {
+        if (!enabled) {
+            return openUnpooled(indexes);
+        }
+
+        final List<PooledIndex> acquired = new ArrayList<>(indexes.size());
+        final IndexReader[] readers = new IndexReader[indexes.size()];
+        try {
+            for (Path path : indexes) {
+                final PooledIndex index = acquireIndex(path, readers, acquired.size());
+                acquired.add(index);
+            }
+            // MultiReader increments references of the sub readers, that are not closed by it
+            return new MultiReader(readers, false);
+        } finally {
+            for (int i = 0; i < acquired.size(); i++) {
+                acquired.get(i).release((DirectoryReader) readers[i]);
+            }
+        }
+    }
+
+    /**
+     * Closes pooled readers of an index directory. Should be called before the directory is deleted or
+     * rewritten from scratch. Readers that are in use stay valid until they are closed by their owners.
+     *
+     * @param path a path of a Lucene index directory
+     */
+    public void evict(final Path path) {
+        final PooledIndex index;
+        synchronized (pool) {
+            index = pool.remove(path.toAbsolutePath());
+        }
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        final List<PooledIndex> indexes;
+        synchronized (pool) {
+            indexes = new ArrayList<>(pool.values());
+            pool.clear();
+        }
+        indexes.forEach(PooledIndex::close);
+    }
+
+    private PooledIndex acquireIndex(final Path path, final IndexReader[] readers, final int position)
+            throws IOException {
+        final PooledIndex index = getOrOpen(path.toAbsolutePath());
+        try {
+            index.refresh();
+            readers[position] = index.acquire();
+            return index;
+        } catch (IOException | IllegalStateException e) {
+            // index was deleted or recreated outside of the pool, reopen it from scratch
+            LOGGER.debug("Failed to refresh index reader for {}, reopening", path, e);
+            evict(path);
+            final PooledIndex reopened = getOrOpen(path.toAbsolutePath());
+            readers[position] = reopened.acquire();
+            return reopened;
+        }
+    }
+
+    private PooledIndex getOrOpen(final Path path) throws IOException {
+        final List<PooledIndex> expired = new ArrayList<>();
+        try {
+            synchronized (pool) {
+                PooledIndex index = pool.get(path);
+                if (index == null) {
+                    index = new PooledIndex(path);
+                    pool.put(path, index);
+                    final Iterator<PooledIndex> iterator = pool.values().iterator();
+                    while (pool.size() > maxSize && iterator.hasNext()) {
+                        expired.add(iterator.next());
+                        iterator.remove();
+                    }
+                }
+                return index;
+            }
+        } finally {
+            expired.forEach(PooledIndex::close);
+        }
+    }
+
+    private MultiReader openUnpooled(final Collection<Path> indexes) throws IOException {
+        final List<IndexReader> readers = new ArrayList<>(indexes.size());
+        try {
+            for (Path path : indexes) {
+                readers.add(openDirectoryReader(FSDirectory.open(path)));
+            }
+            return new MultiReader(readers.toArray(new IndexReader[readers.size()]), true);
+        } catch (IOException e) {
+            readers.forEach(IOUtils::closeQuietly);
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a {@link DirectoryReader}, that closes it's {@link Directory} on close
+     */
+    private static DirectoryReader openDirectoryReader(final Directory directory) throws IOException {
+        final DirectoryReader reader;
+        try {
+            reader = DirectoryReader.open(directory);
+        } catch (IOException e) {
+            IOUtils.closeQuietly(directory);
+            throw e;
+        }
+        reader.addReaderClosedListener(r -> IOUtils.closeQuietly(directory));
+        return reader;
+    }
+
+    /**
+     * Pooled {@link ReaderManager} together with the {@link Directory} it works on
+     */
+    private static final class PooledIndex {
+        private final Directory directory;
+        private final ReaderManager manager;
+
+        private PooledIndex(final Path path) throws IOException {
+            this.directory = FSDirectory.open(path);
+            try {
+                this.manager = new ReaderManager(directory);
+            } catch (IOException e) {
+                IOUtils.closeQuietly(directory);
+                throw e;
+            }
+        }
+
+        private void refresh() throws IOException {
+            manager.maybeRefresh();
+        }
+
+        private DirectoryReader acquire() throws IOException {
+            return manager.acquire();
+        }
+
+        private void release(final DirectoryReader reader) {
+            try {
+                manager.release(reader);
+            } catch (IOException e) {
+                LOGGER.error("Failed to release index reader", e);
+            }
+        }
+
+        private void close() {
+            IOUtils.closeQuietly(manager);
+            IOUtils.closeQuietly(directory);
+        }
+    }
+}
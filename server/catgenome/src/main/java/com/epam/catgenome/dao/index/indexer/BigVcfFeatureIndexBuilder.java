@@ -50,6 +50,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.facet.FacetsConfig;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LogByteSizeMergePolicy;
 import org.apache.lucene.store.Directory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,7 +63,7 @@ public class BigVcfFeatureIndexBuilder extends VcfFeatureIndexBuilder {
     private static final Logger LOGGER = LoggerFactory.getLogger(BigVcfFeatureIndexBuilder.class);
 
     private IndexWriter writer;
-    private StandardAnalyzer analyzer;
+    private boolean ownsWriter;
     private List<GeneFile> geneFiles;
     private AbstractDocumentBuilder creator;
     private FacetsConfig facetsConfig;
@@ -71,17 +72,43 @@ public class BigVcfFeatureIndexBuilder extends VcfFeatureIndexBuilder {
     public BigVcfFeatureIndexBuilder(VcfFilterInfo filterInfo, VCFHeader vcfHeader,
             FeatureIndexDao featureIndexDao, VcfFile featureFile,
             FileManager fileManager, List<GeneFile> geneFiles, Integer indexBufferSize) throws IOException {
+        this(filterInfo, vcfHeader, featureIndexDao, featureFile, createWriter(fileManager, featureFile,
+                indexBufferSize), geneFiles);
+        this.ownsWriter = true;
+    }
+
+    /**
+     * Creates a builder, that adds documents to a given {@link IndexWriter}, the writer isn't closed by the
+     * builder.
+     */
+    public BigVcfFeatureIndexBuilder(VcfFilterInfo filterInfo, VCFHeader vcfHeader,
+            FeatureIndexDao featureIndexDao, VcfFile featureFile, IndexWriter writer, List<GeneFile> geneFiles) {
         super(filterInfo, vcfHeader, featureIndexDao);
-        this.analyzer = new StandardAnalyzer();
-        Directory index = fileManager.createIndexForFile(featureFile);
-        this.writer = new IndexWriter(index, new IndexWriterConfig(analyzer).setOpenMode(
-                IndexWriterConfig.OpenMode.CREATE_OR_APPEND).setRAMBufferSizeMB(indexBufferSize));
+        this.writer = writer;
         this.geneFiles = geneFiles;
         this.creator = new BigVcfDocumentBuilder();
         this.facetsConfig = creator.createFacetsConfig(filterInfo);
         this.vcfFile = featureFile;
     }
 
+    /**
+     * Opens an {@link IndexWriter} for a VCF file feature index
+     */
+    public static IndexWriter createWriter(FileManager fileManager, VcfFile featureFile, Integer indexBufferSize)
+            throws IOException {
+        return createWriter(fileManager.createIndexForFile(featureFile), indexBufferSize);
+    }
+
+    /**
+     * Opens an {@link IndexWriter} for a VCF feature index in a directory. Only adjacent segments are merged,
+     * so documents keep the order, they were added in, and unsorted searches return variations in file order.
+     */
+    public static IndexWriter createWriter(Directory index, double indexBufferSize) throws IOException {
+        return new IndexWriter(index, new IndexWriterConfig(new StandardAnalyzer()).setOpenMode(
+                IndexWriterConfig.OpenMode.CREATE_OR_APPEND).setRAMBufferSizeMB(indexBufferSize)
+                .setMergePolicy(new LogByteSizeMergePolicy()));
+    }
+
     @Override
     protected List<VcfIndexEntry> simplify(VcfIndexEntry indexEntry, Set<VariationGeneInfo> geneIds,
             String geneIdsString, String geneNamesString, Set<VariationType> types) {
@@ -146,6 +173,9 @@ public class BigVcfFeatureIndexBuilder extends VcfFeatureIndexBuilder {
     }
 
     public void close() {
+        if (!ownsWriter) {
+            return;
+        }
         try {
             this.writer.close();
         } catch (IOException e) {
@@ -0,0 +1,259 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.dao.index.indexer;
+
+import com.epam.catgenome.dao.index.FeatureIndexDao;
+import com.epam.catgenome.entity.gene.GeneFile;
+import com.epam.catgenome.entity.index.FeatureIndexEntry;
+import com.epam.catgenome.entity.index.FeatureType;
+import com.epam.catgenome.entity.reference.Chromosome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * An immutable index of gene and exon intervals of a single chromosome, that is used to annotate variations
+ * while a VCF file is indexed. Intervals are stored in primitive arrays sorted by start index, each array
+ * is augmented with a running maximum of end indexes, so that a point lookup is a binary search followed
+ * by a backward scan, that stops as soon as no preceding interval can reach the point. Lookups don't
+ * allocate and the index may be shared between threads.
+ */
+final class GeneIntervalIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeneIntervalIndex.class);
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INDEX_BITS = 32;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    private final Long chromosomeId;
+    private final Intervals genes;
+    private final String[] geneIds;
+    private final String[] geneNames;
+    private final Intervals exons;
+
+    private GeneIntervalIndex(Long chromosomeId, Intervals genes, String[] geneIds, String[] geneNames,
+                              Intervals exons) {
+        this.chromosomeId = chromosomeId;
+        this.genes = genes;
+        this.geneIds = geneIds;
+        this.geneNames = geneNames;
+        this.exons = exons;
+    }
+
+    /**
+     * Loads all genes and exons of a chromosome from a feature index of a gene file with a single search
+     * @param featureIndexDao a DAO to search a gene file feature index
+     * @param geneFile a gene file to load intervals from
+     * @param chromosome a chromosome to load intervals for
+     * @return an index of gene and exon intervals, it is empty if the gene file index can't be read
+     */
+    static GeneIntervalIndex load(FeatureIndexDao featureIndexDao, GeneFile geneFile, Chromosome chromosome) {
+        final Builder builder = new Builder(chromosome.getId());
+        try {
+            for (FeatureIndexEntry entry : featureIndexDao.searchFeaturesInInterval(
+                    Collections.singletonList(geneFile), 0, chromosome.getSize(), chromosome).getEntries()) {
+                if (entry.getFeatureType() == FeatureType.GENE) {
+                    builder.addGene(entry.getStartIndex(), entry.getEndIndex(), entry.getFeatureId(),
+                            entry.getFeatureName() == null ? null : entry.getFeatureName().toUpperCase());
+                } else if (entry.getFeatureType() == FeatureType.EXON) {
+                    builder.addExon(entry.getStartIndex(), entry.getEndIndex());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return ID of a chromosome, that intervals belong to
+     */
+    Long getChromosomeId() {
+        return chromosomeId;
+    }
+
+    /**
+     * Checks if any exon covers a position
+     * @param position a position on the chromosome
+     * @return true if the position lies within an exon, bounds inclusive
+     */
+    boolean overlapsExon(int position) {
+        for (int i = exons.lastStartingBefore(position); i >= 0 && exons.maxEnds[i] >= position; i--) {
+            if (exons.ends[i] >= position) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes ID and name of each gene, that covers a position, to a consumer
+     * @param position a position on the chromosome
+     * @param consumer receives genes, bounds inclusive
+     */
+    void forEachGene(int position, GeneConsumer consumer) {
+        for (int i = genes.lastStartingBefore(position); i >= 0 && genes.maxEnds[i] >= position; i--) {
+            if (genes.ends[i] >= position) {
+                consumer.accept(geneIds[i], geneNames[i]);
+            }
+        }
+    }
+
+    /**
+     * @return number of indexed gene intervals
+     */
+    int geneCount() {
+        return geneIds.length;
+    }
+
+    /**
+     * @return number of indexed exon intervals
+     */
+    int exonCount() {
+        return exons.starts.length;
+    }
+
+    @FunctionalInterface
+    interface GeneConsumer {
+        void accept(String geneId, String geneName);
+    }
+
+    /**
+     * Collects intervals in any order, sorts them once on {@link #build()}
+     */
+    static final class Builder {
+        private final Long chromosomeId;
+        private int[] geneStarts = new int[INITIAL_CAPACITY];
+        private int[] geneEnds = new int[INITIAL_CAPACITY];
+        private String[] geneIds = new String[INITIAL_CAPACITY];
+        private String[] geneNames = new String[INITIAL_CAPACITY];
+        private int geneCount;
+        private int[] exonStarts = new int[INITIAL_CAPACITY];
+        private int[] exonEnds = new int[INITIAL_CAPACITY];
+        private int exonCount;
+
+        Builder(Long chromosomeId) {
+            this.chromosomeId = chromosomeId;
+        }
+
+        Builder addGene(int start, int end, String geneId, String geneName) {
+            if (geneCount == geneStarts.length) {
+                final int capacity = geneCount * 2;
+                geneStarts = Arrays.copyOf(geneStarts, capacity);
+                geneEnds = Arrays.copyOf(geneEnds, capacity);
+                geneIds = Arrays.copyOf(geneIds, capacity);
+                geneNames = Arrays.copyOf(geneNames, capacity);
+            }
+            geneStarts[geneCount] = start;
+            geneEnds[geneCount] = end;
+            geneIds[geneCount] = geneId;
+            geneNames[geneCount] = geneName;
+            geneCount++;
+            return this;
+        }
+
+        Builder addExon(int start, int end) {
+            if (exonCount == exonStarts.length) {
+                final int capacity = exonCount * 2;
+                exonStarts = Arrays.copyOf(exonStarts, capacity);
+                exonEnds = Arrays.copyOf(exonEnds, capacity);
+            }
+            exonStarts[exonCount] = start;
+            exonEnds[exonCount] = end;
+            exonCount++;
+            return this;
+        }
+
+        GeneIntervalIndex build() {
+            final int[] geneOrder = sortByStart(geneStarts, geneCount);
+            final String[] sortedIds = new String[geneCount];
+            final String[] sortedNames = new String[geneCount];
+            for (int i = 0; i < geneCount; i++) {
+                sortedIds[i] = geneIds[geneOrder[i]];
+                sortedNames[i] = geneNames[geneOrder[i]];
+            }
+            return new GeneIntervalIndex(chromosomeId,
+                    new Intervals(geneStarts, geneEnds, geneOrder), sortedIds, sortedNames,
+                    new Intervals(exonStarts, exonEnds, sortByStart(exonStarts, exonCount)));
+        }
+
+        /**
+         * Returns positions of the first count intervals ordered by start index, ties keep insertion order
+         */
+        private static int[] sortByStart(int[] starts, int count) {
+            final long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = ((long) starts[i] << INDEX_BITS) | i;
+            }
+            Arrays.sort(keys);
+            final int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = (int) (keys[i] & INDEX_MASK);
+            }
+            return order;
+        }
+    }
+
+    /**
+     * Intervals sorted by start index together with a running maximum of their end indexes
+     */
+    private static final class Intervals {
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] maxEnds;
+
+        private Intervals(int[] unsortedStarts, int[] unsortedEnds, int[] order) {
+            starts = new int[order.length];
+            ends = new int[order.length];
+            maxEnds = new int[order.length];
+            int maxEnd = Integer.MIN_VALUE;
+            for (int i = 0; i < order.length; i++) {
+                starts[i] = unsortedStarts[order[i]];
+                ends[i] = unsortedEnds[order[i]];
+                maxEnd = Math.max(maxEnd, ends[i]);
+                maxEnds[i] = maxEnd;
+            }
+        }
+
+        /**
+         * @return position of the last interval, that starts at or before a position, -1 if there is none
+         */
+        private int lastStartingBefore(int position) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (starts[mid] <= position) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+    }
+}
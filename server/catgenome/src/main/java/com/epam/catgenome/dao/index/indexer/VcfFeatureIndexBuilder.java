@@ -27,11 +27,9 @@ package com.epam.catgenome.dao.index.indexer;
 import com.epam.catgenome.component.MessageHelper;
 import com.epam.catgenome.constant.MessagesConstants;
 import com.epam.catgenome.dao.index.FeatureIndexDao;
-import com.epam.catgenome.entity.gene.Gene;
 import com.epam.catgenome.entity.gene.GeneFile;
 import com.epam.catgenome.entity.index.FeatureIndexEntry;
 import com.epam.catgenome.entity.index.FeatureType;
-import com.epam.catgenome.entity.index.IndexSearchResult;
 import com.epam.catgenome.entity.index.VcfIndexEntry;
 import com.epam.catgenome.entity.reference.Chromosome;
 import com.epam.catgenome.entity.vcf.InfoItem;
@@ -39,12 +37,9 @@ import com.epam.catgenome.entity.vcf.OrganismType;
 import com.epam.catgenome.entity.vcf.Variation;
 import com.epam.catgenome.entity.vcf.VariationType;
 import com.epam.catgenome.entity.vcf.VcfFilterInfo;
-import com.epam.catgenome.manager.gene.GeneUtils;
 import com.epam.catgenome.manager.vcf.VcfManager;
 import com.epam.catgenome.manager.vcf.reader.VcfFileReader;
-import com.epam.catgenome.util.NggbIntervalTreeMap;
 import com.epam.catgenome.util.Utils;
-import htsjdk.samtools.util.Interval;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 import htsjdk.variant.vcf.VCFHeader;
@@ -55,9 +50,7 @@ import org.apache.commons.math3.util.MathUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -80,7 +73,7 @@ public class VcfFeatureIndexBuilder implements FeatureIndexBuilder<VariantContex
 
     private List<VcfIndexEntry> allEntries;
 
-    private Map<GeneFile, NggbIntervalTreeMap<List<Gene>>> intervalMapCache = new HashMap<>();
+    private Map<GeneFile, GeneIntervalIndex> intervalMapCache = new HashMap<>();
 
     public VcfFeatureIndexBuilder(VcfFilterInfo filterInfo, VCFHeader vcfHeader, FeatureIndexDao featureIndexDao) {
         this.filterInfo = filterInfo;
@@ -234,26 +227,15 @@ public class VcfFeatureIndexBuilder implements FeatureIndexBuilder<VariantContex
 
 
     public VcfIndexEntry build(VcfIndexEntry entry, List<GeneFile> geneFiles, Chromosome chromosome) {
-        int start = 0;
-        int end = chromosome.getSize();
-
-        List<VcfIndexEntry> indexEntries = fillEntryDetails(entry, geneFiles, chromosome, start, end);
+        List<VcfIndexEntry> indexEntries = fillEntryDetails(entry, geneFiles, chromosome);
         return indexEntries.get(0);
     }
 
     @Override public List<VcfIndexEntry> build(List<GeneFile> geneFiles, Chromosome chromosome) {
         List<VcfIndexEntry> processedEntries = new ArrayList<>();
-        int start = chromosome.getSize();
-        int end = 0;
-        for (FeatureIndexEntry entry : allEntries) {
-            start = Math.min(start, entry.getStartIndex());
-            end = Math.max(end, entry.getEndIndex());
-        }
-
-
         for (VcfIndexEntry indexEntry : allEntries) {
             List<VcfIndexEntry> filledEntries =
-                    fillEntryDetails(indexEntry, geneFiles, chromosome, start, end);
+                    fillEntryDetails(indexEntry, geneFiles, chromosome);
             processedEntries
                     .addAll(filledEntries);
         }
@@ -276,20 +258,19 @@ public class VcfFeatureIndexBuilder implements FeatureIndexBuilder<VariantContex
     }
 
     private List<VcfIndexEntry> fillEntryDetails(VcfIndexEntry entry, List<GeneFile> geneFiles,
-            Chromosome chromosome, int start, int end) {
+            Chromosome chromosome) {
         String geneIdsString = null;
         String geneNamesString = null;
         Set<VariationGeneInfo> geneIds = Collections.emptySet();
 
         for (GeneFile geneFile : geneFiles) {
-            if (!intervalMapCache.containsKey(geneFile)) {
-                intervalMapCache
-                        .put(geneFile, loadGenesIntervalMap(geneFile, start, end, chromosome));
+            GeneIntervalIndex intervalIndex = intervalMapCache.get(geneFile);
+            if (intervalIndex == null || !Objects.equals(intervalIndex.getChromosomeId(), chromosome.getId())) {
+                intervalIndex = GeneIntervalIndex.load(featureIndexDao, geneFile, chromosome);
+                intervalMapCache.put(geneFile, intervalIndex);
             }
-            NggbIntervalTreeMap<List<Gene>> intervalMap = intervalMapCache.get(geneFile);
 
-            geneIds = fetchGeneIdsFromBatch(intervalMap, entry.getStartIndex(),
-                    entry.getEndIndex(), chromosome);
+            geneIds = fetchGeneIdsFromBatch(intervalIndex, entry.getStartIndex(), entry.getEndIndex());
             geneIdsString =
                     geneIds.stream().map(i -> i.geneId).collect(Collectors.joining(", "));
             geneNamesString =
@@ -310,66 +291,25 @@ public class VcfFeatureIndexBuilder implements FeatureIndexBuilder<VariantContex
     /**
      * Fetch gene IDs of genes, affected by variation. The variation is specified by it's start and end indexes
      *
-     * @param intervalMap represents a batch loaded genes form gene file
+     * @param intervalIndex represents genes and exons of a chromosome, loaded form gene file
      * @param start       a start index of the variation
      * @param end         an end index of the variation
-     * @param chromosome  a {@code Chromosome}
      * @return a {@code Set} of IDs of genes, affected by the variation
      */
-    private Set<VariationGeneInfo> fetchGeneIdsFromBatch(
-            NggbIntervalTreeMap<List<Gene>> intervalMap, int start, int end,
-            Chromosome chromosome) {
-        Set<VariationGeneInfo> geneIds = getGeneIds(intervalMap, chromosome, start, start);
+    private Set<VariationGeneInfo> fetchGeneIdsFromBatch(GeneIntervalIndex intervalIndex, int start, int end) {
+        Set<VariationGeneInfo> geneIds = getGeneIds(intervalIndex, start);
         if (end > start) {
-            geneIds.addAll(getGeneIds(intervalMap, chromosome, end, end));
+            geneIds.addAll(getGeneIds(intervalIndex, end));
         }
 
         return geneIds;
     }
 
-    private NggbIntervalTreeMap<List<Gene>> loadGenesIntervalMap(GeneFile geneFile, int start,
-            int end, Chromosome chromosome) {
-        final NggbIntervalTreeMap<List<Gene>> genesRangeMap = new NggbIntervalTreeMap<>();
-        try {
-            IndexSearchResult<FeatureIndexEntry> searchResult = featureIndexDao
-                    .searchFeaturesInInterval(Collections.singletonList(geneFile), start, end,
-                            chromosome);
-            searchResult.getEntries().stream().filter(f -> f.getFeatureType() == FeatureType.EXON
-                    || f.getFeatureType() == FeatureType.GENE).map(f -> {
-                        Gene gene = new Gene();
-                        gene.setFeature(f.getFeatureType().name());
-                        gene.setStartIndex(f.getStartIndex());
-                        gene.setEndIndex(f.getEndIndex());
-                        gene.setGroupId(f.getFeatureId());
-                        gene.setFeatureName(f.getFeatureName().toUpperCase());
-                        return gene;
-                    }).forEach(g -> {
-                        Interval interval =
-                                new Interval(chromosome.getName(), g.getStartIndex(), g.getEndIndex());
-                        genesRangeMap.putIfAbsent(interval, new ArrayList<>());
-                        genesRangeMap.get(interval).add(g);
-                    });
-        } catch (IOException e) {
-            LOGGER.error(e.getMessage(), e);
-        }
-        genesRangeMap.setMaxEndIndex(start);
-        genesRangeMap.setMinStartIndex(end);
-        return genesRangeMap;
-    }
-
-    private Set<VariationGeneInfo> getGeneIds(NggbIntervalTreeMap<List<Gene>> intervalMap,
-            Chromosome chromosome, int start, int end) {
-        Collection<Gene> genes =
-                intervalMap.getOverlapping(new Interval(chromosome.getName(), start, end)).stream()
-                        .flatMap(l -> l.stream()).collect(Collectors.toList());
-        Set<VariationGeneInfo> geneIds = new HashSet<>();
-        if (genes != null) {
-            boolean isExon = genes.stream().anyMatch(GeneUtils::isExon);
-            geneIds = genes.stream().filter(GeneUtils::isGene)
-                    .map(g -> new VariationGeneInfo(g.getGroupId(), g.getFeatureName(), isExon))
-                    .collect(Collectors.toSet());
-        }
-
+    private Set<VariationGeneInfo> getGeneIds(GeneIntervalIndex intervalIndex, int position) {
+        final boolean isExon = intervalIndex.overlapsExon(position);
+        final Set<VariationGeneInfo> geneIds = new HashSet<>();
+        intervalIndex.forEachGene(position,
+            (geneId, geneName) -> geneIds.add(new VariationGeneInfo(geneId, geneName, isExon)));
         return geneIds;
     }
 
@@ -31,15 +31,12 @@ import com.epam.catgenome.entity.AbstractFilterForm;
 import com.epam.catgenome.entity.FeatureFile;
 import com.epam.catgenome.entity.index.FeatureIndexEntry;
 import com.epam.catgenome.entity.index.IndexSearchResult;
-import com.epam.catgenome.manager.FileManager;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.lucene.index.MultiReader;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.store.SimpleFSDirectory;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -49,26 +46,23 @@ import java.util.concurrent.ExecutorService;
 public abstract class AbstractIndexSearcher<T extends FeatureIndexEntry, R extends AbstractFilterForm>
         implements LuceneIndexSearcher<T> {
     private FeatureIndexDao featureIndexDao;
-    private FileManager fileManager;
     private R filterForm;
     private ExecutorService executorService;
 
-    public AbstractIndexSearcher(final FeatureIndexDao featureIndexDao, final FileManager fileManager,
-                                 final R filterForm, final ExecutorService executorService) {
+    public AbstractIndexSearcher(final FeatureIndexDao featureIndexDao, final R filterForm,
+                                 final ExecutorService executorService) {
         this.featureIndexDao = featureIndexDao;
-        this.fileManager = fileManager;
         this.filterForm = filterForm;
         this.executorService = executorService;
     }
 
     public static <T extends FeatureIndexEntry, R extends AbstractFilterForm> LuceneIndexSearcher<T> getIndexSearcher(
-            final R filterForm, final FeatureIndexDao featureIndexDao, final FileManager fileManager,
-            final ExecutorService executorService) {
+            final R filterForm, final FeatureIndexDao featureIndexDao, final ExecutorService executorService) {
 
         if (filterForm.getPointer() != null) {
-            return new NextPageSearcher<T, R>(featureIndexDao, fileManager, filterForm, executorService);
+            return new NextPageSearcher<T, R>(featureIndexDao, filterForm, executorService);
         } else {
-            return new PagingSearcher<T, R>(featureIndexDao, fileManager, filterForm, executorService);
+            return new PagingSearcher<T, R>(featureIndexDao, filterForm, executorService);
         }
     }
 
@@ -79,13 +73,12 @@ public abstract class AbstractIndexSearcher<T extends FeatureIndexEntry, R exten
             return new IndexSearchResult<>(Collections.emptyList(), false, 0);
         }
 
-        final SimpleFSDirectory[] indexes = fileManager.getIndexesForFiles(files);
-        long indexSize = featureIndexDao.getTotalIndexSize(indexes);
+        long indexSize = featureIndexDao.getTotalIndexSize(files);
         if (indexSize > featureIndexDao.getLuceneIndexMaxSizeForGrouping() && filterForm.filterEmpty()) {
             throw new IllegalArgumentException("Variations filter shall be specified");
         }
 
-        try (MultiReader reader = featureIndexDao.openMultiReader(indexes)) {
+        try (MultiReader reader = featureIndexDao.openMultiReader(files)) {
             if (reader.numDocs() == 0) {
                 return new IndexSearchResult<>(Collections.emptyList(), false, 0);
             }
@@ -99,10 +92,6 @@ public abstract class AbstractIndexSearcher<T extends FeatureIndexEntry, R exten
                 searchResults.setTotalResultsCount(0);
             }
             return searchResults;
-        } finally {
-            for (SimpleFSDirectory index : indexes) {
-                IOUtils.closeQuietly(index);
-            }
         }
     }
 
@@ -30,7 +30,6 @@ import com.epam.catgenome.dao.index.indexer.AbstractDocumentBuilder;
 import com.epam.catgenome.entity.AbstractFilterForm;
 import com.epam.catgenome.entity.index.FeatureIndexEntry;
 import com.epam.catgenome.entity.index.IndexSearchResult;
-import com.epam.catgenome.manager.FileManager;
 import org.apache.lucene.index.MultiReader;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
@@ -49,9 +48,9 @@ public class PagingSearcher<T extends FeatureIndexEntry, R extends AbstractFilte
     private final Integer page;
     private final Integer pageSize;
 
-    public PagingSearcher(final FeatureIndexDao featureIndexDao, final FileManager fileManager,
+    public PagingSearcher(final FeatureIndexDao featureIndexDao,
                           final R filterForm, final ExecutorService executorService) {
-        super(featureIndexDao, fileManager, filterForm, executorService);
+        super(featureIndexDao, filterForm, executorService);
         this.page = filterForm.getPage();
         this.pageSize = filterForm.getPageSize();
     }
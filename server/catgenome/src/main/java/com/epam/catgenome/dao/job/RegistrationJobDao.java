@@ -0,0 +1,209 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.dao.job;
+
+import com.epam.catgenome.dao.DaoHelper;
+import com.epam.catgenome.entity.job.RegistrationJob;
+import com.epam.catgenome.entity.job.RegistrationJobStatus;
+import com.epam.catgenome.entity.job.RegistrationJobType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Required;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcDaoSupport;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class RegistrationJobDao extends NamedParameterJdbcDaoSupport {
+
+    @Autowired
+    private DaoHelper daoHelper;
+
+    private String jobSequenceName;
+    private String insertJobQuery;
+    private String updateJobQuery;
+    private String loadJobByIdQuery;
+    private String loadJobsByOwnerQuery;
+    private String loadJobsByStatusQuery;
+
+    /**
+     * Saves a new {@code RegistrationJob} instance in the database
+     * @param job to save
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void saveJob(final RegistrationJob job) {
+        job.setId(daoHelper.createId(jobSequenceName));
+        getNamedParameterJdbcTemplate().update(insertJobQuery, JobParameters.getParameters(job));
+    }
+
+    /**
+     * Updates status, dates, result and progress of a {@code RegistrationJob}
+     * @param job to update
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updateJob(final RegistrationJob job) {
+        getNamedParameterJdbcTemplate().update(updateJobQuery, JobParameters.getParameters(job));
+    }
+
+    /**
+     * Loads a {@code RegistrationJob} instance from the database specified by it's ID
+     * @param id of the job
+     * @return a loaded {@code RegistrationJob} instance or
+     *          {@code null} if job with a given ID doesn't exist
+     */
+    public RegistrationJob loadJob(final long id) {
+        final List<RegistrationJob> jobs = getJdbcTemplate().query(loadJobByIdQuery, JobParameters.getRowMapper(),
+                id);
+        return jobs.isEmpty() ? null : jobs.get(0);
+    }
+
+    /**
+     * Loads jobs of a user, the most recent jobs go first
+     * @param owner name of a user
+     * @return a list of jobs
+     */
+    public List<RegistrationJob> loadJobsByOwner(final String owner) {
+        return getJdbcTemplate().query(loadJobsByOwnerQuery, JobParameters.getRowMapper(), owner);
+    }
+
+    /**
+     * Loads jobs with specified statuses in the order of their creation
+     * @param statuses of jobs
+     * @return a list of jobs
+     */
+    public List<RegistrationJob> loadJobsByStatus(final Collection<RegistrationJobStatus> statuses) {
+        final MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue(JobParameters.STATUS.name(), statuses.stream()
+                .map(RegistrationJobStatus::getId)
+                .collect(Collectors.toList()));
+        return getNamedParameterJdbcTemplate().query(loadJobsByStatusQuery, params, JobParameters.getRowMapper());
+    }
+
+    enum JobParameters {
+        JOB_ID,
+        JOB_TYPE,
+        STATUS,
+        REQUEST,
+        OWNER,
+        CREATED_DATE,
+        START_DATE,
+        END_DATE,
+        STATUS_REASON,
+        RESULT_ID,
+        RECORDS_PROCESSED,
+        BYTES_READ,
+        TOTAL_BYTES;
+
+        static MapSqlParameterSource getParameters(final RegistrationJob job) {
+            final MapSqlParameterSource params = new MapSqlParameterSource();
+
+            params.addValue(JOB_ID.name(), job.getId());
+            params.addValue(JOB_TYPE.name(), job.getType().getId());
+            params.addValue(STATUS.name(), job.getStatus().getId());
+            params.addValue(REQUEST.name(), job.getRequest());
+            params.addValue(OWNER.name(), job.getOwner());
+            params.addValue(CREATED_DATE.name(), toTimestamp(job.getCreatedDate()));
+            params.addValue(START_DATE.name(), toTimestamp(job.getStartDate()));
+            params.addValue(END_DATE.name(), toTimestamp(job.getEndDate()));
+            params.addValue(STATUS_REASON.name(), job.getStatusReason());
+            params.addValue(RESULT_ID.name(), job.getResultId());
+            params.addValue(RECORDS_PROCESSED.name(), job.getRecordsProcessed());
+            params.addValue(BYTES_READ.name(), job.getBytesRead());
+            params.addValue(TOTAL_BYTES.name(), job.getTotalBytes());
+
+            return params;
+        }
+
+        static RowMapper<RegistrationJob> getRowMapper() {
+            return (rs, rowNum) -> parseJob(rs);
+        }
+
+        static RegistrationJob parseJob(final ResultSet rs) throws SQLException {
+            final RegistrationJob job = new RegistrationJob();
+            job.setId(rs.getLong(JOB_ID.name()));
+            job.setType(RegistrationJobType.getById(rs.getInt(JOB_TYPE.name())));
+            job.setStatus(RegistrationJobStatus.getById(rs.getInt(STATUS.name())));
+            job.setRequest(rs.getString(REQUEST.name()));
+            job.setOwner(rs.getString(OWNER.name()));
+            job.setCreatedDate(toDateTime(rs.getTimestamp(CREATED_DATE.name())));
+            job.setStartDate(toDateTime(rs.getTimestamp(START_DATE.name())));
+            job.setEndDate(toDateTime(rs.getTimestamp(END_DATE.name())));
+            job.setStatusReason(rs.getString(STATUS_REASON.name()));
+            final long resultId = rs.getLong(RESULT_ID.name());
+            job.setResultId(rs.wasNull() ? null : resultId);
+            job.setRecordsProcessed(rs.getLong(RECORDS_PROCESSED.name()));
+            job.setBytesRead(rs.getLong(BYTES_READ.name()));
+            final long totalBytes = rs.getLong(TOTAL_BYTES.name());
+            job.setTotalBytes(rs.wasNull() ? null : totalBytes);
+            return job;
+        }
+
+        private static Timestamp toTimestamp(final LocalDateTime dateTime) {
+            return dateTime == null ? null : Timestamp.valueOf(dateTime);
+        }
+
+        private static LocalDateTime toDateTime(final Timestamp timestamp) {
+            return timestamp == null ? null : timestamp.toLocalDateTime();
+        }
+    }
+
+    @Required
+    public void setJobSequenceName(String jobSequenceName) {
+        this.jobSequenceName = jobSequenceName;
+    }
+
+    @Required
+    public void setInsertJobQuery(String insertJobQuery) {
+        this.insertJobQuery = insertJobQuery;
+    }
+
+    @Required
+    public void setUpdateJobQuery(String updateJobQuery) {
+        this.updateJobQuery = updateJobQuery;
+    }
+
+    @Required
+    public void setLoadJobByIdQuery(String loadJobByIdQuery) {
+        this.loadJobByIdQuery = loadJobByIdQuery;
+    }
+
+    @Required
+    public void setLoadJobsByOwnerQuery(String loadJobsByOwnerQuery) {
+        this.loadJobsByOwnerQuery = loadJobsByOwnerQuery;
+    }
+
+    @Required
+    public void setLoadJobsByStatusQuery(String loadJobsByStatusQuery) {
+        this.loadJobsByStatusQuery = loadJobsByStatusQuery;
+    }
+}
@@ -53,6 +53,8 @@ public class BamQueryOption {
     private String chromosomeName;
     @JsonIgnore
     private boolean downSampling = false;
+    @JsonIgnore
+    private BamTrackEncoding encoding = BamTrackEncoding.JSON;
 
     /**
      * Default constructor for representing missing options
@@ -200,4 +202,12 @@ public class BamQueryOption {
     public void setMode(BamTrackMode mode) {
         this.mode = mode;
     }
+
+    public BamTrackEncoding getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(BamTrackEncoding encoding) {
+        this.encoding = encoding;
+    }
 }
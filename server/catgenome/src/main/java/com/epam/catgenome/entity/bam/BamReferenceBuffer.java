@@ -24,6 +24,8 @@
 
 package com.epam.catgenome.entity.bam;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Source:
  * Created:     7/6/2016
@@ -33,40 +35,79 @@ package com.epam.catgenome.entity.bam;
  */
 public class BamReferenceBuffer {
 
-    private String buffer;
+    private static final int CASE_SHIFT = 'a' - 'A';
+
+    private byte[] buffer;
+    private int offset;
+    private int length;
+
+    /**
+     * @param sequence initial reference sequence
+     */
+    public BamReferenceBuffer(final byte[] sequence) {
+        this.buffer = new byte[sequence.length];
+        copyUpperCase(sequence, 0);
+        this.length = sequence.length;
+    }
 
     /**
-     * @param buffer initial reference sequence
+     * Adds a sequence to the end of the current reference
+     * @param tail sequence to add to reference
      */
-    public BamReferenceBuffer(String buffer) {
-        this.buffer = buffer;
+    public void addTail(final byte[] tail) {
+        if (offset + length + tail.length > buffer.length) {
+            grow(0, tail.length);
+        }
+        copyUpperCase(tail, offset + length);
+        length += tail.length;
     }
 
     /**
-     * Adds a string to the end of the current reference
-     * @param tailString string to add to reference
+     * Adds a sequence to the start of the current reference
+     * @param head sequence to add to reference
      */
-    public void addTail(final String tailString) {
-        final StringBuilder builder = new StringBuilder(buffer);
-        builder.append(tailString);
-        buffer = builder.toString();
+    public void addHead(final byte[] head) {
+        if (head.length > offset) {
+            grow(head.length, 0);
+        }
+        offset -= head.length;
+        copyUpperCase(head, offset);
+        length += head.length;
     }
 
     /**
-     * Adds a string to the start of the current reference
-     * @param headString string to add to reference
+     * @param index position in the buffer
+     * @return upper case nucleotide at the specified position
      */
-    public void addHead(final String headString) {
-        final StringBuilder builder = new StringBuilder(buffer);
-        builder.insert(0, headString);
-        buffer = builder.toString();
+    public byte get(final int index) {
+        return buffer[offset + index];
+    }
+
+    public int length() {
+        return length;
     }
 
     public String getBuffer() {
-        return buffer;
+        return new String(buffer, offset, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reallocates the buffer, so that it has at least specified free space at the start and at the end.
+     * Extra space of the current length is reserved on the growing side to make repeated additions cheap.
+     */
+    private void grow(final int headSpace, final int tailSpace) {
+        final int headFree = headSpace > 0 ? headSpace + length : offset;
+        final int tailFree = tailSpace > 0 ? tailSpace + length : buffer.length - offset - length;
+        final byte[] newBuffer = new byte[headFree + length + tailFree];
+        System.arraycopy(buffer, offset, newBuffer, headFree, length);
+        buffer = newBuffer;
+        offset = headFree;
     }
 
-    public void setBuffer(String buffer) {
-        this.buffer = buffer;
+    private void copyUpperCase(final byte[] sequence, final int position) {
+        for (int i = 0; i < sequence.length; i++) {
+            final byte base = sequence[i];
+            buffer[position + i] = base >= 'a' && base <= 'z' ? (byte) (base - CASE_SHIFT) : base;
+        }
     }
 }
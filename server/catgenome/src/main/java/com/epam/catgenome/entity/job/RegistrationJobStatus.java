@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.entity.job;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum RegistrationJobStatus {
+    QUEUED(1, false),
+    RUNNING(2, false),
+    CANCELED(3, true),
+    FAILED(4, true),
+    DONE(5, true);
+
+    private final int id;
+    private final boolean finalStatus;
+    private static final Map<Integer, RegistrationJobStatus> ID_MAP = new HashMap<>();
+
+    static {
+        for (RegistrationJobStatus status : values()) {
+            ID_MAP.put(status.id, status);
+        }
+    }
+
+    RegistrationJobStatus(int id, boolean finalStatus) {
+        this.id = id;
+        this.finalStatus = finalStatus;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isFinal() {
+        return finalStatus;
+    }
+
+    public static RegistrationJobStatus getById(int id) {
+        return ID_MAP.get(id);
+    }
+}
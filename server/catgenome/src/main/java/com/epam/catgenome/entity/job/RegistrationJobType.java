@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.entity.job;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Types of background registration jobs. Jobs of types, that share a queue, are limited by the same
+ * concurrency setting. Reindex jobs replace indexes of a registered file in place, so they can't be canceled
+ * once started, since a canceled job would leave the file without indexes.
+ */
+public enum RegistrationJobType {
+    REFERENCE(1, "reference", true),
+    BAM(2, "bam", true),
+    VCF(3, "vcf", true),
+    VCF_REINDEX(4, "vcf", false),
+    GENE(5, "gene", true),
+    GENE_REINDEX(6, "gene", false);
+
+    private final int id;
+    private final String queue;
+    private final boolean cancelableWhenRunning;
+    private static final Map<Integer, RegistrationJobType> ID_MAP = new HashMap<>();
+
+    static {
+        for (RegistrationJobType type : values()) {
+            ID_MAP.put(type.id, type);
+        }
+    }
+
+    RegistrationJobType(int id, String queue, boolean cancelableWhenRunning) {
+        this.id = id;
+        this.queue = queue;
+        this.cancelableWhenRunning = cancelableWhenRunning;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getQueue() {
+        return queue;
+    }
+
+    public boolean isCancelableWhenRunning() {
+        return cancelableWhenRunning;
+    }
+
+    public static RegistrationJobType getById(int id) {
+        return ID_MAP.get(id);
+    }
+}
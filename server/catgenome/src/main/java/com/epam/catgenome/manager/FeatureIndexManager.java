@@ -29,6 +29,8 @@ import com.epam.catgenome.constant.MessagesConstants;
 import com.epam.catgenome.controller.vo.ItemsByProject;
 import com.epam.catgenome.dao.index.FeatureIndexDao;
 import com.epam.catgenome.dao.index.indexer.BigVcfFeatureIndexBuilder;
+import com.epam.catgenome.dao.index.searcher.CursorSearcher;
+import com.epam.catgenome.dao.index.searcher.IndexEntryConsumer;
 import com.epam.catgenome.dao.index.searcher.LuceneIndexSearcher;
 import com.epam.catgenome.entity.BaseEntity;
 import com.epam.catgenome.entity.BiologicalDataItemFormat;
@@ -394,7 +396,7 @@ public class FeatureIndexManager {
             final List<VcfFile> vcfFiles) throws IOException {
         if (filterForm.getPage() != null && filterForm.getPageSize() != null) {
             final LuceneIndexSearcher<VcfIndexEntry> indexSearcher =
-                    getIndexSearcher(filterForm, featureIndexDao, fileManager, taskExecutorService.getSearchExecutor());
+                    getIndexSearcher(filterForm, featureIndexDao, taskExecutorService.getSearchExecutor());
             final Sort sort = featureIndexDao.createVcfSorting(filterForm.getOrderBy(), vcfFiles);
             final IndexSearchResult<VcfIndexEntry> res =
                     indexSearcher.getSearchResults(vcfFiles, filterForm.computeQuery(FeatureType.VARIATION), sort);
@@ -410,11 +412,47 @@ public class FeatureIndexManager {
         }
     }
 
+    /**
+     * Passes all variations, that satisfy a filter, to a consumer in a single pass over the indexes of
+     * requested VCF files. Variations are read in batches of a filter form's page size.
+     *
+     * @param filterForm a {@link VcfFilterForm} to filter out variations
+     * @param consumer a {@link IndexEntryConsumer} to receive variations
+     * @throws IOException if something is wrong in the filesystem
+     */
+    public void streamVariations(final VcfFilterForm filterForm,
+                                 final IndexEntryConsumer<VcfIndexEntry> consumer) throws IOException {
+        final List<VcfFile> vcfFiles = vcfFileManager.loadVcfFiles(filterForm.getVcfFileIds());
+        final Sort sort = featureIndexDao.createVcfSorting(filterForm.getOrderBy(), vcfFiles);
+        new CursorSearcher<VcfIndexEntry, VcfFilterForm>(featureIndexDao, filterForm,
+                taskExecutorService.getSearchExecutor(), consumer)
+                .getSearchResults(vcfFiles, filterForm.computeQuery(FeatureType.VARIATION), sort);
+    }
+
+    /**
+     * Passes all gene features, that satisfy a filter, to a consumer in a single pass over the indexes of
+     * specified files. Features are read in batches of a filter form's page size.
+     *
+     * @param filterForm a {@link GeneFilterForm} to filter out features
+     * @param featureFiles files to search features in
+     * @param consumer a {@link IndexEntryConsumer} to receive features
+     * @throws IOException if something is wrong in the filesystem
+     */
+    public void streamGenes(final GeneFilterForm filterForm, final List<? extends FeatureFile> featureFiles,
+                            final IndexEntryConsumer<GeneIndexEntry> consumer) throws IOException {
+        final Sort sort = Optional.ofNullable(
+                featureIndexDao.createGeneSorting(filterForm.getOrderBy(), featureFiles))
+                .orElseGet(filterForm::defaultSort);
+        new CursorSearcher<GeneIndexEntry, GeneFilterForm>(featureIndexDao, filterForm,
+                taskExecutorService.getSearchExecutor(), consumer)
+                .getSearchResults(featureFiles, filterForm.computeQuery(), sort);
+    }
+
     public IndexSearchResult<GeneIndexEntry> getGeneSearchResult(final GeneFilterForm filterForm,
                                                                      final List<? extends FeatureFile> featureFiles)
             throws IOException {
         final LuceneIndexSearcher<GeneIndexEntry> indexSearcher =
-                getIndexSearcher(filterForm, featureIndexDao, fileManager, taskExecutorService.getSearchExecutor());
+                getIndexSearcher(filterForm, featureIndexDao, taskExecutorService.getSearchExecutor());
         final Sort sort = Optional.ofNullable(
                 featureIndexDao.createGeneSorting(filterForm.getOrderBy(), featureFiles))
                 .orElseGet(filterForm::defaultSort);
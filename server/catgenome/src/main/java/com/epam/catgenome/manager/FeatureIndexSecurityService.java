@@ -47,6 +47,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -93,10 +94,11 @@ public class FeatureIndexSecurityService {
 
     @AclFilter
     @PreAuthorize(ROLE_USER)
-    public byte[] exportVariations(final VcfExportFilterForm filterForm,
-                                   final ExportFormat format,
-                                   final boolean includeHeader) throws IOException {
-        return exportManager.exportVariations(filterForm, format, includeHeader);
+    public void exportVariations(final VcfExportFilterForm filterForm,
+                                 final ExportFormat format,
+                                 final boolean includeHeader,
+                                 final OutputStream outputStream) throws IOException {
+        exportManager.exportVariations(filterForm, format, includeHeader, outputStream);
     }
 
     @AclFilter
@@ -145,10 +147,11 @@ public class FeatureIndexSecurityService {
     }
 
     @PreAuthorize(ROLE_USER)
-    public byte[] exportFeaturesByReference(final GeneExportFilterForm geneFilterForm,
-                                            final Long referenceId,
-                                            final ExportFormat format,
-                                            final boolean includeHeader) throws IOException {
-        return exportManager.exportGenesByReference(geneFilterForm, referenceId, format, includeHeader);
+    public void exportFeaturesByReference(final GeneExportFilterForm geneFilterForm,
+                                          final Long referenceId,
+                                          final ExportFormat format,
+                                          final boolean includeHeader,
+                                          final OutputStream outputStream) throws IOException {
+        exportManager.exportGenesByReference(geneFilterForm, referenceId, format, includeHeader, outputStream);
     }
 }
@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager;
+
+import com.epam.catgenome.util.HistogramFileFormat.Histogram;
+import com.epam.catgenome.util.PositionIndex;
+import com.epam.catgenome.util.VariantDensityPyramid;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Caches histograms, bounds metadata, position indexes and variant density summaries of feature files, that are
+ * read on almost each VCF, gene and BED track request. Entries are keyed by absolute file paths, that contain
+ * a feature file ID and a chromosome name, and should be evicted whenever a file is rewritten or deleted.
+ * Position indexes and density summaries are limited by their total size, since they grow with the number
+ * of features.
+ */
+@Component
+public class FeatureMetadataCache {
+
+    @Value("${feature.metadata.cache.max.size:2000}")
+    private int maxSize;
+
+    @Value("${feature.density.cache.max.size:268435456}")
+    private long densityMaxSize;
+
+    @Value("${feature.positions.cache.max.size:268435456}")
+    private long positionsMaxSize;
+
+    private Cache<String, Histogram> histograms;
+    private Cache<String, Map<String, Pair<Integer, Integer>>> bounds;
+    private Cache<String, PositionIndex> positions;
+    private Cache<String, VariantDensityPyramid> densities;
+
+    @PostConstruct
+    public void init() {
+        histograms = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        bounds = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        positions = CacheBuilder.newBuilder()
+                .maximumWeight(positionsMaxSize)
+                .weigher((String key, PositionIndex index) -> (int) Math.min(Integer.MAX_VALUE, index.getSize()))
+                .build();
+        densities = CacheBuilder.newBuilder()
+                .maximumWeight(densityMaxSize)
+                .weigher((String key, VariantDensityPyramid density) ->
+                        (int) Math.min(Integer.MAX_VALUE, density.getSize()))
+                .build();
+    }
+
+    public Histogram getHistogram(final File file, final Loader<Histogram> loader) throws IOException {
+        return get(histograms, file, loader);
+    }
+
+    /**
+     * @return unmodifiable bounds metadata
+     */
+    public Map<String, Pair<Integer, Integer>> getBounds(final File file,
+                                                         final Loader<Map<String, Pair<Integer, Integer>>> loader)
+            throws IOException {
+        return get(bounds, file, loader);
+    }
+
+    public PositionIndex getPositions(final File file, final Loader<PositionIndex> loader) throws IOException {
+        return get(positions, file, loader);
+    }
+
+    public VariantDensityPyramid getDensity(final File file, final Loader<VariantDensityPyramid> loader)
+            throws IOException {
+        return get(densities, file, loader);
+    }
+
+    public void evict(final File file) {
+        final String key = file.getAbsolutePath();
+        histograms.invalidate(key);
+        bounds.invalidate(key);
+        positions.invalidate(key);
+        densities.invalidate(key);
+    }
+
+    /**
+     * Evicts metadata of all files under a directory
+     * @param dir a deleted or rewritten directory
+     */
+    public void evictDirectory(final File dir) {
+        final String prefix = dir.getAbsolutePath() + File.separator;
+        histograms.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        bounds.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        positions.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        densities.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static <T> T get(final Cache<String, T> cache, final File file, final Loader<T> loader)
+            throws IOException {
+        try {
+            return cache.get(file.getAbsolutePath(), () -> loader.load(file));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(File file) throws IOException;
+    }
+}
@@ -28,7 +28,9 @@ import static com.epam.catgenome.component.MessageHelper.getMessage;
 import static com.epam.catgenome.manager.FileManager.FilePathFormat.*;
 import static com.epam.catgenome.manager.FileManager.FilePathPlaceholder.*;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
@@ -49,6 +51,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -63,11 +66,13 @@ import javax.annotation.PostConstruct;
 import com.epam.catgenome.component.MessageCode;
 import com.epam.catgenome.constant.MessagesConstants;
 import com.epam.catgenome.controller.JsonMapper;
+import com.epam.catgenome.dao.index.FeatureIndexReaderPool;
 import com.epam.catgenome.entity.BaseEntity;
 import com.epam.catgenome.entity.BiologicalDataItem;
 import com.epam.catgenome.entity.BiologicalDataItemFormat;
 import com.epam.catgenome.entity.BiologicalDataItemResourceType;
 import com.epam.catgenome.entity.FeatureFile;
+import com.epam.catgenome.entity.bam.BamFile;
 import com.epam.catgenome.entity.bed.BedFile;
 import com.epam.catgenome.entity.file.FsDirectory;
 import com.epam.catgenome.entity.file.FsFile;
@@ -97,8 +102,11 @@ import com.epam.catgenome.manager.wig.reader.BedGraphCodec;
 import com.epam.catgenome.manager.wig.reader.BedGraphFeature;
 import com.epam.catgenome.util.BlockCompressedDataInputStream;
 import com.epam.catgenome.util.BlockCompressedDataOutputStream;
+import com.epam.catgenome.util.HistogramFileFormat;
 import com.epam.catgenome.util.IndexUtils;
 import com.epam.catgenome.util.NgbFileUtils;
+import com.epam.catgenome.util.PositionIndex;
+import com.epam.catgenome.util.VariantDensityPyramid;
 import com.epam.catgenome.util.PositionalOutputStream;
 import com.epam.catgenome.util.Utils;
 import com.epam.catgenome.util.feature.reader.AbstractEnhancedFeatureReader;
@@ -122,7 +130,6 @@ import htsjdk.tribble.util.LittleEndianOutputStream;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCodec;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.text.StrSubstitutor;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -172,6 +179,15 @@ public class FileManager {
 
     @Autowired(required = false)
     private EhCacheBasedIndexCache indexCache;
+
+    @Autowired(required = false)
+    private FeatureIndexReaderPool featureIndexReaderPool;
+
+    @Autowired(required = false)
+    private FeatureMetadataCache featureMetadataCache;
+
+    @Autowired(required = false)
+    private TrackTileCache trackTileCache;
     /**
      * Provides paths' patterns that have to be used to construct real relative paths
      * for file resources of any types.
@@ -204,10 +220,14 @@ public class FileManager {
         VCF_INDEX("/${ROOT_DIR_NAME}/VCF/${DIR_ID}/variants.idx"),
         VCF_COMPRESSED_INDEX("/${ROOT_DIR_NAME}/VCF/${DIR_ID}/variants.gz.tbi"),
         VCF_METADATA_FILE("/${ROOT_DIR_NAME}/VCF/${DIR_ID}/variants.bounds"),
+        VCF_POSITIONS_DIR("/${ROOT_DIR_NAME}/VCF/${DIR_ID}/positions"),
+        VCF_POSITIONS_FILE("/${ROOT_DIR_NAME}/VCF/${DIR_ID}/positions/${CHROMOSOME_NAME}.positions"),
         VCF_FEATURE_INDEX_FILE("/${ROOT_DIR_NAME}/VCF/${DIR_ID}/variants.feature"),
         VCF_ROOT_DIR("/${ROOT_DIR_NAME}/VCF"),
         VCF_HISTOGRAM_DIR("/${ROOT_DIR_NAME}/VCF/${DIR_ID}/histogram"),
         VCF_HISTOGRAM_FILE("/${ROOT_DIR_NAME}/VCF/${DIR_ID}/histogram/${CHROMOSOME_NAME}.hg"),
+        VCF_DENSITY_DIR("/${ROOT_DIR_NAME}/VCF/${DIR_ID}/density"),
+        VCF_DENSITY_FILE("/${ROOT_DIR_NAME}/VCF/${DIR_ID}/density/${CHROMOSOME_NAME}.density"),
 
         GENE_DIR("/${ROOT_DIR_NAME}/genes/${DIR_ID}"),
         GENE_FILE("/${ROOT_DIR_NAME}/genes/${DIR_ID}/genes${GENE_EXTENSION}"),
@@ -217,12 +237,16 @@ public class FileManager {
         GENE_LARGE_SCALE_INDEX("/${ROOT_DIR_NAME}/genes/${DIR_ID}/genes_large_scale.tbi"),
         GENE_TRANSCRIPT_INDEX("/${ROOT_DIR_NAME}/genes/${DIR_ID}/transcript.tbi"),
         GENE_METADATA_FILE("/${ROOT_DIR_NAME}/genes/${DIR_ID}/genes.bounds"),
+        GENE_POSITIONS_DIR("/${ROOT_DIR_NAME}/genes/${DIR_ID}/positions"),
+        GENE_POSITIONS_FILE("/${ROOT_DIR_NAME}/genes/${DIR_ID}/positions/${CHROMOSOME_NAME}.positions"),
         GENE_FEATURE_INDEX_FILE("/${ROOT_DIR_NAME}/genes/${DIR_ID}/genes.feature"),
         GENE_HISTOGRAM_DIR("/${ROOT_DIR_NAME}/genes/${DIR_ID}/histogram"),
         GENE_HISTOGRAM_FILE("/${ROOT_DIR_NAME}/genes/${DIR_ID}/histogram/${CHROMOSOME_NAME}.hg"),
 
         BAM_DIR("/${ROOT_DIR_NAME}/BAM/${DIR_ID}"),
         BAM_FILE("/${ROOT_DIR_NAME}/BAM/${DIR_ID}/${FILE_NAME}"),
+        BAM_COVERAGE_DIR("/${ROOT_DIR_NAME}/BAM/${DIR_ID}/coverage"),
+        BAM_COVERAGE_FILE("/${ROOT_DIR_NAME}/BAM/${DIR_ID}/coverage/${CHROMOSOME_NAME}.cov"),
 
         BED_DIR("/${ROOT_DIR_NAME}/bed/${DIR_ID}"),
         BED_INDEX("/${ROOT_DIR_NAME}/bed/${DIR_ID}/bed.tbi"),
@@ -244,7 +268,6 @@ public class FileManager {
         MAF_DIR("/${ROOT_DIR_NAME}/maf/${DIR_ID}"),
         MAF_TEMP_DIR("/${ROOT_DIR_NAME}/maf/${DIR_ID}/tmp"),
         MAF_INDEX("/${ROOT_DIR_NAME}/maf/${DIR_ID}/maf.tbi"),
-        MAF_TEMP_INDEX("/${ROOT_DIR_NAME}/maf/${DIR_ID}/tmp/${FILE_NAME}.tbi"),
         MAF_FILE("/${ROOT_DIR_NAME}/maf/${DIR_ID}/maf.bmaf.gz"),
 
         WIG_DIR("/${ROOT_DIR_NAME}/wig/${DIR_ID}/downsampled"),
@@ -385,6 +408,7 @@ public class FileManager {
             params.put(DIR_ID.name(), dirId);
             deleteDir(substitute(REFERENCE_DIR, params));
         }
+        evictTiles(BiologicalDataItemFormat.REFERENCE, reference.getId());
     }
 
     /**
@@ -808,13 +832,15 @@ public class FileManager {
                                    substitute(filePathFormat, params)));
         }
 
-        try (DataOutputStream dataOutputStream = new DataOutputStream(new FileOutputStream(file))) {
+        try (DataOutputStream dataOutputStream = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
             for (Map.Entry<String, Pair<Integer, Integer>> entry : metaData.entrySet()) {
                 dataOutputStream.writeUTF(entry.getKey());
                 dataOutputStream.writeInt(entry.getValue().getLeft());
                 dataOutputStream.writeInt(entry.getValue().getRight());
             }
         }
+        evictMetadata(file);
     }
 
     /**
@@ -845,9 +871,19 @@ public class FileManager {
                                                           featureFile.getClass().getName()));
         }
 
+        final File file = new File(toRealPath(substitute(filePathFormat, params)));
+        if (featureMetadataCache == null) {
+            return readIndexMetadata(file);
+        }
+        return new HashMap<>(featureMetadataCache.getBounds(file,
+            metadataFile -> Collections.unmodifiableMap(readIndexMetadata(metadataFile))));
+    }
+
+    private static Map<String, Pair<Integer, Integer>> readIndexMetadata(final File file) throws IOException {
         Map<String, Pair<Integer, Integer>> metaMap = new HashMap<>();
-        try (DataInputStream dataInputStream = new DataInputStream(new FileInputStream(toRealPath(substitute(
-            filePathFormat, params))))) {
+        // metadata files are small, so they are read at once instead of a record by record
+        try (DataInputStream dataInputStream = new DataInputStream(
+                new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
             while (dataInputStream.available() > 0) {
                 String chrId = dataInputStream.readUTF();
                 int startPosition = dataInputStream.readInt();
@@ -878,36 +914,23 @@ public class FileManager {
         return new SimpleFSDirectory(file.toPath());
     }
 
-    public SimpleFSDirectory[] getIndexesForFiles(final List<? extends FeatureFile> featureFiles) throws IOException {
+    /**
+     * Returns paths of existing Lucene index directories of specified feature files
+     *
+     * @param featureFiles files, which index directories to fetch
+     * @return a {@code List} of index directory paths, files without index are skipped
+     */
+    public List<Path> getIndexPathsForFiles(final List<? extends FeatureFile> featureFiles) {
         if (CollectionUtils.isEmpty(featureFiles)) {
-            return null;
+            return Collections.emptyList();
         }
 
-        List<SimpleFSDirectory> indexes = new ArrayList<>();
-        try {
-            for (int i = 0; i < featureFiles.size(); i++) {
-                FeatureFile featureFile = featureFiles.get(i);
-
-                final Map<String, Object> params = new HashMap<>();
-                params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
-                params.put(DIR_ID.name(), featureFile.getId());
-
-                FilePathFormat format = determineFilePathFormat(featureFile);
-
-                params.put(FEATURE_FILE_DIR.name(), substitute(format, params));
-                File file = new File(toRealPath(substitute(FEATURE_INDEX_DIR, params)));
-                if (file.exists()) {
-                    indexes.add(new SimpleFSDirectory(file.toPath()));
-                }
-            }
-        } catch (IOException e) {
-            for (SimpleFSDirectory index : indexes) {
-                if (index != null) {
-                    IOUtils.closeQuietly(index);
-                }
+        final List<Path> indexes = new ArrayList<>(featureFiles.size());
+        for (FeatureFile featureFile : featureFiles) {
+            final File file = getFeatureIndexDir(featureFile);
+            if (file.exists()) {
+                indexes.add(file.toPath());
             }
-
-            throw e;
         }
 
         if (indexes.isEmpty()) {
@@ -915,7 +938,7 @@ public class FileManager {
                     featureFiles.stream().map(BaseEntity::getName).collect(Collectors.joining(", "))));
         }
 
-        return indexes.toArray(new SimpleFSDirectory[indexes.size()]);
+        return indexes;
     }
 
     /**
@@ -969,6 +992,8 @@ public class FileManager {
         params.put(FEATURE_FILE_DIR.name(), substitute(format, params));
         File dir = new File(toRealPath(substitute(FEATURE_INDEX_DIR, params)));
 
+        evictIndexReaders(dir);
+        evictTiles(featureFile.getFormat(), featureFile.getId());
         if (dir.exists()) {
             deleteDir(substitute(FEATURE_INDEX_DIR, params));
         }
@@ -1023,6 +1048,120 @@ public class FileManager {
         }
     }
 
+    /**
+     * Saves a position index of a chromosome of a VCF or gene file, that is used for next/previous
+     * feature navigation
+     *
+     * @param featureFile    a {@code FeatureFile} to save a position index for
+     * @param chromosomeName {@code String} a name of a chromosome, as it is named in the file
+     * @param positions      a position index of the chromosome
+     * @throws IOException
+     */
+    public void writePositionIndex(final FeatureFile featureFile, final String chromosomeName,
+                                   final PositionIndex positions) throws IOException {
+        final Map<String, Object> params = new HashMap<>();
+        params.put(DIR_ID.name(), featureFile.getId());
+        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
+        makeDir(substitute(featureFile instanceof VcfFile ? VCF_POSITIONS_DIR : GENE_POSITIONS_DIR, params));
+
+        final File file = getPositionIndexFile(featureFile, chromosomeName);
+        PositionIndex.write(file, positions);
+        evictMetadata(file);
+    }
+
+    /**
+     * Loads a position index of a chromosome of a VCF or gene file
+     *
+     * @param featureFile    a {@code FeatureFile} to load position index for
+     * @param chromosomeName {@code String} a name of a chromosome, as it is named either in the file or
+     *                       in the reference
+     * @return a {@code PositionIndex} or null, if the file was registered without it
+     * @throws IOException
+     */
+    public PositionIndex loadPositionIndex(final FeatureFile featureFile, final String chromosomeName)
+            throws IOException {
+        File file = getPositionIndexFile(featureFile, chromosomeName);
+        if (!file.exists()) {
+            file = getPositionIndexFile(featureFile, Utils.changeChromosomeName(chromosomeName));
+        }
+        if (!file.exists()) {
+            return null;
+        }
+        return featureMetadataCache == null ? PositionIndex.read(file)
+                : featureMetadataCache.getPositions(file, PositionIndex::read);
+    }
+
+    private File getPositionIndexFile(final FeatureFile featureFile, final String chromosomeName) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put(DIR_ID.name(), featureFile.getId());
+        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
+        params.put(CHROMOSOME_NAME.name(), chromosomeName);
+
+        FilePathFormat filePathFormat = null;
+        if (featureFile instanceof VcfFile) {
+            filePathFormat = VCF_POSITIONS_FILE;
+        }
+        if (featureFile instanceof GeneFile) {
+            filePathFormat = GENE_POSITIONS_FILE;
+        }
+        if (filePathFormat == null) {
+            throw new IllegalArgumentException(getMessage(MessagesConstants.ERROR_UNSUPPORTED_FEATURE_FILE_TYPE,
+                                                          featureFile.getClass().getName()));
+        }
+        return new File(toRealPath(substitute(filePathFormat, params)));
+    }
+
+    /**
+     * Saves a variant density summary of a chromosome of a VCF file, that is used to collapse variations
+     * of zoomed out tracks
+     *
+     * @param vcfFile        a {@code VcfFile} to save a summary for
+     * @param chromosomeName {@code String} a name of a chromosome, as it is named in the file
+     * @param density        a summary of variations of the chromosome
+     * @throws IOException
+     */
+    public void writeVariantDensity(final VcfFile vcfFile, final String chromosomeName,
+                                    final VariantDensityPyramid density) throws IOException {
+        final Map<String, Object> params = new HashMap<>();
+        params.put(DIR_ID.name(), vcfFile.getId());
+        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
+        makeDir(substitute(VCF_DENSITY_DIR, params));
+
+        final File file = getVariantDensityFile(vcfFile, chromosomeName);
+        VariantDensityPyramid.write(file, density);
+        evictMetadata(file);
+    }
+
+    /**
+     * Loads a variant density summary of a chromosome of a VCF file
+     *
+     * @param vcfFile        a {@code VcfFile} to load a summary for
+     * @param chromosomeName {@code String} a name of a chromosome, as it is named either in the file or
+     *                       in the reference
+     * @return a {@code VariantDensityPyramid} or null, if the file was registered without it
+     * @throws IOException
+     */
+    public VariantDensityPyramid loadVariantDensity(final VcfFile vcfFile, final String chromosomeName)
+            throws IOException {
+        File file = getVariantDensityFile(vcfFile, chromosomeName);
+        if (!file.exists()) {
+            file = getVariantDensityFile(vcfFile, Utils.changeChromosomeName(chromosomeName));
+        }
+        if (!file.exists()) {
+            return null;
+        }
+        return featureMetadataCache == null ? VariantDensityPyramid.read(file)
+                : featureMetadataCache.getDensity(file, VariantDensityPyramid::read);
+    }
+
+    private File getVariantDensityFile(final VcfFile vcfFile, final String chromosomeName) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put(DIR_ID.name(), vcfFile.getId());
+        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
+        params.put(CHROMOSOME_NAME.name(), chromosomeName);
+        return new File(toRealPath(substitute(VCF_DENSITY_FILE, params)));
+    }
+
     /**
      * Saves a histogram as a {@code List} of {@code Wig} objects for a specified {@code FeatureFile} and
      * under a chromosome name
@@ -1038,16 +1177,12 @@ public class FileManager {
         LOGGER.info(getMessage(MessagesConstants.INFO_HISTOGRAM_WRITE, featureFile.getId(),
                                featureFile.getName()));
 
-        try (DataOutputStream dataOutputStream = makeHistogramOutputStream(featureFile, chromosomeName)) {
-            for (Wig wig : histogram) {
-                dataOutputStream.writeInt(wig.getStartIndex());
-                dataOutputStream.writeInt(wig.getEndIndex());
-                dataOutputStream.writeFloat(wig.getValue());
-            }
-        }
+        final File histogramFile = makeHistogramFile(featureFile, chromosomeName);
+        HistogramFileFormat.write(histogramFile, histogram);
+        evictMetadata(histogramFile);
     }
 
-    private DataOutputStream makeHistogramOutputStream(FeatureFile featureFile, final String chromosomeName)
+    private File makeHistogramFile(FeatureFile featureFile, final String chromosomeName)
             throws IOException {
         final Map<String, Object> params = new HashMap<>();
         params.put(DIR_ID.name(), featureFile.getId());
@@ -1081,7 +1216,7 @@ public class FileManager {
         }
         Assert.isTrue(histogramFile.createNewFile(), "Can't create histogram file " + histogramFile.getAbsolutePath());
 
-        return new DataOutputStream(new FileOutputStream(histogramFile));
+        return histogramFile;
     }
 
     private FilePathFormat getHistogramDirPathFormat(final FeatureFile featureFile) {
@@ -1139,19 +1274,10 @@ public class FileManager {
         FilePathFormat filePathFormat = getHistogramFilePathFormat(featureFile);
         File histogramFile = new File(toRealPath(substitute(filePathFormat, params)));
 
-        List<Wig> histogram = new ArrayList<>();
-        try (DataInputStream dataInputStream = new DataInputStream(new FileInputStream(histogramFile))) {
-            while (dataInputStream.available() > 0) {
-                Wig wig = new Wig();
-
-                wig.setStartIndex(dataInputStream.readInt());
-                wig.setEndIndex(dataInputStream.readInt());
-                wig.setValue(dataInputStream.readFloat());
-
-                histogram.add(wig);
-            }
-        }
-        return histogram;
+        final HistogramFileFormat.Histogram histogram = featureMetadataCache == null
+                ? HistogramFileFormat.read(histogramFile)
+                : featureMetadataCache.getHistogram(histogramFile, HistogramFileFormat::read);
+        return histogram.toWigs();
     }
 
     /**
@@ -1742,13 +1868,13 @@ public class FileManager {
     }
 
     /**
-     * Create a temporary index for a MAF file. Required for MAF files merging during registration
+     * Returns a temporary directory, used to sort MAF records during merging of several MAF files,
+     * the directory is created if it doesn't exist
      *
-     * @param file a MAF file
      * @param mafFile a MafFile object form database. This one will represent merged MAF file after registration
-     * @throws IOException
+     * @return temporary directory of a MAF file
      */
-    public void makeMafTempIndex(File file, MafFile mafFile) throws IOException {
+    public File getMafTempDir(MafFile mafFile) {
         final Map<String, Object> params = new HashMap<>();
         params.put(DIR_ID.name(), mafFile.getId());
         params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
@@ -1757,52 +1883,36 @@ public class FileManager {
         if (!tempDir.exists()) {
             makeMafTempDir(mafFile.getId());
         }
-
-        params.put(FILE_NAME.name(), file.getName());
-
-        File indexFile = new File(toRealPath(substitute(MAF_TEMP_INDEX, params)));
-        LOGGER.debug("Writing temporary MAF index at {}", indexFile.getAbsolutePath());
-
-        boolean compressed = file.getAbsoluteFile().getPath().endsWith(".gz");
-        MafCodec codec = new MafCodec(file.getAbsolutePath());
-
-        if (compressed) {
-            makeTabixCompressedIndex(file, indexFile, codec, MAF_TABIX_FORMAT);
-        } else {
-            makeTabixIndex(file, indexFile, codec, MAF_TABIX_FORMAT);
-        }
+        return tempDir;
     }
 
     /**
-     * Gets temporary MAF index file
-     * @param file original MAF file
-     * @param mafFile a MafFile object form database. This one will represent merged MAF file after registration
-     * @return temporary MAF index file
+     * Creates an index creator for a BigMaf file, merged form several MAF files. The index is built
+     * while the file is written
+     * @return an index creator for a BigMaf file
      */
-    public File getMafTempIndex(File file, MafFile mafFile) {
-        final Map<String, Object> params = new HashMap<>();
-        params.put(DIR_ID.name(), mafFile.getId());
-        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
-        params.put(FILE_NAME.name(), file.getName());
-
-        return new File(toRealPath(substitute(MAF_TEMP_INDEX, params)));
+    public TabixIndexCreator makeBigMafIndexCreator() {
+        return new TabixIndexCreator(BIGMAF_TABIX_FORMAT);
     }
 
     /**
-     * Creates an index for a specified MafFile, representing BigMaf file, merged form several MAF files
-     * @param mafFile MafFile to create index for
+     * Writes an index of a specified MafFile, representing BigMaf file, merged form several MAF files
+     * @param mafFile MafFile to write index for
+     * @param index an index, built by {@link #makeBigMafIndexCreator()}
      */
-    public void makeBigMafIndex(final MafFile mafFile) throws IOException {
-        makeMafIndex(mafFile, BIGMAF_TABIX_FORMAT);
+    public void writeBigMafIndex(final MafFile mafFile, final Index index) throws IOException {
+        final File indexFile = getMafIndexFile(mafFile);
+        LOGGER.debug("Writing MAF index at {}", indexFile.getAbsolutePath());
+        try (LittleEndianOutputStream outputStream = new LittleEndianOutputStream(
+                new BlockCompressedOutputStream(indexFile))) {
+            index.write(outputStream);
+        }
+        setMafIndex(mafFile, indexFile);
     }
 
     private void makeMafIndex(final MafFile mafFile, final TabixFormat tabixFormat) throws IOException {
-        final Map<String, Object> params = new HashMap<>();
-        params.put(DIR_ID.name(), mafFile.getId());
-        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
-
         File file = new File(mafFile.getPath());
-        File indexFile = new File(toRealPath(substitute(MAF_INDEX, params)));
+        File indexFile = getMafIndexFile(mafFile);
         LOGGER.debug("Writing MAF index at {}", indexFile.getAbsolutePath());
 
         if (mafFile.getCompressed()) {
@@ -1810,7 +1920,17 @@ public class FileManager {
         } else {
             makeTabixIndex(file, indexFile, new MafCodec(mafFile.getPath()), tabixFormat);
         }
+        setMafIndex(mafFile, indexFile);
+    }
 
+    private File getMafIndexFile(final MafFile mafFile) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put(DIR_ID.name(), mafFile.getId());
+        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
+        return new File(toRealPath(substitute(MAF_INDEX, params)));
+    }
+
+    private void setMafIndex(final MafFile mafFile, final File indexFile) {
         BiologicalDataItem indexItem = new BiologicalDataItem();
         indexItem.setCreatedDate(new Date());
         indexItem.setPath(indexFile.getAbsolutePath());
@@ -1823,13 +1943,13 @@ public class FileManager {
     }
 
     /**
-     * Creates a writer for a specified MafFile
+     * Creates a block compressed stream to write a specified MafFile
      *
-     * @param mafFile a MafFile to create writer for
-     * @return a MafFile to write
+     * @param mafFile a MafFile to create stream for
+     * @return a stream to write a MafFile
      * @throws IOException
      */
-    public BufferedWriter makeMafFileWriter(MafFile mafFile) throws IOException {
+    public BlockCompressedOutputStream makeMafFileOutputStream(MafFile mafFile) throws IOException {
         final Map<String, Object> params = new HashMap<>();
         params.put(DIR_ID.name(), mafFile.getId());
         params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
@@ -1842,8 +1962,7 @@ public class FileManager {
         mafFile.setPath(file.getAbsolutePath());
         mafFile.setCompressed(true);
 
-        return new BufferedWriter(new OutputStreamWriter(
-                new BlockCompressedOutputStream(file), Charset.defaultCharset()));
+        return new BlockCompressedOutputStream(file);
     }
 
     /**
@@ -1922,6 +2041,53 @@ public class FileManager {
         }
     }
 
+    /**
+     * Creates a directory for coverage files of a BAM file and returns a coverage file for a specified chromosome
+     *
+     * @param bamFile a BamFile, for which to create coverage file
+     * @param chromosomeName a name of a chromosome, for which to create coverage file
+     * @return a coverage file, that may be written
+     */
+    public File makeBamCoverageFile(final BamFile bamFile, final String chromosomeName) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put(DIR_ID.name(), bamFile.getId());
+        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
+        makeDir(substitute(BAM_COVERAGE_DIR, params));
+
+        params.put(CHROMOSOME_NAME.name(), chromosomeName);
+        return new File(toRealPath(substitute(BAM_COVERAGE_FILE, params)));
+    }
+
+    /**
+     * Gets a coverage file of a BAM file for a specified chromosome
+     *
+     * @param bamFile a BamFile, for which to get coverage file
+     * @param chromosomeName a name of a chromosome, for which to get coverage file
+     * @return a coverage file or null, if it doesn't exist
+     */
+    public File getBamCoverageFile(final BamFile bamFile, final String chromosomeName) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put(DIR_ID.name(), bamFile.getId());
+        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
+        params.put(CHROMOSOME_NAME.name(), chromosomeName);
+
+        File file = new File(toRealPath(substitute(BAM_COVERAGE_FILE, params)));
+        return file.exists() ? file : null;
+    }
+
+    /**
+     * Deletes all coverage files of a BAM file
+     *
+     * @param bamFile a BamFile, which coverage files should be deleted
+     * @throws IOException
+     */
+    public void deleteBamCoverage(final BamFile bamFile) throws IOException {
+        final Map<String, Object> params = new HashMap<>();
+        params.put(DIR_ID.name(), bamFile.getId());
+        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
+        deleteDir(substitute(BAM_COVERAGE_DIR, params));
+    }
+
     /**
      * Deletes a directory, containing all the stuff, related to a feature file
      *
@@ -1936,6 +2102,11 @@ public class FileManager {
         params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
 
         File dir = new File(toRealPath(substitute(filePathFormat, params)));
+        evictIndexReaders(getFeatureIndexDir(featureFile));
+        if (featureMetadataCache != null) {
+            featureMetadataCache.evictDirectory(dir);
+        }
+        evictTiles(featureFile.getFormat(), featureFile.getId());
         if (dir.exists()) {
             deleteDir(substitute(filePathFormat, params));
         }
@@ -2154,6 +2325,35 @@ public class FileManager {
                 GffCodec.GffType.GFF.getExtensions()[0]);
     }
 
+    private File getFeatureIndexDir(final FeatureFile featureFile) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put(FilePathPlaceholder.ROOT_DIR_NAME.name(), ROOT_DIR_NAME);
+        params.put(DIR_ID.name(), featureFile.getId());
+
+        FilePathFormat format = determineFilePathFormat(featureFile);
+
+        params.put(FEATURE_FILE_DIR.name(), substitute(format, params));
+        return new File(toRealPath(substitute(FEATURE_INDEX_DIR, params)));
+    }
+
+    private void evictMetadata(final File file) {
+        if (featureMetadataCache != null) {
+            featureMetadataCache.evict(file);
+        }
+    }
+
+    private void evictTiles(final BiologicalDataItemFormat format, final Long fileId) {
+        if (trackTileCache != null) {
+            trackTileCache.evict(format, fileId);
+        }
+    }
+
+    private void evictIndexReaders(final File indexDir) {
+        if (featureIndexReaderPool != null) {
+            featureIndexReaderPool.evict(indexDir.toPath());
+        }
+    }
+
     /**
      * Deletes a directory by it's path, relative to application's contents root
      * @param relativePath a path, relative to application's contents root
@@ -2258,7 +2458,8 @@ public class FileManager {
         final String realPath = toRealPath(relativePath);
         final File directory = new File(realPath);
 
-        final boolean result = directory.exists() || directory.mkdirs();
+        // a directory may be created concurrently by another chromosome of the same file
+        final boolean result = directory.exists() || directory.mkdirs() || directory.isDirectory();
         LOGGER.info(getMessage(MessagesConstants.INFO_FILES_STATUS_RESOURCE_AT_PATH, realPath, result));
         Assert.isTrue(result, getMessage(MessagesConstants.ERROR_FILES_MISSING_RESOURCE_AT_PATH, realPath));
         return directory;
@@ -230,7 +230,40 @@ public class TrackHelper {
     }
 
     /**
-     * Fills track with blocks, created by createNewBlockFunction function
+     * Returns a length of blocks of a track, each block represents a single pixel of a zoomed out track
+     * @param scaleFactor a scale factor of a track
+     * @return a number of bases in a block, at least one
+     */
+    public static int getBlockStep(final double scaleFactor) {
+        return (int) Math.max(1, Math.ceil(1.0 / scaleFactor));
+    }
+
+    /**
+     * Returns a start of a block, containing a position. Blocks of zoomed out tracks are aligned to a grid,
+     * that starts at the chromosome start, so that a track, loaded by tiles, consists of the same blocks
+     * as a track, loaded directly
+     * @param position a position on a chromosome
+     * @param step a length of blocks, see {@link #getBlockStep(double)}
+     * @return a start of a block
+     */
+    public static int getBlockStart(final int position, final int step) {
+        return (position - 1) / step * step + 1;
+    }
+
+    /**
+     * Returns an end of a block, containing a position, see {@link #getBlockStart(int, int)}
+     * @param position a position on a chromosome
+     * @param step a length of blocks, see {@link #getBlockStep(double)}
+     * @return an end of a block
+     */
+    public static int getBlockEnd(final int position, final int step) {
+        return getBlockStart(position, step) + step - 1;
+    }
+
+    /**
+     * Fills track with blocks, created by createNewBlockFunction function. Blocks are aligned to a grid,
+     * see {@link #getBlockStart(int, int)}, so the first and the last blocks may extend a track interval up
+     * to a whole block, but not over a chromosome end
      * @param track a Track to fill
      * @param createNewBlockFunction a function, that generates blocks
      * @param <T> Track's type
@@ -238,18 +271,15 @@ public class TrackHelper {
     public static <T extends Block> void fillBlocks(final Track<T> track,
                                                     final Function<Pair<Integer, Integer>, T> createNewBlockFunction) {
         final List<T> list = new ArrayList<>();
-        final double scaleFactor = track.getScaleFactor();
-        final int endIndex = track.getEndIndex();
-        final int step = (int) Math.max(1, Math.round(1.0 / scaleFactor));
-        int start = track.getStartIndex();
-        int helpEnd = start + step - 1;
-        while (helpEnd <= endIndex) {
-            list.add(createNewBlockFunction.apply(new ImmutablePair<>(start, helpEnd)));
-            start = helpEnd + 1;
-            helpEnd += step;
-        }
-        if (start <= endIndex) {
-            list.add(createNewBlockFunction.apply(new ImmutablePair<>(start, endIndex)));
+        final int step = getBlockStep(track.getScaleFactor());
+        final Integer chromosomeSize = track.getChromosome() != null ? track.getChromosome().getSize() : null;
+        final int endIndex = chromosomeSize != null && chromosomeSize >= track.getEndIndex() ?
+                Math.min(getBlockEnd(track.getEndIndex(), step), chromosomeSize) : track.getEndIndex();
+        int start = getBlockStart(track.getStartIndex(), step);
+        while (start <= endIndex) {
+            final int end = Math.min(getBlockEnd(start, step), endIndex);
+            list.add(createNewBlockFunction.apply(new ImmutablePair<>(start, end)));
+            start = end + 1;
         }
         track.setBlocks(list);
     }
@@ -0,0 +1,417 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.epam.catgenome.controller.JsonMapper;
+import com.epam.catgenome.entity.BiologicalDataItemFormat;
+import com.epam.catgenome.entity.reference.Chromosome;
+import com.epam.catgenome.entity.track.Block;
+import com.epam.catgenome.entity.track.ReferenceTrackMode;
+import com.epam.catgenome.entity.track.Track;
+import com.epam.catgenome.manager.reference.ReferenceGenomeManager;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Caches track responses of registered files by tiles. A requested interval is split into tiles of a fixed
+ * width in pixels, that are aligned to the chromosome start, so panning over a track at the same zoom level
+ * reuses the tiles, loaded by previous requests. Tiles are keyed by a file format and ID, a chromosome ID,
+ * a scale factor, a tile size, the options of a request and a tile index. Tiles are kept in two tiers: a heap
+ * cache of deserialized blocks, limited by their estimated heap size, and a directory of serialized tiles in
+ * the local file system, limited by its size as well, that survives restarts. Tiles of a file should be evicted
+ * whenever the file is reindexed or deleted. Each merged track has an ETag, computed from the tiles it is
+ * built of, to revalidate it cheaply.
+ * <p>
+ * Loaders align blocks of zoomed out tracks to a grid, that starts at the chromosome start, see
+ * {@link TrackHelper#getBlockStart(int, int)}, and a tile holds a whole number of grid blocks, so reference,
+ * GC content and WIG tiles are merged into the same blocks as a direct load returns. Features, that are
+ * collapsed by regions, e.g. VCF variations, are grouped by the same grid, but a tile doesn't know about
+ * features, that start in the previous tiles, so a feature, that crosses a tile boundary, may be grouped
+ * differently. Until cached and direct tracks are identical for all formats, the cache is disabled by default.
+ * </p>
+ */
+@Component
+public class TrackTileCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrackTileCache.class);
+
+    private static final String TILES_DIR = "tiles";
+    private static final String KEY_DELIMITER = "|";
+    private static final String TILE_EXTENSION = ".json";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final double DISK_TRIM_RATIO = 0.75;
+    /**
+     * Estimated heap size of a deserialized block per byte of its JSON: strings take two bytes per char,
+     * numbers are boxed into separate objects and each object has a header and references
+     */
+    private static final int HEAP_BYTES_PER_JSON_BYTE = 3;
+    private static final int HEAP_BYTES_PER_BLOCK = 64;
+
+    @Value("${track.tile.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${track.tile.width:1024}")
+    private int tileWidth;
+
+    /**
+     * Requests, covering more tiles, are loaded directly
+     */
+    @Value("${track.tile.max.count:32}")
+    private int maxTiles;
+
+    /**
+     * Estimated heap size of cached tiles, bytes
+     */
+    @Value("${track.tile.cache.heap.size:134217728}")
+    private long heapSize;
+
+    @Value("${track.tile.cache.disk.size:1073741824}")
+    private long diskSize;
+
+    @Value("${files.base.directory.path}")
+    private String baseDirPath;
+
+    @Autowired
+    private ReferenceGenomeManager referenceGenomeManager;
+
+    private final JsonMapper jsonMapper = new JsonMapper();
+    private Cache<String, Tile> tiles;
+    private File tilesDir;
+    private final AtomicLong diskUsage = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        jsonMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        tiles = CacheBuilder.newBuilder()
+                .maximumWeight(heapSize)
+                .weigher((String key, Tile tile) -> tile.heapSize)
+                .build();
+        if (diskSize > 0) {
+            tilesDir = new File(baseDirPath, TILES_DIR);
+            diskUsage.set(tilesDir.exists() ? FileUtils.sizeOfDirectory(tilesDir) : 0);
+        }
+    }
+
+    /**
+     * Loads a track of a registered file, reusing cached tiles
+     * @param format format of a file
+     * @param track a track to load, specifies a file ID, a chromosome, an interval and a scale factor
+     * @param blockType class of the track blocks, used to read tiles from disk
+     * @param options all other request parameters, that affect the loaded blocks
+     * @param loader loads a track for a single tile
+     * @return a loaded track with its ETag, the ETag is {@code null}, if the track wasn't tiled
+     * @throws E if the loader fails
+     */
+    public <T extends Block, E extends Exception> CachedTrack<T> load(final BiologicalDataItemFormat format,
+            final Track<T> track, final Class<T> blockType, final String options,
+            final TileLoader<T, E> loader) throws E {
+        final Chromosome chromosome = isCacheable(track) ? referenceGenomeManager.loadChromosome(
+                track.getChromosome().getId()) : null;
+        final int tileBases = getTileBases(track.getScaleFactor());
+        if (chromosome == null || track.getEndIndex() > chromosome.getSize() ||
+                tileIndex(track.getEndIndex(), tileBases) - tileIndex(track.getStartIndex(), tileBases) >= maxTiles) {
+            return new CachedTrack<>(loader.load(track), null);
+        }
+
+        final String filePrefix = filePrefix(format, track.getId());
+        final String prefix = filePrefix + chromosome.getId() + KEY_DELIMITER + track.getScaleFactor() +
+                KEY_DELIMITER + tileBases + KEY_DELIMITER + options + KEY_DELIMITER;
+        final Hasher eTag = Hashing.murmur3_128().newHasher()
+                .putInt(track.getStartIndex())
+                .putInt(track.getEndIndex());
+        final List<T> blocks = new ArrayList<>();
+        ReferenceTrackMode mode = null;
+        boolean modeHasBlocks = false;
+        final int first = tileIndex(track.getStartIndex(), tileBases);
+        for (int index = first; index <= tileIndex(track.getEndIndex(), tileBases); index++) {
+            final int tileStart = index * tileBases + 1;
+            final int tileEnd = (int) Math.min((long) tileStart + tileBases - 1, chromosome.getSize());
+            final Tile tile = getTile(filePrefix, prefix + index, track, blockType, tileStart, tileEnd, loader);
+            addBlocks(blocks, tile.<T>getBlocks(), track, index == first ? 0 : tileStart);
+            // a mode of the first tile, that has any blocks, e.g. GC content, is set to a merged track
+            if (index == first || !modeHasBlocks && !tile.blocks.isEmpty()) {
+                mode = tile.mode;
+                modeHasBlocks = !tile.blocks.isEmpty();
+            }
+            eTag.putUnencodedChars(tile.hash);
+        }
+
+        final Track<T> result = new Track<>(track);
+        result.setChromosome(chromosome);
+        result.setBlocks(blocks);
+        if (mode != null) {
+            result.setMode(mode);
+            eTag.putUnencodedChars(mode.name());
+        }
+        return new CachedTrack<>(result, '"' + eTag.hash().toString() + '"');
+    }
+
+    /**
+     * Evicts all tiles of a file
+     * @param format format of a reindexed or deleted file
+     * @param fileId ID of a file
+     */
+    public void evict(final BiologicalDataItemFormat format, final Long fileId) {
+        if (tiles == null || format == null || fileId == null) {
+            return;
+        }
+        // feature counts files share IDs with gene files and are loaded as gene tracks
+        final BiologicalDataItemFormat trackFormat = format == BiologicalDataItemFormat.FEATURE_COUNTS ?
+                BiologicalDataItemFormat.GENE : format;
+        final String prefix = filePrefix(trackFormat, fileId);
+        tiles.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        if (tilesDir != null) {
+            final File dir = new File(new File(tilesDir, trackFormat.name()), fileId.toString());
+            if (dir.exists()) {
+                final long size = FileUtils.sizeOfDirectory(dir);
+                FileUtils.deleteQuietly(dir);
+                diskUsage.addAndGet(-size);
+            }
+        }
+    }
+
+    private boolean isCacheable(final Track<?> track) {
+        return enabled && track.getId() != null && track.getChromosome() != null &&
+                track.getChromosome().getId() != null && track.getStartIndex() != null &&
+                track.getEndIndex() != null && track.getStartIndex() > 0 &&
+                track.getStartIndex() <= track.getEndIndex() && track.getScaleFactor() != null &&
+                track.getScaleFactor() > 0;
+    }
+
+    /**
+     * Returns a number of bases in a tile. A zoomed out tile holds a whole number of grid blocks, see
+     * {@link TrackHelper#getBlockStep(double)}
+     */
+    private int getTileBases(final Double scaleFactor) {
+        if (scaleFactor == null || scaleFactor <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        final double tileBases = scaleFactor < 1 ? (double) tileWidth * TrackHelper.getBlockStep(scaleFactor)
+                : Math.ceil(tileWidth / scaleFactor);
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE / 2, tileBases));
+    }
+
+    private static int tileIndex(final int position, final int tileBases) {
+        return (position - 1) / tileBases;
+    }
+
+    private static String filePrefix(final BiologicalDataItemFormat format, final Long fileId) {
+        return format.name() + KEY_DELIMITER + fileId + KEY_DELIMITER;
+    }
+
+    /**
+     * Adds blocks of a tile, that overlap a requested interval. Blocks, that start before the tile, are
+     * taken from the previous tiles, only the first tile adds them
+     */
+    private static <T extends Block> void addBlocks(final List<T> blocks, final List<T> tileBlocks,
+                                                    final Track<T> track, final int tileStart) {
+        for (T block : tileBlocks) {
+            final Integer start = block.getStartIndex();
+            final Integer end = block.getEndIndex();
+            if (start != null && (start < tileStart || start > track.getEndIndex())
+                    || start == null && tileStart > 0
+                    || end != null && end < track.getStartIndex()) {
+                continue;
+            }
+            blocks.add(block);
+        }
+    }
+
+    private <T extends Block, E extends Exception> Tile getTile(final String filePrefix, final String key,
+            final Track<T> track, final Class<T> blockType, final int tileStart, final int tileEnd,
+            final TileLoader<T, E> loader) throws E {
+        Tile tile = tiles.getIfPresent(key);
+        if (tile != null) {
+            return tile;
+        }
+        final File file = tilesDir == null ? null : getTileFile(filePrefix, key);
+        tile = readTile(file, blockType);
+        if (tile == null) {
+            final Track<T> tileTrack = new Track<>(track);
+            tileTrack.setChromosome(new Chromosome(track.getChromosome().getId()));
+            tileTrack.setStartIndex(tileStart);
+            tileTrack.setEndIndex(tileEnd);
+            final Track<T> loaded = loader.load(tileTrack);
+            tile = writeTile(file, loaded.getBlocks(), loaded.getMode());
+        }
+        tiles.put(key, tile);
+        return tile;
+    }
+
+    private File getTileFile(final String filePrefix, final String key) {
+        final String[] fileKey = filePrefix.split("\\" + KEY_DELIMITER);
+        return new File(tilesDir, fileKey[0] + File.separator + fileKey[1] + File.separator +
+                Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8) + TILE_EXTENSION);
+    }
+
+    private <T extends Block> Tile readTile(final File file, final Class<T> blockType) {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try {
+            final byte[] bytes = Files.readAllBytes(file.toPath());
+            int separator = 0;
+            while (separator < bytes.length && bytes[separator] != '\n') {
+                separator++;
+            }
+            final String modeName = new String(bytes, 0, separator, StandardCharsets.UTF_8);
+            final JavaType type = jsonMapper.getTypeFactory().constructCollectionType(List.class, blockType);
+            final List<T> blocks = jsonMapper.readValue(bytes, separator + 1, bytes.length - separator - 1, type);
+            if (!file.setLastModified(System.currentTimeMillis())) {
+                LOGGER.debug("Failed to touch a tile {}", file);
+            }
+            return new Tile(blocks, modeName.isEmpty() ? null : ReferenceTrackMode.valueOf(modeName),
+                    Arrays.copyOfRange(bytes, separator + 1, bytes.length));
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warn("Failed to read a tile " + file, e);
+            FileUtils.deleteQuietly(file);
+            return null;
+        }
+    }
+
+    private <T extends Block> Tile writeTile(final File file, final List<T> blocks, final ReferenceTrackMode mode) {
+        final List<T> tileBlocks = blocks == null ? Collections.emptyList() : blocks;
+        final byte[] bytes;
+        try {
+            bytes = jsonMapper.writeValueAsBytes(tileBlocks);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        final Tile tile = new Tile(tileBlocks, mode, bytes);
+        if (file != null) {
+            final File temp = new File(file.getParentFile(), file.getName() + Thread.currentThread().getId() +
+                    TEMP_EXTENSION);
+            try {
+                FileUtils.writeByteArrayToFile(temp, (mode == null ? "\n" : mode.name() + '\n')
+                        .getBytes(StandardCharsets.UTF_8));
+                FileUtils.writeByteArrayToFile(temp, bytes, true);
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                if (diskUsage.addAndGet(file.length()) > diskSize) {
+                    trimDisk();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Failed to write a tile " + file, e);
+                FileUtils.deleteQuietly(temp);
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Deletes the least recently used tiles, until the disk tier shrinks to a part of its limit
+     */
+    private synchronized void trimDisk() {
+        if (diskUsage.get() <= diskSize) {
+            return;
+        }
+        final List<File> files = new ArrayList<>(FileUtils.listFiles(tilesDir, new String[] {"json"}, true));
+        files.sort(Comparator.comparingLong(File::lastModified));
+        long size = FileUtils.sizeOfDirectory(tilesDir);
+        for (File file : files) {
+            if (size <= diskSize * DISK_TRIM_RATIO) {
+                break;
+            }
+            final long length = file.length();
+            if (file.delete()) {
+                size -= length;
+            }
+        }
+        diskUsage.set(size);
+    }
+
+    /**
+     * A tile with its blocks, the hash of its serialized blocks and their estimated heap size
+     */
+    private static final class Tile {
+        private final List<? extends Block> blocks;
+        private final ReferenceTrackMode mode;
+        private final String hash;
+        private final int heapSize;
+
+        private Tile(final List<? extends Block> blocks, final ReferenceTrackMode mode, final byte[] bytes) {
+            this.blocks = blocks;
+            this.mode = mode;
+            this.hash = Hashing.murmur3_128().hashBytes(bytes).toString();
+            this.heapSize = (int) Math.min(Integer.MAX_VALUE,
+                    (long) bytes.length * HEAP_BYTES_PER_JSON_BYTE + (long) blocks.size() * HEAP_BYTES_PER_BLOCK);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T extends Block> List<T> getBlocks() {
+            return (List<T>) blocks;
+        }
+    }
+
+    /**
+     * A track, merged from tiles, and its ETag
+     */
+    public static final class CachedTrack<T extends Block> {
+        private final Track<T> track;
+        private final String eTag;
+
+        public CachedTrack(final Track<T> track, final String eTag) {
+            this.track = track;
+            this.eTag = eTag;
+        }
+
+        public Track<T> getTrack() {
+            return track;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+
+    @FunctionalInterface
+    public interface TileLoader<T extends Block, E extends Exception> {
+        Track<T> load(Track<T> track) throws E;
+    }
+}
@@ -0,0 +1,359 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.bam;
+
+import com.epam.catgenome.entity.bam.BamFile;
+import com.epam.catgenome.entity.reference.Chromosome;
+import com.epam.catgenome.entity.track.Track;
+import com.epam.catgenome.entity.wig.Wig;
+import com.epam.catgenome.manager.FileManager;
+import com.epam.catgenome.manager.parallel.TaskExecutorService;
+import com.epam.catgenome.util.Utils;
+import htsjdk.samtools.AlignmentBlock;
+import htsjdk.samtools.SAMException;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMRecordIterator;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.SamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Builds and reads precomputed multi-resolution coverage of registered BAM files.
+ * <p>
+ * Coverage of each chromosome is stored in a separate file next to the other BAM derived files. The first level
+ * of a file holds mean coverage of bins of {@code bam.coverage.pyramid.bin.size} bases, each next level merges
+ * {@link #LEVEL_FACTOR} bins of the previous one, up to a single bin for the whole chromosome. Zoomed out
+ * track requests read only the bins of the level, that matches the requested scale.
+ * </p>
+ * <p>
+ * File layout: bin size, chromosome length and number of levels, followed by bin size and bins count of
+ * each level and by float values of all levels' bins.
+ * </p>
+ * <p>
+ * Coverage is built on the shared index executor. If a BAM file is unregistered during a build, the build is
+ * cancelled and doesn't write files after its coverage is deleted.
+ * </p>
+ */
+@Service
+public class BamCoverageManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BamCoverageManager.class);
+
+    private static final int LEVEL_FACTOR = 4;
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    @Autowired
+    private BamHelper bamHelper;
+
+    @Autowired
+    private BamFileManager bamFileManager;
+
+    @Autowired
+    private FileManager fileManager;
+
+    @Autowired
+    private TaskExecutorService taskExecutorService;
+
+    @Value("#{catgenome['bam.coverage.pyramid.enabled'] ?: true}")
+    private boolean enabled;
+
+    @Value("#{catgenome['bam.coverage.pyramid.async'] ?: true}")
+    private boolean async;
+
+    @Value("#{catgenome['bam.coverage.pyramid.bin.size'] ?: 64}")
+    private int binSize;
+
+    private final Map<Long, CoverageBuild> builds = new ConcurrentHashMap<>();
+
+    /**
+     * Builds coverage files for all chromosomes of a BAM file. Depending on configuration, coverage is built
+     * in background, until it is ready BAM regions are calculated from the file itself.
+     *
+     * @param bamFile a registered BAM file
+     * @param chromosomes chromosomes of the BAM file's reference
+     */
+    public void buildCoverage(final BamFile bamFile, final List<Chromosome> chromosomes) {
+        if (!enabled) {
+            return;
+        }
+        final CoverageBuild build = new CoverageBuild();
+        builds.put(bamFile.getId(), build);
+        if (async) {
+            build.setFuture(taskExecutorService.getIndexExecutor().submit(
+                    () -> writeCoverage(bamFile, chromosomes, build)));
+        } else {
+            writeCoverage(bamFile, chromosomes, build);
+        }
+    }
+
+    /**
+     * Deletes coverage files of a BAM file and cancels a build of its coverage, if it isn't finished yet
+     *
+     * @param bamFile a BAM file to delete coverage for
+     * @throws IOException if files can't be deleted
+     */
+    public void deleteCoverage(final BamFile bamFile) throws IOException {
+        final CoverageBuild build = builds.remove(bamFile.getId());
+        if (build != null) {
+            // waits for a chromosome file, that is being written, so that it is deleted as well
+            build.cancel();
+        }
+        fileManager.deleteBamCoverage(bamFile);
+    }
+
+    /**
+     * Loads coverage for a track, that specifies a BAM file ID, chromosome and range. A level of precomputed
+     * coverage is selected according to the track's scale factor.
+     *
+     * @param track a track, that specifies BAM file ID, chromosome and range
+     * @return coverage bins with non zero coverage or null, if coverage wasn't built for the BAM file
+     * @throws IOException if coverage file can't be read
+     */
+    public List<Wig> loadCoverage(final Track<?> track) throws IOException {
+        if (!enabled) {
+            return null;
+        }
+        final BamFile bamFile = bamFileManager.load(track.getId());
+        if (bamFile == null) {
+            return null;
+        }
+        final File coverageFile = fileManager.getBamCoverageFile(bamFile, track.getChromosome().getName());
+        if (coverageFile == null) {
+            return null;
+        }
+
+        final double desiredBinSize = track.getScaleFactor() != null && track.getScaleFactor() > 0
+                ? 1 / track.getScaleFactor() : 1;
+        try (RandomAccessFile file = new RandomAccessFile(coverageFile, "r")) {
+            file.readInt();
+            final int length = file.readInt();
+            final int levelsCount = file.readInt();
+            long levelOffset = (long) (Integer.BYTES * 3 + levelsCount * Integer.BYTES * 2);
+            int level = 0;
+            int levelBinSize = file.readInt();
+            int levelBinsCount = file.readInt();
+            for (int i = 1; i < levelsCount; i++) {
+                final int nextBinSize = file.readInt();
+                final int nextBinsCount = file.readInt();
+                if (nextBinSize > desiredBinSize) {
+                    break;
+                }
+                levelOffset += (long) levelBinsCount * Float.BYTES;
+                level = i;
+                levelBinSize = nextBinSize;
+                levelBinsCount = nextBinsCount;
+            }
+            LOGGER.debug("Loading coverage of BAM file {} from level {} with bin size {}",
+                    bamFile.getId(), level, levelBinSize);
+            return readBins(file.getChannel(), levelOffset, levelBinSize, levelBinsCount, length,
+                    track.getStartIndex(), track.getEndIndex());
+        }
+    }
+
+    private List<Wig> readBins(final FileChannel channel, final long levelOffset, final int levelBinSize,
+                               final int levelBinsCount, final int length, final int startIndex,
+                               final int endIndex) throws IOException {
+        final int firstBin = Math.max(0, (startIndex - 1) / levelBinSize);
+        final int lastBin = Math.min(levelBinsCount - 1, (endIndex - 1) / levelBinSize);
+        final List<Wig> result = new ArrayList<>();
+        if (firstBin > lastBin) {
+            return result;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate((lastBin - firstBin + 1) * Float.BYTES);
+        long position = levelOffset + (long) firstBin * Float.BYTES;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of BAM coverage file");
+            }
+            position += read;
+        }
+        buffer.flip();
+        for (int bin = firstBin; bin <= lastBin; bin++) {
+            final float value = buffer.getFloat();
+            if (value > 0) {
+                result.add(new Wig(bin * levelBinSize + 1, Math.min((bin + 1) * levelBinSize, length), value));
+            }
+        }
+        return result;
+    }
+
+    private void writeCoverage(final BamFile bamFile, final List<Chromosome> chromosomes,
+                               final CoverageBuild build) {
+        final long start = System.currentTimeMillis();
+        try {
+            if (build.isCancelled()) {
+                return;
+            }
+            fileManager.deleteBamCoverage(bamFile);
+            try (SamReader reader = bamHelper.makeSamReader(bamFile, chromosomes, bamFile.getReferenceId())) {
+                final SAMFileHeader header = reader.getFileHeader();
+                for (Chromosome chromosome : chromosomes) {
+                    if (build.isCancelled()) {
+                        LOGGER.debug("Coverage build of BAM file {} was cancelled", bamFile.getId());
+                        return;
+                    }
+                    SAMSequenceRecord sequence = header.getSequence(chromosome.getName());
+                    if (sequence == null) {
+                        sequence = header.getSequence(Utils.changeChromosomeName(chromosome.getName()));
+                    }
+                    if (sequence != null) {
+                        writeChromosomeCoverage(reader, bamFile, chromosome.getName(), sequence, build);
+                    }
+                }
+            }
+            LOGGER.debug("Coverage of BAM file {} was built in {} ms", bamFile.getId(),
+                    System.currentTimeMillis() - start);
+        } catch (IOException | SAMException e) {
+            LOGGER.error("Failed to build coverage of BAM file " + bamFile.getId(), e);
+        } finally {
+            builds.remove(bamFile.getId(), build);
+        }
+    }
+
+    private void writeChromosomeCoverage(final SamReader reader, final BamFile bamFile,
+                                         final String chromosomeName, final SAMSequenceRecord sequence,
+                                         final CoverageBuild build) throws IOException {
+        final int length = sequence.getSequenceLength();
+        final long[] bases = new long[(length + binSize - 1) / binSize];
+        try (SAMRecordIterator iterator = reader.queryOverlapping(sequence.getSequenceName(), 1, length)) {
+            while (iterator.hasNext()) {
+                final SAMRecord record = iterator.next();
+                if (record.getReadUnmappedFlag() || record.isSecondaryOrSupplementary()
+                        || record.getDuplicateReadFlag() || record.getReadFailsVendorQualityCheckFlag()) {
+                    continue;
+                }
+                for (AlignmentBlock block : record.getAlignmentBlocks()) {
+                    addBases(bases, block.getReferenceStart() - 1, block.getLength(), length);
+                }
+            }
+        }
+
+        final List<long[]> levels = new ArrayList<>();
+        levels.add(bases);
+        long[] level = bases;
+        while (level.length > 1) {
+            level = mergeBins(level);
+            levels.add(level);
+        }
+
+        synchronized (build) {
+            if (build.isCancelled()) {
+                return;
+            }
+            final File coverageFile = fileManager.makeBamCoverageFile(bamFile, chromosomeName);
+            final File tempFile = new File(coverageFile.getPath() + TEMP_FILE_SUFFIX);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(binSize);
+                out.writeInt(length);
+                out.writeInt(levels.size());
+                int levelBinSize = binSize;
+                for (long[] levelBases : levels) {
+                    out.writeInt(levelBinSize);
+                    out.writeInt(levelBases.length);
+                    levelBinSize *= LEVEL_FACTOR;
+                }
+                levelBinSize = binSize;
+                for (long[] levelBases : levels) {
+                    for (int bin = 0; bin < levelBases.length; bin++) {
+                        final int binLength = Math.min(levelBinSize, length - bin * levelBinSize);
+                        out.writeFloat((float) levelBases[bin] / binLength);
+                    }
+                    levelBinSize *= LEVEL_FACTOR;
+                }
+            }
+            Files.move(tempFile.toPath(), coverageFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private void addBases(final long[] bases, final int start, final int blockLength, final int length) {
+        final int end = Math.min(start + blockLength, length);
+        int position = Math.max(start, 0);
+        while (position < end) {
+            final int bin = position / binSize;
+            final int binEnd = Math.min((bin + 1) * binSize, end);
+            bases[bin] += binEnd - position;
+            position = binEnd;
+        }
+    }
+
+    private static long[] mergeBins(final long[] bins) {
+        final long[] merged = new long[(bins.length + LEVEL_FACTOR - 1) / LEVEL_FACTOR];
+        for (int i = 0; i < bins.length; i++) {
+            merged[i / LEVEL_FACTOR] += bins[i];
+        }
+        return merged;
+    }
+
+    /**
+     * State of a coverage build of a BAM file. Coverage files are written under the lock of the build, so that
+     * cancellation waits for a file, that is being written
+     */
+    private static final class CoverageBuild {
+        private volatile boolean cancelled;
+        private Future<?> future;
+
+        private boolean isCancelled() {
+            return cancelled;
+        }
+
+        private synchronized void setFuture(final Future<?> future) {
+            this.future = future;
+            if (cancelled) {
+                future.cancel(false);
+            }
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -96,7 +96,7 @@ import com.epam.catgenome.manager.bam.handlers.Handler;
 import com.epam.catgenome.manager.reference.ReferenceManager;
 import com.epam.catgenome.manager.reference.io.ChromosomeReferenceSequence;
 import com.epam.catgenome.util.BamUtil;
-import com.epam.catgenome.util.ConsensusSequenceUtils;
+import com.epam.catgenome.util.ConsensusSequenceCounter;
 import com.epam.catgenome.util.HdfsSeekableInputStream;
 import com.epam.catgenome.util.Utils;
 import htsjdk.samtools.cram.ref.ReferenceSource;
@@ -167,8 +167,9 @@ public class BamHelper {
 
         final BamFile bamFile = bamFileManager.load(track.getId());
         Assert.notNull(bamFile, getMessage(MessagesConstants.ERROR_FILE_NOT_FOUND));
-        ConsensusSequenceUtils.calculateConsensusSequence(track,
-                getReadsFromFile(chromosome, track, bamFile, track.getBlocks()));
+        final ConsensusSequenceCounter counter = new ConsensusSequenceCounter(track.getBlocks());
+        countConsensusBases(chromosome, track, bamFile, counter);
+        counter.fill();
 
         final long end = System.currentTimeMillis();
         LOG.debug("Calculation of consensus sequence tooks " + (end - start) + "ms.");
@@ -426,49 +427,34 @@ public class BamHelper {
         return iterator;
     }
 
-    private Map<Sequence, List<SAMRecord>> getReadsFromFile(
-            final Chromosome chromosome, final Track<Sequence> track, final BamFile bamFile,
-            final List<Sequence> blocks) throws IOException {
-        final Map<Sequence, List<SAMRecord>> records = new HashMap<>();
+    private void countConsensusBases(final Chromosome chromosome, final Track<Sequence> track,
+                                     final BamFile bamFile, final ConsensusSequenceCounter counter)
+            throws IOException {
         try (SamReader reader = makeSamReader(bamFile, Collections.singletonList(chromosome),
                 chromosome.getReferenceId())) {
             LOG.debug(getMessage(MessagesConstants.DEBUG_FILE_OPENING, bamFile.getPath()));
             String chromosomeName = chromosome.getName();
-            final int startIndex = track.getStartIndex();
-            final int endIndex = track.getEndIndex();
+            // blocks are aligned to a grid and may extend the track interval
+            final List<Sequence> blocks = track.getBlocks();
+            final int startIndex = blocks.isEmpty() ? track.getStartIndex() : blocks.get(0).getStartIndex();
+            final int endIndex = blocks.isEmpty() ? track.getEndIndex() :
+                    blocks.get(blocks.size() - 1).getEndIndex();
 
             if (reader.getFileHeader().getSequence(chromosomeName) == null) {
                 chromosomeName = Utils.changeChromosomeName(chromosomeName);
             }
-            final SAMRecordIterator iterator = reader.queryOverlapping(chromosomeName, startIndex, endIndex);
-
-            LOG.debug(getMessage(MessagesConstants.DEBUG_GET_ITERATOR_QUERY, iterator.toString()));
-            while (iterator.hasNext()) {
-                final SAMRecord samRecord = iterator.next();
-                //if read unmapped
-                if (!samRecord.getSAMFlags().contains(SAMFlag.READ_UNMAPPED) && !samRecord.getCigar().isEmpty() &&
-                        samRecord.getEnd() > samRecord.getStart()) {
-                    addRecordToBlock(blocks, records, samRecord);
+            try (SAMRecordIterator iterator = reader.queryOverlapping(chromosomeName, startIndex, endIndex)) {
+                LOG.debug(getMessage(MessagesConstants.DEBUG_GET_ITERATOR_QUERY, iterator.toString()));
+                while (iterator.hasNext()) {
+                    final SAMRecord samRecord = iterator.next();
+                    //if read unmapped
+                    if (!samRecord.getSAMFlags().contains(SAMFlag.READ_UNMAPPED) && !samRecord.getCigar().isEmpty()
+                            && samRecord.getEnd() > samRecord.getStart()) {
+                        counter.add(samRecord);
+                    }
                 }
             }
         }
-        return records;
-    }
-
-    private void addRecordToBlock(List<Sequence> blocks, Map<Sequence, List<SAMRecord>> records,
-            SAMRecord samRecord) {
-        blocks.forEach(block -> {
-            if (!(samRecord.getStart() > block.getEndIndex()) && !(samRecord.getEnd() < block
-                        .getStartIndex())) {
-                List<SAMRecord> lst = records.get(block);
-                if (lst == null) {
-                    lst = new ArrayList<>();
-                }
-                lst.add(samRecord);
-                records.remove(block);
-                records.put(block, lst);
-            }
-        });
     }
 
     public SamReader makeSamReader(final BamFile bamFile, List<Chromosome> chromosomes, Long referenceId)
@@ -33,6 +33,7 @@ import com.epam.catgenome.entity.reference.Chromosome;
 import com.epam.catgenome.entity.reference.Reference;
 import com.epam.catgenome.entity.reference.Sequence;
 import com.epam.catgenome.entity.track.Track;
+import com.epam.catgenome.entity.wig.Wig;
 import com.epam.catgenome.manager.BiologicalDataItemManager;
 import com.epam.catgenome.manager.TrackHelper;
 import com.epam.catgenome.manager.bam.handlers.SAMRecordHandler;
@@ -86,6 +87,9 @@ public class BamManager {
     @Autowired
     private BamFileManager bamFileManager;
 
+    @Autowired
+    private BamCoverageManager bamCoverageManager;
+
     @Autowired
     private BiologicalDataItemManager biologicalDataItemManager;
 
@@ -128,6 +132,7 @@ public class BamManager {
 
             biologicalDataItemManager.createBiologicalDataItem(newBamFile.getIndex());
             bamFileManager.create(newBamFile);
+            bamCoverageManager.buildCoverage(newBamFile, chromosomes);
         } finally {
             if (newBamFile != null && newBamFile.getId() != null
                     && bamFileManager.load(newBamFile.getId()) == null) {
@@ -148,6 +153,7 @@ public class BamManager {
         BamFile fileToDelete = bamFileManager.load(bamFileId);
         Assert.notNull(fileToDelete, getMessage(MessagesConstants.ERROR_FILE_NOT_FOUND));
         bamFileManager.delete(fileToDelete);
+        bamCoverageManager.deleteCoverage(fileToDelete);
         return fileToDelete;
     }
 
@@ -261,13 +267,13 @@ public class BamManager {
 
     private void fillEmitterByBamTrack(final Track<Read> track, final BamQueryOption options,
                                                  ResponseBodyEmitter emitter) throws IOException {
-        final BamTrackEmitter bamTrackEmitter = new BamTrackEmitter(emitter);
+        final BamTrackEmitter bamTrackEmitter = BamTrackEmitter.create(emitter, options.getEncoding());
 
         // TODO: track.getEndIndex() - track.getStartIndex() > maxCoverageRange
         if (options.getMode() == BamTrackMode.REGIONS) {
             taskExecutorService.executeTrackTask(
                 bamTrackEmitter, SEQUENTIAL,
-                () -> bamTrackEmitter.writeTrackAndFinish(bamHelper.getRegionsFromFile(track))
+                () -> bamTrackEmitter.writeTrackAndFinish(getRegions(track))
             );
         } else {
             taskExecutorService.executeTrackTask(
@@ -280,7 +286,7 @@ public class BamManager {
     private void fillEmitterByBamTrackFromURL(final Track<Read> track, String bamUrl, String indexUrl,
                                                         final BamQueryOption options, ResponseBodyEmitter emitter)
             throws IOException {
-        final BamTrackEmitter bamTrackEmitter = new BamTrackEmitter(emitter);
+        final BamTrackEmitter bamTrackEmitter = BamTrackEmitter.create(emitter, options.getEncoding());
 
         if (track.getEndIndex() - track.getStartIndex() > maxCoverageRange) {
             taskExecutorService.executeTrackTask(
@@ -294,4 +300,18 @@ public class BamManager {
             );
         }
     }
+
+    /**
+     * Returns regions of a BAM track from precomputed coverage, if it is available,
+     * otherwise checks BAM file for reads presence
+     */
+    private BamTrack<Read> getRegions(final Track<Read> track) throws IOException {
+        final List<Wig> coverage = bamCoverageManager.loadCoverage(track);
+        if (coverage == null) {
+            return bamHelper.getRegionsFromFile(track);
+        }
+        final BamTrack<Read> bamTrack = new BamTrack<>(track);
+        bamTrack.setRegions(coverage);
+        return bamTrack;
+    }
 }
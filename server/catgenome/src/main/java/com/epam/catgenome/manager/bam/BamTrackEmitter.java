@@ -26,6 +26,7 @@ package com.epam.catgenome.manager.bam;
 
 import com.epam.catgenome.controller.JsonMapper;
 import com.epam.catgenome.entity.bam.BamTrack;
+import com.epam.catgenome.entity.bam.BamTrackEncoding;
 import com.epam.catgenome.entity.bam.Read;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -42,12 +43,13 @@ import java.io.IOException;
  * In case of any exception during writing to {@link BamTrackEmitter} {@link BamTrackEmitter#finishWithException} should
  * be called.
  * BamTrackEmitter produces buffering.
+ * Use {@link BamTrackEmitter#create} to get an emitter for a requested {@link BamTrackEncoding}.
  */
 public class BamTrackEmitter {
 
     private static final int BUFFER_SIZE = 512 * 1024;
 
-    private JsonMapper jsonMapper;
+    private final JsonMapper jsonMapper;
 
     private final ResponseBodyEmitter emitter;
 
@@ -65,6 +67,31 @@ public class BamTrackEmitter {
         writeHeader();
     }
 
+    /**
+     * Constructor for emitters, that don't use JSON encoding of reads
+     * @param emitter to write data to
+     * @param jsonMapper to write track metadata
+     */
+    protected BamTrackEmitter(ResponseBodyEmitter emitter, JsonMapper jsonMapper) {
+        this.emitter = emitter;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Creates an emitter, that writes a track in a specified encoding
+     * @param emitter to write data to
+     * @param encoding of a track, {@link BamTrackEncoding#JSON} is used if it is not specified
+     * @return emitter for a specified encoding
+     * @throws IOException in case of connections troubles
+     */
+    public static BamTrackEmitter create(ResponseBodyEmitter emitter, BamTrackEncoding encoding)
+            throws IOException {
+        if (encoding == BamTrackEncoding.BINARY) {
+            return new BinaryBamTrackEmitter(emitter);
+        }
+        return new BamTrackEmitter(emitter);
+    }
+
     /**
      * Write a read to the emitter. Real data transferring could not be happened due to buffering
      * @param read to be written
@@ -94,9 +121,7 @@ public class BamTrackEmitter {
         checkFinished();
         write("],");
 
-        JsonNode metadata = jsonMapper.convertValue(bamTrack, JsonNode.class);
-        ((ObjectNode) metadata).remove("blocks");
-        write(jsonMapper.writeValueAsString(metadata).substring(1));
+        write(writeMetadata(bamTrack).substring(1));
         write(",\"status\":\"OK\"}");
 
         sendBuffer();
@@ -138,7 +163,27 @@ public class BamTrackEmitter {
         stringBuffer.setLength(0);
     }
 
-    private void checkFinished() {
+    /**
+     * Serializes a track to JSON ignoring {@link BamTrack#blocks} field
+     * @param bamTrack to be serialized
+     * @return JSON object with track metadata
+     * @throws IOException in case of serialization errors
+     */
+    protected String writeMetadata(BamTrack<Read> bamTrack) throws IOException {
+        JsonNode metadata = jsonMapper.convertValue(bamTrack, JsonNode.class);
+        ((ObjectNode) metadata).remove("blocks");
+        return jsonMapper.writeValueAsString(metadata);
+    }
+
+    protected ResponseBodyEmitter getEmitter() {
+        return emitter;
+    }
+
+    protected void markFinished() {
+        finished = true;
+    }
+
+    protected void checkFinished() {
         if (finished) {
             throw new IllegalStateException("Already finished");
         }
@@ -0,0 +1,367 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.bam;
+
+import com.epam.catgenome.controller.JsonMapper;
+import com.epam.catgenome.entity.bam.BamTrack;
+import com.epam.catgenome.entity.bam.BasePosition;
+import com.epam.catgenome.entity.bam.Read;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * {@link BamTrackEmitter} implementation, that writes reads in a compact columnar binary format instead of JSON.
+ * <p>
+ * The response is a sequence of frames: {@code [byte type][int length][length bytes of payload]}, all numbers
+ * are big-endian. Frame types are:
+ * <ul>
+ *     <li>{@link #READS_FRAME} - a block of up to {@link #BLOCK_SIZE} reads;</li>
+ *     <li>{@link #TRACK_FRAME} - UTF-8 JSON with track metadata (all fields except blocks), always the last one
+ *     in a successful response;</li>
+ *     <li>{@link #ERROR_FRAME} - UTF-8 error message, finishes a failed response.</li>
+ * </ul>
+ * A reads block is laid out by columns, for N reads:
+ * <ul>
+ *     <li>int N;</li>
+ *     <li>int[N] startIndex, int[N] endIndex, int[N] flagMask, int[N] tLen, int[N] pNext;</li>
+ *     <li>byte[N] mappingQuality (unsigned), byte[N] stand (1 for forward strand);</li>
+ *     <li>dictionary encoded string columns: name, cigarString, readGroup, rName, rNext, pairedReadName. Each
+ *     column is an int dictionary size M, M values as int length followed by UTF-8 bytes, and int[N] indexes
+ *     in the dictionary, -1 stands for a missing value;</li>
+ *     <li>sequence columns: headSequence, tailSequence. Each column is int[N] lengths, -1 stands for a missing
+ *     value, followed by ASCII bytes of all present sequences;</li>
+ *     <li>different bases: int[N] counts, int[total] relative positions, byte[total] ASCII bases.</li>
+ * </ul>
+ * </p>
+ * Frames are written into a pooled buffer, that is sent to a client when it is full or a track is finished.
+ * A sent buffer is streamed to a client without a copy and returns to the pool, when the stream is closed,
+ * since an emitter may hold sent data until the response is ready.
+ */
+public class BinaryBamTrackEmitter extends BamTrackEmitter {
+
+    public static final byte READS_FRAME = 1;
+    public static final byte TRACK_FRAME = 2;
+    public static final byte ERROR_FRAME = 3;
+
+    public static final int BLOCK_SIZE = 1024;
+
+    private static final int FRAME_HEADER_SIZE = Byte.BYTES + Integer.BYTES;
+    private static final int BUFFER_SIZE = 512 * 1024;
+    private static final int POOL_SIZE = 32;
+    private static final BlockingQueue<ByteBuffer> BUFFER_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private static final List<Function<Read, String>> DICTIONARY_COLUMNS = Arrays.asList(
+            Read::getName, Read::getCigarString, Read::getReadGroup, Read::getRName, Read::getRNext,
+            Read::getPairedReadName);
+    private static final List<Function<Read, String>> SEQUENCE_COLUMNS = Arrays.asList(
+            Read::getHeadSequence, Read::getTailSequence);
+    private static final List<ToIntFunction<Read>> INT_COLUMNS = Arrays.asList(
+        read -> valueOf(read.getStartIndex()), read -> valueOf(read.getEndIndex()),
+        read -> valueOf(read.getFlagMask()), read -> valueOf(read.getTLen()), read -> valueOf(read.getPNext()));
+
+    private final List<Read> block = new ArrayList<>(BLOCK_SIZE);
+    private ByteBuffer buffer;
+
+    public BinaryBamTrackEmitter(ResponseBodyEmitter emitter) {
+        super(emitter, new JsonMapper());
+        this.buffer = acquireBuffer();
+    }
+
+    /**
+     * Write a read to the emitter. Reads are collected into blocks, real data transferring could not be
+     * happened due to buffering
+     * @param read to be written
+     * @throws IOException in case of connections troubles
+     */
+    @Override
+    public void writeRecord(Read read) throws IOException {
+        checkFinished();
+        block.add(read);
+        if (block.size() == BLOCK_SIZE) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Must be called after all reads are written by {@link #writeRecord} method. Will write the rest of reads
+     * and a track metadata frame. This method will complete wrapped emitter.
+     * @param bamTrack to be written
+     * @throws IOException in case of connections troubles
+     */
+    @Override
+    public void writeTrackAndFinish(BamTrack<Read> bamTrack) throws IOException {
+        checkFinished();
+        writeBlock();
+        writeFrame(TRACK_FRAME, writeMetadata(bamTrack).getBytes(StandardCharsets.UTF_8));
+        sendBuffer();
+        releaseBuffer();
+        getEmitter().complete();
+        markFinished();
+    }
+
+    /**
+     * Should be called in case of any exception during writing to {@link BamTrackEmitter}. Will try to complete
+     * wrapped emitter with an error frame or at least call {@link ResponseBodyEmitter#completeWithError(Throwable)}
+     * @param throwable - exception during data transferring
+     */
+    @Override
+    public void finishWithException(Throwable throwable) {
+        checkFinished();
+        try {
+            block.clear();
+            final String message = String.valueOf(throwable.getLocalizedMessage());
+            writeFrame(ERROR_FRAME, message.getBytes(StandardCharsets.UTF_8));
+            sendBuffer();
+        } catch (IOException e) {
+            getEmitter().completeWithError(e);
+        } finally {
+            releaseBuffer();
+        }
+        getEmitter().complete();
+    }
+
+    private void writeBlock() throws IOException {
+        if (block.isEmpty()) {
+            return;
+        }
+        final List<DictionaryColumn> dictionaries = new ArrayList<>(DICTIONARY_COLUMNS.size());
+        int size = Integer.BYTES + block.size() * (INT_COLUMNS.size() * Integer.BYTES + 2);
+        for (Function<Read, String> getter : DICTIONARY_COLUMNS) {
+            final DictionaryColumn column = new DictionaryColumn(block, getter);
+            dictionaries.add(column);
+            size += column.size();
+        }
+        for (Function<Read, String> getter : SEQUENCE_COLUMNS) {
+            size += block.size() * Integer.BYTES;
+            for (Read read : block) {
+                final String sequence = getter.apply(read);
+                size += sequence == null ? 0 : sequence.length();
+            }
+        }
+        size += block.size() * Integer.BYTES;
+        for (Read read : block) {
+            size += differentBaseCount(read) * (Integer.BYTES + 1);
+        }
+
+        final ByteBuffer target = startFrame(READS_FRAME, size);
+        target.putInt(block.size());
+        for (ToIntFunction<Read> getter : INT_COLUMNS) {
+            block.forEach(read -> target.putInt(getter.applyAsInt(read)));
+        }
+        block.forEach(read -> target.put((byte) valueOf(read.getMappingQuality())));
+        block.forEach(read -> target.put((byte) (Boolean.FALSE.equals(read.getStand()) ? 0 : 1)));
+        dictionaries.forEach(column -> column.write(target));
+        for (Function<Read, String> getter : SEQUENCE_COLUMNS) {
+            writeSequences(target, getter);
+        }
+        writeDifferentBases(target);
+        finishFrame(target);
+        block.clear();
+    }
+
+    private void writeSequences(final ByteBuffer target, final Function<Read, String> getter) {
+        for (Read read : block) {
+            final String sequence = getter.apply(read);
+            target.putInt(sequence == null ? -1 : sequence.length());
+        }
+        for (Read read : block) {
+            final String sequence = getter.apply(read);
+            if (sequence != null) {
+                for (int i = 0; i < sequence.length(); i++) {
+                    target.put((byte) sequence.charAt(i));
+                }
+            }
+        }
+    }
+
+    private void writeDifferentBases(final ByteBuffer target) {
+        block.forEach(read -> target.putInt(differentBaseCount(read)));
+        for (Read read : block) {
+            if (read.getDifferentBase() != null) {
+                read.getDifferentBase().forEach(base -> target.putInt(valueOf(base.getRelativePosition())));
+            }
+        }
+        for (Read read : block) {
+            if (read.getDifferentBase() != null) {
+                read.getDifferentBase().forEach(base -> target.put(baseValue(base)));
+            }
+        }
+    }
+
+    private void writeFrame(final byte type, final byte[] payload) throws IOException {
+        final ByteBuffer target = startFrame(type, payload.length);
+        target.put(payload);
+        finishFrame(target);
+    }
+
+    /**
+     * Returns a buffer to write a frame of the specified size. A frame is written directly into the pooled
+     * buffer, if it fits it, otherwise a dedicated buffer is allocated for it.
+     */
+    private ByteBuffer startFrame(final byte type, final int size) throws IOException {
+        final int frameSize = FRAME_HEADER_SIZE + size;
+        if (buffer.remaining() < frameSize) {
+            sendBuffer();
+        }
+        final ByteBuffer target = buffer.remaining() < frameSize ? ByteBuffer.allocate(frameSize) : buffer;
+        target.put(type);
+        target.putInt(size);
+        return target;
+    }
+
+    private void finishFrame(final ByteBuffer target) throws IOException {
+        if (target != buffer) {
+            send(target);
+        }
+    }
+
+    private void sendBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        send(buffer);
+        buffer = acquireBuffer();
+    }
+
+    private void send(final ByteBuffer data) throws IOException {
+        if (data.position() == 0) {
+            return;
+        }
+        getEmitter().send(new InputStreamResource(new BufferInputStream(data)), MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    private void releaseBuffer() {
+        if (buffer != null) {
+            release(buffer);
+            buffer = null;
+        }
+    }
+
+    private static void release(final ByteBuffer data) {
+        // frames, that don't fit a pooled buffer, are written to dedicated buffers, that are not pooled
+        if (data.capacity() == BUFFER_SIZE) {
+            data.clear();
+            BUFFER_POOL.offer(data);
+        }
+    }
+
+    private static ByteBuffer acquireBuffer() {
+        final ByteBuffer pooled = BUFFER_POOL.poll();
+        return pooled == null ? ByteBuffer.allocate(BUFFER_SIZE) : pooled;
+    }
+
+    private static int differentBaseCount(final Read read) {
+        return read.getDifferentBase() == null ? 0 : read.getDifferentBase().size();
+    }
+
+    private static byte baseValue(final BasePosition base) {
+        return base.getBase() == null || base.getBase().isEmpty() ? (byte) 'N' : (byte) base.getBase().charAt(0);
+    }
+
+    private static int valueOf(final Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * Streams written bytes of a buffer and releases it, when a stream is closed after writing to a client
+     */
+    private static final class BufferInputStream extends ByteArrayInputStream {
+        private ByteBuffer data;
+
+        private BufferInputStream(final ByteBuffer data) {
+            super(data.array(), 0, data.position());
+            this.data = data;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (data != null) {
+                release(data);
+                data = null;
+            }
+        }
+    }
+
+    /**
+     * Dictionary encoding of a string column of a reads block
+     */
+    private static final class DictionaryColumn {
+        private final List<byte[]> values = new ArrayList<>();
+        private final int[] indexes;
+
+        private DictionaryColumn(final List<Read> reads, final Function<Read, String> getter) {
+            final Map<String, Integer> dictionary = new HashMap<>();
+            indexes = new int[reads.size()];
+            for (int i = 0; i < reads.size(); i++) {
+                final String value = getter.apply(reads.get(i));
+                if (value == null) {
+                    indexes[i] = -1;
+                    continue;
+                }
+                Integer index = dictionary.get(value);
+                if (index == null) {
+                    index = values.size();
+                    dictionary.put(value, index);
+                    values.add(value.getBytes(StandardCharsets.UTF_8));
+                }
+                indexes[i] = index;
+            }
+        }
+
+        private int size() {
+            int size = Integer.BYTES + (values.size() + indexes.length) * Integer.BYTES;
+            for (byte[] value : values) {
+                size += value.length;
+            }
+            return size;
+        }
+
+        private void write(final ByteBuffer target) {
+            target.putInt(values.size());
+            for (byte[] value : values) {
+                target.putInt(value.length);
+                target.put(value);
+            }
+            for (int index : indexes) {
+                target.putInt(index);
+            }
+        }
+    }
+}
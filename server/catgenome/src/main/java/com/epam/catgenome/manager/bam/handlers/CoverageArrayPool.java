@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.bam.handlers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A pool of {@code int} arrays, used by {@link SAMRecordHandler} to accumulate coverage of a track window.
+ * Coverage arrays are as large as a requested window, so allocating them per request produces a lot of garbage
+ * on wide coverage windows under concurrent load. Arrays are reused between requests instead, the pool keeps
+ * a bounded total amount of memory, extra arrays are left to GC.
+ */
+final class CoverageArrayPool {
+
+    /**
+     * Array capacities are rounded up, so that arrays are reused by windows of slightly different sizes
+     */
+    private static final int CAPACITY_STEP = 64 * 1024;
+    private static final long MAX_POOLED_INTS = 16L * 1024 * 1024;
+
+    private static final List<int[]> POOL = new ArrayList<>();
+    private static long pooledInts = 0;
+
+    private CoverageArrayPool() {
+        // no-op
+    }
+
+    /**
+     * Returns a zero-filled array of at least specified length
+     * @param length required array length
+     * @return a pooled or a newly allocated array
+     */
+    static int[] acquire(final int length) {
+        int[] array = poll(length);
+        if (array == null) {
+            return new int[(length + CAPACITY_STEP - 1) / CAPACITY_STEP * CAPACITY_STEP];
+        }
+        Arrays.fill(array, 0, length, 0);
+        return array;
+    }
+
+    /**
+     * Returns arrays to the pool, they shouldn't be used by a caller after that
+     * @param arrays arrays to return, null values are ignored
+     */
+    static void release(final int[]... arrays) {
+        synchronized (POOL) {
+            for (int[] array : arrays) {
+                if (array != null && pooledInts + array.length <= MAX_POOLED_INTS) {
+                    POOL.add(array);
+                    pooledInts += array.length;
+                }
+            }
+        }
+    }
+
+    private static int[] poll(final int length) {
+        synchronized (POOL) {
+            int best = -1;
+            for (int i = 0; i < POOL.size(); i++) {
+                final int capacity = POOL.get(i).length;
+                if (capacity >= length && (best < 0 || capacity < POOL.get(best).length)) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                return null;
+            }
+            final int[] array = POOL.remove(best);
+            pooledInts -= array.length;
+            return array;
+        }
+    }
+}
@@ -44,6 +44,7 @@ import com.epam.catgenome.util.BamUtil;
 import htsjdk.samtools.CigarElement;
 import htsjdk.samtools.CigarOperator;
 import htsjdk.samtools.SAMRecord;
+import org.springframework.util.Assert;
 
 
 /**
@@ -57,15 +58,16 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
     private static final String XS_TAG = "XS";
 
     private final Filter<SAMRecord> filter;
-    //for coverage
-    private final int[] coverageArray;
-    private final int[] cCoverageArray;
-    private final int[] aCoverageArray;
-    private final int[] tCoverageArray;
-    private final int[] gCoverageArray;
-    private final int[] nCoverageArray;
-    private final int[] insCoverageArray;
-    private final int[] delCoverageArray;
+    //for coverage, arrays are taken from the CoverageArrayPool and may be longer than the window
+    private final int coverageLength;
+    private int[] coverageArray;
+    private int[] cCoverageArray;
+    private int[] aCoverageArray;
+    private int[] tCoverageArray;
+    private int[] gCoverageArray;
+    private int[] nCoverageArray;
+    private int[] insCoverageArray;
+    private int[] delCoverageArray;
     //track information
     private final int startTrack;
     private final int endTrack;
@@ -106,19 +108,23 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
         this.filter = filter;
 
         if (options.getMode() == BamTrackMode.FULL) {
-            referenceBuffer = new BamReferenceBuffer(referenceManager.getSequenceString(min, max, refID, chromosomeName)
-                    .toUpperCase());
+            referenceBuffer = new BamReferenceBuffer(
+                    referenceManager.getSequenceByteArray(min, max, refID, chromosomeName));
         }
 
-        this.coverageArray = new int[endTrack - startTrack + 1];
-        this.cCoverageArray = new int[endTrack - startTrack + 1];
-        this.aCoverageArray = new int[endTrack - startTrack + 1];
-        this.tCoverageArray = new int[endTrack - startTrack + 1];
-        this.gCoverageArray = new int[endTrack - startTrack + 1];
-        this.nCoverageArray = new int[endTrack - startTrack + 1];
-        this.insCoverageArray = new int[endTrack - startTrack + 1];
-        this.delCoverageArray = new int[endTrack - startTrack + 1];
         this.mode = options.getMode();
+        this.coverageLength = endTrack - startTrack + 1;
+        this.coverageArray = CoverageArrayPool.acquire(coverageLength);
+        this.delCoverageArray = CoverageArrayPool.acquire(coverageLength);
+        // base and insertion coverage is returned only for FULL mode
+        if (mode == BamTrackMode.FULL) {
+            this.cCoverageArray = CoverageArrayPool.acquire(coverageLength);
+            this.aCoverageArray = CoverageArrayPool.acquire(coverageLength);
+            this.tCoverageArray = CoverageArrayPool.acquire(coverageLength);
+            this.gCoverageArray = CoverageArrayPool.acquire(coverageLength);
+            this.nCoverageArray = CoverageArrayPool.acquire(coverageLength);
+            this.insCoverageArray = CoverageArrayPool.acquire(coverageLength);
+        }
     }
 
     /**
@@ -158,44 +164,129 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
                 refreshTailReferenceBuffer(end);
             }
 
-            List<BasePosition> differentBase = computeDifferentBase(readString,
-                    referenceBuffer != null ? referenceBuffer.getBuffer() : null, start, min, cigarList, showClipping,
-                    record);
+            List<BasePosition> differentBase = computeDifferentBase(readString, referenceBuffer, start, min,
+                    cigarList, showClipping, record);
 
             filter.add(record, start, end, mode == BamTrackMode.FULL ? differentBase : null, head, tail);
         }
     }
 
     /**
+     * Returns base coverage calculated from the added records. Coverage arrays are returned to the pool after
+     * that, so no records should be added to the handler afterwards.
      * @return base coverage calculated from the added records
      */
     @Override
     public List<BaseCoverage> getBaseCoverage(double scaleFactor) {
-        if (scaleFactor < 1 && mode != BamTrackMode.FULL) {
-            return getSummarizedCoverage(scaleFactor);
+        Assert.state(coverageArray != null, "Base coverage has already been collected");
+        try {
+            if (mode == BamTrackMode.FULL) {
+                return getFullCoverage();
+            }
+            return scaleFactor < 1 ? getSummarizedCoverage(scaleFactor) : getRunLengthCoverage();
+        } finally {
+            CoverageArrayPool.release(coverageArray, delCoverageArray, cCoverageArray, aCoverageArray,
+                    tCoverageArray, gCoverageArray, nCoverageArray, insCoverageArray);
+            coverageArray = null;
+            delCoverageArray = null;
+            cCoverageArray = null;
+            aCoverageArray = null;
+            tCoverageArray = null;
+            gCoverageArray = null;
+            nCoverageArray = null;
+            insCoverageArray = null;
         }
+    }
 
+    /**
+     * Returns coverage with base details. Positions with mismatches or insertions are returned one by one,
+     * other positions are merged into runs with equal coverage and deletions, so that a single object isn't
+     * created for each covered position of the window
+     */
+    private List<BaseCoverage> getFullCoverage() {
         int coverageValue = 0;
         int delCoverageValue = 0;
+        int runStart = 0;
+        int runValue = 0;
+        int runDelValue = 0;
         final List<BaseCoverage> coverageList = new ArrayList<>();
-        for (int i = 0; i < coverageArray.length; i++) {
+        for (int i = 0; i < coverageLength; i++) {
             coverageValue += coverageArray[i];
             delCoverageValue += delCoverageArray[i];
 
-            if (coverageValue - delCoverageValue > 0) {
+            final int value = coverageValue - delCoverageValue;
+            final boolean hasDetails = hasBaseDetails(i);
+            if (hasDetails || value != runValue || delCoverageValue != runDelValue) {
+                addFullCoverageRun(coverageList, runStart, i - 1, runValue, runDelValue);
+                runStart = hasDetails ? i + 1 : i;
+                runValue = value;
+                runDelValue = delCoverageValue;
+            }
+            if (hasDetails && value > 0) {
                 BaseCoverage baseCoverage =
-                        new BaseCoverage(startTrack + i, coverageValue - delCoverageValue);
-                if (mode == BamTrackMode.FULL) {
-                    baseCoverage.setCoverage(cCoverageArray[i], aCoverageArray[i], tCoverageArray[i],
-                            gCoverageArray[i], nCoverageArray[i], delCoverageValue,
-                            insCoverageArray[i]);
-                }
+                        new BaseCoverage(startTrack + i, value);
+                baseCoverage.setCoverage(cCoverageArray[i], aCoverageArray[i], tCoverageArray[i],
+                        gCoverageArray[i], nCoverageArray[i], delCoverageValue,
+                        insCoverageArray[i]);
                 coverageList.add(baseCoverage);
             }
         }
+        addFullCoverageRun(coverageList, runStart, coverageLength - 1, runValue, runDelValue);
+        return coverageList;
+    }
+
+    private boolean hasBaseDetails(final int i) {
+        return cCoverageArray[i] > 0 || aCoverageArray[i] > 0 || tCoverageArray[i] > 0 || gCoverageArray[i] > 0
+                || nCoverageArray[i] > 0 || insCoverageArray[i] > 0;
+    }
+
+    private void addFullCoverageRun(final List<BaseCoverage> coverageList, final int from, final int to,
+                                    final int value, final int delValue) {
+        if (from > to) {
+            return;
+        }
+        final BaseCoverage run = addCoverageRun(coverageList, from, to, value);
+        if (run != null) {
+            run.setCoverage(0, 0, 0, 0, 0, delValue, 0);
+        }
+    }
+
+    /**
+     * Returns coverage without base details as runs of positions with equal coverage, so that the size of
+     * the result depends on coverage changes rather than on the window size
+     */
+    private List<BaseCoverage> getRunLengthCoverage() {
+        int coverageValue = 0;
+        int delCoverageValue = 0;
+        int runStart = 0;
+        int runValue = 0;
+        final List<BaseCoverage> coverageList = new ArrayList<>();
+        for (int i = 0; i < coverageLength; i++) {
+            coverageValue += coverageArray[i];
+            delCoverageValue += delCoverageArray[i];
+
+            final int value = coverageValue - delCoverageValue;
+            if (value != runValue) {
+                addCoverageRun(coverageList, runStart, i - 1, runValue);
+                runStart = i;
+                runValue = value;
+            }
+        }
+        addCoverageRun(coverageList, runStart, coverageLength - 1, runValue);
         return coverageList;
     }
 
+    private BaseCoverage addCoverageRun(final List<BaseCoverage> coverageList, final int from, final int to,
+                                        final int value) {
+        if (value <= 0) {
+            return null;
+        }
+        final BaseCoverage run = from == to ? new BaseCoverage(startTrack + from, value)
+                : new BaseCoverage(startTrack + from, startTrack + to, value);
+        coverageList.add(run);
+        return run;
+    }
+
     private List<BaseCoverage> getSummarizedCoverage(double scaleFactor) {
         int coverageValue = 0;
         int delCoverageValue = 0;
@@ -203,7 +294,7 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
         final int step = (int) Math.max(1, Math.round(1.0 / scaleFactor));
         int summ = 0;
         int denum = 0;
-        for (int i = 0; i < coverageArray.length; i++) {
+        for (int i = 0; i < coverageLength; i++) {
             coverageValue += coverageArray[i];
             delCoverageValue += delCoverageArray[i];
 
@@ -267,8 +358,7 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
         if (mode == BamTrackMode.FULL) {
             final int helpMin = start <= 0 ? 1
                     : min - ((min - start) / Constants.REFERENCE_STEP + 1) * Constants.REFERENCE_STEP;
-            referenceBuffer.addHead(referenceManager.getSequenceString(helpMin, min - 1, refID, chromosomeName)
-                    .toUpperCase());
+            referenceBuffer.addHead(referenceManager.getSequenceByteArray(helpMin, min - 1, refID, chromosomeName));
             min = helpMin;
         }
     }
@@ -276,8 +366,7 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
     private void refreshTailReferenceBuffer(final int end) throws IOException {
         if (mode == BamTrackMode.FULL) {
             final int helpMax = max + ((end - max) / Constants.REFERENCE_STEP + 1) * Constants.REFERENCE_STEP;
-            referenceBuffer.addTail(referenceManager.getSequenceString(max + 1, helpMax, refID, chromosomeName)
-                    .toUpperCase());
+            referenceBuffer.addTail(referenceManager.getSequenceByteArray(max + 1, helpMax, refID, chromosomeName));
             max = helpMax;
         }
     }
@@ -304,7 +393,7 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
 
     // SAMRecord is needed because sometimes we need tags, but in other case record is useless, because
     // it doesn't cash some fields.
-    private List<BasePosition> computeDifferentBase(final String readString, final String bufferBase,
+    private List<BasePosition> computeDifferentBase(final String readString, final BamReferenceBuffer bufferBase,
                                                     final int startReadPosition, final int bufferStart,
                                                     final List<CigarElement> cigar, final boolean showClipping,
                                                     final SAMRecord record) {
@@ -324,14 +413,14 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
         }
 
         ReadBaseProcessor
-            baseCounter = new ReadBaseProcessor(record.getReadString(), referenceBuffer.getBuffer(), record.getStart(),
+            baseCounter = new ReadBaseProcessor(record.getReadString(), referenceBuffer, record.getStart(),
                                                 min, record.getCigar().getCigarElements(), showClipping, record);
         return baseCounter.getMismatchBasePositions();
     }
 
     private class ReadBaseProcessor {
         private final String upperReadString;
-        private final String bufferBase;
+        private final BamReferenceBuffer bufferBase;
         private final int startReadPosition;
         private final int bufferStart;
         private final List<CigarElement> cigar;
@@ -344,7 +433,7 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
         //coordinate at reference
         private int bias;
 
-        protected ReadBaseProcessor(String readString, String bufferBase, int startReadPosition,
+        protected ReadBaseProcessor(String readString, BamReferenceBuffer bufferBase, int startReadPosition,
                 int bufferStart, List<CigarElement> cigar, boolean showClipping, SAMRecord record) {
             this.bufferBase = bufferBase;
             this.startReadPosition = startReadPosition;
@@ -396,7 +485,7 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
         private void processInsertion(int cigarLength) {
             //add to insCov, to the next base
             final int pos = startReadPosition + position + corrector - 1;
-            if (pos >= startTrack && pos <= endTrack) {
+            if (insCoverageArray != null && pos >= startTrack && pos <= endTrack) {
                 insCoverageArray[pos - startTrack]++;
             }
             position += cigarLength;
@@ -434,8 +523,8 @@ public class SAMRecordHandler implements Handler<SAMRecord> {
 
         private void processMatch(List<BasePosition> basePositions, int cigarLength) {
             for (int j = 0; j < cigarLength; j++) {
-                if (checkIfBiasOutOfBound() && bufferBase != null &&
-                        bufferBase.charAt(bias) != upperReadString.charAt(position)) {
+                if (checkIfBiasOutOfBound() && bufferBase != null && bias < bufferBase.length() &&
+                        bufferBase.get(bias) != upperReadString.charAt(position)) {
                     basePositions.add(
                             new BasePosition(position + corrector, upperReadString.charAt(position))
                     );
@@ -543,9 +543,9 @@ public class BedManager {
     private List<BedRecord> loadStatisticRecords(final Track<BedRecord> track,
                                                  final CloseableIterator<NggbBedFeature> iterator) {
         final List<BedRecord> bedRecords = new ArrayList<>();
-        int step = (int) Math.ceil(1 / (double)track.getScaleFactor());
-        int from = track.getStartIndex();
-        int to = from + step;
+        // records are grouped by regions of a grid, that starts at the chromosome start
+        final int step = TrackHelper.getBlockStep(track.getScaleFactor());
+        int to = TrackHelper.getBlockEnd(track.getStartIndex(), step);
         boolean found = false;
         int featuresCount = 0; // On small scale we need to count overlapping variations
         final List<BedRecord> extendingRecords = new ArrayList<>(); // variations, that extend one pixel region
@@ -557,7 +557,7 @@ public class BedManager {
             if (feature.getStart() > to) {
                 found = false;
                 processLastRecord(bedRecords, featuresCount, lastFeature);
-                to = ((to + step) < feature.getStart()) ? (feature.getStart() + step) : (to + step);
+                to = TrackHelper.getBlockEnd(feature.getStart(), step);
                 featuresCount = 0;
                 bedRecords.addAll(extendingRecords);
                 extendingRecords.clear();
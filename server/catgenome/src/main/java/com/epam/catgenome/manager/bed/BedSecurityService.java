@@ -27,6 +27,7 @@
 package com.epam.catgenome.manager.bed;
 
 import com.epam.catgenome.controller.vo.registration.IndexedFileRegistrationRequest;
+import com.epam.catgenome.entity.BiologicalDataItemFormat;
 import com.epam.catgenome.entity.bed.BedFile;
 import com.epam.catgenome.entity.bed.BedRecord;
 import com.epam.catgenome.entity.track.Track;
@@ -34,6 +35,7 @@ import com.epam.catgenome.entity.wig.Wig;
 import com.epam.catgenome.exception.FeatureFileReadingException;
 import com.epam.catgenome.exception.FeatureIndexException;
 import com.epam.catgenome.exception.HistogramReadingException;
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.security.acl.aspect.AclMask;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -52,6 +54,9 @@ public class BedSecurityService {
     @Autowired
     private BedManager bedManager;
 
+    @Autowired
+    private TrackTileCache trackTileCache;
+
     @PreAuthorize(ROLE_ADMIN + OR + ROLE_BED_MANAGER)
     public BedFile registerBed(IndexedFileRegistrationRequest request) {
         return bedManager.registerBed(request);
@@ -73,6 +78,13 @@ public class BedSecurityService {
         return bedManager.loadFeatures(track);
     }
 
+    @PreAuthorize(ROLE_ADMIN + OR + READ_ON_FILE_OR_PROJECT_BY_TRACK)
+    public TrackTileCache.CachedTrack<BedRecord> loadCachedFeatures(Track<BedRecord> track)
+            throws FeatureFileReadingException {
+        return trackTileCache.load(BiologicalDataItemFormat.BED, track, BedRecord.class, "",
+                tile -> bedManager.loadFeatures(tile));
+    }
+
     @AclMask
     @PreAuthorize(ROLE_ADMIN + OR + ROLE_BED_MANAGER)
     public BedFile reindexBedFile(long bedFileId) throws FeatureIndexException {
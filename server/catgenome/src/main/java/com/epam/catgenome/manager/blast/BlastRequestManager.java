@@ -39,8 +39,19 @@ import okhttp3.ResponseBody;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
 
 import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
@@ -51,9 +62,19 @@ public class BlastRequestManager {
     @Value("${blast.server.url}")
     private String blastServer;
 
+    /**
+     * Maximum number of concurrent requests to the BLAST service, status requests of several tasks are
+     * executed concurrently
+     */
+    @Value("${blast.max.concurrent.requests:16}")
+    private int maxConcurrentRequests;
+
+    @Value("${blast.status.timeout:30000}")
+    private long statusTimeout;
+
     @PostConstruct
     public void init() {
-        this.blastApi = new BlastApiBuilder(0, 0, blastServer).buildClient();
+        this.blastApi = new BlastApiBuilder(0, 0, blastServer, maxConcurrentRequests).buildClient();
     }
 
     public BlastRequestInfo createTask(final BlastRequest blastRequest) throws BlastRequestException {
@@ -76,6 +97,43 @@ public class BlastRequestManager {
         }
     }
 
+    /**
+     * Requests statuses of several tasks concurrently, the number of requests in flight is limited by
+     * blast.max.concurrent.requests. Requests, that aren't completed in blast.status.timeout, are canceled
+     * @param ids of tasks
+     * @return statuses of tasks, that were received successfully, mapped by task ids. Tasks with failed
+     * requests are missing
+     */
+    public Map<Long, BlastRequestInfo> getTaskStatuses(final Collection<Long> ids) {
+        final Map<Long, Call<Result<BlastRequestInfo>>> calls = new LinkedHashMap<>();
+        final Map<Long, CompletableFuture<BlastRequestInfo>> requests = new HashMap<>();
+        ids.forEach(id -> {
+            final Call<Result<BlastRequestInfo>> call = blastApi.getTask(id);
+            calls.put(id, call);
+            requests.put(id, enqueue(call));
+        });
+        final long deadline = System.currentTimeMillis() + statusTimeout;
+        final Map<Long, BlastRequestInfo> statuses = new HashMap<>();
+        calls.forEach((id, call) -> {
+            try {
+                final BlastRequestInfo info = requests.get(id)
+                        .get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (info != null) {
+                    statuses.put(id, info);
+                }
+            } catch (ExecutionException e) {
+                log.debug("Failed to get a status of BLAST task {}: {}", id, e.getMessage());
+            } catch (TimeoutException e) {
+                log.debug("Status request of BLAST task {} timed out", id);
+                call.cancel();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                call.cancel();
+            }
+        });
+        return statuses;
+    }
+
     public Result<BlastRequestInfo> cancelTask(final long id) throws BlastRequestException {
         try {
             return QueryUtils.execute(blastApi.cancelTask(id));
@@ -102,4 +160,25 @@ public class BlastRequestManager {
                     .ERROR_BLAST_REQUEST), e);
         }
     }
+
+    private <T> CompletableFuture<T> enqueue(final Call<Result<T>> call) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        call.enqueue(new Callback<Result<T>>() {
+            @Override
+            public void onResponse(final Call<Result<T>> call, final Response<Result<T>> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    future.complete(response.body().getPayload());
+                } else {
+                    future.completeExceptionally(new BlastResponseException(
+                            String.format("Unexpected status code: %d", response.code())));
+                }
+            }
+
+            @Override
+            public void onFailure(final Call<Result<T>> call, final Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
 }
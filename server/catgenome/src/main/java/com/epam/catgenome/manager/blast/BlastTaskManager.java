@@ -171,6 +171,11 @@ public class BlastTaskManager {
         blastTaskDao.updateTask(blastTask);
     }
 
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void updateTasks(final List<BlastTask> blastTasks) {
+        blastTaskDao.updateTasks(blastTasks);
+    }
+
     public long getTasksCount(final List<Filter> filters) {
         return blastTaskDao.getTasksCount(filters);
     }
@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.blast;
+
+import com.epam.catgenome.dao.blast.BlastTaskDao;
+import com.epam.catgenome.entity.blast.BlastTask;
+import com.epam.catgenome.entity.blast.BlastTaskStatus;
+import com.epam.catgenome.manager.blast.dto.BlastRequestInfo;
+import com.epam.catgenome.util.db.Filter;
+import com.epam.catgenome.util.db.QueryParameters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.EnumUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.StringUtils.join;
+
+/**
+ * Synchronizes statuses of active BLAST tasks with the BLAST service. Statuses of all tasks, that are due to
+ * be polled, are requested concurrently and changed tasks are saved with a single batch update.
+ * Tasks are polled with adaptive intervals: queued tasks and tasks, that have just changed their status,
+ * are polled on every run, running tasks are polled less often as they get older, and tasks, which status
+ * can't be received, are polled with an exponential backoff.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BlastTaskStatusSynchronizer {
+
+    /**
+     * A running task is polled with an interval, that is a fraction of its age
+     */
+    private static final int AGE_FRACTION = 10;
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    private final BlastTaskManager blastTaskManager;
+    private final BlastTaskDao blastTaskDao;
+    private final BlastRequestManager blastRequestManager;
+
+    @Value("${blast.update.status.rate:60000}")
+    private long minPollInterval;
+
+    @Value("${blast.update.status.max.interval:600000}")
+    private long maxPollInterval;
+
+    private final Map<Long, PollState> pollStates = new ConcurrentHashMap<>();
+
+    public void synchronize() {
+        synchronize(LocalDateTime.now());
+    }
+
+    void synchronize(final LocalDateTime now) {
+        final List<BlastTask> tasks = loadActiveTasks();
+        final Set<Long> activeIds = tasks.stream().map(BlastTask::getId).collect(Collectors.toSet());
+        pollStates.keySet().retainAll(activeIds);
+
+        final List<BlastTask> dueTasks = tasks.stream()
+                .filter(task -> isDue(task, now))
+                .collect(Collectors.toList());
+        if (dueTasks.isEmpty()) {
+            return;
+        }
+        log.debug("Requesting statuses of {} out of {} active BLAST tasks", dueTasks.size(), tasks.size());
+        final Map<Long, BlastRequestInfo> statuses = blastRequestManager.getTaskStatuses(
+                dueTasks.stream().map(BlastTask::getId).collect(Collectors.toList()));
+
+        final List<BlastTask> changedTasks = new ArrayList<>();
+        for (BlastTask task : dueTasks) {
+            final BlastRequestInfo info = statuses.get(task.getId());
+            final BlastTaskStatus status = info == null ? null
+                    : EnumUtils.getEnum(BlastTaskStatus.class, info.getStatus());
+            if (status == null) {
+                backOff(task, now);
+                continue;
+            }
+            final boolean changed = status != task.getStatus();
+            if (changed) {
+                task.setStatus(status);
+                task.setStatusReason(info.getReason());
+                if (status.isFinal()) {
+                    task.setEndDate(now);
+                }
+                changedTasks.add(task);
+            }
+            schedule(task, now, changed);
+        }
+        if (!changedTasks.isEmpty()) {
+            blastTaskManager.updateTasks(changedTasks);
+        }
+        changedTasks.stream()
+                .filter(task -> task.getStatus().isFinal())
+                .forEach(task -> pollStates.remove(task.getId()));
+    }
+
+    private List<BlastTask> loadActiveTasks() {
+        final List<String> statuses = Stream.of(BlastTaskStatus.values())
+                .filter(status -> !status.isFinal())
+                .map(status -> String.valueOf(status.getId()))
+                .collect(Collectors.toList());
+        final Filter filter = new Filter("status", "in", "(" + join(statuses, ",") + ")");
+        final QueryParameters parameters = new QueryParameters();
+        parameters.setFilters(Collections.singletonList(filter));
+        return blastTaskDao.loadAllTasks(parameters);
+    }
+
+    private boolean isDue(final BlastTask task, final LocalDateTime now) {
+        final PollState state = pollStates.get(task.getId());
+        return state == null || !now.isBefore(state.nextPoll);
+    }
+
+    private void schedule(final BlastTask task, final LocalDateTime now, final boolean changed) {
+        long interval = minPollInterval;
+        if (!changed && task.getStatus() == BlastTaskStatus.RUNNING && task.getCreatedDate() != null) {
+            final long age = Duration.between(task.getCreatedDate(), now).toMillis();
+            interval = Math.min(maxPollInterval, Math.max(minPollInterval, age / AGE_FRACTION));
+        }
+        pollStates.put(task.getId(), new PollState(nextPoll(now, interval), 0));
+    }
+
+    private void backOff(final BlastTask task, final LocalDateTime now) {
+        final PollState state = pollStates.get(task.getId());
+        final int failures = state == null ? 1 : state.failures + 1;
+        final long interval = Math.min(maxPollInterval,
+                minPollInterval << Math.min(failures, MAX_BACKOFF_SHIFT));
+        log.debug("Status of BLAST task {} wasn't received {} times, next request in {} ms",
+                task.getId(), failures, interval);
+        pollStates.put(task.getId(), new PollState(nextPoll(now, interval), failures));
+    }
+
+    /**
+     * Polling runs are scheduled with a fixed rate, so a half of a run interval is subtracted to make
+     * a task due on the run, that is the closest to its interval
+     */
+    private LocalDateTime nextPoll(final LocalDateTime now, final long interval) {
+        return now.plus(Duration.ofMillis(interval - minPollInterval / 2));
+    }
+
+    private static final class PollState {
+        private final LocalDateTime nextPoll;
+        private final int failures;
+
+        private PollState(final LocalDateTime nextPoll, final int failures) {
+            this.nextPoll = nextPoll;
+            this.failures = failures;
+        }
+    }
+}
@@ -24,6 +24,7 @@
 package com.epam.catgenome.manager.blast;
 
 import com.epam.catgenome.manager.blast.dto.BlastTaxonomy;
+import com.epam.catgenome.util.IndexImportPipeline;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.SneakyThrows;
@@ -54,16 +55,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import static org.apache.commons.lang3.StringUtils.join;
 
@@ -84,6 +83,9 @@ public class BlastTaxonomyManager {
     @Value("${taxonomy.top.hits:10}")
     private int taxonomyTopHits;
 
+    @Value("${index.import.thread.count:4}")
+    private int importThreadCount;
+
     public List<BlastTaxonomy> searchOrganisms(final String terms) throws IOException, ParseException {
         final List<BlastTaxonomy> organisms = new ArrayList<>();
         try (Directory index = new SimpleFSDirectory(Paths.get(taxonomyIndexDirectory));
@@ -158,19 +160,27 @@ public class BlastTaxonomyManager {
                      index, new IndexWriterConfig(new StandardAnalyzer())
                      .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND))) {
             writer.deleteAll();
-            for (BlastTaxonomy taxonomyEntry: readTaxonomy(taxonomyFilePath)) {
-                addDoc(writer, taxonomyEntry);
+            try (IndexImportPipeline<TaxonomyGroup> pipeline = new IndexImportPipeline<>(writer,
+                    group -> {
+                        final BlastTaxonomy taxonomy = processTaxonomyId(group);
+                        return taxonomyIdIsComplete(taxonomy) ? buildDoc(taxonomy) : null;
+                    }, "taxonomy", importThreadCount)) {
+                readTaxonomyGroups(taxonomyFilePath, pipeline::add);
+                pipeline.finish();
             }
         }
     }
 
+    @SneakyThrows
     List<BlastTaxonomy> readTaxonomy(final String path) {
-        return readTaxonomyLines(path).stream().collect(Collectors.groupingBy(TaxonomyRecord::getTaxId))
-                .entrySet().stream()
-                .map(entry -> processTaxonomyId(entry.getKey(), entry.getValue()))
-                .filter(Objects::nonNull)
-                .filter(this::taxonomyIdIsComplete)
-                .collect(Collectors.toList());
+        final List<BlastTaxonomy> organisms = new ArrayList<>();
+        readTaxonomyGroups(path, group -> {
+            final BlastTaxonomy taxonomy = processTaxonomyId(group);
+            if (taxonomyIdIsComplete(taxonomy)) {
+                organisms.add(taxonomy);
+            }
+        });
+        return organisms;
     }
 
     private Query buildTaxonomySearchQuery(final String terms) {
@@ -214,11 +224,14 @@ public class BlastTaxonomyManager {
         return Long.parseLong(doc.getField(TaxonomyIndexFields.TAX_ID.getFieldName()).stringValue());
     }
 
+    /**
+     * Lines of a taxonomy dump, describing a single taxonomy ID
+     */
     @Getter
     @AllArgsConstructor
-    private static class TaxonomyRecord {
+    private static class TaxonomyGroup {
         long taxId;
-        String line;
+        List<String> lines;
     }
 
     @Getter
@@ -239,36 +252,70 @@ public class BlastTaxonomyManager {
         return (blastTaxonomy.getCommonName() != null || blastTaxonomy.getScientificName() != null);
     }
 
-    private BlastTaxonomy processTaxonomyId(final Long taxId, final List<TaxonomyRecord> records) {
+    private BlastTaxonomy processTaxonomyId(final TaxonomyGroup group) {
         final List<String> synonyms = new ArrayList<>();
         final BlastTaxonomy.BlastTaxonomyBuilder blastTaxonomy = BlastTaxonomy.builder()
-                .taxId(taxId).synonyms(synonyms);
-        for (final TaxonomyRecord record : records) {
-            final String name = record.line.split(TAXONOMY_TOKEN_DELIMITER_PATTERN)[1].trim();
-            if (record.line.contains(COMMON_NAME)) {
+                .taxId(group.taxId).synonyms(synonyms);
+        for (final String line : group.lines) {
+            final String name = line.split(TAXONOMY_TOKEN_DELIMITER_PATTERN)[1].trim();
+            if (line.contains(COMMON_NAME)) {
                 blastTaxonomy.commonName(name);
-            } else if (record.line.contains(SCIENTIFIC_NAME)) {
+            } else if (line.contains(SCIENTIFIC_NAME)) {
                 blastTaxonomy.scientificName(name);
-            } else if (!excludeLine(record.line)) {
+            } else if (!excludeLine(line)) {
                 synonyms.add(name);
             }
         }
         return blastTaxonomy.build();
     }
 
-    private List<TaxonomyRecord> readTaxonomyLines(final String path) {
+    /**
+     * Reads a taxonomy dump line by line, the dump is sorted by taxonomy IDs, so lines of an ID are
+     * grouped, when the next ID is met, and the whole dump is never kept in memory
+     */
+    private void readTaxonomyGroups(final String path,
+                                    final IndexImportPipeline.EntryConsumer<TaxonomyGroup> consumer)
+            throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path))) {
+            long currentTaxId = -1;
+            boolean sorted = true;
+            List<String> lines = new ArrayList<>();
+            String line = reader.readLine();
+            while (line != null) {
+                final Long taxId = parseTaxId(line);
+                if (taxId != null) {
+                    if (taxId != currentTaxId && !lines.isEmpty()) {
+                        consumer.accept(new TaxonomyGroup(currentTaxId, lines));
+                        lines = new ArrayList<>();
+                    }
+                    if (taxId < currentTaxId && sorted) {
+                        log.warn("Taxonomy file {} isn't sorted by taxonomy IDs, names of some IDs will be split "
+                                + "into several entries", path);
+                        sorted = false;
+                    }
+                    currentTaxId = taxId;
+                    lines.add(line);
+                }
+                line = reader.readLine();
+            }
+            if (!lines.isEmpty()) {
+                consumer.accept(new TaxonomyGroup(currentTaxId, lines));
+            }
+        }
+    }
+
+    @Nullable
+    private static Long parseTaxId(final String line) {
+        final int delimiter = line.indexOf(TAXONOMY_LINE_DELIMITER);
         try {
-            return Files.lines(Paths.get(path))
-                    .map(tl -> new TaxonomyRecord(
-                            Long.parseLong(tl.split(TAXONOMY_TOKEN_DELIMITER_PATTERN)[0].trim()), tl))
-                    .collect(Collectors.toList());
-        } catch (IOException | NumberFormatException e) {
-            log.error(e.getMessage());
-            return Collections.emptyList();
+            return Long.parseLong((delimiter < 0 ? line : line.substring(0, delimiter)).trim());
+        } catch (NumberFormatException e) {
+            log.warn("Incorrect taxonomy line: {}", line);
+            return null;
         }
     }
 
-    private static void addDoc(final IndexWriter writer, final BlastTaxonomy taxonomy) throws IOException {
+    private static Document buildDoc(final BlastTaxonomy taxonomy) {
         final Document doc = new Document();
         doc.add(new StringField(TaxonomyIndexFields.TAX_ID.getFieldName(),
                 String.valueOf(taxonomy.getTaxId()), Field.Store.YES));
@@ -284,7 +331,7 @@ public class BlastTaxonomyManager {
             doc.add(new TextField(TaxonomyIndexFields.SYNONYMS.getFieldName(),
                     serialize(taxonomy.getSynonyms()), Field.Store.YES));
         }
-        writer.addDocument(doc);
+        return doc;
     }
 
     private static List<String> deserialize(final String encoded) {
@@ -25,7 +25,6 @@ package com.epam.catgenome.manager.export;
 
 import com.epam.catgenome.entity.FeatureFile;
 import com.epam.catgenome.entity.index.GeneIndexEntry;
-import com.epam.catgenome.entity.index.IndexSearchResult;
 import com.epam.catgenome.entity.index.VcfIndexEntry;
 import com.epam.catgenome.manager.FeatureIndexManager;
 import org.apache.commons.collections4.MapUtils;
@@ -35,6 +34,7 @@ import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -59,83 +59,93 @@ public class ExportManager {
                                          final ExportFormat format,
                                          final boolean includeHeader)
             throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportGenesByReference(filterForm, referenceId, format, includeHeader, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Writes gene features, that satisfy a filter, to an output stream. Features are read from indexes
+     * in a single pass and written one by one, so memory consumption doesn't depend on export size.
+     */
+    public void exportGenesByReference(final GeneExportFilterForm filterForm,
+                                       final long referenceId,
+                                       final ExportFormat format,
+                                       final boolean includeHeader,
+                                       final OutputStream outputStream)
+            throws IOException {
         List<String> exportFields = filterForm.getExportFields();
         if (includeHeader) {
             outputStream.write(getGeneFileHeader(exportFields, format.getSeparator()).getBytes());
         }
         filterForm.setPageSize(exportPageSize);
-        filterForm.setPage(1);
         setGeneAttributes(filterForm);
         final List<? extends FeatureFile> filesToExport = featureIndexManager.getGeneFilesForReference(
                 referenceId, filterForm.getFileIds());
-        IndexSearchResult<GeneIndexEntry> indexSearchResult = featureIndexManager.getGeneSearchResult(filterForm,
-                filesToExport);
-        writeGenePage(format, exportFields, indexSearchResult, outputStream);
-        for (int i = 2; i <= indexSearchResult.getTotalPagesCount(); i++) {
-            filterForm.setPage(i);
-            indexSearchResult = featureIndexManager.getGeneSearchResult(filterForm, filesToExport);
-            writeGenePage(format, exportFields, indexSearchResult, outputStream);
-        }
-        return outputStream.toByteArray();
+        featureIndexManager.streamGenes(filterForm, filesToExport,
+                indexEntry -> writeGene(format, exportFields, indexEntry, outputStream));
+        outputStream.flush();
     }
 
     public byte[] exportVariations(final VcfExportFilterForm filterForm,
                                    final ExportFormat format,
                                    final boolean includeHeader)
             throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportVariations(filterForm, format, includeHeader, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Writes variations, that satisfy a filter, to an output stream. Variations are read from indexes
+     * in a single pass and written one by one, so memory consumption doesn't depend on export size.
+     */
+    public void exportVariations(final VcfExportFilterForm filterForm,
+                                 final ExportFormat format,
+                                 final boolean includeHeader,
+                                 final OutputStream outputStream)
+            throws IOException {
         List<String> exportFields = filterForm.getExportFields();
         if (includeHeader) {
             outputStream.write(getVcfFileHeader(exportFields, format.getSeparator()).getBytes());
         }
         filterForm.setPageSize(exportPageSize);
-        filterForm.setPage(1);
         setVcfAttributes(filterForm);
-        IndexSearchResult<VcfIndexEntry> indexSearchResult = featureIndexManager.filterVariations(filterForm);
-        writeVcfPage(format, exportFields, indexSearchResult, outputStream);
-        for (int i = 2; i <= indexSearchResult.getTotalPagesCount(); i++) {
-            filterForm.setPage(i);
-            indexSearchResult = featureIndexManager.filterVariations(filterForm);
-            writeVcfPage(format, exportFields, indexSearchResult, outputStream);
-        }
-        return outputStream.toByteArray();
+        featureIndexManager.streamVariations(filterForm,
+                indexEntry -> writeVariation(format, exportFields, indexEntry, outputStream));
+        outputStream.flush();
     }
 
-    private void writeGenePage(final ExportFormat format,
-                               final List<String> exportFields,
-                               final IndexSearchResult<GeneIndexEntry> indexSearchResult,
-                               ByteArrayOutputStream outputStream) throws IOException {
-        for (GeneIndexEntry indexEntry : indexSearchResult.getEntries()) {
-            List<String> fieldValues = new ArrayList<>();
-            Map<String, String> attributes = MapUtils.emptyIfNull(indexEntry.getAttributes());
-            for (String exportField: exportFields) {
-                String value = GeneField.getByField(exportField) != null ?
-                        GeneField.getByField(exportField).getGetter().apply(indexEntry) :
-                        attributes.getOrDefault(exportField, EMPTY_FIELD_VALUE);
-                fieldValues.add(value != null ? value : EMPTY_FIELD_VALUE);
-            }
-            String line = String.join(format.getSeparator(), fieldValues) + NEW_LINE;
-            outputStream.write(line.getBytes());
+    private void writeGene(final ExportFormat format,
+                           final List<String> exportFields,
+                           final GeneIndexEntry indexEntry,
+                           final OutputStream outputStream) throws IOException {
+        List<String> fieldValues = new ArrayList<>();
+        Map<String, String> attributes = MapUtils.emptyIfNull(indexEntry.getAttributes());
+        for (String exportField: exportFields) {
+            String value = GeneField.getByField(exportField) != null ?
+                    GeneField.getByField(exportField).getGetter().apply(indexEntry) :
+                    attributes.getOrDefault(exportField, EMPTY_FIELD_VALUE);
+            fieldValues.add(value != null ? value : EMPTY_FIELD_VALUE);
         }
+        String line = String.join(format.getSeparator(), fieldValues) + NEW_LINE;
+        outputStream.write(line.getBytes());
     }
 
-    private void writeVcfPage(final ExportFormat format,
-                               final List<String> exportFields,
-                               final IndexSearchResult<VcfIndexEntry> indexSearchResult,
-                               ByteArrayOutputStream outputStream) throws IOException {
-        for (VcfIndexEntry indexEntry: indexSearchResult.getEntries()) {
-            List<String> fieldValues = new ArrayList<>();
-            Map<String, Object> attributes = MapUtils.emptyIfNull(indexEntry.getInfo());
-            for (String exportField: exportFields) {
-                String value = VcfField.getByField(exportField) != null ?
-                        VcfField.getByField(exportField).getGetter().apply(indexEntry) :
-                        (String) attributes.getOrDefault(exportField, EMPTY_FIELD_VALUE);
-                fieldValues.add(value != null ? value : EMPTY_FIELD_VALUE);
-            }
-            String line = String.join(format.getSeparator(), fieldValues) + NEW_LINE;
-            outputStream.write(line.getBytes());
+    private void writeVariation(final ExportFormat format,
+                                final List<String> exportFields,
+                                final VcfIndexEntry indexEntry,
+                                final OutputStream outputStream) throws IOException {
+        List<String> fieldValues = new ArrayList<>();
+        Map<String, Object> attributes = MapUtils.emptyIfNull(indexEntry.getInfo());
+        for (String exportField: exportFields) {
+            String value = VcfField.getByField(exportField) != null ?
+                    VcfField.getByField(exportField).getGetter().apply(indexEntry) :
+                    (String) attributes.getOrDefault(exportField, EMPTY_FIELD_VALUE);
+            fieldValues.add(value != null ? value : EMPTY_FIELD_VALUE);
         }
+        String line = String.join(format.getSeparator(), fieldValues) + NEW_LINE;
+        outputStream.write(line.getBytes());
     }
 
     private void setGeneAttributes(GeneExportFilterForm filterForm) {
@@ -29,6 +29,7 @@ import com.epam.catgenome.entity.externaldb.homologene.Gene;
 import com.epam.catgenome.entity.externaldb.homologene.HomologeneEntry;
 import com.epam.catgenome.manager.blast.BlastTaxonomyManager;
 import com.epam.catgenome.manager.blast.dto.BlastTaxonomy;
+import com.epam.catgenome.util.IndexImportPipeline;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
@@ -60,7 +61,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -88,6 +91,9 @@ public class HomologeneManager {
     @Value("${homologene.index.directory}")
     private String indexDirectory;
 
+    @Value("${index.import.thread.count:4}")
+    private int importThreadCount;
+
     @Autowired
     BlastTaxonomyManager taxonomyManager;
 
@@ -162,8 +168,12 @@ public class HomologeneManager {
                      index, new IndexWriterConfig(new StandardAnalyzer())
                      .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND))) {
             writer.deleteAll();
-            for (HomologeneEntry entry: readHomologenes(databasePath)) {
-                addDoc(writer, entry);
+            try (IndexImportPipeline<HomologeneEntry> pipeline = new IndexImportPipeline<>(writer,
+                    HomologeneManager::buildDoc, "homologene", importThreadCount)) {
+                readHomologenes(databasePath, pipeline::add);
+                pipeline.finish();
+            } catch (XMLStreamException e) {
+                throw new IOException(INCORRECT_XML_FORMAT, e);
             }
         }
     }
@@ -230,11 +240,32 @@ public class HomologeneManager {
 
     @SneakyThrows
     public List<HomologeneEntry> readHomologenes(final String path) {
+        final List<HomologeneEntry> homologeneEntries = new ArrayList<>();
+        readHomologenes(path, homologeneEntries::add);
+        return homologeneEntries;
+    }
+
+    /**
+     * Parses a Homologene XML database entry by entry, each entry is passed to a consumer as soon as
+     * it is read, so the whole database is never kept in memory
+     */
+    public void readHomologenes(final String path, final IndexImportPipeline.EntryConsumer<HomologeneEntry> consumer)
+            throws IOException, XMLStreamException {
         XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
         xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-        InputStream inputStream = new FileInputStream(path);
-        XMLStreamReader streamReader = xmlInputFactory.createXMLStreamReader(inputStream);
-        List<HomologeneEntry> homologeneEntries = new ArrayList<>();
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(path))) {
+            XMLStreamReader streamReader = xmlInputFactory.createXMLStreamReader(inputStream);
+            try {
+                readHomologenes(streamReader, consumer);
+            } finally {
+                streamReader.close();
+            }
+        }
+    }
+
+    private void readHomologenes(final XMLStreamReader streamReader,
+                                 final IndexImportPipeline.EntryConsumer<HomologeneEntry> consumer)
+            throws IOException, XMLStreamException {
         List<Gene> genes = new ArrayList<>();
         List<String> aliases = new ArrayList<>();
         List<Domain> domains = new ArrayList<>();
@@ -341,7 +372,7 @@ public class HomologeneManager {
                     case "HG-Entry":
                         requireNonNull(homologeneEntry);
                         homologeneEntry.setGenes(genes);
-                        homologeneEntries.add(homologeneEntry);
+                        consumer.accept(homologeneEntry);
                         genes = new ArrayList<>();
                         homologeneEntry = null;
                         break;
@@ -363,12 +394,9 @@ public class HomologeneManager {
                 }
             }
         }
-        streamReader.close();
-        inputStream.close();
-        return homologeneEntries;
     }
 
-    private static void addDoc(final IndexWriter writer, final HomologeneEntry entry) throws IOException {
+    private static Document buildDoc(final HomologeneEntry entry) throws IOException {
         final Document doc = new Document();
 
         doc.add(new StringField(IndexFields.GROUP_ID.getFieldName(),
@@ -392,7 +420,7 @@ public class HomologeneManager {
             doc.add(new TextField(IndexFields.QUERY_FIELDS.getFieldName(),
                     serializeQueryFields(entry.getGenes()), Field.Store.YES));
         }
-        writer.addDocument(doc);
+        return doc;
     }
 
     @SneakyThrows
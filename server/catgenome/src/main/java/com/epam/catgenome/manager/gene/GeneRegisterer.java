@@ -37,6 +37,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.epam.catgenome.util.IndexUtils;
+import com.epam.catgenome.util.PositionIndex;
 import com.epam.catgenome.util.PositionalOutputStream;
 import com.epam.catgenome.util.Utils;
 import org.apache.commons.io.IOUtils;
@@ -62,7 +63,9 @@ import com.epam.catgenome.manager.FeatureIndexManager;
 import com.epam.catgenome.manager.FileManager;
 import com.epam.catgenome.manager.gene.parser.GeneFeature;
 import com.epam.catgenome.manager.gene.parser.GffCodec;
+import com.epam.catgenome.manager.job.RegistrationJobProgress;
 import com.epam.catgenome.manager.reference.ReferenceGenomeManager;
+import htsjdk.samtools.util.BlockCompressedFilePointerUtil;
 import htsjdk.samtools.util.BlockCompressedOutputStream;
 import htsjdk.tribble.AsciiFeatureCodec;
 import htsjdk.tribble.index.tabix.TabixFormat;
@@ -119,6 +122,8 @@ public class GeneRegisterer {
     private String currentKey;
     private Map<String, Pair<Integer, Integer>> metaMap = new HashMap<>();  // to fix bugs with compressed files
     private GeneFeature lastFeature;
+    // exon positions for next/previous feature navigation
+    private Map<String, PositionIndex.Builder> exonPositions = new HashMap<>();
 
     // histogram stuff
     private int histogramSize;
@@ -203,6 +208,8 @@ public class GeneRegisterer {
         int featuresCount = 0;
 
         List<FeatureIndexEntry> allEntries = new ArrayList<>();
+        final RegistrationJobProgress progress = RegistrationJobProgress.current();
+        long bytesRead = 0;
         // main loop - here we process gene file, add it's features to an index and create helper files: large scale
         // and transcript
         while (iterator.hasNext()) {
@@ -210,6 +217,12 @@ public class GeneRegisterer {
             final long filePointer = iterator.getPosition();
             //add the feature to the index
             feature = (GeneFeature) iterator.next();
+            progress.addRecords(1);
+            // a position in a compressed file is a virtual file pointer, that starts with a compressed block offset
+            final long position = geneFile.getCompressed()
+                    ? BlockCompressedFilePointerUtil.getBlockAddress(filePointer) : filePointer;
+            progress.addBytes(position - bytesRead);
+            bytesRead = position;
 
             if (firstFeature == null) {
                 firstFeature = feature;
@@ -284,6 +297,10 @@ public class GeneRegisterer {
             }
 
             indexFeature(feature, allEntries, doFeatureIndex);
+            if (GeneUtils.isExon(feature)) {
+                exonPositions.computeIfAbsent(feature.getContig(), contig -> new PositionIndex.Builder(0))
+                        .add(feature.getStart(), feature.getEnd());
+            }
 
             currFeatureCount++;
             endPosition = feature.getStart();
@@ -358,6 +375,9 @@ public class GeneRegisterer {
                              String indexPath)
             throws IOException {
         fileManager.makeIndexMetadata(geneFile, metaMap);
+        for (Map.Entry<String, PositionIndex.Builder> entry : exonPositions.entrySet()) {
+            fileManager.writePositionIndex(geneFile, entry.getKey(), entry.getValue().build());
+        }
 
         // write the index to a file
         TabixIndex index;
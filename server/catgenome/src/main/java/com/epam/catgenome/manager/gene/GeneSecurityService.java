@@ -27,6 +27,7 @@
 package com.epam.catgenome.manager.gene;
 
 import com.epam.catgenome.controller.vo.registration.FeatureIndexedFileRegistrationRequest;
+import com.epam.catgenome.entity.BiologicalDataItemFormat;
 import com.epam.catgenome.entity.activity.Activity;
 import com.epam.catgenome.entity.externaldb.DimStructure;
 import com.epam.catgenome.entity.gene.Gene;
@@ -43,6 +44,7 @@ import com.epam.catgenome.exception.ExternalDbUnavailableException;
 import com.epam.catgenome.exception.GeneReadingException;
 import com.epam.catgenome.exception.HistogramReadingException;
 import com.epam.catgenome.manager.FeatureIndexManager;
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.manager.protein.ProteinSequenceManager;
 import com.epam.catgenome.security.acl.aspect.AclMask;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -71,6 +73,9 @@ public class GeneSecurityService {
     @Autowired
     private FeatureIndexManager featureIndexManager;
 
+    @Autowired
+    private TrackTileCache trackTileCache;
+
     @PreAuthorize(ROLE_ADMIN + OR + ROLE_GENE_MANAGER)
     public GeneFile registerGeneFile(FeatureIndexedFileRegistrationRequest request) {
         return gffManager.registerGeneFile(request);
@@ -98,6 +103,13 @@ public class GeneSecurityService {
         return gffManager.loadGenes(track, collapsed);
     }
 
+    @PreAuthorize(ROLE_ADMIN + OR + READ_ON_FILE_OR_PROJECT_BY_TRACK)
+    public TrackTileCache.CachedTrack<Gene> loadCachedGenes(Track<Gene> track, boolean collapsed)
+            throws GeneReadingException {
+        return trackTileCache.load(BiologicalDataItemFormat.GENE, track, Gene.class, String.valueOf(collapsed),
+                tile -> gffManager.loadGenes(tile, collapsed));
+    }
+
     @PreAuthorize(ROLE_USER)
     public List<GeneHighLevel> convertGeneTrackForClient(List<Gene> blocks,
                                                          Map<Gene, List<ProteinSequenceEntry>> aminoAcids) {
@@ -83,6 +83,7 @@ import com.epam.catgenome.manager.genbank.GenbankUtils;
 import com.epam.catgenome.util.HistogramUtils;
 import com.epam.catgenome.util.IOHelper;
 import com.epam.catgenome.util.NggbIntervalTreeMap;
+import com.epam.catgenome.util.PositionIndex;
 import com.epam.catgenome.util.Utils;
 import com.epam.catgenome.util.feature.reader.AbstractEnhancedFeatureReader;
 import com.epam.catgenome.util.feature.reader.AbstractFeatureReader;
@@ -847,6 +848,10 @@ public class GffManager {
             double time2 = Utils.getSystemTimeMilliseconds();
             log.debug("Reader creation {} ms", Thread.currentThread().getName(), time2 - time1);
 
+            final PositionIndex exonPositions = fileManager.loadPositionIndex(geneFile, chromosome.getName());
+            if (exonPositions != null) {
+                return getIndexedGeneFeature(featureReader, chromosome, fromPosition, forward, exonPositions);
+            }
             if (forward) {
                 return getNextGeneFeature(featureReader, chromosome, fromPosition, end);
             } else {
@@ -855,6 +860,57 @@ public class GffManager {
         }
     }
 
+    /**
+     * Finds the next or previous exon by a position index of exons, so that the file is queried only at
+     * single positions. Like a sequential search, the next exon is the first one, that ends after a position,
+     * so an exon, spanning the position, is looked up by a query at the next position first
+     */
+    private Gene getIndexedGeneFeature(AbstractFeatureReader<GeneFeature, LineIterator> featureReader,
+                                       Chromosome chromosome, int fromPosition, boolean forward,
+                                       PositionIndex exonPositions) throws IOException {
+        if (forward) {
+            final GeneFeature spanning = getFirstOverlappingExon(featureReader, chromosome, fromPosition + 1);
+            if (spanning != null) {
+                return new Gene(spanning);
+            }
+        }
+        final int ordinal = forward ? exonPositions.firstAfter(fromPosition, null)
+                : exonPositions.lastBefore(fromPosition, null);
+        if (ordinal < 0) {
+            return null;
+        }
+        final int start = exonPositions.getStart(ordinal);
+        GeneFeature found = null;
+        try (CloseableIterator<GeneFeature> iterator = Utils.query(featureReader, chromosome.getName(), start,
+                                                                   start)) {
+            while (iterator.hasNext()) {
+                final GeneFeature feature = iterator.next();
+                if (GeneUtils.isExon(feature) && feature.getStart() == start) {
+                    found = feature;
+                    // the first exon at the position is the next one, the last exon is the previous one
+                    if (forward) {
+                        break;
+                    }
+                }
+            }
+        }
+        return found != null ? new Gene(found) : null;
+    }
+
+    private GeneFeature getFirstOverlappingExon(AbstractFeatureReader<GeneFeature, LineIterator> featureReader,
+                                                Chromosome chromosome, int position) throws IOException {
+        try (CloseableIterator<GeneFeature> iterator = Utils.query(featureReader, chromosome.getName(), position,
+                                                                   position)) {
+            while (iterator.hasNext()) {
+                final GeneFeature feature = iterator.next();
+                if (GeneUtils.isExon(feature)) {
+                    return feature;
+                }
+            }
+        }
+        return null;
+    }
+
     private Gene getNextGeneFeature(AbstractFeatureReader<GeneFeature, LineIterator> featureReader,
                                     Chromosome chromosome, int fromPosition, int end) throws IOException {
         if (fromPosition + 1 >= end) { // no next features
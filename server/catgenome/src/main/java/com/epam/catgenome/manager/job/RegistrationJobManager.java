@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.job;
+
+import com.epam.catgenome.component.MessageHelper;
+import com.epam.catgenome.constant.MessagesConstants;
+import com.epam.catgenome.controller.JsonMapper;
+import com.epam.catgenome.controller.vo.registration.DefaultFileRegistrationRequest;
+import com.epam.catgenome.dao.job.RegistrationJobDao;
+import com.epam.catgenome.entity.job.RegistrationJob;
+import com.epam.catgenome.entity.job.RegistrationJobStatus;
+import com.epam.catgenome.entity.job.RegistrationJobType;
+import com.epam.catgenome.manager.AuthManager;
+import com.epam.catgenome.util.NgbFileUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stores registration jobs, their requests, statuses and progress in the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class RegistrationJobManager {
+
+    /**
+     * Types of jobs, that report bytes, read from a registered file, so that their total size makes sense.
+     * VCF and BAM readers don't expose positions in a file.
+     */
+    private static final Set<RegistrationJobType> BYTES_REPORTING_TYPES = EnumSet.of(RegistrationJobType.REFERENCE,
+            RegistrationJobType.GENE);
+
+    private final RegistrationJobDao registrationJobDao;
+    private final AuthManager authManager;
+
+    /**
+     * Creates a new queued job for a request of the current user
+     * @param type of the registration
+     * @param request registration request, it's stored as JSON
+     * @return created job
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public RegistrationJob create(final RegistrationJobType type, final Object request) {
+        final RegistrationJob job = new RegistrationJob();
+        job.setType(type);
+        job.setStatus(RegistrationJobStatus.QUEUED);
+        job.setOwner(authManager.getAuthorizedUser());
+        job.setCreatedDate(LocalDateTime.now());
+        try {
+            job.setRequest(JsonMapper.getInstance().writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        if (BYTES_REPORTING_TYPES.contains(type) && request instanceof DefaultFileRegistrationRequest) {
+            job.setTotalBytes(getFileSize(((DefaultFileRegistrationRequest) request).getPath()));
+        }
+        registrationJobDao.saveJob(job);
+        return job;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void update(final RegistrationJob job) {
+        registrationJobDao.updateJob(job);
+    }
+
+    /**
+     * Loads a job, that belongs to the current user
+     * @param jobId of the job
+     * @return loaded job
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public RegistrationJob load(final long jobId) {
+        final RegistrationJob job = registrationJobDao.loadJob(jobId);
+        Assert.isTrue(job != null && job.getOwner().equals(authManager.getAuthorizedUser()),
+                MessageHelper.getMessage(MessagesConstants.ERROR_REGISTRATION_JOB_NOT_FOUND, jobId));
+        return job;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<RegistrationJob> loadCurrentUserJobs() {
+        return registrationJobDao.loadJobsByOwner(authManager.getAuthorizedUser());
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<RegistrationJob> loadJobsByStatus(final Collection<RegistrationJobStatus> statuses) {
+        return registrationJobDao.loadJobsByStatus(statuses);
+    }
+
+    /**
+     * Restores a registration request of a job
+     * @param job to get the request from
+     * @param requestClass class of the request
+     * @return registration request
+     */
+    public <T> T readRequest(final RegistrationJob job, final Class<T> requestClass) throws IOException {
+        return JsonMapper.getInstance().readValue(job.getRequest(), requestClass);
+    }
+
+    private static Long getFileSize(final String path) {
+        if (path == null || NgbFileUtils.isRemotePath(path)) {
+            return null;
+        }
+        final File file = new File(path);
+        return file.isFile() ? file.length() : null;
+    }
+}
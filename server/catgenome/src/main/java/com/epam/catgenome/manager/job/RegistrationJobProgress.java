@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.job;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a running registration job. Registration code reports processed records and read bytes to
+ * the progress of the current thread, that is a no-op outside of a job. Reporting also checks if the job is
+ * canceled and interrupts the registration with {@link CancellationException}. Workers, started by
+ * a registration, should capture the progress with {@link #current()} and report to it directly.
+ */
+public class RegistrationJobProgress {
+
+    private static final RegistrationJobProgress NONE = new RegistrationJobProgress(null);
+    private static final ThreadLocal<RegistrationJobProgress> CURRENT = new ThreadLocal<>();
+
+    private final Long jobId;
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile boolean canceled;
+    private boolean started;
+
+    RegistrationJobProgress(final Long jobId) {
+        this.jobId = jobId;
+    }
+
+    /**
+     * @return progress of a job, processed by the current thread, or a no-op progress
+     */
+    public static RegistrationJobProgress current() {
+        final RegistrationJobProgress progress = CURRENT.get();
+        return progress == null ? NONE : progress;
+    }
+
+    static void attach(final RegistrationJobProgress progress) {
+        CURRENT.set(progress);
+    }
+
+    static void detach() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds processed records
+     * @param count number of records
+     * @throws CancellationException if the job is canceled
+     */
+    public void addRecords(final long count) {
+        if (jobId == null) {
+            return;
+        }
+        checkCanceled();
+        records.addAndGet(count);
+    }
+
+    /**
+     * Adds bytes, read from a registered file
+     * @param count number of bytes
+     * @throws CancellationException if the job is canceled
+     */
+    public void addBytes(final long count) {
+        if (jobId == null) {
+            return;
+        }
+        checkCanceled();
+        bytes.addAndGet(count);
+    }
+
+    /**
+     * @throws CancellationException if the job is canceled
+     */
+    public void checkCanceled() {
+        if (canceled) {
+            throw new CancellationException("Registration job " + jobId + " is canceled");
+        }
+    }
+
+    public long getRecords() {
+        return records.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * Marks a job as started, unless it's already canceled
+     * @return true if the job may be run
+     */
+    synchronized boolean start() {
+        started = !canceled;
+        return started;
+    }
+
+    /**
+     * Cancels a job
+     * @param whenRunning tells if a started job should be stopped, otherwise it is left running
+     * @return true if the job hasn't been started yet and won't be run
+     */
+    synchronized boolean cancel(final boolean whenRunning) {
+        if (!started || whenRunning) {
+            canceled = true;
+        }
+        return !started;
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.job;
+
+import com.epam.catgenome.component.MessageHelper;
+import com.epam.catgenome.constant.MessagesConstants;
+import com.epam.catgenome.controller.vo.registration.FeatureIndexedFileRegistrationRequest;
+import com.epam.catgenome.controller.vo.registration.FileReindexRequest;
+import com.epam.catgenome.controller.vo.registration.IndexedFileRegistrationRequest;
+import com.epam.catgenome.controller.vo.registration.ReferenceRegistrationRequest;
+import com.epam.catgenome.entity.BaseEntity;
+import com.epam.catgenome.entity.job.RegistrationJob;
+import com.epam.catgenome.entity.job.RegistrationJobStatus;
+import com.epam.catgenome.entity.job.RegistrationJobType;
+import com.epam.catgenome.entity.security.NgbUser;
+import com.epam.catgenome.exception.FeatureIndexException;
+import com.epam.catgenome.manager.bam.BamManager;
+import com.epam.catgenome.manager.gene.GffManager;
+import com.epam.catgenome.manager.reference.ReferenceManager;
+import com.epam.catgenome.manager.user.UserManager;
+import com.epam.catgenome.manager.vcf.VcfManager;
+import com.epam.catgenome.security.UserContext;
+import com.epam.catgenome.security.jwt.JwtAuthenticationToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs registration jobs in background. Each kind of a registration has it's own queue with a limited
+ * number of concurrently running jobs. Jobs report their progress through {@link RegistrationJobProgress}
+ * and may be canceled: a running job stops on the next progress report and a failed registration removes
+ * its partial data. Reindex jobs rebuild indexes of a registered file in place, so they may be canceled only
+ * while queued. Jobs, that were queued before a server restart, are submitted again on startup, jobs, that
+ * were running, are marked as failed.
+ */
+@Service
+@Slf4j
+public class RegistrationJobQueue {
+
+    @Autowired
+    private RegistrationJobManager registrationJobManager;
+
+    @Autowired
+    private ReferenceManager referenceManager;
+
+    @Autowired
+    private BamManager bamManager;
+
+    @Autowired
+    private VcfManager vcfManager;
+
+    @Autowired
+    private GffManager gffManager;
+
+    @Autowired(required = false)
+    private UserManager userManager;
+
+    @Value("${registration.job.reference.concurrency:1}")
+    private int referenceConcurrency;
+
+    @Value("${registration.job.bam.concurrency:2}")
+    private int bamConcurrency;
+
+    @Value("${registration.job.vcf.concurrency:2}")
+    private int vcfConcurrency;
+
+    @Value("${registration.job.gene.concurrency:2}")
+    private int geneConcurrency;
+
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+    private final Map<Long, RegistrationJobProgress> activeJobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        final Map<RegistrationJobType, Integer> concurrency = new EnumMap<>(RegistrationJobType.class);
+        concurrency.put(RegistrationJobType.REFERENCE, referenceConcurrency);
+        concurrency.put(RegistrationJobType.BAM, bamConcurrency);
+        concurrency.put(RegistrationJobType.VCF, vcfConcurrency);
+        concurrency.put(RegistrationJobType.GENE, geneConcurrency);
+        concurrency.forEach((type, threads) -> executors.put(type.getQueue(),
+                Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactoryBuilder()
+                        .setNameFormat("registration-" + type.getQueue() + "-%d")
+                        .build())));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    /**
+     * Creates a job for a registration request of the current user and submits it to the queue
+     * @param type of the registration
+     * @param request registration request
+     * @return created job
+     */
+    public RegistrationJob submit(final RegistrationJobType type, final Object request) {
+        final RegistrationJob job = registrationJobManager.create(type, request);
+        enqueue(job);
+        return job;
+    }
+
+    /**
+     * Loads a job of the current user, progress of a running job is taken from the running registration
+     * @param jobId of the job
+     * @return loaded job
+     */
+    public RegistrationJob load(final long jobId) {
+        final RegistrationJob job = registrationJobManager.load(jobId);
+        setProgress(job);
+        return job;
+    }
+
+    public List<RegistrationJob> loadCurrentUserJobs() {
+        final List<RegistrationJob> jobs = registrationJobManager.loadCurrentUserJobs();
+        jobs.forEach(this::setProgress);
+        return jobs;
+    }
+
+    /**
+     * Cancels a job of the current user. A queued job is canceled immediately, a running job is canceled
+     * when the registration reports it's progress next time. Running reindex jobs can't be canceled.
+     * @param jobId of the job
+     * @return canceled job
+     */
+    public RegistrationJob cancel(final long jobId) {
+        final RegistrationJob job = registrationJobManager.load(jobId);
+        Assert.isTrue(!job.getStatus().isFinal(), MessageHelper.getMessage(
+                MessagesConstants.ERROR_REGISTRATION_JOB_FINISHED, jobId, job.getStatus()));
+        final RegistrationJobProgress progress = activeJobs.get(jobId);
+        final boolean cancelableWhenRunning = job.getType().isCancelableWhenRunning();
+        if (progress == null || progress.cancel(cancelableWhenRunning)) {
+            job.setStatus(RegistrationJobStatus.CANCELED);
+            job.setEndDate(LocalDateTime.now());
+            registrationJobManager.update(job);
+        } else {
+            Assert.isTrue(cancelableWhenRunning, MessageHelper.getMessage(
+                    MessagesConstants.ERROR_REGISTRATION_JOB_NOT_CANCELABLE, jobId, job.getType()));
+            setProgress(job);
+        }
+        return job;
+    }
+
+    @EventListener
+    public void recoverJobs(final ApplicationReadyEvent event) {
+        recover();
+    }
+
+    /**
+     * Restores the queue after a restart: running jobs are failed, queued jobs are submitted again
+     */
+    void recover() {
+        registrationJobManager.loadJobsByStatus(Collections.singletonList(RegistrationJobStatus.RUNNING))
+            .stream()
+            .filter(job -> !activeJobs.containsKey(job.getId()))
+            .forEach(job -> {
+                job.setStatus(RegistrationJobStatus.FAILED);
+                job.setStatusReason(MessageHelper.getMessage(MessagesConstants.ERROR_REGISTRATION_JOB_INTERRUPTED));
+                job.setEndDate(LocalDateTime.now());
+                registrationJobManager.update(job);
+            });
+        registrationJobManager.loadJobsByStatus(Collections.singletonList(RegistrationJobStatus.QUEUED))
+            .stream()
+            .filter(job -> !activeJobs.containsKey(job.getId()))
+            .forEach(this::enqueue);
+    }
+
+    private void enqueue(final RegistrationJob job) {
+        final RegistrationJobProgress progress = new RegistrationJobProgress(job.getId());
+        activeJobs.put(job.getId(), progress);
+        executors.get(job.getType().getQueue()).execute(() -> run(job, progress));
+    }
+
+    private void run(final RegistrationJob job, final RegistrationJobProgress progress) {
+        if (!progress.start()) {
+            activeJobs.remove(job.getId());
+            return;
+        }
+        final SecurityContext previousContext = SecurityContextHolder.getContext();
+        job.setStatus(RegistrationJobStatus.RUNNING);
+        job.setStartDate(LocalDateTime.now());
+        try {
+            registrationJobManager.update(job);
+            SecurityContextHolder.setContext(createOwnerContext(job.getOwner()));
+            RegistrationJobProgress.attach(progress);
+            job.setResultId(register(job).getId());
+            job.setStatus(RegistrationJobStatus.DONE);
+        } catch (CancellationException e) {
+            job.setStatus(RegistrationJobStatus.CANCELED);
+        } catch (IOException | FeatureIndexException | RuntimeException e) {
+            // any failure of a registration is reported as the job status, not to the executor thread
+            log.error(e.getMessage(), e);
+            job.setStatus(progress.isCanceled() ? RegistrationJobStatus.CANCELED : RegistrationJobStatus.FAILED);
+            job.setStatusReason(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        } finally {
+            RegistrationJobProgress.detach();
+            SecurityContextHolder.setContext(previousContext);
+            if (job.getStatus() == RegistrationJobStatus.RUNNING) {
+                job.setStatus(RegistrationJobStatus.FAILED);
+            }
+            job.setEndDate(LocalDateTime.now());
+            job.setRecordsProcessed(progress.getRecords());
+            job.setBytesRead(progress.getBytes());
+            registrationJobManager.update(job);
+            activeJobs.remove(job.getId());
+        }
+    }
+
+    private BaseEntity register(final RegistrationJob job) throws IOException, FeatureIndexException {
+        switch (job.getType()) {
+            case REFERENCE:
+                return referenceManager.registerGenome(
+                        registrationJobManager.readRequest(job, ReferenceRegistrationRequest.class));
+            case BAM:
+                return bamManager.registerBam(
+                        registrationJobManager.readRequest(job, IndexedFileRegistrationRequest.class));
+            case VCF:
+                return vcfManager.registerVcfFile(
+                        registrationJobManager.readRequest(job, FeatureIndexedFileRegistrationRequest.class));
+            case GENE:
+                return gffManager.registerGeneFile(
+                        registrationJobManager.readRequest(job, FeatureIndexedFileRegistrationRequest.class));
+            case VCF_REINDEX:
+                final FileReindexRequest vcfRequest = registrationJobManager.readRequest(job,
+                        FileReindexRequest.class);
+                return vcfManager.reindexVcfFile(vcfRequest.getFileId(), vcfRequest.isCreateTabixIndex());
+            case GENE_REINDEX:
+                final FileReindexRequest geneRequest = registrationJobManager.readRequest(job,
+                        FileReindexRequest.class);
+                return gffManager.reindexGeneFile(geneRequest.getFileId(), geneRequest.isFull(),
+                        geneRequest.isCreateTabixIndex());
+            default:
+                throw new IllegalStateException("Unsupported registration job type " + job.getType());
+        }
+    }
+
+    private SecurityContext createOwnerContext(final String owner) {
+        final NgbUser user = userManager == null ? null : userManager.loadUserByName(owner);
+        final UserContext userContext = user != null ? new UserContext(user) : new UserContext(owner);
+        final SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new JwtAuthenticationToken(userContext, userContext.getAuthorities()));
+        return context;
+    }
+
+    private void setProgress(final RegistrationJob job) {
+        final RegistrationJobProgress progress = activeJobs.get(job.getId());
+        if (progress == null || job.getStatus().isFinal()) {
+            return;
+        }
+        job.setRecordsProcessed(progress.getRecords());
+        job.setBytesRead(progress.getBytes());
+        if (progress.isCanceled()) {
+            job.setStatus(RegistrationJobStatus.CANCELED);
+        }
+    }
+}
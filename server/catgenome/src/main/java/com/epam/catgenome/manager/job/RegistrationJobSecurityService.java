@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.job;
+
+import com.epam.catgenome.controller.vo.registration.FeatureIndexedFileRegistrationRequest;
+import com.epam.catgenome.controller.vo.registration.FileReindexRequest;
+import com.epam.catgenome.controller.vo.registration.IndexedFileRegistrationRequest;
+import com.epam.catgenome.controller.vo.registration.ReferenceRegistrationRequest;
+import com.epam.catgenome.entity.job.RegistrationJob;
+import com.epam.catgenome.entity.job.RegistrationJobType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.epam.catgenome.security.acl.SecurityExpressions.*;
+
+@Service
+public class RegistrationJobSecurityService {
+
+    @Autowired
+    private RegistrationJobQueue registrationJobQueue;
+
+    @PreAuthorize(ROLE_ADMIN + OR + ROLE_REFERENCE_MANAGER)
+    public RegistrationJob registerReference(final ReferenceRegistrationRequest request) {
+        return registrationJobQueue.submit(RegistrationJobType.REFERENCE, request);
+    }
+
+    @PreAuthorize(ROLE_ADMIN + OR + ROLE_BAM_MANAGER)
+    public RegistrationJob registerBam(final IndexedFileRegistrationRequest request) {
+        return registrationJobQueue.submit(RegistrationJobType.BAM, request);
+    }
+
+    @PreAuthorize(ROLE_ADMIN + OR + ROLE_VCF_MANAGER)
+    public RegistrationJob registerVcf(final FeatureIndexedFileRegistrationRequest request) {
+        return registrationJobQueue.submit(RegistrationJobType.VCF, request);
+    }
+
+    @PreAuthorize(ROLE_ADMIN + OR + ROLE_VCF_MANAGER)
+    public RegistrationJob reindexVcf(final FileReindexRequest request) {
+        return registrationJobQueue.submit(RegistrationJobType.VCF_REINDEX, request);
+    }
+
+    @PreAuthorize(ROLE_ADMIN + OR + ROLE_GENE_MANAGER)
+    public RegistrationJob registerGene(final FeatureIndexedFileRegistrationRequest request) {
+        return registrationJobQueue.submit(RegistrationJobType.GENE, request);
+    }
+
+    @PreAuthorize(ROLE_ADMIN + OR + ROLE_GENE_MANAGER)
+    public RegistrationJob reindexGene(final FileReindexRequest request) {
+        return registrationJobQueue.submit(RegistrationJobType.GENE_REINDEX, request);
+    }
+
+    @PreAuthorize(ROLE_USER)
+    public RegistrationJob load(final long jobId) {
+        return registrationJobQueue.load(jobId);
+    }
+
+    @PreAuthorize(ROLE_USER)
+    public List<RegistrationJob> loadJobs() {
+        return registrationJobQueue.loadCurrentUserJobs();
+    }
+
+    @PreAuthorize(ROLE_USER)
+    public RegistrationJob cancel(final long jobId) {
+        return registrationJobQueue.cancel(jobId);
+    }
+}
@@ -27,22 +27,18 @@ package com.epam.catgenome.manager.maf;
 import static com.epam.catgenome.component.MessageHelper.getMessage;
 import static com.epam.catgenome.constant.MessagesConstants.ERROR_EMPTY_FOLDER;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
-import java.util.List;
 import java.util.stream.Collectors;
 
-import com.epam.catgenome.util.feature.reader.EhCacheBasedIndexCache;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
@@ -64,9 +60,10 @@ import com.epam.catgenome.manager.maf.parser.MafFeature;
 import com.epam.catgenome.manager.reference.ReferenceGenomeManager;
 import com.epam.catgenome.util.IOHelper;
 import com.epam.catgenome.util.Utils;
-import com.epam.catgenome.util.comparator.FeatureComparator;
+import htsjdk.samtools.util.BlockCompressedOutputStream;
 import htsjdk.samtools.util.CloseableIterator;
 import com.epam.catgenome.util.feature.reader.AbstractFeatureReader;
+import htsjdk.tribble.index.Index;
 import htsjdk.tribble.readers.LineIterator;
 
 /**
@@ -92,8 +89,11 @@ public class MafManager {
     @Autowired
     private DownloadFileManager downloadFileManager;
 
-    @Autowired(required = false)
-    private EhCacheBasedIndexCache indexCache;
+    /**
+     * Maximum number of MAF records, that are sorted in memory, when several MAF files are merged
+     */
+    @Value("${maf.merge.chunk.size:100000}")
+    private int mergeChunkSize;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MafManager.class);
 
@@ -247,54 +247,21 @@ public class MafManager {
         Assert.notNull(directory.listFiles(), getMessage(ERROR_EMPTY_FOLDER));
         Assert.isTrue(directory.listFiles().length > 0, getMessage(ERROR_EMPTY_FOLDER));
         Reference reference = referenceGenomeManager.load(mafFile.getReferenceId());
-        try (BufferedWriter writer = fileManager.makeMafFileWriter(mafFile)) {
+        final Index index;
+        try (BlockCompressedOutputStream output = fileManager.makeMafFileOutputStream(mafFile)) {
             createMafBioItem(mafFile);
+            final MafMerger merger = new MafMerger(reference.getChromosomes(), fileManager.getMafTempDir(mafFile),
+                    mergeChunkSize);
             for (File f : directory.listFiles()) {
                 if (f.getAbsolutePath().endsWith(MafCodec.MAF_EXTENSION) ||
                         f.getAbsolutePath().endsWith(MafCodec.MAF_COMPRESSED_EXTENSION)) {
-                    fileManager.makeMafTempIndex(f, mafFile);
-                }
-            }
-            for (Chromosome chromosome : reference.getChromosomes()) {
-                List<MafFeature> currChrFeatures = new ArrayList<>();
-                LOGGER.debug("Reading MAF records for chromosome {}", chromosome.getName());
-                for (File f : directory.listFiles()) {
-                    addFeaturesFromFile(mafFile, chromosome, currChrFeatures, f);
-                }
-                LOGGER.debug("Sorting MAF records for chromosome {}", chromosome.getName());
-                Collections.sort(currChrFeatures, new FeatureComparator());
-                LOGGER.debug("Writing MAF records for chromosome {}", chromosome.getName());
-                for (MafFeature feature : currChrFeatures) {
-                    writer.write(feature.toBigMafString());
-                    writer.newLine();
+                    merger.addFile(f);
                 }
-                writer.flush();
             }
-            writer.flush();
+            index = merger.merge(output, fileManager.makeBigMafIndexCreator());
         } finally {
             fileManager.deleteMafTempDir(mafFile.getId());
         }
-        fileManager.makeBigMafIndex(mafFile);
-    }
-
-    private void addFeaturesFromFile(MafFile mafFile, Chromosome chromosome,
-            List<MafFeature> currChrFeatures, File f) throws IOException {
-        if (f.getAbsolutePath().endsWith(MafCodec.MAF_EXTENSION) ||
-                f.getAbsolutePath().endsWith(MafCodec.MAF_COMPRESSED_EXTENSION)) {
-            File indexFile = fileManager.getMafTempIndex(f, mafFile);
-            MafCodec mafCodec = new MafCodec(f.getName());
-
-            try (AbstractFeatureReader<MafFeature, LineIterator> reader = AbstractFeatureReader
-                    .getFeatureReader(f.getAbsolutePath(), indexFile.getAbsolutePath(), mafCodec, true, indexCache)) {
-                CloseableIterator<MafFeature> iterator = reader.query(chromosome.getName(), 1,
-                        chromosome.getSize());
-                if (!iterator.hasNext()) {
-                    iterator = reader.query(Utils.changeChromosomeName(chromosome.getName()), 1,
-                            chromosome.getSize());
-                }
-
-                currChrFeatures.addAll(iterator.toList());
-            }
-        }
+        fileManager.writeBigMafIndex(mafFile, index);
     }
 }
@@ -0,0 +1,277 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.maf;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.epam.catgenome.entity.reference.Chromosome;
+import com.epam.catgenome.manager.maf.parser.MafCodec;
+import com.epam.catgenome.manager.maf.parser.MafFeature;
+import com.epam.catgenome.util.IOHelper;
+import com.epam.catgenome.util.Utils;
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.tribble.SimpleFeature;
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+
+/**
+ * Merges MAF files into a single BigMaf file, sorted in the order of reference chromosomes and by start
+ * positions. Each input file is read sequentially once, its records are sorted in chunks of a bounded size
+ * and spilled to temporary run files. Runs are merged k-way into the BigMaf file in a single pass, that
+ * builds its tabix index as well. Records on chromosomes, missing in a reference, are skipped.
+ */
+final class MafMerger {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MafMerger.class);
+
+    /**
+     * Runs are merged into intermediate runs, if there are more of them, to limit open files
+     */
+    private static final int MAX_OPEN_RUNS = 256;
+    private static final String RUN_PREFIX = "run";
+    private static final char DELIMITER = '\t';
+    private static final Comparator<MafRecordLine> ORDER = Comparator
+            .comparingInt((MafRecordLine line) -> line.chromosome)
+            .thenComparingInt(line -> line.start);
+
+    private final Map<String, Integer> chromosomeIndexes = new HashMap<>();
+    private final File tempDir;
+    private final int chunkSize;
+    private final List<File> runs = new ArrayList<>();
+
+    /**
+     * @param chromosomes reference chromosomes, defining the order of records
+     * @param tempDir a directory for run files
+     * @param chunkSize maximum number of records, sorted in memory
+     */
+    MafMerger(final List<Chromosome> chromosomes, final File tempDir, final int chunkSize) {
+        this.tempDir = tempDir;
+        this.chunkSize = Math.max(1, chunkSize);
+        for (int i = 0; i < chromosomes.size(); i++) {
+            chromosomeIndexes.put(chromosomes.get(i).getName(), i);
+        }
+        for (int i = 0; i < chromosomes.size(); i++) {
+            chromosomeIndexes.putIfAbsent(Utils.changeChromosomeName(chromosomes.get(i).getName()), i);
+        }
+    }
+
+    /**
+     * Reads records of a MAF file and spills them to sorted runs
+     * @param file a MAF file
+     * @throws IOException if a file can't be read or runs can't be written
+     */
+    void addFile(final File file) throws IOException {
+        LOGGER.debug("Reading MAF records from {}", file.getName());
+        final MafCodec codec = new MafCodec(file.getName());
+        final List<MafRecordLine> chunk = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(IOHelper.openStream(file),
+                Charset.defaultCharset()))) {
+            String line = reader.readLine();
+            while (line != null) {
+                final MafFeature feature = codec.decode(line);
+                final Integer chromosome = feature == null ? null : chromosomeIndexes.get(feature.getContig());
+                if (chromosome != null) {
+                    chunk.add(new MafRecordLine(chromosome, feature.getStart(), feature.getEnd(),
+                            feature.getContig(), feature.toBigMafString()));
+                }
+                if (chunk.size() >= chunkSize) {
+                    spill(chunk);
+                }
+                line = reader.readLine();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            spill(chunk);
+        }
+    }
+
+    /**
+     * Merges all runs into a BigMaf file and deletes them
+     * @param output a block compressed stream of a BigMaf file
+     * @param indexCreator creates a tabix index of a BigMaf file
+     * @return an index of the written file
+     * @throws IOException if runs can't be read or the output can't be written
+     */
+    Index merge(final BlockCompressedOutputStream output, final TabixIndexCreator indexCreator)
+            throws IOException {
+        while (runs.size() > MAX_OPEN_RUNS) {
+            final List<File> merged = new ArrayList<>();
+            for (int from = 0; from < runs.size(); from += MAX_OPEN_RUNS) {
+                final List<File> group = runs.subList(from, Math.min(runs.size(), from + MAX_OPEN_RUNS));
+                final File run = createRun();
+                try (BufferedWriter writer = Files.newBufferedWriter(run.toPath(), Charset.defaultCharset())) {
+                    merge(group, line -> {
+                        writer.write(line.toRunString());
+                        writer.newLine();
+                    });
+                }
+                merged.add(run);
+            }
+            runs.clear();
+            runs.addAll(merged);
+        }
+        LOGGER.debug("Merging {} sorted MAF runs", runs.size());
+        final byte[] newLine = System.lineSeparator().getBytes(Charset.defaultCharset());
+        merge(runs, line -> {
+            indexCreator.addFeature(new SimpleFeature(line.contig, line.start, line.end), output.getFilePointer());
+            output.write(line.record.getBytes(Charset.defaultCharset()));
+            output.write(newLine);
+        });
+        runs.clear();
+        return indexCreator.finalizeIndex(output.getFilePointer());
+    }
+
+    private void spill(final List<MafRecordLine> chunk) throws IOException {
+        // the sort is stable, so records with equal positions keep the order of input files
+        chunk.sort(ORDER);
+        final File run = createRun();
+        try (BufferedWriter writer = Files.newBufferedWriter(run.toPath(), Charset.defaultCharset())) {
+            for (MafRecordLine line : chunk) {
+                writer.write(line.toRunString());
+                writer.newLine();
+            }
+        }
+        runs.add(run);
+        chunk.clear();
+    }
+
+    private File createRun() throws IOException {
+        return File.createTempFile(RUN_PREFIX, null, tempDir);
+    }
+
+    /**
+     * Merges runs, records with equal positions are taken from the runs in their order. Merged runs
+     * are deleted
+     */
+    private static void merge(final List<File> sources, final RecordConsumer consumer) throws IOException {
+        final PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparing((RunReader reader) -> reader.current, ORDER)
+                        .thenComparingInt(reader -> reader.index));
+        try {
+            for (int i = 0; i < sources.size(); i++) {
+                final RunReader reader = new RunReader(sources.get(i), i);
+                if (reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            while (!queue.isEmpty()) {
+                final RunReader reader = queue.poll();
+                consumer.accept(reader.current);
+                if (reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            for (RunReader reader : queue) {
+                reader.close();
+            }
+            sources.forEach(File::delete);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordConsumer {
+        void accept(MafRecordLine line) throws IOException;
+    }
+
+    /**
+     * A BigMaf record with its sort key. Run files keep records with their keys, so they aren't parsed
+     * again during merging
+     */
+    private static final class MafRecordLine {
+        private static final int KEY_FIELDS = 5;
+
+        private final int chromosome;
+        private final int start;
+        private final int end;
+        private final String contig;
+        private final String record;
+
+        private MafRecordLine(final int chromosome, final int start, final int end, final String contig,
+                              final String record) {
+            this.chromosome = chromosome;
+            this.start = start;
+            this.end = end;
+            this.contig = contig;
+            this.record = record;
+        }
+
+        private static MafRecordLine parse(final String line) {
+            final String[] key = line.split(String.valueOf(DELIMITER), KEY_FIELDS);
+            return new MafRecordLine(Integer.parseInt(key[0]), Integer.parseInt(key[1]), Integer.parseInt(key[2]),
+                    key[3], key[4]);
+        }
+
+        private String toRunString() {
+            return new StringBuilder()
+                    .append(chromosome).append(DELIMITER)
+                    .append(start).append(DELIMITER)
+                    .append(end).append(DELIMITER)
+                    .append(contig).append(DELIMITER)
+                    .append(record).toString();
+        }
+    }
+
+    private static final class RunReader implements Closeable {
+        private final BufferedReader reader;
+        private final int index;
+        private MafRecordLine current;
+
+        private RunReader(final File run, final int index) throws IOException {
+            this.reader = Files.newBufferedReader(run.toPath(), Charset.defaultCharset());
+            this.index = index;
+        }
+
+        private boolean next() throws IOException {
+            final String line = reader.readLine();
+            current = line == null ? null : MafRecordLine.parse(line);
+            return current != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
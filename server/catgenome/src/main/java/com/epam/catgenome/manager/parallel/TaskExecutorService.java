@@ -34,8 +34,10 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import com.epam.catgenome.manager.bam.BamTrackEmitter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.util.RuntimeIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +66,12 @@ public final class TaskExecutorService {
     @Value("#{catgenome['server.tomcat.max-connections'] ?: " + DEFAULT_MAX_THREADS + "}")
     private int maxThreadCount;
 
+    /**
+     * Number of threads, that build indexes of registered files in background, 0 means all available processors
+     */
+    @Value("#{catgenome['ngb.index.thread.count'] ?: 0}")
+    private int indexThreadCount;
+
     public enum ExecutionMode {
         SEQUENTIAL, ASYNC
     }
@@ -73,11 +81,20 @@ public final class TaskExecutorService {
 
     private volatile ExecutorService executorService;
     private volatile ExecutorService searchExecutor;
+    private volatile ExecutorService indexExecutor;
 
     @PostConstruct
     public void init() {
         searchExecutor = Executors
                 .newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        indexExecutor = Executors.newFixedThreadPool(
+                indexThreadCount > 0 ? indexThreadCount : Runtime.getRuntime().availableProcessors(),
+                new ThreadFactoryBuilder().setNameFormat("ngb-index-%d").build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexExecutor.shutdownNow();
     }
 
     /**
@@ -108,6 +125,16 @@ public final class TaskExecutorService {
         return searchExecutor;
     }
 
+    /**
+     * Separate executor for long running index builds of registered files, e.g. parallel chromosome indexing
+     * and BAM coverage, so that they don't take threads of request processing. Tasks are queued, when all
+     * threads are busy.
+     * @return ExecutorService
+     */
+    public ExecutorService getIndexExecutor() {
+        return indexExecutor;
+    }
+
     public synchronized void executeTrackTask(BamTrackEmitter bamTrackEmitter, ExecutionMode mode, BamTrackTask task)
             throws IOException {
 
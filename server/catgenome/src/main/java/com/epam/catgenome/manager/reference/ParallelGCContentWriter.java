@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.reference;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import com.epam.catgenome.entity.reference.Chromosome;
+import com.epam.catgenome.manager.FileManager;
+import com.epam.catgenome.manager.job.RegistrationJobProgress;
+import com.epam.catgenome.manager.reference.io.FastaSequenceFile;
+import com.epam.catgenome.manager.reference.io.NibDataWriter;
+import com.epam.catgenome.util.BlockCompressedDataOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes GC-content files and their indexes for chromosomes of a registered FASTA reference. Chromosomes,
+ * listed in a .fai index, are processed independently by several workers, the largest ones first. Each
+ * chromosome is written to its own file exactly as by a sequential pass, so the result doesn't depend on
+ * the number of workers. Sequences of chromosomes, that are processed at the same time, are kept in memory,
+ * their total size is limited by a memory budget, a chromosome, exceeding the budget, is processed alone.
+ */
+class ParallelGCContentWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelGCContentWriter.class);
+
+    /**
+     * Memory budget is accounted in KiB, so that it fits into semaphore permits
+     */
+    private static final int PERMIT_SIZE = 1024;
+
+    private final FileManager fileManager;
+    private final NibDataWriter nibDataWriter;
+    private final Long referenceId;
+    private final FastaSequenceFile referenceReader;
+    private final RegistrationJobProgress progress;
+
+    ParallelGCContentWriter(FileManager fileManager, NibDataWriter nibDataWriter, Long referenceId,
+                            FastaSequenceFile referenceReader) {
+        this.fileManager = fileManager;
+        this.nibDataWriter = nibDataWriter;
+        this.referenceId = referenceId;
+        this.referenceReader = referenceReader;
+        this.progress = RegistrationJobProgress.current();
+    }
+
+    /**
+     * Writes GC-content of chromosomes, paths of written files are set to chromosomes
+     * @param chromosomes to write GC-content for
+     * @param threadCount number of workers, 1 means sequential processing
+     * @param memoryBudget maximum total size of chromosome sequences, that are processed at the same time, bytes
+     * @throws IOException if the reference can't be read or a file can't be written
+     */
+    void write(List<Chromosome> chromosomes, int threadCount, long memoryBudget) throws IOException {
+        final int threads = Math.min(threadCount, chromosomes.size());
+        if (threads <= 1) {
+            for (Chromosome chromosome : chromosomes) {
+                writeChromosome(chromosome);
+            }
+            return;
+        }
+        final List<Chromosome> bySize = new ArrayList<>(chromosomes);
+        bySize.sort(Comparator.comparingInt(Chromosome::getSize).reversed());
+        final int totalPermits = toPermits(Math.min(memoryBudget, (long) Integer.MAX_VALUE * PERMIT_SIZE));
+        final Semaphore memory = new Semaphore(totalPermits);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> results = new ArrayList<>(bySize.size());
+            for (Chromosome chromosome : bySize) {
+                final int permits = Math.min(totalPermits, toPermits(chromosome.getSize()));
+                results.add(executor.submit(() -> {
+                    memory.acquire(permits);
+                    try {
+                        writeChromosome(chromosome);
+                    } finally {
+                        memory.release(permits);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                getResult(result);
+            }
+        } finally {
+            // stops remaining workers, if one of them failed
+            executor.shutdownNow();
+        }
+        LOGGER.info("GC-content of {} chromosomes of reference {} is written by {} threads",
+                chromosomes.size(), referenceId, threads);
+    }
+
+    private void writeChromosome(Chromosome chromosome) throws IOException {
+        progress.checkCanceled();
+        final byte[] sequence = referenceReader.getChromosome(chromosome.getName());
+        try (BlockCompressedDataOutputStream gcStream = fileManager.makeGCOutputStream(referenceId, chromosome)) {
+            nibDataWriter.byteArrayToGCFile(sequence, gcStream);
+        }
+        fileManager.makeGcIndex(referenceId, chromosome.getName());
+        progress.addRecords(1);
+        progress.addBytes(sequence.length);
+    }
+
+    private static int toPermits(long bytes) {
+        return (int) Math.max(1, (bytes + PERMIT_SIZE - 1) / PERMIT_SIZE);
+    }
+
+    private static void getResult(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
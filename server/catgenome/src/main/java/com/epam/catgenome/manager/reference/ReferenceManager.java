@@ -32,6 +32,7 @@ import com.epam.catgenome.entity.reference.Species;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -52,10 +53,11 @@ import com.epam.catgenome.manager.genbank.GenbankManager;
 import com.epam.catgenome.manager.reference.io.FastaSequenceFile;
 import com.epam.catgenome.manager.reference.io.FastaUtils;
 import com.epam.catgenome.manager.genbank.GenbankUtils;
+import com.epam.catgenome.manager.reference.io.FastaSequenceFileCache;
 import com.epam.catgenome.manager.reference.io.NibDataReader;
+import com.epam.catgenome.manager.reference.io.ReferenceSequenceCache;
 import com.epam.catgenome.manager.reference.io.NibDataWriter;
 import com.epam.catgenome.util.BlockCompressedDataInputStream;
-import com.epam.catgenome.util.BlockCompressedDataOutputStream;
 import com.epam.catgenome.util.NgbFileUtils;
 import com.epam.catgenome.util.Utils;
 import lombok.extern.slf4j.Slf4j;
@@ -64,6 +66,7 @@ import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.biojava.nbio.core.sequence.DNASequence;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -119,6 +122,10 @@ public class ReferenceManager {
 
     @Autowired private NibDataWriter nibDataWriter;
 
+    @Autowired private ReferenceSequenceCache referenceSequenceCache;
+
+    @Autowired private FastaSequenceFileCache fastaSequenceFileCache;
+
     @Autowired private GffManager gffManager;
 
     @Autowired private GeneFileManager geneFileManager;
@@ -127,6 +134,20 @@ public class ReferenceManager {
 
     @Autowired private GenbankManager genbankManager;
 
+    /**
+     * Number of chromosomes, which GC-content is written in parallel during a reference registration,
+     * all available processors are used by default
+     */
+    @Value("${reference.registration.thread.count:0}")
+    private int registrationThreadCount;
+
+    /**
+     * Maximum total size of chromosome sequences, that are loaded at the same time during a reference
+     * registration, bytes, a half of the heap is used by default
+     */
+    @Value("${reference.registration.memory.budget:0}")
+    private long registrationMemoryBudget;
+
     @Autowired
     private AuthManager authManager;
 
@@ -287,27 +308,12 @@ public class ReferenceManager {
      */
     public List<Sequence> getNucleotidesFromNibFile(int startPosition, final int endPosition,
             final long referenceId, final String chromosomeName) throws IOException {
-        final Reference reference = referenceGenomeManager.getOnlyReference(referenceId);
-        if (isNibReference(reference.getPath())) {
-            try (BlockCompressedDataInputStream strm = fileManager
-                    .makeRefInputStream(referenceId, chromosomeName);
-                    DataInputStream indexStrm = fileManager
-                            .makeRefIndexInputStream(referenceId, chromosomeName)) {
-                return nibDataReader
-                        .getNucleotidesFromNibFile(startPosition, endPosition, strm, indexStrm);
-            }
-        } else {
-            List<Sequence> sequencesList = new ArrayList<>();
-
-            FastaSequenceFile ref = new FastaSequenceFile(reference.getPath(),
-                    getIndexPath(reference));
-            String bases = new String(ref.getSequence(chromosomeName, startPosition, endPosition),
-                    Charset.defaultCharset());
-            for (int i = 0; i < bases.length(); i++) {
-                sequencesList.add(new Sequence(startPosition + i, String.valueOf(bases.charAt(i))));
-            }
-            return sequencesList;
+        final byte[] bases = getSequenceByteArray(startPosition, endPosition, referenceId, chromosomeName);
+        final List<Sequence> sequencesList = new ArrayList<>(bases.length);
+        for (int i = 0; i < bases.length; i++) {
+            sequencesList.add(new Sequence(startPosition + i, String.valueOf((char) bases[i])));
         }
+        return sequencesList;
     }
 
     /**
@@ -367,6 +373,8 @@ public class ReferenceManager {
 
         referenceGenomeManager.delete(reference);
         fileManager.deleteReferenceDir(reference);
+        referenceSequenceCache.evict(referenceId);
+        fastaSequenceFileCache.evict(reference.getPath());
         return reference;
     }
 
@@ -382,19 +390,8 @@ public class ReferenceManager {
      */
     public String getSequenceString(final int startIndex, final int endIndex,
             final Long referenceId, final String chromosomeName) throws IOException {
-        final Reference reference = referenceGenomeManager.getOnlyReference(referenceId);
-        if (isNibReference(reference.getPath())) {
-            try (BlockCompressedDataInputStream strm = fileManager
-                    .makeRefInputStream(reference.getId(), chromosomeName);
-                    DataInputStream indexStrm = fileManager
-                            .makeRefIndexInputStream(reference.getId(), chromosomeName)) {
-                return nibDataReader.getStringFromNibFile(startIndex, endIndex, strm, indexStrm);
-            }
-        } else {
-            FastaSequenceFile ref = new FastaSequenceFile(reference.getPath(), getIndexPath(reference));
-            return new String(ref.getSequence(chromosomeName, startIndex, endIndex),
-                    Charset.defaultCharset());
-        }
+        return new String(getSequenceByteArray(startIndex, endIndex, referenceId, chromosomeName),
+                Charset.defaultCharset());
     }
 
     /**
@@ -409,6 +406,32 @@ public class ReferenceManager {
      */
     public byte[] getSequenceByteArray(final int startIndex, final int endIndex,
             final Long referenceId, final String chromosomeName) throws IOException {
+        return referenceSequenceCache.getSequence(referenceId, chromosomeName, startIndex, endIndex,
+            (blockStart, blockEnd) -> loadSequenceBlock(blockStart, blockEnd, referenceId, chromosomeName));
+    }
+
+    /**
+     * Copies a reference sequence in a given interval into a specified array. Sequence is served from
+     * the shared {@link ReferenceSequenceCache}, so it is cheap to call this method for small adjacent intervals
+     *
+     * @param startIndex     of the interval of interest
+     * @param endIndex       of the interval of interest
+     * @param referenceId    to load
+     * @param chromosomeName to load
+     * @param target         array to copy nucleotides to
+     * @param offset         position in the target array
+     * @return number of copied nucleotides, it is less than the interval length if it exceeds the chromosome
+     * @throws IOException
+     */
+    public int copySequence(final int startIndex, final int endIndex, final Long referenceId,
+            final String chromosomeName, final byte[] target, final int offset) throws IOException {
+        return referenceSequenceCache.copySequence(referenceId, chromosomeName, startIndex, endIndex,
+            (blockStart, blockEnd) -> loadSequenceBlock(blockStart, blockEnd, referenceId, chromosomeName),
+            target, offset);
+    }
+
+    private byte[] loadSequenceBlock(final int startIndex, final int endIndex,
+            final Long referenceId, final String chromosomeName) throws IOException {
         final Reference reference = referenceGenomeManager.getOnlyReference(referenceId);
         if (isNibReference(reference.getPath())) {
             try (BlockCompressedDataInputStream strm = fileManager
@@ -416,12 +439,14 @@ public class ReferenceManager {
                     DataInputStream indexStrm = fileManager
                             .makeRefIndexInputStream(referenceId, chromosomeName)) {
                 return nibDataReader
-                        .getByteNucleotidesFromNibFile(startIndex, endIndex, strm, indexStrm);
+                        .getByteNucleotidesBlockFromNibFile(startIndex, endIndex, strm, indexStrm);
             }
 
         } else {
-            FastaSequenceFile ref = new FastaSequenceFile(reference.getPath(), getIndexPath(reference));
-            return ref.getSequence(chromosomeName, startIndex, endIndex);
+            final FastaSequenceFile ref = fastaSequenceFileCache.get(reference.getPath(), getIndexPath(reference));
+            final byte[] block = new byte[endIndex - startIndex + 1];
+            final int length = ref.copySequence(chromosomeName, startIndex, endIndex, block, 0);
+            return length == block.length ? block : Arrays.copyOf(block, length);
         }
     }
 
@@ -443,9 +468,11 @@ public class ReferenceManager {
                             endIndex);
             track.setMode(ReferenceTrackMode.NUCLEOTIDES);
         } else {
+            // GC content blocks are aligned to a grid, so the interval is extended to whole blocks
+            final int step = TrackHelper.getBlockStep(scaleFactor);
             sequencesList =
-                    getReferenceSequenceWithGC(chr, trackID, reference, startIndex, endIndex,
-                            scaleFactor);
+                    getReferenceSequenceWithGC(chr, trackID, reference, TrackHelper.getBlockStart(startIndex, step),
+                            Math.min(TrackHelper.getBlockEnd(endIndex, step), chr.getSize()), scaleFactor);
             if (sequencesList.isEmpty()) {
                 track.setMode(ReferenceTrackMode.NO_GC_DATA);
             } else {
@@ -595,20 +622,23 @@ public class ReferenceManager {
             chromosome.setReferenceId(referenceId);
             chromosome.setPath(path);
             reference.getChromosomes().add(chromosome);
-
-            //work with GC
-            if (!NgbFileUtils.isRemotePath(path) && createGC) {
-                byte[] sequence = referenceReader.getChromosome(chr);
-                try (BlockCompressedDataOutputStream gcStream = fileManager
-                        .makeGCOutputStream(referenceId, chromosome)) {
-                    nibDataWriter.byteArrayToGCFile(sequence, gcStream);
-                }
-                fileManager.makeGcIndex(referenceId, chromosome.getName());
-            }
+        }
+        //work with GC
+        if (!NgbFileUtils.isRemotePath(path) && createGC) {
+            new ParallelGCContentWriter(fileManager, nibDataWriter, referenceId, referenceReader)
+                    .write(reference.getChromosomes(), getRegistrationThreadCount(), getRegistrationMemoryBudget());
         }
         return lengthOfGenome;
     }
 
+    private int getRegistrationThreadCount() {
+        return registrationThreadCount > 0 ? registrationThreadCount : Runtime.getRuntime().availableProcessors();
+    }
+
+    private long getRegistrationMemoryBudget() {
+        return registrationMemoryBudget > 0 ? registrationMemoryBudget : Runtime.getRuntime().maxMemory() / 2;
+    }
+
     private void setIndex(Reference reference) {
         String path = reference.getPath();
         String indexPath;
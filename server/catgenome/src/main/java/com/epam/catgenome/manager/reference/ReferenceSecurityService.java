@@ -28,6 +28,7 @@ package com.epam.catgenome.manager.reference;
 
 import com.epam.catgenome.controller.vo.registration.ReferenceRegistrationRequest;
 import com.epam.catgenome.entity.BiologicalDataItem;
+import com.epam.catgenome.entity.BiologicalDataItemFormat;
 import com.epam.catgenome.entity.reference.Chromosome;
 import com.epam.catgenome.entity.reference.Reference;
 import com.epam.catgenome.entity.reference.Sequence;
@@ -35,6 +36,7 @@ import com.epam.catgenome.entity.reference.Species;
 import com.epam.catgenome.entity.track.Track;
 import com.epam.catgenome.exception.FeatureIndexException;
 import com.epam.catgenome.exception.ReferenceReadingException;
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.security.acl.aspect.AclMask;
 import com.epam.catgenome.security.acl.aspect.AclMaskList;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,6 +58,9 @@ public class ReferenceSecurityService {
     @Autowired
     private ReferenceGenomeManager referenceGenomeManager;
 
+    @Autowired
+    private TrackTileCache trackTileCache;
+
     @AclMaskList
     @PreAuthorize(ROLE_USER)
     public List<Reference> loadAllReferenceGenomes(String referenceName) {
@@ -89,6 +94,13 @@ public class ReferenceSecurityService {
         return referenceManager.getNucleotidesResultFromNib(track);
     }
 
+    @PreAuthorize(ROLE_USER)
+    public TrackTileCache.CachedTrack<Sequence> getCachedNucleotides(Track<Sequence> track)
+            throws ReferenceReadingException {
+        return trackTileCache.load(BiologicalDataItemFormat.REFERENCE, track, Sequence.class, "",
+                tile -> referenceManager.getNucleotidesResultFromNib(tile));
+    }
+
     @PreAuthorize(ROLE_ADMIN + OR + ROLE_REFERENCE_MANAGER)
     public Reference registerGenome(ReferenceRegistrationRequest request) throws IOException {
         return referenceManager.registerGenome(request);
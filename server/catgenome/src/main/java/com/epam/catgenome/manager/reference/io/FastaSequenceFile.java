@@ -1,25 +1,45 @@
 package com.epam.catgenome.manager.reference.io;
 
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Set;
 
+import com.epam.catgenome.util.NgbFileUtils;
+import com.epam.catgenome.util.RemoteBlockCache;
 import htsjdk.samtools.seekablestream.SeekableStream;
 import htsjdk.samtools.seekablestream.SeekableStreamFactory;
 import org.apache.log4j.Logger;
 
-
+/**
+ * Random access to a FASTA file with a parsed .fai index. Local files are memory-mapped once, remote files
+ * are read through the shared {@link RemoteBlockCache}, if their length is known. Instances are thread safe
+ * and are intended to be long-lived, see {@link FastaSequenceFileCache}.
+ */
 public class FastaSequenceFile {
     private static final Logger LOG = Logger.getLogger(FastaSequenceFile.class);
 
+    /**
+     * Local files are mapped by segments, since a single mapping is limited by 2GB
+     */
+    private static final long SEGMENT_SIZE = 1L << 30;
+
     private final FastaIndex index;
     private final String path;
     private final long contentLength;
+    private final MappedByteBuffer[] segments;
 
     public FastaSequenceFile(String path, String indexPath) throws IOException {
         this.path = path;
         contentLength = FastaUtils.getContentLength(path);
         index = new FastaIndex(indexPath);
+        segments = NgbFileUtils.isRemotePath(path) ? null : map(path, contentLength);
     }
 
     public Set<String> getChromosomeNames() {
@@ -35,61 +55,115 @@ public class FastaSequenceFile {
     }
 
     public byte[] getSequence(String chr, int startIndex, int qend) {
-        int qstart = startIndex;
-        qstart--;
         FastaIndex.FastaSequenceIndexEntry idxEntry = index.getIndexEntry(chr);
         if (idxEntry == null) {
             return new byte[0];
         }
+        final int start = Math.max(0, startIndex - 1);
+        final int end = Math.min((int) idxEntry.getSize(), qend);
+        if (start >= end) {
+            return new byte[0];
+        }
         try {
-            final int start = Math.max(0, qstart);    // qstart should never be < 0
-            final int end = Math.min((int) idxEntry.getSize(), qend);
-
-            final int bytesPerLine = idxEntry.getBytesPerLine();
-            final int basesPerLine = idxEntry.getBasesPerLine();
-            int nEndBytes = bytesPerLine - basesPerLine;
-
-            int startLine = start / basesPerLine;
-            int endLine = end / basesPerLine;
-
-            int base0 = startLine * basesPerLine;   // Base at beginning of start line
-
-            int offset = start - base0;
-            final long position = idxEntry.getPosition();
-            long startByte = position + startLine * bytesPerLine + offset;
+            final byte[] bases = new byte[end - start];
+            final int copied = copySequence(idxEntry, start, end, bases, 0);
+            return copied == bases.length ? bases : Arrays.copyOf(bases, copied);
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+            return new byte[0];
+        }
+    }
 
-            int base1 = endLine * basesPerLine;
-            int offset1 = end - base1;
-            long endByte = Math.min(contentLength, position + endLine * bytesPerLine + offset1);
+    /**
+     * Copies bases of a sequence interval into a specified array, line endings are skipped
+     * @param chr sequence name
+     * @param startIndex start of the interval, the first base has position 1
+     * @param qend end of the interval, inclusive
+     * @param target array to copy bases to
+     * @param offset position in the target array
+     * @return number of copied bases, it is less than the interval length if it exceeds the sequence or
+     * the file is truncated
+     * @throws IOException if the file can't be read
+     */
+    public int copySequence(String chr, int startIndex, int qend, byte[] target, int offset) throws IOException {
+        FastaIndex.FastaSequenceIndexEntry idxEntry = index.getIndexEntry(chr);
+        if (idxEntry == null) {
+            return 0;
+        }
+        final int start = Math.max(0, startIndex - 1);
+        final int end = Math.min((int) idxEntry.getSize(), qend);
+        if (start >= end) {
+            return 0;
+        }
+        return copySequence(idxEntry, start, end, target, offset);
+    }
 
-            if (startByte >= endByte) {
-                return new byte[0];
+    private int copySequence(FastaIndex.FastaSequenceIndexEntry idxEntry, int start, int end, byte[] target,
+                              int offset) throws IOException {
+        final int bytesPerLine = idxEntry.getBytesPerLine();
+        final int basesPerLine = idxEntry.getBasesPerLine();
+        final long position = idxEntry.getPosition();
+        final long startByte = position + (long) (start / basesPerLine) * bytesPerLine + start % basesPerLine;
+        final RawSource source = segments != null || contentLength > 0 ? this::readRaw
+                : readSpan(startByte, position + (long) (end / basesPerLine) * bytesPerLine + end % basesPerLine);
+
+        int base = start;
+        int copied = 0;
+        while (base < end) {
+            final int lineOffset = base % basesPerLine;
+            final int count = Math.min(basesPerLine - lineOffset, end - base);
+            final int read = source.read(position + (long) (base / basesPerLine) * bytesPerLine + lineOffset,
+                    target, offset + copied, count);
+            copied += read;
+            if (read < count) {
+                break;
             }
+            base += count;
+        }
+        return copied;
+    }
 
-            // Read all the bytes in the range.  This will include endline characters
-            byte[] allBytes = readBytes(startByte, endByte);
-
-            // Create the array for the sequence -- this will be "allBytes" without the endline characters.
-            ByteArrayOutputStream bos = new ByteArrayOutputStream(end - start);
-
-            int srcPos = 0;
-            // Copy first line
-            final int allBytesLength = allBytes.length;
-            if (offset > 0) {
-                int nBases = Math.min(end - start, basesPerLine - offset);
-                bos.write(allBytes, srcPos, nBases);
-                srcPos += (nBases + nEndBytes);
+    /**
+     * Reads raw bytes of a file, returns less bytes than requested only at the end of file
+     */
+    private int readRaw(long filePosition, byte[] target, int offset, int length) throws IOException {
+        final int available = (int) Math.max(0, Math.min(length, contentLength - filePosition));
+        int read = 0;
+        while (read < available) {
+            final long current = filePosition + read;
+            final int count;
+            if (segments == null) {
+                count = RemoteBlockCache.getInstance().read(path, contentLength, this::loadRange,
+                        current, target, offset + read, available - read, false);
+            } else {
+                final ByteBuffer segment = segments[(int) (current / SEGMENT_SIZE)].duplicate();
+                segment.position((int) (current % SEGMENT_SIZE));
+                count = Math.min(available - read, segment.remaining());
+                segment.get(target, offset + read, count);
             }
-            while (srcPos < allBytesLength) {
-                int nBases = Math.min(basesPerLine, allBytesLength - srcPos);
-                bos.write(allBytes, srcPos, nBases);
-                srcPos += (nBases + nEndBytes);
+            if (count <= 0) {
+                break;
             }
-            return bos.toByteArray();
-        } catch (IOException e) {
-            LOG.error(e.getMessage(), e);
-            return new byte[0];
+            read += count;
         }
+        return read;
+    }
+
+    /**
+     * Reads a whole byte range of a remote file with unknown length
+     */
+    private RawSource readSpan(long posStart, long posEnd) throws IOException {
+        final byte[] bytes = readBytes(posStart, posEnd);
+        return (filePosition, target, offset, length) -> {
+            final int from = (int) (filePosition - posStart);
+            final int count = Math.max(0, Math.min(length, bytes.length - from));
+            System.arraycopy(bytes, from, target, offset, count);
+            return count;
+        };
+    }
+
+    private InputStream loadRange(String uri, long from, long to) throws IOException {
+        return new ByteArrayInputStream(readBytes(from, to + 1));
     }
 
     /**
@@ -112,4 +186,23 @@ public class FastaSequenceFile {
         }
     }
 
+    private static MappedByteBuffer[] map(String path, long length) throws IOException {
+        final MappedByteBuffer[] mapped = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+        if (mapped.length == 0) {
+            // missing or empty file has no sequence data, same as it was read by a stream
+            return mapped;
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            for (int i = 0; i < mapped.length; i++) {
+                final long start = i * SEGMENT_SIZE;
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start));
+            }
+        }
+        return mapped;
+    }
+
+    @FunctionalInterface
+    private interface RawSource {
+        int read(long filePosition, byte[] target, int offset, int length) throws IOException;
+    }
 }
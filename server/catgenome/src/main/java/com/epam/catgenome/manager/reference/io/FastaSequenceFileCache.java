@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.reference.io;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@link FastaSequenceFile}s of FASTA references open between requests, so that .fai index is parsed
+ * and a local file is mapped into memory once per reference instead of once per request.
+ */
+@Component
+public class FastaSequenceFileCache {
+
+    @Value("${reference.fasta.cache.max.size:100}")
+    private int maxSize;
+
+    @Value("${reference.fasta.cache.expire.minutes:60}")
+    private int expireMinutes;
+
+    private Cache<String, FastaSequenceFile> files;
+
+    @PostConstruct
+    public void init() {
+        files = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * Returns an opened FASTA file
+     * @param path path to a FASTA file
+     * @param indexPath path to .fai index of the file
+     * @return {@link FastaSequenceFile} for specified file
+     * @throws IOException if the file or index can't be opened
+     */
+    public FastaSequenceFile get(final String path, final String indexPath) throws IOException {
+        try {
+            return files.get(path + '\n' + indexPath, () -> new FastaSequenceFile(path, indexPath));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Removes opened FASTA file, should be called when a reference is deleted
+     * @param path path to a FASTA file
+     */
+    public void evict(final String path) {
+        files.asMap().keySet().removeIf(key -> key.startsWith(path + '\n'));
+    }
+}
@@ -52,6 +52,7 @@ import com.epam.catgenome.entity.reference.Sequence;
 import com.epam.catgenome.exception.ExternalDbUnavailableException;
 import com.epam.catgenome.exception.Ga4ghResourceUnavailableException;
 import com.epam.catgenome.exception.ReferenceReadingException;
+import com.epam.catgenome.manager.TrackHelper;
 import com.epam.catgenome.manager.externaldb.HttpDataManager;
 import com.epam.catgenome.manager.externaldb.ParameterNameValue;
 import com.epam.catgenome.util.BlockCompressedDataInputStream;
@@ -132,6 +133,41 @@ public class NibDataReader {
         return nibByteArrayToNucleotideBytes(positionFactor, sequenceLength, buffer);
     }
 
+    /**
+     * Loads a byte array with nucleotides byte values from the input stream in the Nib format. Unlike
+     * {@link #getByteNucleotidesFromNibFile}, the interval is truncated to the length of the sequence, so
+     * that fixed size blocks can be read without knowing a chromosome size
+     * @param startPosition {@code int} start position at chromosome
+     * @param endPosition   {@code int} end position at chromosome, may exceed the sequence length
+     * @param nibStream     {@code InputStream} InputStream from nib-format file
+     * @param indexStream   {@code DataInputStream} InputStream from the reference index file
+     * @return byte array with nucleotides, that may be shorter than the requested interval
+     */
+    public byte[] getByteNucleotidesBlockFromNibFile(final int startPosition, final int endPosition,
+            final BlockCompressedDataInputStream nibStream,
+            final DataInputStream indexStream)
+            throws IOException {
+        Assert.notNull(nibStream, getMessage(MessagesConstants.ERROR_NO_SUCH_FILE));
+        Assert.isTrue(startPosition >= 1, getMessage(MessagesConstants.ERROR_START_POSITION_ABOVE_ZERO));
+        final int newStartPosition = startPosition - 1;
+        final int sequenceLength = Math.min(endPosition, readNibSequenceLength(nibStream)) - newStartPosition;
+        if (sequenceLength <= 0) {
+            IOUtils.closeQuietly(nibStream);
+            IOUtils.closeQuietly(indexStream);
+            return new byte[0];
+        }
+
+        final int positionFactor = newStartPosition % 2;
+        final int realLengthFactor = sequenceLength % 2;
+        // 2 nib-format at byte
+        final byte[] buffer = new byte[sequenceLength / 2 + Math.max(positionFactor, realLengthFactor)];
+        seekBCDISWithIndexFile(nibStream, indexStream, newStartPosition / 2);
+        readInBuff(buffer, nibStream);
+        IOUtils.closeQuietly(nibStream);
+        IOUtils.closeQuietly(indexStream);
+        return nibByteArrayToNucleotideBytes(positionFactor, sequenceLength, buffer);
+    }
+
     /**
      * Loads a {@code List} of reference sequences from the stream (file) in a Nib format
      * @param startPosition {@code int} start position at chromosome
@@ -393,10 +429,7 @@ public class NibDataReader {
             final int startPosition, final int sequenceLength, long seekPosition,
             byte[] buffer) throws IOException {
 
-        int signature = nibStream.readInt();
-        int lengthNibSequence = nibStream.readInt();
-        Assert.isTrue(signature == Signature.NIB_SIGNATURE.getSignature(),
-                getMessage(MessagesConstants.ERROR_WRONG_SIGNATURE));
+        int lengthNibSequence = readNibSequenceLength(nibStream);
         Assert.isTrue(lengthNibSequence >= startPosition + sequenceLength,
                 getMessage(MessagesConstants.ERROR_LOGIC_LENGTH));
         seekBCDISWithIndexFile(nibStream, indexStream, seekPosition);
@@ -408,6 +441,14 @@ public class NibDataReader {
         return buffer;
     }
 
+    private int readNibSequenceLength(final BlockCompressedDataInputStream nibStream) throws IOException {
+        int signature = nibStream.readInt();
+        int lengthNibSequence = nibStream.readInt();
+        Assert.isTrue(signature == Signature.NIB_SIGNATURE.getSignature(),
+                getMessage(MessagesConstants.ERROR_WRONG_SIGNATURE));
+        return lengthNibSequence;
+    }
+
     private void seekBCDISWithIndexFile(final BlockCompressedDataInputStream stream, final DataInputStream index,
             final long positon) throws IOException {
         //correct seek in file
@@ -480,19 +521,15 @@ public class NibDataReader {
 
     public List<Sequence> createGCList(int startPosition, final int endPosition, final double scaleFactor) {
         List<Sequence> result = new ArrayList<>();
-        final double step = 1 / scaleFactor;
-        final int sizeTrack = (int) Math.ceil((endPosition - startPosition + 1) / step);
+        final int step = TrackHelper.getBlockStep(scaleFactor);
         int startPositionHelper = startPosition;
-        //added a block and calculation start position and end position for each
-        for (int i = 1; i < sizeTrack; i++) {
-            final int help = startPosition + (int) Math.round(step * i) - 1;
+        //added a block and calculation start position and end position for each, blocks are aligned to a grid
+        while (startPositionHelper <= endPosition) {
+            final int help = Math.min(TrackHelper.getBlockEnd(startPositionHelper, step), endPosition);
             Sequence sequence = new Sequence(startPositionHelper, help, 0F);
             startPositionHelper = help + 1;
             result.add(sequence);
         }
-        //last block at sequence
-        Sequence sequence = new Sequence(startPositionHelper, endPosition, 0F);
-        result.add(sequence);
         return result;
     }
 
@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.reference.io;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Process wide cache of decoded reference sequence blocks. A chromosome sequence is split into blocks of a
+ * fixed size, each block is loaded once and is kept as a byte array of nucleotides, so that repeated requests
+ * for neighbouring intervals (e.g. reference buffer refreshes while reads are processed) don't reopen
+ * reference files. The cache is bounded by the total size of cached blocks, least recently used blocks are
+ * evicted first.
+ */
+@Component
+public class ReferenceSequenceCache {
+
+    @Value("${reference.sequence.cache.block.size:65536}")
+    private int blockSize;
+
+    @Value("${reference.sequence.cache.max.size:134217728}")
+    private long maxSize;
+
+    private Cache<BlockKey, byte[]> blocks;
+
+    public ReferenceSequenceCache() {
+        // no-op
+    }
+
+    public ReferenceSequenceCache(final int blockSize, final long maxSize) {
+        this.blockSize = blockSize;
+        this.maxSize = maxSize;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        Assert.isTrue(blockSize > 0, "Block size should be positive");
+        Assert.isTrue(maxSize >= 0, "Cache size should not be negative");
+        blocks = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((BlockKey key, byte[] block) -> block.length)
+                .build();
+    }
+
+    /**
+     * Loader of a reference sequence interval, it is called with block aligned intervals
+     */
+    @FunctionalInterface
+    public interface SequenceLoader {
+        /**
+         * @param startIndex of the interval, the first base in a chromosome has position 1
+         * @param endIndex of the interval, inclusive, may exceed the chromosome length
+         * @return nucleotides of the interval, truncated to the chromosome length
+         * @throws IOException if the sequence can't be read
+         */
+        byte[] load(int startIndex, int endIndex) throws IOException;
+    }
+
+    /**
+     * Returns nucleotides of a reference sequence interval
+     * @param referenceId reference ID
+     * @param chromosomeName chromosome name
+     * @param startIndex of the interval, the first base in a chromosome has position 1
+     * @param endIndex of the interval, inclusive
+     * @param loader to load missing blocks
+     * @return nucleotides of the interval, the result is shorter than the interval if it exceeds the chromosome
+     * @throws IOException if the sequence can't be read
+     */
+    public byte[] getSequence(final long referenceId, final String chromosomeName, final int startIndex,
+                              final int endIndex, final SequenceLoader loader) throws IOException {
+        final byte[] result = new byte[Math.max(0, endIndex - startIndex + 1)];
+        final int length = copySequence(referenceId, chromosomeName, startIndex, endIndex, loader, result, 0);
+        if (length == result.length) {
+            return result;
+        }
+        final byte[] truncated = new byte[length];
+        System.arraycopy(result, 0, truncated, 0, length);
+        return truncated;
+    }
+
+    /**
+     * Copies nucleotides of a reference sequence interval into a specified array
+     * @param referenceId reference ID
+     * @param chromosomeName chromosome name
+     * @param startIndex of the interval, the first base in a chromosome has position 1
+     * @param endIndex of the interval, inclusive
+     * @param loader to load missing blocks
+     * @param target array to copy nucleotides to
+     * @param offset position in the target array
+     * @return number of copied nucleotides, it is less than the interval length if it exceeds the chromosome
+     * @throws IOException if the sequence can't be read
+     */
+    public int copySequence(final long referenceId, final String chromosomeName, final int startIndex,
+                            final int endIndex, final SequenceLoader loader, final byte[] target, final int offset)
+            throws IOException {
+        Assert.isTrue(startIndex >= 1, "Start index should be positive");
+        int position = startIndex - 1;
+        int copied = 0;
+        while (position < endIndex) {
+            final int index = position / blockSize;
+            final byte[] block = getBlock(new BlockKey(referenceId, chromosomeName, index), loader);
+            final int blockOffset = position - index * blockSize;
+            final int length = Math.min(block.length - blockOffset, endIndex - position);
+            if (length <= 0) {
+                break;
+            }
+            System.arraycopy(block, blockOffset, target, offset + copied, length);
+            copied += length;
+            position += length;
+            if (block.length < blockSize) {
+                break;
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Removes cached blocks of a reference, should be called when a reference is deleted
+     * @param referenceId reference ID
+     */
+    public void evict(final long referenceId) {
+        blocks.asMap().keySet().removeIf(key -> key.referenceId == referenceId);
+    }
+
+    private byte[] getBlock(final BlockKey key, final SequenceLoader loader) throws IOException {
+        byte[] block = blocks.getIfPresent(key);
+        if (block == null) {
+            final int start = key.index * blockSize + 1;
+            block = loader.load(start, start + blockSize - 1);
+            // empty blocks are not cached, since they may be a result of a failed read
+            if (block.length > 0) {
+                blocks.put(key, block);
+            }
+        }
+        return block;
+    }
+
+    private static final class BlockKey {
+        private final long referenceId;
+        private final String chromosomeName;
+        private final int index;
+
+        private BlockKey(final long referenceId, final String chromosomeName, final int index) {
+            this.referenceId = referenceId;
+            this.chromosomeName = chromosomeName;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final BlockKey that = (BlockKey) o;
+            return referenceId == that.referenceId && index == that.index
+                    && Objects.equals(chromosomeName, that.chromosomeName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(referenceId, chromosomeName, index);
+        }
+    }
+}
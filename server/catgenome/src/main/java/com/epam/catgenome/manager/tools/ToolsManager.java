@@ -34,6 +34,7 @@ import com.epam.catgenome.util.sort.FeatureSorterFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -54,6 +55,12 @@ public class ToolsManager {
     @Autowired
     private FileManager fileManager;
 
+    /**
+     * Number of threads, sorting chunks of a file, all available processors are used, if it isn't positive
+     */
+    @Value("${sort.thread.count:0}")
+    private int sortThreadCount;
+
     /**
      * Sorts feature file due to request parameters
      *
@@ -76,7 +83,9 @@ public class ToolsManager {
                     request.getMaxMemory());
 
             double time1 = Utils.getSystemTimeMilliseconds();
-            sorter.run(request.getMaxMemory() > 0 ? request.getMaxMemory() : DEFAULT_MAX_MEMORY);
+            sorter.run(request.getMaxMemory() > 0 ? request.getMaxMemory() : DEFAULT_MAX_MEMORY,
+                    sortThreadCount > 0 ? sortThreadCount : Runtime.getRuntime().availableProcessors(),
+                    request.isCreateIndex());
             double time2 = Utils.getSystemTimeMilliseconds();
 
             LOG.debug("Sorting feature file took {} ms", time2 - time1);
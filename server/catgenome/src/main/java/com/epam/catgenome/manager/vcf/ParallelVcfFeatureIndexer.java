@@ -0,0 +1,337 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.vcf;
+
+import static com.epam.catgenome.component.MessageHelper.getMessage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.epam.catgenome.constant.MessagesConstants;
+import com.epam.catgenome.dao.index.FeatureIndexDao;
+import com.epam.catgenome.dao.index.indexer.BigVcfFeatureIndexBuilder;
+import com.epam.catgenome.entity.gene.GeneFile;
+import com.epam.catgenome.entity.reference.Chromosome;
+import com.epam.catgenome.entity.vcf.VcfFile;
+import com.epam.catgenome.entity.vcf.VcfFilterInfo;
+import com.epam.catgenome.manager.FileManager;
+import com.epam.catgenome.manager.job.RegistrationJobProgress;
+import com.epam.catgenome.util.PositionIndex;
+import com.epam.catgenome.util.Utils;
+import com.epam.catgenome.util.VariantDensityPyramid;
+import com.epam.catgenome.util.feature.reader.AbstractEnhancedFeatureReader;
+import com.epam.catgenome.util.feature.reader.EhCacheBasedIndexCache;
+import com.google.common.util.concurrent.Uninterruptibles;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.tribble.FeatureReader;
+import htsjdk.tribble.TribbleException;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFHeader;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.SimpleFSDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds a feature index of an indexed VCF file by chromosomes in parallel. Each worker queries a single
+ * chromosome with it's own reader and document builder and writes it to a separate index in a temporary
+ * directory. When all chromosomes are indexed, separate indexes are added to the feature index of the file
+ * in the order of chromosomes in the file, so documents have the same order as after a sequential pass
+ * and unsorted searches return variations in the same order. Bounds metadata are also the same.
+ * Workers are never interrupted: an interrupted Lucene I/O closes index files and hides the original error,
+ * so a failed worker only makes the others stop.
+ */
+class ParallelVcfFeatureIndexer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelVcfFeatureIndexer.class);
+    /**
+     * Workers report processed variations to a registration job by batches to avoid contention
+     */
+    private static final int PROGRESS_BATCH_SIZE = 1024;
+    private static final String INDEX_PARTS_PREFIX = "index-parts";
+
+    private final VcfFile vcfFile;
+    private final Map<String, Chromosome> chromosomeMap;
+    private final VcfFilterInfo filterInfo;
+    private final VCFHeader vcfHeader;
+    private final List<GeneFile> geneFiles;
+    private final FeatureIndexDao featureIndexDao;
+    private final EhCacheBasedIndexCache indexCache;
+
+    ParallelVcfFeatureIndexer(VcfFile vcfFile, Map<String, Chromosome> chromosomeMap, VcfFilterInfo filterInfo,
+                              VCFHeader vcfHeader, List<GeneFile> geneFiles, FeatureIndexDao featureIndexDao,
+                              EhCacheBasedIndexCache indexCache) {
+        this.vcfFile = vcfFile;
+        this.chromosomeMap = chromosomeMap;
+        this.filterInfo = filterInfo;
+        this.vcfHeader = vcfHeader;
+        this.geneFiles = geneFiles;
+        this.featureIndexDao = featureIndexDao;
+        this.indexCache = indexCache;
+    }
+
+    /**
+     * Writes a feature index of the file
+     * @param fileManager a manager to create index directory
+     * @param executor runs workers, that index chromosomes
+     * @param indexBufferSize RAM buffer size of index writers, shared by workers, MB
+     * @param parallelism maximum number of chromosomes, indexed at the same time
+     * @param densitySamples maximum number of samples, that have variant density summaries
+     * @param positionSamples maximum number of samples, that have position indexes
+     * @return bounds metadata: start positions of the first and the last variation of each chromosome
+     * @throws IOException if the file can't be read or the index can't be written
+     */
+    Map<String, Pair<Integer, Integer>> index(FileManager fileManager, ExecutorService executor,
+                                              int indexBufferSize, int parallelism, int densitySamples,
+                                              int positionSamples) throws IOException {
+        final List<String> contigs = new ArrayList<>();
+        try (FeatureReader<VariantContext> reader = openReader(indexCache)) {
+            for (String contig : reader.getSequenceNames()) {
+                if (Utils.chromosomeMapContains(chromosomeMap, contig)) {
+                    contigs.add(contig);
+                }
+            }
+        }
+
+        final Map<String, Pair<Integer, Integer>> metaMap = new HashMap<>();
+        if (contigs.isEmpty()) {
+            return metaMap;
+        }
+        final SimpleFSDirectory index = fileManager.createIndexForFile(vcfFile);
+        final int workerCount = Math.min(parallelism, contigs.size());
+        // workers share the RAM buffer of a sequential pass
+        final IndexTask task = new IndexTask(contigs,
+                Files.createTempDirectory(index.getDirectory().getParent(), INDEX_PARTS_PREFIX),
+                Math.max(1.0, (double) indexBufferSize / workerCount), fileManager, densitySamples,
+                positionSamples);
+        try {
+            final List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(executor.submit(task));
+            }
+            awaitWorkers(workers, task);
+            try (IndexWriter writer = BigVcfFeatureIndexBuilder.createWriter(index, indexBufferSize)) {
+                writer.addIndexes(task.getParts());
+            }
+            for (Map.Entry<Integer, Pair<Integer, Integer>> contigBounds : task.bounds.entrySet()) {
+                metaMap.put(contigs.get(contigBounds.getKey()), contigBounds.getValue());
+            }
+        } finally {
+            IOUtils.close(task.parts.values());
+            FileUtils.deleteDirectory(task.partsDir.toFile());
+        }
+        return metaMap;
+    }
+
+    private static void awaitWorkers(final List<Future<?>> workers, final IndexTask task) throws IOException {
+        IOException ioFailure = null;
+        RuntimeException runtimeFailure = null;
+        for (Future<?> worker : workers) {
+            try {
+                getResult(worker);
+            } catch (IOException e) {
+                task.failed = true;
+                ioFailure = ioFailure == null ? e : ioFailure;
+            } catch (RuntimeException e) {
+                task.failed = true;
+                runtimeFailure = runtimeFailure == null ? e : runtimeFailure;
+            }
+        }
+        if (ioFailure != null) {
+            throw ioFailure;
+        }
+        if (runtimeFailure != null) {
+            throw runtimeFailure;
+        }
+    }
+
+    /**
+     * Indexes a chromosome and writes its position index and variant density summary, so that they are
+     * not held in memory until other chromosomes are indexed
+     * @return bounds of the chromosome or null, if it has no variations or indexing is failed
+     */
+    private Pair<Integer, Integer> indexContig(FeatureReader<VariantContext> reader, String contig,
+                                               IndexWriter writer, IndexTask task) throws IOException {
+        final BigVcfFeatureIndexBuilder indexer = new BigVcfFeatureIndexBuilder(filterInfo, vcfHeader,
+                featureIndexDao, vcfFile, writer, geneFiles);
+        final PositionIndex.Builder positions = new PositionIndex.Builder(vcfHeader.getNGenotypeSamples(),
+                task.positionSamples);
+        final VariantDensityPyramid.Builder density = new VariantDensityPyramid.Builder(
+                vcfHeader.getNGenotypeSamples(), task.densitySamples);
+        int startPosition = 0;
+        int records = 0;
+        VariantContext lastFeature = null;
+        try (CloseableIterator<VariantContext> iterator = reader.query(contig, 1, Integer.MAX_VALUE)) {
+            while (iterator.hasNext()) {
+                final VariantContext variantContext = iterator.next();
+                if (lastFeature == null) {
+                    startPosition = variantContext.getStart();
+                } else {
+                    checkSorted(variantContext, lastFeature);
+                }
+                indexer.add(variantContext, chromosomeMap);
+                VcfManager.addPosition(positions, variantContext);
+                VcfManager.addDensity(density, variantContext);
+                lastFeature = variantContext;
+                if (++records == PROGRESS_BATCH_SIZE) {
+                    task.progress.addRecords(records);
+                    records = 0;
+                    if (task.failed) {
+                        return null;
+                    }
+                }
+            }
+        }
+        task.progress.addRecords(records);
+        if (lastFeature == null) {
+            return null;
+        }
+        indexer.clear();
+        LOGGER.info(getMessage(MessagesConstants.INFO_FEATURE_INDEX_CHROMOSOME_WROTE, contig));
+        task.fileManager.writePositionIndex(vcfFile, contig, positions.build());
+        task.fileManager.writeVariantDensity(vcfFile, contig, density.build());
+        return new ImmutablePair<>(startPosition, lastFeature.getStart());
+    }
+
+    /**
+     * Opens a reader of the file. Workers open readers without an index cache: a codec, cached along with
+     * a file header, is shared by all readers of the file and VCF codec isn't thread safe
+     */
+    private FeatureReader<VariantContext> openReader(EhCacheBasedIndexCache cache) {
+        return AbstractEnhancedFeatureReader.getFeatureReader(vcfFile.getPath(), vcfFile.getIndex().getPath(),
+                new VCFCodec(), true, cache);
+    }
+
+    private void checkSorted(VariantContext variantContext, VariantContext lastFeature) {
+        if (variantContext.getStart() < lastFeature.getStart()) {
+            throw new TribbleException.MalformedFeatureFile("Input file is not sorted by start position. \n" +
+                    "We saw a record with a start of " + variantContext.getContig()
+                    + ":" + variantContext.getStart()
+                    + " after a record with a start of "
+                    + lastFeature.getContig() + ":" + lastFeature.getStart(), vcfFile.getName());
+        }
+    }
+
+    /**
+     * Waits for a worker without being interrupted: temporary indexes must not be deleted, while workers
+     * still write them
+     */
+    private static <T> T getResult(Future<T> future) throws IOException {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Shared state of workers, that index chromosomes of a file. Each worker opens its own reader of the file,
+     * takes the next chromosome from a queue and writes it to a separate index, named by the number of the
+     * chromosome in the file, until all chromosomes are indexed or one of workers fails.
+     */
+    private final class IndexTask implements Callable<Void> {
+        private final List<String> contigs;
+        private final Queue<Integer> queue;
+        private final Path partsDir;
+        private final double indexBufferSize;
+        private final FileManager fileManager;
+        private final int densitySamples;
+        private final int positionSamples;
+        private final RegistrationJobProgress progress = RegistrationJobProgress.current();
+        private final Map<Integer, Pair<Integer, Integer>> bounds = new ConcurrentHashMap<>();
+        private final Map<Integer, Directory> parts = new ConcurrentHashMap<>();
+        private volatile boolean failed;
+
+        private IndexTask(List<String> contigs, Path partsDir, double indexBufferSize, FileManager fileManager,
+                          int densitySamples, int positionSamples) {
+            this.contigs = contigs;
+            this.queue = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < contigs.size(); i++) {
+                queue.add(i);
+            }
+            this.partsDir = partsDir;
+            this.indexBufferSize = indexBufferSize;
+            this.fileManager = fileManager;
+            this.densitySamples = densitySamples;
+            this.positionSamples = positionSamples;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            try (FeatureReader<VariantContext> reader = openReader(null)) {
+                Integer ordinal = queue.poll();
+                while (ordinal != null && !failed) {
+                    final Directory part = new SimpleFSDirectory(partsDir.resolve(ordinal.toString()));
+                    parts.put(ordinal, part);
+                    try (IndexWriter writer = BigVcfFeatureIndexBuilder.createWriter(part, indexBufferSize)) {
+                        final Pair<Integer, Integer> contigBounds = indexContig(reader, contigs.get(ordinal),
+                                writer, this);
+                        if (contigBounds != null) {
+                            bounds.put(ordinal, contigBounds);
+                        }
+                    }
+                    ordinal = queue.poll();
+                }
+            } catch (IOException | RuntimeException e) {
+                // other workers stop at the next chromosome or progress report
+                failed = true;
+                throw e;
+            }
+            return null;
+        }
+
+        /**
+         * @return indexes of chromosomes in the order of chromosomes in the file
+         */
+        private Directory[] getParts() {
+            return new TreeMap<>(parts).values().toArray(new Directory[0]);
+        }
+    }
+}
@@ -51,6 +51,8 @@ import com.epam.catgenome.dao.index.indexer.VcfFeatureIndexBuilder;
 import com.epam.catgenome.util.IOHelper;
 import com.epam.catgenome.util.IndexUtils;
 import com.epam.catgenome.util.InfoFieldParser;
+import com.epam.catgenome.util.PositionIndex;
+import com.epam.catgenome.util.VariantDensityPyramid;
 import com.epam.catgenome.util.Utils;
 import com.epam.catgenome.util.feature.reader.AbstractEnhancedFeatureReader;
 import com.epam.catgenome.util.feature.reader.EhCacheBasedIndexCache;
@@ -111,8 +113,11 @@ import com.epam.catgenome.manager.FeatureIndexManager;
 import com.epam.catgenome.manager.FileManager;
 import com.epam.catgenome.manager.TrackHelper;
 import com.epam.catgenome.manager.externaldb.HttpDataManager;
+import com.epam.catgenome.manager.job.RegistrationJobProgress;
+import com.epam.catgenome.manager.parallel.TaskExecutorService;
 import com.epam.catgenome.manager.reference.ReferenceGenomeManager;
 import com.epam.catgenome.manager.vcf.reader.AbstractVcfReader;
+import com.epam.catgenome.manager.vcf.reader.VcfFileReader;
 import com.epam.catgenome.manager.vcf.reader.VcfGa4ghReader;
 import com.epam.catgenome.manager.vcf.reader.VcfReader;
 import htsjdk.samtools.util.CloseableIterator;
@@ -159,6 +164,9 @@ public class VcfManager {
     @Autowired(required = false)
     private EhCacheBasedIndexCache indexCache;
 
+    @Autowired
+    private TaskExecutorService taskExecutorService;
+
     public static final double HTSJDK_WRONG_QUALITY = -10.0;
 
     @Value("#{catgenome['vcf.filter.whitelist']}")
@@ -173,6 +181,24 @@ public class VcfManager {
     @Value("#{catgenome['search.indexer.buffer.size'] ?: 256}")
     private int indexBufferSize;
 
+    /**
+     * Number of chromosomes of an indexed VCF file, that are indexed in parallel, 1 means sequential indexing
+     */
+    @Value("#{catgenome['vcf.index.parallelism'] ?: 1}")
+    private int indexParallelism;
+
+    /**
+     * Number of samples of a VCF file, that have variant density summaries for zoomed out tracks
+     */
+    @Value("#{catgenome['vcf.density.max.samples'] ?: 8}")
+    private int densityMaxSamples;
+
+    /**
+     * Number of samples of a VCF file, that have position indexes for next/previous variation navigation
+     */
+    @Value("#{catgenome['vcf.positions.max.samples'] ?: 64}")
+    private int positionsMaxSamples;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(VcfManager.class);
 
     /**
@@ -605,7 +631,6 @@ public class VcfManager {
             FeatureReader<VariantContext> reader, Reference reference, boolean doIndex)
         throws IOException, GeneReadingException {
         Map<String, Pair<Integer, Integer>> metaMap = new HashMap<>();
-        CloseableIterator<VariantContext> iterator = reader.iterator();
         int startPosition = 1;
         int endPosition = 1;
         String currentKey = null;
@@ -618,17 +643,30 @@ public class VcfManager {
         List<GeneFile> geneFiles  = reference.getGeneFile() != null ?
                                     Collections.singletonList(reference.getGeneFile()) : Collections.emptyList();
 
+        if (doIndex && indexParallelism > 1 && file.getIndex() != null) {
+            return new ParallelVcfFeatureIndexer(file, chromosomeMap, info, vcfHeader, geneFiles, featureIndexDao,
+                    indexCache).index(fileManager, taskExecutorService.getIndexExecutor(), indexBufferSize,
+                    indexParallelism, densityMaxSamples, positionsMaxSamples);
+        }
+
         BigVcfFeatureIndexBuilder indexer = null;
         if (doIndex) {
             indexer = new BigVcfFeatureIndexBuilder(info, vcfHeader, featureIndexDao, file,
                             fileManager, geneFiles, indexBufferSize);
         }
 
+        PositionIndex.Builder positionBuilder = null;
+        VariantDensityPyramid.Builder densityBuilder = null;
+        final RegistrationJobProgress progress = RegistrationJobProgress.current();
+        CloseableIterator<VariantContext> iterator = reader.iterator();
         while (iterator.hasNext()) {
             variantContext = iterator.next();
+            progress.addRecords(1);
             if (!variantContext.getContig().equals(currentKey)) {
                 if (checkMetaMapKey(chromosomeMap, currentKey)) {
                     metaMap.put(currentKey, new ImmutablePair<>(startPosition, endPosition));
+                    fileManager.writePositionIndex(file, currentKey, positionBuilder.build());
+                    fileManager.writeVariantDensity(file, currentKey, densityBuilder.build());
                     if (doIndex) {
                         indexer.clear();
                         LOGGER.info(getMessage(MessagesConstants.INFO_FEATURE_INDEX_CHROMOSOME_WROTE,
@@ -637,9 +675,16 @@ public class VcfManager {
                 }
                 startPosition = variantContext.getStart();
                 currentKey = variantContext.getContig();
+                positionBuilder = checkMetaMapKey(chromosomeMap, currentKey)
+                        ? new PositionIndex.Builder(vcfHeader.getNGenotypeSamples(), positionsMaxSamples) : null;
+                densityBuilder = checkMetaMapKey(chromosomeMap, currentKey)
+                        ? new VariantDensityPyramid.Builder(vcfHeader.getNGenotypeSamples(), densityMaxSamples)
+                        : null;
             }
             checkSorted(file, variantContext, lastFeature);
             indexVariation(variantContext, chromosomeMap, indexer, doIndex);
+            addPosition(positionBuilder, variantContext);
+            addDensity(densityBuilder, variantContext);
             lastFeature = variantContext;
             // Put the last one in metaMap
             endPosition = variantContext.getStart();
@@ -648,10 +693,14 @@ public class VcfManager {
             }
         }
         // Put the last one
-        if (variantContext != null && checkMetaMapKey(chromosomeMap, currentKey) && doIndex) {
-            indexer.clear();
-            LOGGER.info(getMessage(MessagesConstants.INFO_FEATURE_INDEX_CHROMOSOME_WROTE,
-                    currentKey));
+        if (variantContext != null && checkMetaMapKey(chromosomeMap, currentKey)) {
+            fileManager.writePositionIndex(file, currentKey, positionBuilder.build());
+            fileManager.writeVariantDensity(file, currentKey, densityBuilder.build());
+            if (doIndex) {
+                indexer.clear();
+                LOGGER.info(getMessage(MessagesConstants.INFO_FEATURE_INDEX_CHROMOSOME_WROTE,
+                        currentKey));
+            }
         }
         if (doIndex) {
             indexer.close();
@@ -659,6 +708,26 @@ public class VcfManager {
         return metaMap;
     }
 
+    static void addPosition(PositionIndex.Builder positionBuilder, VariantContext variantContext) {
+        if (positionBuilder == null) {
+            return;
+        }
+        positionBuilder.add(variantContext.getStart(), variantContext.getEnd(),
+            i -> !variantContext.getGenotype(i).isHomRef());
+    }
+
+    static void addDensity(VariantDensityPyramid.Builder densityBuilder, VariantContext variantContext) {
+        if (densityBuilder == null || variantContext.getType() == VariantContext.Type.NO_VARIATION) {
+            return;
+        }
+        if (variantContext.getType() == VariantContext.Type.SYMBOLIC) {
+            densityBuilder.addStructural();
+            return;
+        }
+        densityBuilder.add(variantContext.getStart(), variantContext.getEnd(),
+            VcfFileReader.determineVariationType(variantContext), i -> !variantContext.getGenotype(i).isHomRef());
+    }
+
     private void indexVariation(VariantContext variantContext, Map<String, Chromosome> chromosomeMap,
                                VcfFeatureIndexBuilder indexer, boolean doIndex) {
         if (doIndex) {
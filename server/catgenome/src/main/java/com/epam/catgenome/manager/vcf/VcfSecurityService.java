@@ -27,6 +27,7 @@
 package com.epam.catgenome.manager.vcf;
 
 import com.epam.catgenome.controller.vo.registration.FeatureIndexedFileRegistrationRequest;
+import com.epam.catgenome.entity.BiologicalDataItemFormat;
 import com.epam.catgenome.entity.track.Track;
 import com.epam.catgenome.entity.vcf.Variation;
 import com.epam.catgenome.entity.vcf.VariationQuery;
@@ -35,6 +36,7 @@ import com.epam.catgenome.entity.vcf.VcfFilterInfo;
 import com.epam.catgenome.exception.FeatureFileReadingException;
 import com.epam.catgenome.exception.FeatureIndexException;
 import com.epam.catgenome.exception.VcfReadingException;
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.security.acl.aspect.AclMapFilter;
 import com.epam.catgenome.security.acl.aspect.AclMask;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,6 +63,9 @@ public class VcfSecurityService {
     @Autowired
     private VcfManager vcfManager;
 
+    @Autowired
+    private TrackTileCache trackTileCache;
+
     @PreAuthorize(ROLE_ADMIN + OR + ROLE_VCF_MANAGER)
     public VcfFile registerVcfFile(FeatureIndexedFileRegistrationRequest request) {
         return vcfManager.registerVcfFile(request);
@@ -83,6 +88,15 @@ public class VcfSecurityService {
         return vcfManager.loadVariations(track, sampleId, loadInfo, collapsed);
     }
 
+    @PreAuthorize(ROLE_ADMIN + OR + READ_VCF_BY_TRACK_ID)
+    public TrackTileCache.CachedTrack<Variation> loadCachedVariations(Track<Variation> track, Long sampleId,
+                                                                      boolean loadInfo, boolean collapsed)
+            throws VcfReadingException {
+        return trackTileCache.load(BiologicalDataItemFormat.VCF, track, Variation.class,
+                sampleId + ":" + loadInfo + ":" + collapsed,
+                tile -> vcfManager.loadVariations(tile, sampleId, loadInfo, collapsed));
+    }
+
     @PreAuthorize(ROLE_USER)
     public Track<Variation> loadVariations(final Track<Variation> track, String fileUrl, String indexUrl,
                                            final Integer sampleIndex, final boolean loadInfo,
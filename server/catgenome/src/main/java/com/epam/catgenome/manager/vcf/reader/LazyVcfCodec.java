@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.vcf.reader;
+
+import java.util.Collections;
+
+import com.epam.catgenome.util.feature.reader.RequestScopedCodec;
+import htsjdk.tribble.Feature;
+import htsjdk.tribble.FeatureCodecHeader;
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderVersion;
+
+/**
+ * A {@code VCFCodec} for track requests, that decodes only data, requested by a client. Before a record is
+ * decoded, it's line is cut down to the fixed columns and a genotype column of a single sample, INFO fields
+ * are kept only if they are requested. Therefore the cost of a record doesn't depend on the number of samples
+ * in a file.
+ * <p>
+ * Records are decoded against a header with a single sample, so a genotype of the requested sample has
+ * an index, returned by {@link #getDecodedSampleIndex()}. A feature reader still returns the original header
+ * of a file.
+ * </p>
+ */
+public class LazyVcfCodec extends VCFCodec implements RequestScopedCodec {
+
+    private static final int INFO_COLUMN = 7;
+    private static final char VALUE_SEPARATOR = '=';
+
+    private final Integer sampleIndex;
+    private final boolean decodeInfo;
+    private boolean fileGenotyped;
+
+    /**
+     * @param sampleIndex an index of a sample, which genotype should be decoded, null to skip genotypes
+     * @param decodeInfo if false, only INFO fields, that define a variation itself, are decoded
+     */
+    public LazyVcfCodec(final Integer sampleIndex, final boolean decodeInfo) {
+        this.sampleIndex = sampleIndex;
+        this.decodeInfo = decodeInfo;
+    }
+
+    /**
+     * @return an index of the requested sample in decoded records, it differs from the requested one only
+     * for files with genotypes
+     */
+    public Integer getDecodedSampleIndex() {
+        if (!fileGenotyped) {
+            return sampleIndex;
+        }
+        return sampleIndex != null ? 0 : null;
+    }
+
+    @Override
+    public Object readActualHeader(final LineIterator lineIterator) {
+        final VCFHeader fileHeader = (VCFHeader) super.readActualHeader(lineIterator);
+        setVCFHeader(reduceHeader(fileHeader), version);
+        return fileHeader;
+    }
+
+    @Override
+    public void initHeader(final FeatureCodecHeader codecHeader) {
+        // the version only enables a check of GT presence for files older than VCF4.1, the latest one is assumed
+        setVCFHeader(reduceHeader((VCFHeader) codecHeader.getHeaderValue()), VCFHeaderVersion.VCF4_2);
+    }
+
+    @Override
+    public VariantContext decode(final String line) {
+        return super.decode(reduceLine(line));
+    }
+
+    @Override
+    public Feature decodeLoc(final String line) {
+        return super.decodeLoc(reduceLine(line));
+    }
+
+    private VCFHeader reduceHeader(final VCFHeader fileHeader) {
+        fileGenotyped = fileHeader.hasGenotypingData();
+        if (!fileGenotyped) {
+            return fileHeader;
+        }
+        return sampleIndex == null ? new VCFHeader(fileHeader.getMetaDataInInputOrder())
+                : new VCFHeader(fileHeader.getMetaDataInInputOrder(),
+                        Collections.singletonList(fileHeader.getGenotypeSamples().get(sampleIndex)));
+    }
+
+    /**
+     * Cuts a record line down to the fixed columns, requested INFO fields and the requested sample
+     */
+    String reduceLine(final String line) {
+        if (line.isEmpty() || line.charAt(0) == '#') {
+            return line;
+        }
+        final int infoStart = skipColumns(line, 0, INFO_COLUMN);
+        if (infoStart < 0) {
+            return line;
+        }
+        final int infoEnd = columnEnd(line, infoStart);
+        final StringBuilder reduced = new StringBuilder(line.length());
+        reduced.append(line, 0, infoStart);
+        if (decodeInfo) {
+            reduced.append(line, infoStart, infoEnd);
+        } else {
+            appendTrackInfo(reduced, line, infoStart, infoEnd);
+        }
+        if (infoEnd == line.length()) {
+            return reduced.toString();
+        }
+        if (!fileGenotyped) {
+            return reduced.append(line, infoEnd, line.length()).toString();
+        }
+        if (sampleIndex == null) {
+            return reduced.toString();
+        }
+        final int formatStart = infoEnd + 1;
+        final int formatEnd = columnEnd(line, formatStart);
+        final int sampleStart = skipColumns(line, formatStart, sampleIndex + 1);
+        reduced.append(line, infoEnd, formatEnd);
+        if (sampleStart >= 0) {
+            reduced.append(VCFConstants.FIELD_SEPARATOR_CHAR).append(line, sampleStart, columnEnd(line, sampleStart));
+        }
+        return reduced.toString();
+    }
+
+    /**
+     * Keeps INFO fields, that define an end and a type of a variation on a track
+     */
+    private static void appendTrackInfo(final StringBuilder reduced, final String line, final int start,
+                                        final int end) {
+        final int length = reduced.length();
+        int fieldStart = start;
+        while (fieldStart < end) {
+            int fieldEnd = line.indexOf(VCFConstants.INFO_FIELD_SEPARATOR_CHAR, fieldStart);
+            if (fieldEnd < 0 || fieldEnd > end) {
+                fieldEnd = end;
+            }
+            if (isTrackInfoField(line, fieldStart, fieldEnd)) {
+                if (reduced.length() > length) {
+                    reduced.append(VCFConstants.INFO_FIELD_SEPARATOR_CHAR);
+                }
+                reduced.append(line, fieldStart, fieldEnd);
+            }
+            fieldStart = fieldEnd + 1;
+        }
+        if (reduced.length() == length) {
+            reduced.append(VCFConstants.EMPTY_INFO_FIELD);
+        }
+    }
+
+    private static boolean isTrackInfoField(final String line, final int start, final int end) {
+        return isField(line, start, end, VCFConstants.END_KEY)
+                || isField(line, start, end, VcfFileReader.BIND_CIPOS_ATTRIBUTE);
+    }
+
+    private static boolean isField(final String line, final int start, final int end, final String key) {
+        return end - start > key.length() && line.startsWith(key, start)
+                && line.charAt(start + key.length()) == VALUE_SEPARATOR;
+    }
+
+    /**
+     * @return a start of a column, that is a specified number of columns after a column start, or -1
+     */
+    private static int skipColumns(final String line, final int from, final int count) {
+        int position = from;
+        for (int i = 0; i < count; i++) {
+            position = line.indexOf(VCFConstants.FIELD_SEPARATOR_CHAR, position);
+            if (position < 0) {
+                return -1;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    private static int columnEnd(final String line, final int start) {
+        final int end = line.indexOf(VCFConstants.FIELD_SEPARATOR_CHAR, start);
+        return end < 0 ? line.length() : end;
+    }
+}
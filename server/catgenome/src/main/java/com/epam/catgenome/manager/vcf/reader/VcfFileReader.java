@@ -59,8 +59,11 @@ import com.epam.catgenome.entity.vcf.VariationType;
 import com.epam.catgenome.entity.vcf.VcfFile;
 import com.epam.catgenome.exception.VcfReadingException;
 import com.epam.catgenome.manager.FileManager;
+import com.epam.catgenome.manager.TrackHelper;
 import com.epam.catgenome.manager.reference.ReferenceGenomeManager;
+import com.epam.catgenome.util.PositionIndex;
 import com.epam.catgenome.util.Utils;
+import com.epam.catgenome.util.VariantDensityPyramid;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.tribble.FeatureReader;
 import htsjdk.variant.variantcontext.Allele;
@@ -88,6 +91,12 @@ public class VcfFileReader extends AbstractVcfReader {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(VcfFileReader.class);
 
+    /**
+     * Approximate number of records, that are decoded by a query of a single variation. A collapsed track is
+     * loaded from a density summary only if it requires less decoding than a scan of the requested interval.
+     */
+    private static final int SINGLE_QUERY_COST = 256;
+
     /**
      * Creates a {@code VcfFileReader} instance
      * @param fileManager for file access
@@ -114,15 +123,23 @@ public class VcfFileReader extends AbstractVcfReader {
                                            final Integer sampleIndex, final boolean loadInfo,
                                            final boolean collapse, EhCacheBasedIndexCache indexCache)
             throws VcfReadingException {
+        final LazyVcfCodec codec = new LazyVcfCodec(sampleIndex, loadInfo);
         try (FeatureReader<VariantContext> reader = AbstractEnhancedFeatureReader.getFeatureReader(vcfFile.getPath(),
-                vcfFile.getIndex().getPath(), new VCFCodec(), true, indexCache)) {
+                vcfFile.getIndex().getPath(), codec, true, indexCache)) {
             if (checkBounds(vcfFile, track, chromosome, loadInfo)) {
                 return track;
             }
+            final List<Variation> collapsed = loadDensityVariations(reader, vcfFile, track, chromosome,
+                    sampleIndex, codec.getDecodedSampleIndex(), loadInfo, collapse);
+            if (collapsed != null) {
+                track.setBlocks(collapsed);
+                return track;
+            }
             try (CloseableIterator<VariantContext> iterator = Utils.query(reader, chromosome.getName(), track
                     .getStartIndex(), track.getEndIndex())) {
                 VCFHeader header = (VCFHeader) reader.getHeader();
-                track.setBlocks(doReadVariations(iterator, track, header, vcfFile, sampleIndex, loadInfo, collapse));
+                track.setBlocks(doReadVariations(iterator, track, header, vcfFile, codec.getDecodedSampleIndex(),
+                        loadInfo, collapse));
             }
         } catch (IOException e) {
             throw new VcfReadingException(vcfFile, e);
@@ -155,16 +172,78 @@ public class VcfFileReader extends AbstractVcfReader {
     private Variation readNextOrPreviousVariation(int fromPosition, VcfFile vcfFile,
             Integer sampleIndex, Chromosome chromosome, boolean forward, int end,
             FeatureReader<VariantContext> reader) throws IOException {
+        VCFHeader vcfHeader = (VCFHeader) reader.getHeader();
+        PositionIndex positions = vcfFile.getId() != null
+                ? fileManager.loadPositionIndex(vcfFile, chromosome.getName()) : null;
+        if (positions != null && positions.hasSample(sampleIndex)) {
+            return forward ? getNextIndexedVariation(fromPosition, sampleIndex, chromosome, positions, reader,
+                    vcfHeader) : getPreviousIndexedVariation(fromPosition, sampleIndex, chromosome, positions,
+                    reader, vcfHeader);
+        }
+
         int bound = end;
         if (vcfFile.getCompressed()) {
             bound = getEndWithBounds(vcfFile, chromosome, forward);
         }
-        VCFHeader vcfHeader = (VCFHeader) reader.getHeader();
         return forward ? getNextVariation(fromPosition, sampleIndex, chromosome, bound,
                 reader, vcfHeader) : getPreviousVariation(fromPosition, sampleIndex, chromosome, bound,
                 reader, vcfHeader);
     }
 
+    /**
+     * Finds the next variation by a position index, so that the file is queried only at the found position
+     */
+    @Nullable
+    private Variation getNextIndexedVariation(int fromPosition, Integer sampleIndex, Chromosome chromosome,
+            PositionIndex positions, FeatureReader<VariantContext> reader, VCFHeader vcfHeader) throws IOException {
+        int next = positions.firstAfter(fromPosition, sampleIndex);
+        if (next < 0) {
+            return null;
+        }
+        return getIndexedVariation(next, sampleIndex, chromosome, positions, reader, vcfHeader);
+    }
+
+    /**
+     * Finds the previous variation, that ends before a position, by a position index, so that the file is
+     * queried only at the found position
+     */
+    @Nullable
+    private Variation getPreviousIndexedVariation(int fromPosition, Integer sampleIndex, Chromosome chromosome,
+            PositionIndex positions, FeatureReader<VariantContext> reader, VCFHeader vcfHeader) throws IOException {
+        int previous = positions.lastBefore(fromPosition, sampleIndex);
+        while (previous >= 0 && positions.getEnd(previous) >= fromPosition) {
+            previous = positions.previous(previous - 1, sampleIndex);
+        }
+        if (previous < 0) {
+            return null;
+        }
+        return getIndexedVariation(previous, sampleIndex, chromosome, positions, reader, vcfHeader);
+    }
+
+    /**
+     * Reads a variation of a position index from the file. Variations, that start at the same position, are
+     * indexed in the order of the file, so the variation is picked by its rank among them
+     */
+    @Nullable
+    private Variation getIndexedVariation(int ordinal, Integer sampleIndex, Chromosome chromosome,
+            PositionIndex positions, FeatureReader<VariantContext> reader, VCFHeader vcfHeader) throws IOException {
+        final int start = positions.getStart(ordinal);
+        int rank = 0;
+        while (ordinal - rank > 0 && positions.getStart(ordinal - rank - 1) == start) {
+            rank++;
+        }
+        try (CloseableIterator<VariantContext> iterator = Utils.query(reader, chromosome.getName(), start,
+                start)) {
+            while (iterator.hasNext()) {
+                final VariantContext context = iterator.next();
+                if (context.getStart() == start && rank-- == 0) {
+                    return createVariation(context, vcfHeader, sampleIndex);
+                }
+            }
+        }
+        return null;
+    }
+
     private int getEndWithBounds(VcfFile vcfFile, Chromosome chromosome, boolean forward)
             throws IOException {
         Map<String, Pair<Integer, Integer>> metaMap = fileManager.loadIndexMetadata(vcfFile);
@@ -369,9 +448,10 @@ public class VcfFileReader extends AbstractVcfReader {
     private List<Variation> loadStatisticVariations(CloseableIterator<VariantContext> iterator, Track<Variation>
             track, VCFHeader header, VcfFile vcfFile, Integer sampleIndex, boolean loadInfo) {
         ArrayList<Variation> variations = new ArrayList<>();
-        final int step = (int) Math.ceil((double) 1 / track.getScaleFactor());
-        final int from = track.getStartIndex();
-        int to = from + step;
+        // variations are grouped by regions of a grid, that starts at the chromosome start
+        final int step = TrackHelper.getBlockStep(track.getScaleFactor());
+        final int from = TrackHelper.getBlockStart(track.getStartIndex(), step);
+        int to = TrackHelper.getBlockEnd(track.getStartIndex(), step);
         boolean found = false;
         int variationCount = 0; // On small scale we need to count overlapping variations
         List<Variation> extendingVariations = new ArrayList<>(); // variations, that extend one pixel region
@@ -390,7 +470,7 @@ public class VcfFileReader extends AbstractVcfReader {
 
             if (context.getStart() > to) {
                 found = false;
-                to = to + step < context.getStart() ? (context.getStart() + step) : (to + step);
+                to = TrackHelper.getBlockEnd(context.getStart(), step);
                 if (!variations.isEmpty()) {
                     tryToGroupVariations(variations, variationCount, lastContext);
                 }
@@ -428,6 +508,81 @@ public class VcfFileReader extends AbstractVcfReader {
         return variations;
     }
 
+    /**
+     * Collapses variations of a zoomed out track using a density summary of a chromosome, that was built at
+     * registration time. Only variations, that are single in their region, are read from the file.
+     * Regions follow the same windows as {@link #loadStatisticVariations}, up to the summary bin size,
+     * see {@link VariantDensityPyramid#collapse}. Unlike a scan, a STATISTIC variation has only a start, an end
+     * and a count of a region, fields of its first variation aren't read, since it would take a query
+     * for each region.
+     * @return collapsed variations or null, if a track should be loaded by a scan of the file
+     */
+    private List<Variation> loadDensityVariations(FeatureReader<VariantContext> reader, VcfFile vcfFile,
+            Track<Variation> track, Chromosome chromosome, Integer sampleIndex, Integer decodedSampleIndex,
+            boolean loadInfo, boolean collapse) throws IOException {
+        if (loadInfo || !collapse || track.getScaleFactor() >= 1 || vcfFile.getId() == null) {
+            return null;
+        }
+        final int step = TrackHelper.getBlockStep(track.getScaleFactor());
+        if (step < VariantDensityPyramid.BASE_BIN_SIZE) {
+            return null;
+        }
+        final VariantDensityPyramid density = fileManager.loadVariantDensity(vcfFile, chromosome.getName());
+        final List<VariantDensityPyramid.Bucket> buckets = density != null
+                ? density.collapse(sampleIndex, track.getStartIndex(), track.getEndIndex(), step) : null;
+        if (buckets == null) {
+            return null;
+        }
+        long total = 0;
+        long single = 0;
+        for (VariantDensityPyramid.Bucket bucket : buckets) {
+            total += bucket.getCount();
+            single += bucket.getCount() == 1 ? 1 : 0;
+        }
+        if (single * SINGLE_QUERY_COST > total) {
+            return null;
+        }
+
+        final VCFHeader header = (VCFHeader) reader.getHeader();
+        final List<Variation> variations = new ArrayList<>(buckets.size());
+        for (VariantDensityPyramid.Bucket bucket : buckets) {
+            if (bucket.getCount() == 1) {
+                final Variation variation = readSingleVariation(reader, header, chromosome, bucket.getStart(),
+                        decodedSampleIndex);
+                if (variation != null) {
+                    variations.add(variation);
+                }
+            } else if (bucket.getCount() > 1) {
+                final Variation variation = new Variation(bucket.getStart(), bucket.getEnd(), null,
+                        Collections.emptyList());
+                variation.setGenotypeData(getGenotypeData(null, null));
+                variation.setType(VariationType.STATISTIC);
+                variation.setVariationsCount(bucket.getCount());
+                variations.add(variation);
+            }
+        }
+        return variations;
+    }
+
+    private Variation readSingleVariation(FeatureReader<VariantContext> reader, VCFHeader header,
+            Chromosome chromosome, int start, Integer sampleIndex) throws IOException {
+        try (CloseableIterator<VariantContext> iterator = Utils.query(reader, chromosome.getName(), start, start)) {
+            while (iterator.hasNext()) {
+                final VariantContext context = iterator.next();
+                if (context.getStart() != start) {
+                    continue;
+                }
+                final Variation variation = createVariation(context, header, sampleIndex);
+                if (variation.getGenotypeData() == null ||
+                        variation.getGenotypeData().getOrganismType() != OrganismType.NO_VARIATION) {
+                    variation.setVariationsCount(1);
+                    return variation;
+                }
+            }
+        }
+        return null;
+    }
+
     private void tryToGroupVariations(ArrayList<Variation> variations, int variationCount,
             VariantContext lastContext) {
         Variation lastVariation = findLastNotBndVariation(variations);
@@ -468,6 +623,18 @@ public class VcfFileReader extends AbstractVcfReader {
         return organismType;
     }
 
+    /**
+     * Determines a type of a variation regardless of genotypes of samples
+     *
+     * @param context {@code VariantContext} a variation from parsed VCF file
+     * @return a {@code VariationType}, the same as of a variation, that is created without a sample
+     */
+    public static VariationType determineVariationType(VariantContext context) {
+        final Variation variation = new Variation();
+        determineVariationType(context, null, variation);
+        return variation.getType();
+    }
+
     private static void determineVariationType(VariantContext context, Integer sampleIndex, Variation variation) {
         VariantContext.Type type = context.getType(); // Determine VariationType
         switch (type) {
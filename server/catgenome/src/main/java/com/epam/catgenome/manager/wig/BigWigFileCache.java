@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.wig;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import org.jetbrains.bio.BetterSeekableBufferedStream;
+import org.jetbrains.bio.EndianSynchronizedBufferFactory;
+import org.jetbrains.bio.big.BigFile;
+import org.jetbrains.bio.big.BigWigFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@link BigWigFile}s open between track requests, so that a file header, chromosome tree and zoom
+ * levels are read once per file. A handle is closed when it is evicted from the cache and is not used by
+ * any request.
+ */
+@Component
+public class BigWigFileCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BigWigFileCache.class);
+
+    @Value("${wig.file.cache.max.size:50}")
+    private int maxSize;
+
+    @Value("${wig.file.cache.expire.minutes:10}")
+    private int expireMinutes;
+
+    private Cache<String, CachedBigWigFile> files;
+
+    @PostConstruct
+    public void init() {
+        files = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireMinutes, TimeUnit.MINUTES)
+                .removalListener((RemovalNotification<String, CachedBigWigFile> notification) ->
+                        notification.getValue().release())
+                .build();
+    }
+
+    /**
+     * Executes a reading operation on an opened BigWig file
+     * @param path path to a BigWig file
+     * @param reader an operation to perform
+     * @return result of the operation
+     * @throws IOException if the file can't be opened or read
+     */
+    public <T> T read(final String path, final BigWigReader<T> reader) throws IOException {
+        final CachedBigWigFile file = acquire(path);
+        try {
+            return reader.read(file.bigWigFile);
+        } finally {
+            file.release();
+        }
+    }
+
+    /**
+     * Closes an opened BigWig file, should be called when a file is deleted or rewritten
+     * @param path path to a BigWig file
+     */
+    public void evict(final String path) {
+        files.invalidate(path);
+    }
+
+    @PreDestroy
+    public void close() {
+        files.invalidateAll();
+    }
+
+    /**
+     * Opens a BigWig file, the returned file should be closed by a caller
+     * @param path path to a BigWig file
+     * @return opened {@link BigWigFile}
+     * @throws IOException if the file can't be opened
+     */
+    private static BigWigFile open(final String path) throws IOException {
+        return BigWigFile.read(path, BigFile.PREFETCH_LEVEL_DETAILED, null, (filePath, byteOrder) ->
+                EndianSynchronizedBufferFactory.Companion.create(filePath, byteOrder,
+                        BetterSeekableBufferedStream.DEFAULT_BUFFER_SIZE));
+    }
+
+    private CachedBigWigFile acquire(final String path) throws IOException {
+        while (true) {
+            final CachedBigWigFile file;
+            try {
+                file = files.get(path, () -> new CachedBigWigFile(open(path)));
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+            if (file.retain()) {
+                return file;
+            }
+            // the file was closed right after eviction, remove the stale entry if it is still there
+            files.asMap().remove(path, file);
+        }
+    }
+
+    @FunctionalInterface
+    public interface BigWigReader<T> {
+        T read(BigWigFile bigWigFile) throws IOException;
+    }
+
+    /**
+     * Reference counted {@link BigWigFile}, the cache holds one reference while a file is cached
+     */
+    private static final class CachedBigWigFile {
+        private final BigWigFile bigWigFile;
+        private int references = 1;
+
+        private CachedBigWigFile(final BigWigFile bigWigFile) {
+            this.bigWigFile = bigWigFile;
+        }
+
+        private synchronized boolean retain() {
+            if (references == 0) {
+                return false;
+            }
+            references++;
+            return true;
+        }
+
+        private void release() {
+            synchronized (this) {
+                references--;
+                if (references > 0) {
+                    return;
+                }
+            }
+            try {
+                bigWigFile.close();
+            } catch (IOException e) {
+                LOGGER.error("Failed to close BigWig file", e);
+            }
+        }
+    }
+}
@@ -42,6 +42,7 @@ import com.epam.catgenome.manager.BiologicalDataItemManager;
 import com.epam.catgenome.manager.DownloadFileManager;
 import com.epam.catgenome.manager.FileManager;
 import com.epam.catgenome.manager.TrackHelper;
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.manager.reference.ReferenceGenomeManager;
 import com.epam.catgenome.util.NgbFileUtils;
 import com.epam.catgenome.util.feature.reader.EhCacheBasedIndexCache;
@@ -98,6 +99,12 @@ public class FacadeWigManager {
     @Autowired
     protected DownloadFileManager downloadFileManager;
 
+    @Autowired
+    protected BigWigFileCache bigWigFileCache;
+
+    @Autowired
+    protected TrackTileCache trackTileCache;
+
     @Autowired(required = false)
     protected EhCacheBasedIndexCache indexCache;
 
@@ -191,7 +198,9 @@ public class FacadeWigManager {
     public WigFile unregisterWigFile(final long wigFileId) throws IOException {
         WigFile fileToDelete = wigFileManager.load(wigFileId);
         Assert.notNull(fileToDelete, getMessage(MessagesConstants.ERROR_FILE_NOT_FOUND));
+        evictOpenedFiles(fileToDelete);
         wigFileManager.delete(fileToDelete);
+        trackTileCache.evict(BiologicalDataItemFormat.WIG, fileToDelete.getId());
         return fileToDelete;
     }
 
@@ -266,6 +275,16 @@ public class FacadeWigManager {
         return exts;
     }
 
+    private void evictOpenedFiles(final WigFile wigFile) {
+        bigWigFileCache.evict(wigFile.getPath());
+        for (Chromosome chromosome : referenceGenomeManager.loadChromosomes(wigFile.getReferenceId())) {
+            final String downsamplePath = fileManager.getWigFilePath(wigFile, chromosome);
+            if (downsamplePath != null) {
+                bigWigFileCache.evict(downsamplePath);
+            }
+        }
+    }
+
     private AbstractWigProcessor fetchWigManager(String path) {
         String fileExtension = NgbFileUtils.getFileExtension(path);
         boolean isBedGraph = BED_GRAPH_EXTENSIONS
@@ -274,7 +293,7 @@ public class FacadeWigManager {
         if (isBedGraph) {
             return new BedGraphProcessor(biologicalDataItemManager, fileManager);
         } else {
-            return new WigProcessor(biologicalDataItemManager, fileManager);
+            return new WigProcessor(biologicalDataItemManager, fileManager, bigWigFileCache);
         }
     }
 
@@ -13,9 +13,6 @@ import com.epam.catgenome.util.feature.reader.EhCacheBasedIndexCache;
 import gnu.trove.list.TFloatList;
 import gnu.trove.list.array.TFloatArrayList;
 import kotlin.Pair;
-import org.jetbrains.bio.BetterSeekableBufferedStream;
-import org.jetbrains.bio.EndianSynchronizedBufferFactory;
-import org.jetbrains.bio.big.BigFile;
 import org.jetbrains.bio.big.BigSummary;
 import org.jetbrains.bio.big.BigWigFile;
 import org.jetbrains.bio.big.FixedStepSection;
@@ -36,8 +33,12 @@ import static com.epam.catgenome.component.MessageHelper.getMessage;
  * */
 public class WigProcessor extends AbstractWigProcessor {
 
-    public WigProcessor(BiologicalDataItemManager biologicalDataItemManager, FileManager fileManager) {
+    private final BigWigFileCache bigWigFileCache;
+
+    public WigProcessor(BiologicalDataItemManager biologicalDataItemManager, FileManager fileManager,
+                        BigWigFileCache bigWigFileCache) {
         super(biologicalDataItemManager, fileManager);
+        this.bigWigFileCache = bigWigFileCache;
     }
 
     @Override
@@ -69,71 +70,71 @@ public class WigProcessor extends AbstractWigProcessor {
     void splitByChromosome(final WigFile wigFile, final Map<String, Chromosome> chromosomeMap,
                            EhCacheBasedIndexCache indexCache)
             throws IOException {
-        try (BigWigFile bigWigFile = readWig(wigFile.getPath())) {
-            for (Object o : bigWigFile.getChromosomes().values()) {
-                String chr = (String) o;
-                if (chromosomeMap.containsKey(chr) || chromosomeMap.containsKey(Utils.changeChromosomeName(chr))) {
-                    String realChrName = chr;
-                    if (chromosomeMap.containsKey(Utils.changeChromosomeName(chr))) {
-                        realChrName = Utils.changeChromosomeName(chr);
-                    }
-                    Chromosome chromosome = chromosomeMap.get(realChrName);
-                    if (chromosome.getSize() < WIG_MIN_DOWNSAMPLING_CHROMOSOME_SIZE) {
-                        continue;
-                    }
-                    int start = 0;
-                    int stop = chromosomeMap.get(realChrName).getSize();
-                    LOGGER.debug("Processing chromosome " + chr);
-                    int bp = start;
-                    List<WigSection> sectionList = new ArrayList<>();
-                    List<Pair<String, Integer>> chrSizes = Collections.singletonList(new Pair<>(chr, stop - start));
-
-                    while (bp < stop) {
-                        int chunkStart = bp;
-                        int chunkStop = Math.min(bp + WIG_DOWNSAMPLING_WINDOW - 1, stop);
-
-                        List<BigSummary> summaries = bigWigFile.summarize(chr, chunkStart, chunkStop, 1, true, null);
-                        TFloatList values = new TFloatArrayList();
-                        BigSummary bigSummary = summaries.get(0);
-                        double value = Math.abs(bigSummary.getMaxValue()) > Math.abs(bigSummary.getMinValue())
-                                ? bigSummary.getMaxValue()
-                                : bigSummary.getMinValue();
-                        values.add((float) value);
-                        WigSection wigSection = new FixedStepSection(chr, chunkStart, chunkStop, 1, values);
-                        sectionList.add(wigSection);
-
-                        bp = chunkStop + 1;
-                    }
-
-                    fileManager.writeToBigWigFile(wigFile, sectionList, chrSizes, realChrName);
+        bigWigFileCache.read(wigFile.getPath(), bigWigFile -> {
+            splitByChromosome(wigFile, chromosomeMap, bigWigFile);
+            return null;
+        });
+    }
+
+    private void splitByChromosome(final WigFile wigFile, final Map<String, Chromosome> chromosomeMap,
+                                   final BigWigFile bigWigFile) throws IOException {
+        for (Object o : bigWigFile.getChromosomes().values()) {
+            String chr = (String) o;
+            if (chromosomeMap.containsKey(chr) || chromosomeMap.containsKey(Utils.changeChromosomeName(chr))) {
+                String realChrName = chr;
+                if (chromosomeMap.containsKey(Utils.changeChromosomeName(chr))) {
+                    realChrName = Utils.changeChromosomeName(chr);
+                }
+                Chromosome chromosome = chromosomeMap.get(realChrName);
+                if (chromosome.getSize() < WIG_MIN_DOWNSAMPLING_CHROMOSOME_SIZE) {
+                    continue;
+                }
+                int start = 0;
+                int stop = chromosomeMap.get(realChrName).getSize();
+                LOGGER.debug("Processing chromosome " + chr);
+                int bp = start;
+                List<WigSection> sectionList = new ArrayList<>();
+                List<Pair<String, Integer>> chrSizes = Collections.singletonList(new Pair<>(chr, stop - start));
+
+                while (bp < stop) {
+                    int chunkStart = bp;
+                    int chunkStop = Math.min(bp + WIG_DOWNSAMPLING_WINDOW - 1, stop);
+
+                    List<BigSummary> summaries = bigWigFile.summarize(chr, chunkStart, chunkStop, 1, true, null);
+                    TFloatList values = new TFloatArrayList();
+                    BigSummary bigSummary = summaries.get(0);
+                    double value = Math.abs(bigSummary.getMaxValue()) > Math.abs(bigSummary.getMinValue())
+                            ? bigSummary.getMaxValue()
+                            : bigSummary.getMinValue();
+                    values.add((float) value);
+                    WigSection wigSection = new FixedStepSection(chr, chunkStart, chunkStop, 1, values);
+                    sectionList.add(wigSection);
+
+                    bp = chunkStop + 1;
                 }
+
+                fileManager.writeToBigWigFile(wigFile, sectionList, chrSizes, realChrName);
             }
         }
     }
 
     private boolean parseWig(final String wigFilePath) throws IOException {
-        BigWigFile wigFile = readWig(wigFilePath);
-        wigFile.close();
-        return true;
+        // the file is opened through the cache, so that it's header isn't read again by the first track request
+        return bigWigFileCache.read(wigFilePath, bigWigFile -> true);
     }
 
     private void fillBlocksFromFile(final String filePath, final Track<Wig> track, final String chromosomeName)
             throws IOException {
         LOGGER.debug(getMessage(MessagesConstants.DEBUG_FILE_READING, filePath));
         double time1 = Utils.getSystemTimeMilliseconds();
-        try (BigWigFile bigWigFile = readWig(filePath)) {
+        bigWigFileCache.read(filePath, bigWigFile -> {
             fillBlocksNew(track, chromosomeName, bigWigFile);
-        }
+            return track;
+        });
         double time2 = Utils.getSystemTimeMilliseconds();
         LOGGER.debug("Reading from WIG file {}, took {} ms", filePath, time2 - time1);
     }
 
-    private BigWigFile readWig(final String wigFilePath) throws IOException {
-        return BigWigFile.read(wigFilePath, BigFile.PREFETCH_LEVEL_DETAILED, null, (path, byteOrder) ->
-                EndianSynchronizedBufferFactory.Companion.create(path, byteOrder,
-                        BetterSeekableBufferedStream.DEFAULT_BUFFER_SIZE));
-    }
-
     private void fillBlocksNew(final Track<Wig> track, final String chromosomeName, final BigWigFile bigWigFile) {
         String realName = null;
         for (Object o : bigWigFile.getChromosomes().values()) {
@@ -149,42 +150,62 @@ public class WigProcessor extends AbstractWigProcessor {
         if (realName == null) {
             LOGGER.info("Chromosome not found in big wig file");
         }
-        for (Wig wigElement : track.getBlocks()) {
-            double score = getNewArrays(bigWigFile, realName, wigElement.getStartIndex() - 1,
-                    wigElement.getEndIndex());
-            wigElement.setValue((float) score);
+        final List<Wig> blocks = track.getBlocks();
+        int runStart = 0;
+        while (runStart < blocks.size()) {
+            final int runEnd = findRunEnd(blocks, runStart);
+            fillRun(bigWigFile, realName, blocks.subList(runStart, runEnd));
+            runStart = runEnd;
         }
     }
 
-    private double getNewArrays(final BigWigFile bigWigFile, final String chrName, final int start, final int end) {
-        try {
-            double res = 0.0;
-            res +=  queryWig(bigWigFile, chrName, start, end);
-            return res;
-        } catch (IOException e) {
-            LOGGER.debug(e.getMessage(), e);
-            return 0;
+    /**
+     * Finds the end of a run of adjacent blocks of the same length, starting from a specified block. Blocks of
+     * such run are exactly the bins of a single {@code summarize} call over the whole run, so the zoom level
+     * and data blocks are traversed once per run instead of once per block.
+     */
+    private static int findRunEnd(final List<Wig> blocks, final int from) {
+        final Wig first = blocks.get(from);
+        final int length = first.getEndIndex() - first.getStartIndex();
+        int previousEnd = first.getEndIndex();
+        int end = from + 1;
+        while (end < blocks.size()) {
+            final Wig block = blocks.get(end);
+            final int start = block.getStartIndex();
+            if (start != previousEnd + 1 || block.getEndIndex() - start != length) {
+                break;
+            }
+            previousEnd = block.getEndIndex();
+            end++;
         }
+        return end;
     }
 
-    private double queryWig(BigWigFile bigWigFile, String chrName, int start, int end)
-            throws IOException {
-        List<BigSummary> summarize;
+    private void fillRun(final BigWigFile bigWigFile, final String chrName, final List<Wig> run) {
+        final List<BigSummary> summaries = summarize(bigWigFile, chrName, run.get(0).getStartIndex() - 1,
+                run.get(run.size() - 1).getEndIndex(), run.size());
+        for (int i = 0; i < run.size(); i++) {
+            run.get(i).setValue(i < summaries.size() ? (float) getValue(summaries.get(i)) : 0F);
+        }
+    }
+
+    private List<BigSummary> summarize(final BigWigFile bigWigFile, final String chrName, final int start,
+                                       final int end, final int numBins) {
         try {
-            summarize = bigWigFile.summarize(chrName, start, end, 1, true, null);
+            return bigWigFile.summarize(chrName, start, end, numBins, true, null);
         } catch (NoSuchElementException e) {
             LOGGER.info(e.getMessage(), e);
-            return 0;
-        }
-        double res = 0.0;
-        for (BigSummary summary : summarize) {
-            double value = Math.abs(summary.getMaxValue()) > Math.abs(summary.getMinValue())
-                    ? summary.getMaxValue()
-                    : summary.getMinValue();
-            if (!Double.isNaN(value) && !Double.isInfinite(value)) {
-                res += value;
-            }
+            return Collections.emptyList();
+        } catch (IOException e) {
+            LOGGER.debug(e.getMessage(), e);
+            return Collections.emptyList();
         }
-        return res;
+    }
+
+    private double getValue(final BigSummary summary) {
+        double value = Math.abs(summary.getMaxValue()) > Math.abs(summary.getMinValue())
+                ? summary.getMaxValue()
+                : summary.getMinValue();
+        return Double.isNaN(value) || Double.isInfinite(value) ? 0 : value;
     }
 }
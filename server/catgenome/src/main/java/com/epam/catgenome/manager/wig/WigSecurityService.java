@@ -27,9 +27,11 @@
 package com.epam.catgenome.manager.wig;
 
 import com.epam.catgenome.controller.vo.registration.IndexedFileRegistrationRequest;
+import com.epam.catgenome.entity.BiologicalDataItemFormat;
 import com.epam.catgenome.entity.track.Track;
 import com.epam.catgenome.entity.wig.Wig;
 import com.epam.catgenome.entity.wig.WigFile;
+import com.epam.catgenome.manager.TrackTileCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
@@ -47,6 +49,9 @@ public class WigSecurityService {
     @Autowired
     private FacadeWigManager facadeWigManager;
 
+    @Autowired
+    private TrackTileCache trackTileCache;
+
 
     @PreAuthorize(ROLE_ADMIN + OR + ROLE_WIG_MANAGER)
     public WigFile registerWigFile(IndexedFileRegistrationRequest request) {
@@ -58,6 +63,12 @@ public class WigSecurityService {
         return facadeWigManager.getWigTrack(track);
     }
 
+    @PreAuthorize(ROLE_ADMIN + OR + READ_FILE_OR_PROJECT)
+    public TrackTileCache.CachedTrack<Wig> getCachedWigTrack(Track<Wig> track) throws IOException {
+        return trackTileCache.load(BiologicalDataItemFormat.WIG, track, Wig.class, "",
+                tile -> facadeWigManager.getWigTrack(tile));
+    }
+
     @PreAuthorize(ROLE_ADMIN + OR + ROLE_WIG_MANAGER)
     public WigFile unregisterWigFile(long wigFileId) throws IOException {
         return facadeWigManager.unregisterWigFile(wigFileId);
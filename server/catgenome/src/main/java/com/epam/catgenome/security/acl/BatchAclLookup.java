@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.security.acl;
+
+import com.epam.catgenome.entity.security.AbstractHierarchicalEntity;
+import com.epam.catgenome.entity.security.AbstractSecuredEntity;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.model.Acl;
+import org.springframework.security.acls.model.ObjectIdentity;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Resolves ACLs of all entities of a listing or a tree at once: ACLs of entities and their parents are read
+ * by batches, instead of a separate lookup for each entity. Entities, that are not part of the batch, are
+ * resolved one by one. An instance is intended to be used within a single request.
+ */
+public class BatchAclLookup implements Function<AbstractSecuredEntity, Acl> {
+
+    private final JdbcMutableAclServiceImpl aclService;
+    private final Set<ObjectIdentity> requested = new HashSet<>();
+    private final Map<ObjectIdentity, Acl> acls;
+
+    public BatchAclLookup(final JdbcMutableAclServiceImpl aclService,
+                          final Collection<? extends AbstractSecuredEntity> entities) {
+        this.aclService = aclService;
+        entities.forEach(this::addIdentity);
+        this.acls = aclService.getAcls(requested);
+    }
+
+    /**
+     * Creates a lookup for all projects and items of a tree
+     */
+    public static BatchAclLookup forTree(final JdbcMutableAclServiceImpl aclService,
+                                         final AbstractHierarchicalEntity root) {
+        return forTrees(aclService, Collections.singletonList(root));
+    }
+
+    /**
+     * Creates a lookup for all projects and items of a listing of trees
+     */
+    public static BatchAclLookup forTrees(final JdbcMutableAclServiceImpl aclService,
+                                          final Collection<? extends AbstractHierarchicalEntity> roots) {
+        final Set<AbstractSecuredEntity> entities = new HashSet<>();
+        roots.forEach(root -> collectTree(root, entities));
+        return new BatchAclLookup(aclService, entities);
+    }
+
+    /**
+     * @return ACL of an entity or null if the entity is not registered in ACL
+     */
+    @Override
+    public Acl apply(final AbstractSecuredEntity entity) {
+        final ObjectIdentity identity = new ObjectIdentityImpl(entity);
+        if (requested.contains(identity)) {
+            return acls.get(identity);
+        }
+        return aclService.getAcl(entity);
+    }
+
+    private void addIdentity(final AbstractSecuredEntity entity) {
+        if (entity == null || entity.getId() == null) {
+            return;
+        }
+        requested.add(new ObjectIdentityImpl(entity));
+        final AbstractSecuredEntity parent = entity.getParent();
+        if (parent != null && parent.getId() != null) {
+            requested.add(new ObjectIdentityImpl(parent));
+        }
+    }
+
+    private static void collectTree(final AbstractHierarchicalEntity entity,
+                                    final Set<AbstractSecuredEntity> entities) {
+        entities.add(entity);
+        if (entity.getLeaves() != null) {
+            entities.addAll(entity.getLeaves());
+        }
+        if (entity.getChildren() != null) {
+            entity.getChildren().forEach(child -> collectTree(child, entities));
+        }
+    }
+}
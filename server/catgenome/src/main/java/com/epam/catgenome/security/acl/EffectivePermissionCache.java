@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.security.acl;
+
+import com.epam.catgenome.entity.security.AbstractSecuredEntity;
+import com.epam.catgenome.entity.security.AclClass;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.acls.model.Sid;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caches effective permission masks of secured entities for sets of SIDs, so that listings and trees, requested
+ * by the same user one after another, are filtered without ACL evaluation. Entries live for a short period and
+ * all of them are evicted on any ACL change. A change of user roles results in another set of SIDs, so it
+ * doesn't need an eviction.
+ */
+@Component
+@ConditionalOnProperty(value = "security.acl.enable", havingValue = "true")
+public class EffectivePermissionCache {
+
+    @Value("${security.acl.permission.cache.period:30}")
+    private int cachePeriod;
+
+    @Value("${security.acl.permission.cache.max.size:100000}")
+    private int maxSize;
+
+    private Cache<MaskKey, Integer> masks;
+
+    @PostConstruct
+    public void init() {
+        masks = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(cachePeriod, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Returns a cached permission mask or calculates and caches it
+     * @param entity secured entity
+     * @param merge if the mask is merged
+     * @param includeInherited if inherited permissions are included
+     * @param sids SIDs of a user
+     * @param loader calculates the mask
+     * @return permission mask
+     */
+    public Integer getMask(final AbstractSecuredEntity entity, final boolean merge, final boolean includeInherited,
+                           final List<Sid> sids, final Supplier<Integer> loader) {
+        if (cachePeriod <= 0 || entity.getId() == null) {
+            return loader.get();
+        }
+        try {
+            return masks.get(new MaskKey(entity, merge, includeInherited, sids), loader::get);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void invalidateAll() {
+        masks.invalidateAll();
+    }
+
+    /**
+     * A mask of an entity without own ACL depends on it's parent, so the parent is a part of the key
+     */
+    @EqualsAndHashCode
+    private static final class MaskKey {
+        private final AclClass aclClass;
+        private final Long id;
+        private final AclClass parentAclClass;
+        private final Long parentId;
+        private final boolean merge;
+        private final boolean includeInherited;
+        private final List<Sid> sids;
+
+        private MaskKey(final AbstractSecuredEntity entity, final boolean merge, final boolean includeInherited,
+                        final List<Sid> sids) {
+            final AbstractSecuredEntity parent = entity.getParent();
+            this.aclClass = entity.getAclClass();
+            this.id = entity.getId();
+            this.parentAclClass = parent == null ? null : parent.getAclClass();
+            this.parentId = parent == null ? null : parent.getId();
+            this.merge = merge;
+            this.includeInherited = includeInherited;
+            this.sids = sids;
+        }
+    }
+}
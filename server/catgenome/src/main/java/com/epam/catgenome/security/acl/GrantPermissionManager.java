@@ -174,6 +174,19 @@ public class GrantPermissionManager {
         return filterTree(permissionHelper.convertUserToSids(userName), entity, permission);
     }
 
+    /**
+     * Filters a tree of a listing, resolving ACLs by a lookup, that is shared by all trees of the listing
+     * @param acls ACLs of all trees of a listing, may be null for an admin
+     * @return true if the tree should be kept in the listing
+     */
+    public boolean filterTree(AbstractHierarchicalEntity entity, Permission permission, List<Sid> sids,
+                              BatchAclLookup acls) {
+        if (entity == null || permissionHelper.isAdmin(sids)) {
+            return true;
+        }
+        return processHierarchicalEntity(0, entity, new HashMap<>(), permission, true, sids, acls);
+    }
+
     public boolean isGroupRegistered(final List<String> groups) {
         Set<Long> sidIds = groups.stream()
                 .map(group ->  aclService.getSidId(group, false))
@@ -187,27 +200,24 @@ public class GrantPermissionManager {
     }
 
     private boolean filterTree(List<Sid> sids, AbstractHierarchicalEntity entity, Permission permission) {
-        if (entity == null) {
-            return true;
-        }
-        if (permissionHelper.isAdmin(sids)) {
+        if (entity == null || permissionHelper.isAdmin(sids)) {
             return true;
         }
-        return processHierarchicalEntity(0, entity, new HashMap<>(), permission, true, sids);
+        return filterTree(entity, permission, sids, BatchAclLookup.forTree(aclService, entity));
     }
 
     // return true if permission granted or we have any feature file inside the project with granted permission
     private boolean processHierarchicalEntity(int parentMask, AbstractHierarchicalEntity entity,
                                               Map<AclClass, Set<Long>> entitiesToRemove, Permission permission,
-                                              boolean root, List<Sid> sids) {
+                                              boolean root, List<Sid> sids, BatchAclLookup acls) {
         int defaultMask = 0;
         int currentMask = entity.getId() != null ?
-                PermissionUtils.mergeParentMask(permissionHelper.retrieveMaskForSid(entity, false, root, sids),
+                PermissionUtils.mergeParentMask(permissionHelper.retrieveMaskForSid(entity, false, root, sids, acls),
                         parentMask) : defaultMask;
 
         entity.getChildren().forEach(
-            leaf -> processHierarchicalEntity(currentMask, leaf, entitiesToRemove, permission, false, sids));
-        filterLeafs(currentMask, entity.getLeaves(), entitiesToRemove, permission, sids);
+            leaf -> processHierarchicalEntity(currentMask, leaf, entitiesToRemove, permission, false, sids, acls));
+        filterLeafs(currentMask, entity.getLeaves(), entitiesToRemove, permission, sids, acls);
         entity.filterLeaves(entitiesToRemove);
         entity.filterChildren(entitiesToRemove);
         boolean permissionGranted = PermissionUtils.isPermissionGranted(currentMask, permission);
@@ -228,10 +238,11 @@ public class GrantPermissionManager {
     }
 
     private void filterLeafs(int parentMask, List<? extends AbstractSecuredEntity> children,
-                             Map<AclClass, Set<Long>> entitiesToRemove, Permission permission, List<Sid> sids) {
+                             Map<AclClass, Set<Long>> entitiesToRemove, Permission permission, List<Sid> sids,
+                             BatchAclLookup acls) {
         children.forEach(child -> {
-            int mask = PermissionUtils
-                    .mergeParentMask(permissionHelper.getPermissionsMask(child, false, false, sids), parentMask);
+            int mask = PermissionUtils.mergeParentMask(
+                    permissionHelper.getPermissionsMask(child, false, false, sids, acls), parentMask);
             if (!PermissionUtils.isPermissionGranted(mask, permission)) {
                 entitiesToRemove.putIfAbsent(child.getAclClass(), new HashSet<>());
                 entitiesToRemove.get(child.getAclClass()).add(child.getId());
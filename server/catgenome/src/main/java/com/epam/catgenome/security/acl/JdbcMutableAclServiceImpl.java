@@ -24,7 +24,9 @@
 
 package com.epam.catgenome.security.acl;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -32,6 +34,7 @@ import java.util.stream.Collectors;
 import javax.sql.DataSource;
 
 import com.epam.catgenome.dao.DaoHelper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Required;
 import org.springframework.security.acls.domain.GrantedAuthoritySid;
 import org.springframework.security.acls.domain.ObjectIdentityImpl;
@@ -41,6 +44,8 @@ import org.springframework.security.acls.jdbc.LookupStrategy;
 import org.springframework.security.acls.model.*;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
 import com.epam.catgenome.component.MessageHelper;
@@ -53,9 +58,15 @@ public class JdbcMutableAclServiceImpl extends JdbcMutableAclService {
     private String deleteEntriesBySidQuery;
     private String loadEntriesBySidsCountQuery;
 
+    private final LookupStrategy lookupStrategy;
+
+    @Autowired(required = false)
+    private EffectivePermissionCache permissionCache;
+
     public JdbcMutableAclServiceImpl(DataSource dataSource, LookupStrategy lookupStrategy,
                                      AclCache aclCache) {
         super(dataSource, lookupStrategy, aclCache);
+        this.lookupStrategy = lookupStrategy;
     }
 
     @Transactional(propagation = Propagation.REQUIRED)
@@ -73,6 +84,7 @@ public class JdbcMutableAclServiceImpl extends JdbcMutableAclService {
 
         // Create the acl_object_identity row
         createObjectIdentity(objectIdentity, sid);
+        invalidatePermissions();
 
         // Retrieve the ACL via superclass (ensures cache registration, proper retrieval
         // etc)
@@ -109,10 +121,44 @@ public class JdbcMutableAclServiceImpl extends JdbcMutableAclService {
         return readAclsById(objectIdentities);
     }
 
+    /**
+     * Reads ACLs of a number of objects by batches, objects, that are not registered in ACL, are skipped
+     * @param objectIdentities identities of objects
+     * @return ACLs by object identities
+     */
+    public Map<ObjectIdentity, Acl> getAcls(Collection<ObjectIdentity> objectIdentities) {
+        if (objectIdentities.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return lookupStrategy.readAclsById(new ArrayList<>(objectIdentities), null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public MutableAcl createAcl(ObjectIdentity objectIdentity) {
+        invalidatePermissions();
+        return super.createAcl(objectIdentity);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public MutableAcl updateAcl(MutableAcl acl) {
+        invalidatePermissions();
+        return super.updateAcl(acl);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void deleteAcl(ObjectIdentity objectIdentity, boolean deleteChildren) {
+        invalidatePermissions();
+        super.deleteAcl(objectIdentity, deleteChildren);
+    }
+
     @Transactional(propagation = Propagation.REQUIRED)
     public void deleteSidById(Long sidId) {
         jdbcTemplate.update(deleteEntriesBySidQuery, sidId);
         jdbcTemplate.update(deleteSidByIdQuery, sidId);
+        invalidatePermissions();
     }
 
     @Transactional(propagation = Propagation.REQUIRED)
@@ -174,6 +220,25 @@ public class JdbcMutableAclServiceImpl extends JdbcMutableAclService {
         return jdbcTemplate.queryForObject(query, sidIds.toArray(), Integer.class);
     }
 
+    /**
+     * Evicts cached permissions now and once more after the transaction, so that permissions, calculated
+     * by concurrent requests before the change is committed, are not kept
+     */
+    private void invalidatePermissions() {
+        if (permissionCache == null) {
+            return;
+        }
+        permissionCache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    permissionCache.invalidateAll();
+                }
+            });
+        }
+    }
+
     @Required
     public void setDeleteSidByIdQuery(String deleteSidByIdQuery) {
         this.deleteSidByIdQuery = deleteSidByIdQuery;
@@ -60,6 +60,7 @@ import org.springframework.util.Assert;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import static java.util.stream.Collectors.toList;
 
@@ -101,6 +102,9 @@ public class PermissionHelper {
     @Autowired
     private ProjectManager projectManager;
 
+    @Autowired
+    private EffectivePermissionCache permissionCache;
+
     public boolean isAllowed(String permissionName, AbstractSecuredEntity entity) {
         return isAllowed(permissionName, entity.getId(), entity.getClass().getCanonicalName());
     }
@@ -180,12 +184,21 @@ public class PermissionHelper {
 
     public Integer getPermissionsMask(AbstractSecuredEntity entity, boolean merge,
                                       boolean includeInherited, List<Sid> sids) {
+        return getPermissionsMask(entity, merge, includeInherited, sids, aclService::getAcl);
+    }
+
+    /**
+     * Calculates a permission mask of an entity, ACLs are taken from a specified lookup,
+     * e.g. {@link BatchAclLookup} for listings
+     */
+    public Integer getPermissionsMask(AbstractSecuredEntity entity, boolean merge, boolean includeInherited,
+                                      List<Sid> sids, Function<AbstractSecuredEntity, Acl> acls) {
         if (isAdmin(sids)) {
             return merge ?
                     AbstractSecuredEntity.ALL_PERMISSIONS_MASK :
                     AbstractSecuredEntity.ALL_PERMISSIONS_MASK_FULL;
         }
-        return retrieveMaskForSid(entity, merge, includeInherited, sids);
+        return retrieveMaskForSid(entity, merge, includeInherited, sids, acls);
     }
 
     public List<Sid> getSids() {
@@ -207,7 +220,18 @@ public class PermissionHelper {
 
     public Integer retrieveMaskForSid(AbstractSecuredEntity entity, boolean merge,
                                        boolean includeInherited, List<Sid> sids) {
-        Acl child = aclService.getAcl(entity);
+        return retrieveMaskForSid(entity, merge, includeInherited, sids, aclService::getAcl);
+    }
+
+    public Integer retrieveMaskForSid(AbstractSecuredEntity entity, boolean merge, boolean includeInherited,
+                                      List<Sid> sids, Function<AbstractSecuredEntity, Acl> acls) {
+        return permissionCache.getMask(entity, merge, includeInherited, sids,
+            () -> calculateMaskForSid(entity, merge, includeInherited, sids, acls));
+    }
+
+    private Integer calculateMaskForSid(AbstractSecuredEntity entity, boolean merge, boolean includeInherited,
+                                        List<Sid> sids, Function<AbstractSecuredEntity, Acl> acls) {
+        Acl child = acls.apply(entity);
         //check ownership
         if (child == null && isOwner(entity)) {
             return merge ?
@@ -220,7 +244,7 @@ public class PermissionHelper {
             return 0;
         }
         //get parent
-        Acl acl = child == null ? aclService.getAcl(entity.getParent()) : child;
+        Acl acl = child == null ? acls.apply(entity.getParent()) : child;
         if (sids.stream().anyMatch(sid -> acl.getOwner().equals(sid))) {
             return merge ?
                     AbstractSecuredEntity.ALL_PERMISSIONS_MASK :
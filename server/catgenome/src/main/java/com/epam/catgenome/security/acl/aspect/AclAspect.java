@@ -24,23 +24,26 @@
 
 package com.epam.catgenome.security.acl.aspect;
 
+import java.lang.annotation.Annotation;
 import java.util.List;
 import java.util.Map;
 
 import com.epam.catgenome.entity.vcf.VcfFilterForm;
 import com.epam.catgenome.security.acl.PermissionHelper;
-import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.security.acls.domain.ObjectIdentityImpl;
 import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.acls.model.Sid;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -49,6 +52,7 @@ import com.epam.catgenome.entity.security.AbstractHierarchicalEntity;
 import com.epam.catgenome.entity.security.AbstractSecuredEntity;
 import com.epam.catgenome.manager.AuthManager;
 import com.epam.catgenome.security.acl.AclPermission;
+import com.epam.catgenome.security.acl.BatchAclLookup;
 import com.epam.catgenome.security.acl.GrantPermissionManager;
 import com.epam.catgenome.security.acl.JdbcMutableAclServiceImpl;
 
@@ -129,8 +133,12 @@ public class AclAspect {
             returning = "list")
     @Transactional(propagation = Propagation.REQUIRED)
     public void setMaskForList(JoinPoint joinPoint, List<? extends AbstractSecuredEntity> list) {
-        ListUtils.emptyIfNull(list).forEach(entity ->
-                entity.setMask(permissionHelper.getPermissionsMask(entity, true, true)));
+        // listings of trees are masked by filterListOfTrees, that resolves ACLs of the whole trees at once
+        if (CollectionUtils.isEmpty(list) || isAnnotated(joinPoint, AclFilterAndTree.class)) {
+            return;
+        }
+        final List<Sid> sids = permissionHelper.getSids();
+        setMasks(list, sids, permissionHelper.isAdmin(sids) ? null : new BatchAclLookup(aclService, list));
     }
 
     @AfterReturning(pointcut = "@annotation(com.epam.catgenome.security.acl.aspect.AclTree)",
@@ -144,8 +152,16 @@ public class AclAspect {
             returning = "list")
     @Transactional(propagation = Propagation.REQUIRED)
     public void filterListOfTrees(JoinPoint joinPoint, List<? extends AbstractHierarchicalEntity> list) {
+        if (CollectionUtils.isEmpty(list)) {
+            return;
+        }
+        final List<Sid> sids = permissionHelper.getSids();
+        final BatchAclLookup acls = permissionHelper.isAdmin(sids) ? null : BatchAclLookup.forTrees(aclService, list);
         // filter projects and remove it from list if it empty and we haven't permission on it
-        ListUtils.emptyIfNull(list).removeIf(e -> !permissionManager.filterTree(e, AclPermission.READ));
+        list.removeIf(e -> !permissionManager.filterTree(e, AclPermission.READ, sids, acls));
+        if (isAnnotated(joinPoint, AclMaskList.class)) {
+            setMasks(list, sids, acls);
+        }
     }
 
     @Before("@annotation(com.epam.catgenome.security.acl.aspect.AclFilter) && args(filterForm,..)")
@@ -159,6 +175,15 @@ public class AclAspect {
     }
 
 
+    private void setMasks(List<? extends AbstractSecuredEntity> list, List<Sid> sids, BatchAclLookup acls) {
+        list.forEach(entity -> entity.setMask(permissionHelper.getPermissionsMask(entity, true, true, sids, acls)));
+    }
+
+    private static boolean isAnnotated(JoinPoint joinPoint, Class<? extends Annotation> annotation) {
+        return joinPoint.getSignature() instanceof MethodSignature
+                && ((MethodSignature) joinPoint.getSignature()).getMethod().isAnnotationPresent(annotation);
+    }
+
     private void updateParent(AbstractSecuredEntity entity, MutableAcl acl) {
         AbstractSecuredEntity parent = entity.getParent();
         if (parent != null) {
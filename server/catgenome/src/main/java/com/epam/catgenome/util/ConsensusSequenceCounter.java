@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.epam.catgenome.entity.reference.Sequence;
+import htsjdk.samtools.Cigar;
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.SAMRecord;
+
+/**
+ * Calculates consensus sequence of a BAM track in a single pass over reads. Aligned bases of each read are
+ * folded into per-block counters of A, C, G, T, N and deletions by walking the read's CIGAR, so neither
+ * reads, nor their lists per block are kept in memory, and the time is linear in the number of aligned bases.
+ * Blocks are expected to be sorted and not overlapping, blocks of equal length, created by
+ * {@link com.epam.catgenome.manager.TrackHelper#fillBlocks}, are indexed directly by a position.
+ */
+public class ConsensusSequenceCounter {
+
+    static final int A = 0;
+    static final int C = 1;
+    static final int G = 2;
+    static final int T = 3;
+    static final int N = 4;
+    static final int DELETION = 5;
+    static final int COUNTERS = 6;
+
+    private static final int[] BASE_CODES = new int[256];
+
+    static {
+        Arrays.fill(BASE_CODES, N);
+        BASE_CODES['A'] = A;
+        BASE_CODES['a'] = A;
+        BASE_CODES['C'] = C;
+        BASE_CODES['c'] = C;
+        BASE_CODES['G'] = G;
+        BASE_CODES['g'] = G;
+        BASE_CODES['T'] = T;
+        BASE_CODES['t'] = T;
+    }
+
+    private final List<Sequence> blocks;
+    private final int[] starts;
+    private final int[] ends;
+    private final int step;
+    private final int[] counts;
+
+    /**
+     * @param blocks of a track to calculate consensus for
+     */
+    public ConsensusSequenceCounter(final List<Sequence> blocks) {
+        this.blocks = blocks;
+        this.starts = new int[blocks.size()];
+        this.ends = new int[blocks.size()];
+        for (int i = 0; i < blocks.size(); i++) {
+            starts[i] = blocks.get(i).getStartIndex();
+            ends[i] = blocks.get(i).getEndIndex();
+        }
+        this.step = getRegularStep(starts, ends);
+        this.counts = new int[blocks.size() * COUNTERS];
+    }
+
+    /**
+     * Adds aligned bases and deletions of a read to counters of blocks, the read overlaps
+     * @param record a mapped read
+     */
+    public void add(final SAMRecord record) {
+        final byte[] bases = record.getReadBases();
+        final Cigar cigar = record.getCigar();
+        if (blocks.isEmpty() || bases.length == 0 || cigar == null) {
+            return;
+        }
+        int referencePosition = record.getAlignmentStart();
+        int readPosition = 0;
+        for (CigarElement element : cigar.getCigarElements()) {
+            final int length = element.getLength();
+            switch (element.getOperator()) {
+                case M:
+                case EQ:
+                case X:
+                    addBases(bases, readPosition, referencePosition, length);
+                    readPosition += length;
+                    referencePosition += length;
+                    break;
+                case D:
+                    addDeletion(referencePosition, length);
+                    referencePosition += length;
+                    break;
+                case N:
+                    referencePosition += length;
+                    break;
+                case I:
+                case S:
+                    readPosition += length;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Sets consensus nucleotides to blocks, blocks without any aligned bases are left empty
+     */
+    public void fill() {
+        for (int i = 0; i < blocks.size(); i++) {
+            final int offset = i * COUNTERS;
+            int total = 0;
+            for (int j = 0; j < COUNTERS; j++) {
+                total += counts[offset + j];
+            }
+            if (total > 0) {
+                blocks.get(i).setText(ConsensusSequenceUtils.getConsensusNucleotide(counts[offset + A],
+                        counts[offset + C], counts[offset + G], counts[offset + T], total));
+            }
+        }
+    }
+
+    int getCount(final int block, final int counter) {
+        return counts[block * COUNTERS + counter];
+    }
+
+    private void addBases(final byte[] bases, final int readPosition, final int referenceStart, final int length) {
+        final int last = Math.min(referenceStart + length, bases.length - readPosition + referenceStart) - 1;
+        int position = Math.max(referenceStart, starts[0]);
+        int block = findBlock(position);
+        while (block >= 0 && block < starts.length && position <= last) {
+            position = Math.max(position, starts[block]);
+            final int blockLast = Math.min(last, ends[block]);
+            final int offset = block * COUNTERS;
+            for (int i = readPosition + position - referenceStart; position <= blockLast; position++, i++) {
+                counts[offset + BASE_CODES[Byte.toUnsignedInt(bases[i])]]++;
+            }
+            block++;
+        }
+    }
+
+    private void addDeletion(final int referenceStart, final int length) {
+        final int last = referenceStart + length - 1;
+        int position = Math.max(referenceStart, starts[0]);
+        int block = findBlock(position);
+        while (block >= 0 && block < starts.length && position <= last) {
+            position = Math.max(position, starts[block]);
+            final int blockLast = Math.min(last, ends[block]);
+            if (position <= blockLast) {
+                counts[block * COUNTERS + DELETION] += blockLast - position + 1;
+            }
+            position = blockLast + 1;
+            block++;
+        }
+    }
+
+    /**
+     * @return index of a block, containing a position or the next one, if the position falls into a gap
+     * between blocks, or the number of blocks, if the position follows all blocks
+     */
+    private int findBlock(final int position) {
+        if (position > ends[ends.length - 1]) {
+            return ends.length;
+        }
+        if (step > 0) {
+            return Math.min((position - starts[0]) / step, starts.length - 1);
+        }
+        final int index = Arrays.binarySearch(ends, position);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * @return length of blocks, if they are adjacent and all but the last one have the same length, otherwise 0
+     */
+    private static int getRegularStep(final int[] starts, final int[] ends) {
+        if (starts.length == 0) {
+            return 0;
+        }
+        final int step = ends[0] - starts[0] + 1;
+        for (int i = 1; i < starts.length; i++) {
+            if (starts[i] != ends[i - 1] + 1 || i < starts.length - 1 && ends[i] - starts[i] + 1 != step) {
+                return 0;
+            }
+        }
+        return step;
+    }
+}
@@ -29,16 +29,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import com.epam.catgenome.entity.NucleotideContent;
-import com.epam.catgenome.entity.reference.Sequence;
-import com.epam.catgenome.entity.track.Track;
-import htsjdk.samtools.SAMRecord;
-
 /**
  * Created: 6/3/2016
  * Project: catgenome
  * <p>
- * Provides methods to calculate consensus sequence for BAM file.
+ * Provides methods to choose consensus nucleotides of a BAM file's sequence, bases are counted by
+ * {@link ConsensusSequenceCounter}.
  * </p>
  */
 public final class ConsensusSequenceUtils {
@@ -57,84 +53,39 @@ public final class ConsensusSequenceUtils {
     }
 
     /**
-     * Calculates consensus sequence
-     * @param track a sequence track
-     * @param blockToReadsMap map of reads per nucleotide
+     * Chooses consensus nucleotide of a position or a block by counts of aligned bases
+     * @param aCount number of A bases
+     * @param cCount number of C bases
+     * @param gCount number of G bases
+     * @param tCount number of T bases
+     * @param total total number of aligned bases, including unknown ones and deletions
+     * @return the most frequent nucleotide, a pair of nucleotides in brackets, if two of them are much more
+     * frequent, than others, or N
      */
-    public static void calculateConsensusSequence(final Track<Sequence> track,
-                                                  final Map<Sequence, List<SAMRecord>> blockToReadsMap) {
-        // For each range calculate consensus nucleotide.
-        for (Sequence sequence : track.getBlocks()) {
-            final List<SAMRecord> blockReads = blockToReadsMap.get(sequence);
-            final Map<String, Integer> atgcMap = new HashMap<>();
-            final NucleotideContent nucleotideContent = new NucleotideContent();
-
-
-            // Calculate frequencies.
-            if (blockReads == null || blockReads.isEmpty()) {
-                continue;
-            }
-            nucleotideContent.setTotalNumberOfNucleotides(calculateNucleotideFrequencies(blockReads, atgcMap,
-                    nucleotideContent));
-
-            String consensusNucleotide = checkFirstCriteria(atgcMap, nucleotideContent.getTotalNumberOfNucleotides());
-            if (consensusNucleotide == null) {
-                consensusNucleotide = checkSecondCriteria(atgcMap, nucleotideContent.getTotalNumberOfNucleotides());
-            }
-
-            // Otherwise
-            if (consensusNucleotide == null) {
-                consensusNucleotide = "N";
-            }
-
-            sequence.setText(consensusNucleotide);
+    public static String getConsensusNucleotide(final int aCount, final int cCount, final int gCount,
+                                                final int tCount, final int total) {
+        final Map<Character, Integer> atgcMap = new HashMap<>();
+        atgcMap.put('A', aCount);
+        atgcMap.put('T', tCount);
+        atgcMap.put('G', gCount);
+        atgcMap.put('C', cCount);
+
+        String consensusNucleotide = checkFirstCriteria(atgcMap, total);
+        if (consensusNucleotide == null) {
+            consensusNucleotide = checkSecondCriteria(atgcMap, total);
         }
-    }
 
-    private static Integer calculateNucleotideFrequencies(final List<SAMRecord> blockReads,
-                                                          final Map<String, Integer> atgcMap,
-                                                          final NucleotideContent nucleotideContent) {
-        for (SAMRecord read : blockReads) {
-            char[] nucleotides = read.getReadString().toCharArray();
-            if (nucleotides.length != 0) {
-                nucleotideContent.incTotalNumberOfNucleotides(nucleotides.length);
-                calculateCount(nucleotides, nucleotideContent);
-            }
+        // Otherwise
+        if (consensusNucleotide == null) {
+            consensusNucleotide = "N";
         }
-        atgcMap.put("A", nucleotideContent.getACount());
-        atgcMap.put("T", nucleotideContent.getTCount());
-        atgcMap.put("G", nucleotideContent.getGCount());
-        atgcMap.put("C", nucleotideContent.getCCount());
-        return nucleotideContent.getTotalNumberOfNucleotides();
-    }
-
-
-    private static void calculateCount(final char[] nucleotides, final NucleotideContent nucleotideContent) {
-        for (char nucleotide : nucleotides) {
-            switch (Character.toUpperCase(nucleotide)) {
-                case 'A':
-                    nucleotideContent.incACount();
-                    break;
-                case 'T':
-                    nucleotideContent.incTCount();
-                    break;
-                case 'G':
-                    nucleotideContent.incGCount();
-                    break;
-                case 'C':
-                    nucleotideContent.incCCount();
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unknown nucleotide in the sequence: " + nucleotide);
-            }
-        }
-
+        return consensusNucleotide;
     }
 
-    private static String checkSecondCriteria(Map<String, Integer> atgcMap, double totalNumberOfNucleotides) {
+    private static String checkSecondCriteria(Map<Character, Integer> atgcMap, double totalNumberOfNucleotides) {
         for (String nucleotidePair : NUCLEOTIDE_PAIRS) {
-            Integer firstCnt = atgcMap.get(String.valueOf(nucleotidePair.charAt(0)));
-            Integer secondCnt = atgcMap.get(String.valueOf(nucleotidePair.charAt(1)));
+            Integer firstCnt = atgcMap.get(nucleotidePair.charAt(0));
+            Integer secondCnt = atgcMap.get(nucleotidePair.charAt(1));
             double frequency = (double) (firstCnt + secondCnt) / totalNumberOfNucleotides;
             if (Double.compare(frequency, CO_CONSENSUS_CRITERIA) > 0) {
                 return "[" + nucleotidePair + "]";
@@ -144,16 +95,16 @@ public final class ConsensusSequenceUtils {
         return null;
     }
 
-    private static String checkFirstCriteria(Map<String, Integer> atgcMap, double totalNumberOfNucleotides) {
+    private static String checkFirstCriteria(Map<Character, Integer> atgcMap, double totalNumberOfNucleotides) {
         String consensusNucleotide = null;
         Integer[] values = atgcMap.values().toArray(new Integer[NUCLEOTIDES_COUNT]);
         Arrays.sort(values);
-        for (Map.Entry<String, Integer> nucleotide : atgcMap.entrySet()) {
+        for (Map.Entry<Character, Integer> nucleotide : atgcMap.entrySet()) {
             Integer cnt = nucleotide.getValue();
             if (cnt.equals(values[values.length - 1])) { // most frequent nucleotide
                 double frequency = (double) cnt / totalNumberOfNucleotides;
                 if (Double.compare(frequency, CONSENSUS_CRITERIA) > 0 && cnt > 2 * values[2]) {
-                    consensusNucleotide = nucleotide.getKey();
+                    consensusNucleotide = String.valueOf(nucleotide.getKey());
                 }
             }
         }
@@ -25,22 +25,39 @@
 package com.epam.catgenome.util;
 
 import htsjdk.samtools.seekablestream.SeekableStream;
-import org.apache.commons.compress.utils.CountingInputStream;
 
 import java.io.IOException;
 import java.io.InputStream;
 
+/**
+ * Base class for seekable streams over remote files. Data is read through a shared {@link RemoteBlockCache},
+ * so seeking is free and repeated reads of the same region are served from memory.
+ */
 public abstract class FeatureSeekableStream extends SeekableStream {
 
+    private static final int INVERSE_MASK = 0xff;
+
     protected final String cloudUri;
     protected long contentLength;
-    protected CountingInputStream currentDataStream;
-    protected long offset;
+    private final RemoteBlockCache blockCache;
+    private final byte[] singleByte = new byte[1];
+    private long position;
+    private long lastReadEnd = -1;
 
     public FeatureSeekableStream(String cloudUri) {
+        this(cloudUri, RemoteBlockCache.getInstance());
+    }
+
+    public FeatureSeekableStream(String cloudUri, RemoteBlockCache blockCache) {
         this.cloudUri = cloudUri;
+        this.blockCache = blockCache;
     }
 
+    /**
+     * Opens a stream on an inclusive byte range of a remote file
+     */
+    protected abstract InputStream loadRange(long from, long to) throws IOException;
+
     @Override
     public long length() {
         return contentLength;
@@ -48,47 +65,47 @@ public abstract class FeatureSeekableStream extends SeekableStream {
 
     @Override
     public long position() throws IOException {
-        return offset + currentDataStream.getBytesRead();
+        return position;
+    }
+
+    /**
+     * A method that jumps to a specific position in file.
+     *
+     * @param targetPosition target position in file.
+     */
+    @Override
+    public void seek(long targetPosition) throws IOException {
+        this.position = targetPosition;
     }
 
     @Override
     public int read() throws IOException {
-        return currentDataStream.read();
+        return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & INVERSE_MASK;
     }
 
     @Override
     public int read(byte[] buffer, int offset, int length) throws IOException {
-        return currentDataStream.read(buffer, offset, length);
+        final int read = blockCache.read(cloudUri, contentLength, (uri, from, to) -> loadRange(from, to),
+                position, buffer, offset, length, position == lastReadEnd);
+        if (read > 0) {
+            position += read;
+            lastReadEnd = position;
+        }
+        return read;
     }
 
     @Override
     public void close() throws IOException {
-        currentDataStream.close();
+        // nothing to close, data streams are opened per range request
     }
 
     @Override
     public boolean eof() throws IOException {
-        return position() == length();
+        return position >= length();
     }
 
     @Override
     public String getSource() {
         return cloudUri;
     }
-
-    /**
-     * We should count data skipped because we want to count all data loaded.
-     */
-    public static class CountingWithSkipInputStream extends CountingInputStream {
-        public CountingWithSkipInputStream(InputStream in) {
-            super(in);
-        }
-
-        @Override
-        public long skip(long n) throws IOException {
-            long bytesSkipped = in.skip(n);
-            count(bytesSkipped);
-            return bytesSkipped;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import com.epam.catgenome.entity.wig.Wig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary format of feature file histograms. A histogram is stored as a header and three fixed-width columns:
+ * block start indexes, block end indexes and block values, so that it is read from a memory-mapped file
+ * by three bulk array copies.
+ * <p>
+ * Histograms, written before the format was introduced, are plain sequences of (int start, int end, float value)
+ * records without a header, they are still readable.
+ * </p>
+ */
+public final class HistogramFileFormat {
+
+    /**
+     * "NGBH", can't be the start of a legacy histogram, since it exceeds any chromosome length
+     */
+    private static final int MAGIC = 0x4E474248;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int RECORD_SIZE = 2 * Integer.BYTES + Float.BYTES;
+
+    private HistogramFileFormat() {
+        //no-op
+    }
+
+    /**
+     * Writes a histogram to a file, replacing its contents
+     * @param file a file to write to
+     * @param histogram histogram blocks
+     * @throws IOException if the file can't be written
+     */
+    public static void write(final File file, final List<Wig> histogram) throws IOException {
+        final int count = histogram.size();
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + count * RECORD_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(count);
+        for (Wig wig : histogram) {
+            buffer.putInt(wig.getStartIndex());
+        }
+        for (Wig wig : histogram) {
+            buffer.putInt(wig.getEndIndex());
+        }
+        for (Wig wig : histogram) {
+            buffer.putFloat(wig.getValue());
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a histogram from a file of either current or legacy format
+     * @param file a file to read
+     * @return histogram columns
+     * @throws IOException if the file can't be read
+     */
+    public static Histogram read(final File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size == 0) {
+                return new Histogram(new int[0], new int[0], new float[0]);
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return isHeaderValid(buffer, size) ? readColumns(buffer) : readRecords(buffer, (int) (size / RECORD_SIZE));
+        }
+    }
+
+    private static boolean isHeaderValid(final ByteBuffer buffer, final long size) {
+        return size >= HEADER_SIZE && buffer.getInt(0) == MAGIC && buffer.getInt(Integer.BYTES) == VERSION
+                && size == HEADER_SIZE + (long) buffer.getInt(2 * Integer.BYTES) * RECORD_SIZE;
+    }
+
+    private static Histogram readColumns(final ByteBuffer buffer) {
+        final int count = buffer.getInt(2 * Integer.BYTES);
+        final int[] starts = new int[count];
+        final int[] ends = new int[count];
+        final float[] values = new float[count];
+        buffer.position(HEADER_SIZE);
+        buffer.asIntBuffer().get(starts);
+        buffer.position(HEADER_SIZE + count * Integer.BYTES);
+        buffer.asIntBuffer().get(ends);
+        buffer.position(HEADER_SIZE + 2 * count * Integer.BYTES);
+        buffer.asFloatBuffer().get(values);
+        return new Histogram(starts, ends, values);
+    }
+
+    private static Histogram readRecords(final ByteBuffer buffer, final int count) {
+        final int[] starts = new int[count];
+        final int[] ends = new int[count];
+        final float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = buffer.getInt();
+            ends[i] = buffer.getInt();
+            values[i] = buffer.getFloat();
+        }
+        return new Histogram(starts, ends, values);
+    }
+
+    /**
+     * Immutable columns of a histogram, that may be shared between requests
+     */
+    public static final class Histogram {
+        private final int[] starts;
+        private final int[] ends;
+        private final float[] values;
+
+        private Histogram(final int[] starts, final int[] ends, final float[] values) {
+            this.starts = starts;
+            this.ends = ends;
+            this.values = values;
+        }
+
+        public int size() {
+            return starts.length;
+        }
+
+        /**
+         * @return new {@code Wig} blocks of the histogram, that may be modified by a caller
+         */
+        public List<Wig> toWigs() {
+            final List<Wig> histogram = new ArrayList<>(starts.length);
+            for (int i = 0; i < starts.length; i++) {
+                histogram.add(new Wig(starts[i], ends[i], values[i]));
+            }
+            return histogram;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds Lucene documents from a stream of parsed entries on several worker threads, that add them to one
+ * {@link IndexWriter}. Entries are passed to workers in batches through a bounded queue, a producer is
+ * blocked, when the queue is full, so the memory, taken by an import, doesn't depend on the size of
+ * a source. Progress is logged each time a fixed number of documents is added.
+ * @param <T> type of entries
+ */
+public class IndexImportPipeline<T> implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexImportPipeline.class);
+
+    private static final int BATCH_SIZE = 256;
+    private static final long PROGRESS_STEP = 100000;
+
+    private final IndexWriter writer;
+    private final DocumentBuilder<T> documentBuilder;
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private List<T> batch = new ArrayList<>(BATCH_SIZE);
+
+    /**
+     * @param writer receives built documents
+     * @param documentBuilder builds a document from an entry, it is called concurrently
+     * @param name of imported entries for progress messages
+     * @param threadCount number of worker threads
+     */
+    public IndexImportPipeline(final IndexWriter writer, final DocumentBuilder<T> documentBuilder,
+                               final String name, final int threadCount) {
+        this.writer = writer;
+        this.documentBuilder = documentBuilder;
+        this.name = name;
+        final int threads = Math.max(1, threadCount);
+        // when the queue is full, batches are indexed by a producer thread, that stops reading a source
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Adds an entry to be indexed
+     * @param entry an entry
+     * @throws IOException if a previous batch can't be indexed, a runtime exception of a document builder
+     * is rethrown as is
+     */
+    public void add(final T entry) throws IOException {
+        checkFailure();
+        batch.add(entry);
+        if (batch.size() >= BATCH_SIZE) {
+            submit();
+        }
+    }
+
+    /**
+     * Waits until all added entries are indexed
+     * @return number of indexed documents
+     * @throws IOException if any entry can't be indexed
+     */
+    public long finish() throws IOException {
+        if (!batch.isEmpty()) {
+            submit();
+        }
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.debug("Waiting for {} index import", name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        checkFailure();
+        LOGGER.info("Indexed {} {} entries", count.get(), name);
+        return count.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void submit() {
+        final List<T> entries = batch;
+        batch = new ArrayList<>(BATCH_SIZE);
+        executor.execute(() -> index(entries));
+    }
+
+    private void index(final List<T> entries) {
+        if (failure.get() != null) {
+            return;
+        }
+        try {
+            for (T entry : entries) {
+                final Document document = documentBuilder.build(entry);
+                if (document != null) {
+                    writer.addDocument(document);
+                    final long indexed = count.incrementAndGet();
+                    if (indexed % PROGRESS_STEP == 0) {
+                        LOGGER.info("Indexed {} {} entries", indexed, name);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // a failure of a batch is reported to a producer, whether it was indexed by a worker or by the producer
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        final Exception e = failure.get();
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        }
+        if (e != null) {
+            throw (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Builds a Lucene document from an entry
+     * @param <T> type of entries
+     */
+    @FunctionalInterface
+    public interface DocumentBuilder<T> {
+        /**
+         * @return a document or null, if an entry shouldn't be indexed
+         */
+        Document build(T entry) throws IOException;
+    }
+
+    /**
+     * Receives entries, parsed from a source
+     * @param <T> type of entries
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<T> {
+        void accept(T entry) throws IOException;
+    }
+}
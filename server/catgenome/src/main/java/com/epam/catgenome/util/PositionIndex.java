@@ -0,0 +1,292 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * A compact index of feature positions of a single chromosome, that serves next/previous feature navigation.
+ * Features are stored as start-sorted int arrays of start and end indexes, for VCF files each sample
+ * additionally has a bitset of features, where the sample has a non-reference call. Navigation is a binary
+ * search and, for a sample, a bitset scan, so that a feature reader is queried only once, at the found position.
+ * <p>
+ * Each chromosome index is written to its own file as soon as the chromosome is registered, so that only
+ * indexes of chromosomes, that are being registered, are held in memory. Bitsets are kept only for a limited
+ * number of first samples, navigation by other samples should fall back to reading the feature file.
+ * </p>
+ */
+public final class PositionIndex {
+
+    /**
+     * "NGBP"
+     */
+    private static final int MAGIC = 0x4E474250;
+    private static final int VERSION = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int[] starts;
+    private final int[] ends;
+    private final BitSet[] samples;
+
+    private PositionIndex(final int[] starts, final int[] ends, final BitSet[] samples) {
+        this.starts = starts;
+        this.ends = ends;
+        this.samples = samples;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public int getStart(final int ordinal) {
+        return starts[ordinal];
+    }
+
+    public int getEnd(final int ordinal) {
+        return ends[ordinal];
+    }
+
+    /**
+     * Tells if the index can be used to navigate by a sample
+     * @param sampleIndex an index of a VCF sample, may be null to navigate by all features
+     * @return false if the sample has no bitset, since the number of samples exceeded the limit
+     */
+    public boolean hasSample(final Integer sampleIndex) {
+        return sampleIndex == null || sampleIndex < 0 || sampleIndex < samples.length;
+    }
+
+    /**
+     * @return an estimated size of the index in memory, bytes
+     */
+    public long getSize() {
+        long size = (long) starts.length * Integer.BYTES * 2;
+        for (BitSet sample : samples) {
+            size += sample.size() / Byte.SIZE;
+        }
+        return size;
+    }
+
+    /**
+     * Finds the first feature, that starts after a position
+     * @param position a position on a chromosome
+     * @param sampleIndex an index of a VCF sample to consider only its non-reference calls, may be null
+     * @return an ordinal of the feature or -1 if there is no such feature
+     */
+    public int firstAfter(final int position, final Integer sampleIndex) {
+        final int ordinal = lowerBound(position + 1);
+        if (ordinal >= starts.length) {
+            return -1;
+        }
+        final BitSet sample = getSample(sampleIndex);
+        return sample == null ? ordinal : sample.nextSetBit(ordinal);
+    }
+
+    /**
+     * Finds the last feature, that starts before a position
+     * @param position a position on a chromosome
+     * @param sampleIndex an index of a VCF sample to consider only its non-reference calls, may be null
+     * @return an ordinal of the feature or -1 if there is no such feature
+     */
+    public int lastBefore(final int position, final Integer sampleIndex) {
+        return previous(lowerBound(position) - 1, sampleIndex);
+    }
+
+    /**
+     * Steps back from a feature
+     * @param ordinal an ordinal of a feature to start from, inclusive
+     * @param sampleIndex an index of a VCF sample to consider only its non-reference calls, may be null
+     * @return an ordinal of the nearest feature at or before the specified one, -1 if there is no such feature
+     */
+    public int previous(final int ordinal, final Integer sampleIndex) {
+        if (ordinal < 0) {
+            return -1;
+        }
+        final BitSet sample = getSample(sampleIndex);
+        return sample == null ? ordinal : sample.previousSetBit(ordinal);
+    }
+
+    /**
+     * Writes an index of a chromosome, replacing the file contents. The index is written to a temporary file
+     * first, that is moved in place of the file, so that a failed write doesn't leave a corrupted index.
+     * @param file a file to write to
+     * @param index a position index of a chromosome
+     * @throws IOException if the file can't be written
+     */
+    public static void write(final File file, final PositionIndex index) throws IOException {
+        final File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(index.starts.length);
+                out.writeInt(index.samples.length);
+                for (int start : index.starts) {
+                    out.writeInt(start);
+                }
+                for (int end : index.ends) {
+                    out.writeInt(end);
+                }
+                for (BitSet sample : index.samples) {
+                    final long[] words = sample.toLongArray();
+                    out.writeInt(words.length);
+                    for (long word : words) {
+                        out.writeLong(word);
+                    }
+                }
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Reads an index of a chromosome
+     * @param file a file to read from
+     * @return a position index or null if the file doesn't exist
+     * @throws IOException if the file can't be read or has an unknown format
+     */
+    public static PositionIndex read(final File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported position index format: " + file.getAbsolutePath());
+            }
+            final int[] starts = new int[in.readInt()];
+            final BitSet[] samples = new BitSet[in.readInt()];
+            final int[] ends = new int[starts.length];
+            for (int j = 0; j < starts.length; j++) {
+                starts[j] = in.readInt();
+            }
+            for (int j = 0; j < ends.length; j++) {
+                ends[j] = in.readInt();
+            }
+            for (int j = 0; j < samples.length; j++) {
+                final long[] words = new long[in.readInt()];
+                for (int k = 0; k < words.length; k++) {
+                    words[k] = in.readLong();
+                }
+                samples[j] = BitSet.valueOf(words);
+            }
+            return new PositionIndex(starts, ends, samples);
+        }
+    }
+
+    private BitSet getSample(final Integer sampleIndex) {
+        return sampleIndex != null && sampleIndex >= 0 && sampleIndex < samples.length ? samples[sampleIndex] : null;
+    }
+
+    /**
+     * @return an ordinal of the first feature, that starts at or after a position
+     */
+    private int lowerBound(final int position) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (starts[mid] < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects features of a chromosome in the order of their start indexes
+     */
+    public static final class Builder {
+        private final BitSet[] samples;
+        private int[] starts = new int[INITIAL_CAPACITY];
+        private int[] ends = new int[INITIAL_CAPACITY];
+        private int count;
+
+        /**
+         * @param sampleCount number of VCF samples, 0 for files without genotypes
+         */
+        public Builder(final int sampleCount) {
+            this(sampleCount, sampleCount);
+        }
+
+        /**
+         * @param sampleCount number of VCF samples, 0 for files without genotypes
+         * @param maxSamples maximum number of first samples, that have bitsets
+         */
+        public Builder(final int sampleCount, final int maxSamples) {
+            samples = new BitSet[Math.max(0, Math.min(sampleCount, maxSamples))];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = new BitSet();
+            }
+        }
+
+        /**
+         * Adds a feature, features should be added sorted by start index
+         * @param start a start index of a feature
+         * @param end an end index of a feature
+         * @param variantInSample tells if a sample with a specified index has a non-reference call
+         * @return this builder
+         */
+        public Builder add(final int start, final int end, final IntPredicate variantInSample) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            for (int i = 0; i < samples.length; i++) {
+                if (variantInSample.test(i)) {
+                    samples[i].set(count);
+                }
+            }
+            count++;
+            return this;
+        }
+
+        public Builder add(final int start, final int end) {
+            return add(start, end, i -> true);
+        }
+
+        public PositionIndex build() {
+            return new PositionIndex(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count), samples);
+        }
+    }
+}
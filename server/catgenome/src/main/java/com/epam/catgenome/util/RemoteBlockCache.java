@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared cache of remote (S3, Azure) file data. Files are split into blocks, aligned to a fixed block size, so
+ * that all streams opened on the same file reuse loaded data. Adjacent missing blocks are loaded with a single
+ * ranged request, sequential reads additionally load a few blocks ahead. The cache is bounded by the total size
+ * of cached blocks, least recently used blocks are evicted first.
+ */
+public final class RemoteBlockCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RemoteBlockCache.class);
+
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+    public static final int DEFAULT_READ_AHEAD_BLOCKS = 4;
+    private static final long EXPIRATION_HOURS = 1;
+
+    private static RemoteBlockCache instance = new RemoteBlockCache(DEFAULT_BLOCK_SIZE, DEFAULT_MAX_SIZE,
+            DEFAULT_READ_AHEAD_BLOCKS);
+
+    private final int blockSize;
+    private final int readAheadBlocks;
+    private final Cache<BlockKey, byte[]> blocks;
+
+    public RemoteBlockCache(final int blockSize, final long maxSize, final int readAheadBlocks) {
+        Assert.isTrue(blockSize > 0, "Block size should be positive");
+        Assert.isTrue(maxSize >= 0, "Cache size should not be negative");
+        Assert.isTrue(readAheadBlocks >= 0, "Read ahead blocks count should not be negative");
+        this.blockSize = blockSize;
+        this.readAheadBlocks = readAheadBlocks;
+        this.blocks = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((BlockKey key, byte[] block) -> block.length)
+                .expireAfterWrite(EXPIRATION_HOURS, TimeUnit.HOURS)
+                .build();
+    }
+
+    public static synchronized RemoteBlockCache configure(final int blockSize, final long maxSize,
+                                                          final int readAheadBlocks) {
+        instance = new RemoteBlockCache(blockSize, maxSize, readAheadBlocks);
+        return instance;
+    }
+
+    public static synchronized RemoteBlockCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Reads up to {@code length} bytes of a remote file starting from a specified position.
+     *
+     * @param uri remote file URI
+     * @param fileLength remote file size in bytes
+     * @param loader loads inclusive byte ranges of the file
+     * @param position position in file to read from
+     * @param buffer buffer to read data into
+     * @param offset offset in buffer
+     * @param length maximum number of bytes to read
+     * @param sequential true if a read continues the previous one, enables read ahead
+     * @return number of bytes read, or -1 if the position is at the end of the file
+     * @throws IOException if data can't be loaded
+     */
+    public int read(final String uri, final long fileLength, final RangeLoader loader, final long position,
+                    final byte[] buffer, final int offset, final int length, final boolean sequential)
+            throws IOException {
+        if (position >= fileLength) {
+            return -1;
+        }
+        if (length == 0) {
+            return 0;
+        }
+        final long end = Math.min(position + length, fileLength);
+        final long lastBlock = (end - 1) / blockSize;
+        long block = position / blockSize;
+        int read = 0;
+        while (block <= lastBlock) {
+            final byte[] cached = blocks.getIfPresent(new BlockKey(uri, fileLength, block));
+            final List<byte[]> loaded = cached != null
+                    ? Collections.singletonList(cached)
+                    : loadMissingBlocks(uri, fileLength, loader, block, lastBlock, sequential);
+            for (byte[] data : loaded) {
+                if (block > lastBlock) {
+                    break;
+                }
+                final long blockStart = block * blockSize;
+                final int from = (int) Math.max(0, position - blockStart);
+                final int to = (int) Math.min(data.length, end - blockStart);
+                System.arraycopy(data, from, buffer, offset + read, to - from);
+                read += to - from;
+                block++;
+            }
+        }
+        return read;
+    }
+
+    private List<byte[]> loadMissingBlocks(final String uri, final long fileLength, final RangeLoader loader,
+                                           final long firstBlock, final long lastRequestedBlock,
+                                           final boolean sequential) throws IOException {
+        final long lastFileBlock = (fileLength - 1) / blockSize;
+        final long limit = sequential ? Math.min(lastFileBlock, lastRequestedBlock + readAheadBlocks)
+                : lastRequestedBlock;
+        long lastBlock = firstBlock;
+        while (lastBlock < limit && blocks.getIfPresent(new BlockKey(uri, fileLength, lastBlock + 1)) == null) {
+            lastBlock++;
+        }
+
+        final long from = firstBlock * blockSize;
+        final long to = Math.min(fileLength, (lastBlock + 1) * blockSize) - 1;
+        LOGGER.debug("Loading bytes {}-{} of {}", from, to, uri);
+        final byte[] data;
+        try (InputStream stream = loader.load(uri, from, to)) {
+            data = IOUtils.toByteArray(stream);
+        }
+        if (data.length != to - from + 1) {
+            throw new IOException(String.format("Failed to load bytes %d-%d of %s, %d bytes received",
+                    from, to, uri, data.length));
+        }
+
+        final List<byte[]> loaded = new ArrayList<>((int) (lastBlock - firstBlock + 1));
+        for (long block = firstBlock; block <= lastBlock; block++) {
+            final int blockOffset = (int) ((block - firstBlock) * blockSize);
+            final byte[] blockData = new byte[Math.min(blockSize, data.length - blockOffset)];
+            System.arraycopy(data, blockOffset, blockData, 0, blockData.length);
+            blocks.put(new BlockKey(uri, fileLength, block), blockData);
+            loaded.add(blockData);
+        }
+        return loaded;
+    }
+
+    /**
+     * Loads an inclusive byte range of a remote file
+     */
+    @FunctionalInterface
+    public interface RangeLoader {
+        InputStream load(String uri, long from, long to) throws IOException;
+    }
+
+    /**
+     * Block of a file, file length is a part of a key to avoid reading stale blocks of a modified file
+     */
+    private static final class BlockKey {
+        private final String uri;
+        private final long fileLength;
+        private final long index;
+
+        private BlockKey(final String uri, final long fileLength, final long index) {
+            this.uri = uri;
+            this.fileLength = fileLength;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final BlockKey that = (BlockKey) o;
+            return fileLength == that.fileLength && index == that.index && uri.equals(that.uri);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uri, fileLength, index);
+        }
+    }
+}
@@ -0,0 +1,481 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import com.epam.catgenome.entity.vcf.VariationType;
+
+/**
+ * A multi-resolution summary of variations of a single VCF chromosome, that serves zoomed out track requests
+ * without a scan of the file. Variations are counted by {@code VariationType} in bins of
+ * {@link #BASE_BIN_SIZE} bp, each next level joins four bins of the previous one. Each bin also keeps the start
+ * of its first variation and the end of its last variation.
+ * <p>
+ * A file without genotypes has a single summary of all its variations, a file with genotypes has a summary
+ * of non-reference calls for each of its first samples. Chromosomes with structural variations aren't
+ * summarized, since such variations are not collapsed on a track.
+ * </p>
+ */
+public final class VariantDensityPyramid {
+
+    /**
+     * Size of bins of the most detailed level, smaller regions are collapsed by a scan of the file
+     */
+    public static final int BASE_BIN_SIZE = 4096;
+
+    /**
+     * "NGBD"
+     */
+    private static final int MAGIC = 0x4E474244;
+    private static final int VERSION = 2;
+    private static final int LEVEL_SHIFT = 2;
+    private static final int MAX_LEVELS = 10;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final VariationType[] ALL_TYPES = VariationType.values();
+
+    private final boolean structural;
+    private final boolean genotyped;
+    private final VariationType[] types;
+    private final Level[][] summaries;
+
+    private VariantDensityPyramid(final boolean structural, final boolean genotyped, final VariationType[] types,
+                                  final Level[][] summaries) {
+        this.structural = structural;
+        this.genotyped = genotyped;
+        this.types = types;
+        this.summaries = summaries;
+    }
+
+    /**
+     * Groups summarized variations into regions of a specified size, the same way a track collapses them by
+     * a scan of a file: regions are aligned to a grid of the size, that starts at the chromosome start.
+     * A collapsed region starts at the start of its first variation and ends at the end of its last variation.
+     * <p>
+     * Regions are assigned to whole bins by the start of their first variation, so variations of a bin, that
+     * crosses a region boundary, are counted in the region of the first variation of the bin. Reference calls
+     * of a sample don't start regions, unlike a scan of a file.
+     * </p>
+     * @param sampleIndex an index of a VCF sample to count only its non-reference calls, null for a file
+     *                    without genotypes
+     * @param from start of a requested interval
+     * @param to end of a requested interval
+     * @param step size of a region, that is collapsed into a single variation
+     * @return non-empty regions sorted by start, or null if the request can't be served by this summary
+     */
+    public List<Bucket> collapse(final Integer sampleIndex, final int from, final int to, final int step) {
+        final Level[] levels = getSummary(sampleIndex);
+        if (structural || levels == null || step < BASE_BIN_SIZE) {
+            return null;
+        }
+        Level level = levels[0];
+        for (Level candidate : levels) {
+            if (candidate.binSize <= step) {
+                level = candidate;
+            }
+        }
+        final List<Bucket> buckets = new ArrayList<>();
+        Bucket current = null;
+        int regionEnd = 0;
+        for (int i = level.lowerBound((Math.max(from, 1) - 1) / level.binSize);
+             i < level.bins.length && level.starts[i] <= to; i++) {
+            final int start = level.starts[i];
+            if (start > regionEnd) {
+                regionEnd = (start - 1) / step * step + step;
+                current = null;
+            }
+            if (current == null) {
+                current = new Bucket(types, start);
+                buckets.add(current);
+            }
+            current.add(level, i);
+        }
+        return buckets;
+    }
+
+    public boolean isStructural() {
+        return structural;
+    }
+
+    /**
+     * @return approximate size of the summary in memory, bytes
+     */
+    public long getSize() {
+        long size = 0;
+        for (Level[] levels : summaries) {
+            for (Level level : levels) {
+                size += (long) Integer.BYTES * (level.bins.length * 3L + level.counts.length);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Writes a summary of a chromosome, replacing the file contents
+     * @param file a file to write to
+     * @param pyramid a summary to write
+     * @throws IOException if the file can't be written
+     */
+    public static void write(final File file, final VariantDensityPyramid pyramid) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeBoolean(pyramid.structural);
+            out.writeBoolean(pyramid.genotyped);
+            out.writeInt(pyramid.types.length);
+            for (VariationType type : pyramid.types) {
+                out.writeUTF(type.name());
+            }
+            out.writeInt(pyramid.summaries.length);
+            for (Level[] levels : pyramid.summaries) {
+                out.writeInt(levels.length);
+                for (Level level : levels) {
+                    out.writeInt(level.binSize);
+                    out.writeInt(level.bins.length);
+                    writeInts(out, level.bins);
+                    writeInts(out, level.starts);
+                    writeInts(out, level.ends);
+                    writeInts(out, level.counts);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a summary of a chromosome
+     * @param file a file to read from
+     * @return a summary of a chromosome
+     * @throws IOException if the file can't be read or has an unknown format
+     */
+    public static VariantDensityPyramid read(final File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported variant density format: " + file.getAbsolutePath());
+            }
+            final boolean structural = in.readBoolean();
+            final boolean genotyped = in.readBoolean();
+            final VariationType[] types = new VariationType[in.readInt()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = VariationType.valueOf(in.readUTF());
+            }
+            final Level[][] summaries = new Level[in.readInt()][];
+            for (int i = 0; i < summaries.length; i++) {
+                summaries[i] = new Level[in.readInt()];
+                for (int j = 0; j < summaries[i].length; j++) {
+                    final int binSize = in.readInt();
+                    final int size = in.readInt();
+                    summaries[i][j] = new Level(binSize, readInts(in, size), readInts(in, size), readInts(in, size),
+                            readInts(in, size * types.length));
+                }
+            }
+            return new VariantDensityPyramid(structural, genotyped, types, summaries);
+        }
+    }
+
+    private Level[] getSummary(final Integer sampleIndex) {
+        if (!genotyped) {
+            return sampleIndex == null && summaries.length > 0 ? summaries[0] : null;
+        }
+        return sampleIndex != null && sampleIndex >= 0 && sampleIndex < summaries.length
+                ? summaries[sampleIndex] : null;
+    }
+
+    private static void writeInts(final DataOutputStream out, final int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(final DataInputStream in, final int size) throws IOException {
+        final int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    /**
+     * Variations of a region of a track, that are collapsed into a single variation
+     */
+    public static final class Bucket {
+        private final VariationType[] types;
+        private final int[] typeCounts;
+        private final int start;
+        private int end;
+        private int count;
+
+        private Bucket(final VariationType[] types, final int start) {
+            this.types = types;
+            this.typeCounts = new int[types.length];
+            this.start = start;
+        }
+
+        private void add(final Level level, final int bin) {
+            end = level.ends[bin];
+            for (int i = 0; i < types.length; i++) {
+                final int typeCount = level.counts[bin * types.length + i];
+                typeCounts[i] += typeCount;
+                count += typeCount;
+            }
+        }
+
+        /**
+         * @return start of the first variation of the region
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @return end of the last variation of the region
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getCount(final VariationType type) {
+            for (int i = 0; i < types.length; i++) {
+                if (types[i] == type) {
+                    return typeCounts[i];
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Non-empty bins of a single resolution, counts are stored by bins, then by types
+     */
+    private static final class Level {
+        private final int binSize;
+        private final int[] bins;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] counts;
+
+        private Level(final int binSize, final int[] bins, final int[] starts, final int[] ends,
+                      final int[] counts) {
+            this.binSize = binSize;
+            this.bins = bins;
+            this.starts = starts;
+            this.ends = ends;
+            this.counts = counts;
+        }
+
+        /**
+         * @return an ordinal of the first non-empty bin with an index not less than a specified one
+         */
+        private int lowerBound(final int bin) {
+            int low = 0;
+            int high = bins.length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (bins[mid] < bin) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the next, four times coarser level
+         */
+        private Level join(final int typeCount) {
+            final LevelBuilder builder = new LevelBuilder(typeCount);
+            for (int i = 0; i < bins.length; i++) {
+                builder.add(bins[i] >> LEVEL_SHIFT, starts[i], ends[i], counts, i * typeCount);
+            }
+            return builder.build(binSize << LEVEL_SHIFT);
+        }
+    }
+
+    /**
+     * Accumulates bins of a level in the order of their indexes
+     */
+    private static final class LevelBuilder {
+        private final int typeCount;
+        private int[] bins = new int[INITIAL_CAPACITY];
+        private int[] starts = new int[INITIAL_CAPACITY];
+        private int[] ends = new int[INITIAL_CAPACITY];
+        private int[] counts;
+        private int size;
+
+        private LevelBuilder(final int typeCount) {
+            this.typeCount = typeCount;
+            counts = new int[INITIAL_CAPACITY * typeCount];
+        }
+
+        private void add(final int bin, final int start, final int end, final int type) {
+            ensureBin(bin, start);
+            ends[size - 1] = end;
+            counts[(size - 1) * typeCount + type]++;
+        }
+
+        private void add(final int bin, final int start, final int end, final int[] typeCounts, final int offset) {
+            ensureBin(bin, start);
+            ends[size - 1] = end;
+            for (int i = 0; i < typeCount; i++) {
+                counts[(size - 1) * typeCount + i] += typeCounts[offset + i];
+            }
+        }
+
+        private void ensureBin(final int bin, final int start) {
+            if (size > 0 && bins[size - 1] == bin) {
+                return;
+            }
+            if (size == bins.length) {
+                bins = Arrays.copyOf(bins, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                counts = Arrays.copyOf(counts, size * 2 * typeCount);
+            }
+            bins[size] = bin;
+            starts[size] = start;
+            ends[size] = start;
+            size++;
+        }
+
+        private Level build(final int binSize) {
+            return new Level(binSize, Arrays.copyOf(bins, size), Arrays.copyOf(starts, size),
+                    Arrays.copyOf(ends, size), Arrays.copyOf(counts, size * typeCount));
+        }
+
+        /**
+         * @return the most detailed level, that has counts only of specified types
+         */
+        private Level build(final int binSize, final int[] typeSlots, final int slotCount) {
+            final int[] slotCounts = new int[size * slotCount];
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < typeCount; j++) {
+                    if (typeSlots[j] >= 0) {
+                        slotCounts[i * slotCount + typeSlots[j]] = counts[i * typeCount + j];
+                    }
+                }
+            }
+            return new Level(binSize, Arrays.copyOf(bins, size), Arrays.copyOf(starts, size),
+                    Arrays.copyOf(ends, size), slotCounts);
+        }
+    }
+
+    /**
+     * Collects variations of a chromosome in the order of their start indexes
+     */
+    public static final class Builder {
+        private final boolean genotyped;
+        private final LevelBuilder[] summaries;
+        private final boolean[] seenTypes = new boolean[ALL_TYPES.length];
+        private boolean structural;
+
+        /**
+         * @param sampleCount number of VCF samples, 0 for files without genotypes
+         * @param maxSamples maximum number of samples to summarize, summaries of other samples are omitted
+         */
+        public Builder(final int sampleCount, final int maxSamples) {
+            genotyped = sampleCount > 0;
+            summaries = new LevelBuilder[genotyped ? Math.max(0, Math.min(sampleCount, maxSamples)) : 1];
+            for (int i = 0; i < summaries.length; i++) {
+                summaries[i] = new LevelBuilder(ALL_TYPES.length);
+            }
+        }
+
+        /**
+         * Adds a variation, variations should be added sorted by start index
+         * @param start a start index of a variation
+         * @param end an end index of a variation
+         * @param type a type of a variation
+         * @param variantInSample tells if a sample with a specified index has a non-reference call
+         * @return this builder
+         */
+        public Builder add(final int start, final int end, final VariationType type,
+                           final IntPredicate variantInSample) {
+            if (structural) {
+                return this;
+            }
+            final int bin = (Math.max(start, 1) - 1) / BASE_BIN_SIZE;
+            boolean added = false;
+            for (int i = 0; i < summaries.length; i++) {
+                if (!genotyped || variantInSample.test(i)) {
+                    summaries[i].add(bin, start, end, type.ordinal());
+                    added = true;
+                }
+            }
+            seenTypes[type.ordinal()] |= added;
+            return this;
+        }
+
+        /**
+         * Marks a chromosome as containing structural variations, such chromosome isn't summarized
+         * @return this builder
+         */
+        public Builder addStructural() {
+            structural = true;
+            return this;
+        }
+
+        public VariantDensityPyramid build() {
+            if (structural) {
+                return new VariantDensityPyramid(true, genotyped, new VariationType[0], new Level[0][]);
+            }
+            final int[] typeSlots = new int[ALL_TYPES.length];
+            final List<VariationType> types = new ArrayList<>();
+            for (int i = 0; i < ALL_TYPES.length; i++) {
+                typeSlots[i] = seenTypes[i] ? types.size() : -1;
+                if (seenTypes[i]) {
+                    types.add(ALL_TYPES[i]);
+                }
+            }
+            final Level[][] levels = new Level[summaries.length][];
+            for (int i = 0; i < summaries.length; i++) {
+                final List<Level> sampleLevels = new ArrayList<>();
+                Level level = summaries[i].build(BASE_BIN_SIZE, typeSlots, types.size());
+                sampleLevels.add(level);
+                while (level.bins.length > 1 && sampleLevels.size() < MAX_LEVELS) {
+                    level = level.join(types.size());
+                    sampleLevels.add(level);
+                }
+                levels[i] = sampleLevels.toArray(new Level[sampleLevels.size()]);
+            }
+            return new VariantDensityPyramid(false, genotyped, types.toArray(new VariationType[types.size()]),
+                    levels);
+        }
+    }
+}
@@ -24,48 +24,23 @@
 
 package com.epam.catgenome.util.aws;
 
-import java.io.IOException;
 import com.epam.catgenome.util.FeatureSeekableStream;
-import lombok.extern.slf4j.Slf4j;
-import htsjdk.samtools.util.RuntimeIOException;
+
+import java.io.InputStream;
 
 /**
- * Wrapper class for S3ObjectChunkInputStream that supports @<code>seek()</code> method.
- * If position skip requested by seek() is small, just skips bytes. Otherwise, recreates stream.
+ * Seekable stream over an S3 object, data is loaded with ranged GET requests
+ * through the shared {@link com.epam.catgenome.util.RemoteBlockCache}.
  */
-@Slf4j
 public class S3SeekableStream extends FeatureSeekableStream {
 
     S3SeekableStream(String source) {
         super(source);
         contentLength = S3Client.getInstance().getFileSize(cloudUri);
-        recreateInnerStream();
     }
 
-    private void recreateInnerStream() {
-        if (null != currentDataStream) {
-            try {
-                currentDataStream.close();
-            } catch (IOException e) {
-                throw new RuntimeIOException(e.getMessage() + "failed to close the data stream", e);
-            }
-        }
-
-        this.currentDataStream = new CountingWithSkipInputStream(
-                new S3ObjectChunkInputStream(cloudUri, offset, length() - 1));
-        log.debug("A new data stream was launched on offset = {}", offset);
-    }
-
-    /**
-     * A method that jumps to a specific position in file.
-     *
-     * @param targetPosition target position in file.
-     */
     @Override
-    public void seek(long targetPosition) throws IOException {
-        log.debug("Seeking from {} to {}", position(), targetPosition);
-        this.offset = targetPosition;
-        recreateInnerStream();
+    protected InputStream loadRange(long from, long to) {
+        return S3Client.getInstance().loadFromTo(cloudUri, from, to);
     }
 }
-
@@ -25,11 +25,13 @@
 package com.epam.catgenome.util.azure;
 
 import com.epam.catgenome.util.FeatureSeekableStream;
-import htsjdk.samtools.util.RuntimeIOException;
-import lombok.extern.slf4j.Slf4j;
-import java.io.IOException;
 
-@Slf4j
+import java.io.InputStream;
+
+/**
+ * Seekable stream over an Azure blob, data is loaded with ranged requests
+ * through the shared {@link com.epam.catgenome.util.RemoteBlockCache}.
+ */
 public class AzureBlobSeekableStream extends FeatureSeekableStream {
 
     private final AzureBlobClient client;
@@ -39,32 +41,10 @@ public class AzureBlobSeekableStream extends FeatureSeekableStream {
         super(azureBlobUri);
         this.client = client;
         this.contentLength = client.getFileSize(azureBlobUri);
-        recreateInnerStream();
-    }
-
-    private void recreateInnerStream() {
-        if (null != currentDataStream) {
-            try {
-                currentDataStream.close();
-            } catch (IOException e) {
-                throw new RuntimeIOException(e.getMessage() + "failed to close the data stream", e);
-            }
-        }
-
-        this.currentDataStream = new CountingWithSkipInputStream(
-                new AzureBlobInputStream(cloudUri, offset, length() - 1, client));
-        log.debug("A new data stream was launched on offset = {}", offset);
     }
 
-    /**
-     * A method that jumps to a specific position in file.
-     *
-     * @param targetPosition target position in file.
-     */
     @Override
-    public void seek(long targetPosition) throws IOException {
-        log.debug("Seeking from {} to {}", position(), targetPosition);
-        this.offset = targetPosition;
-        recreateInnerStream();
+    protected InputStream loadRange(long from, long to) {
+        return client.loadFromTo(cloudUri, from, to);
     }
 }
@@ -106,16 +106,21 @@ public class TabixFeatureReader<T extends Feature, S> extends AbstractFeatureRea
                         (TabixReader.TabixIndexCache) indexCache.getFromCache(indexFilePath);
                 header = tabixIndexCache.getHeader();
 
-                if (header == null) {
+                if (header != null && codec instanceof RequestScopedCodec) {
+                    ((RequestScopedCodec) codec).initHeader(header);
+                } else if (header != null && tabixIndexCache.getCodec() != null) {
+                    codec = tabixIndexCache.getCodec();
+                } else {
                     InputStream is = IOHelper.openStream(path);
                     source = codec.makeSourceFromStream(new PositionalBufferedStream(
                             new BlockCompressedInputStream(is)));
                     header = codec.readHeader(source);
                     tabixIndexCache.setHeader(header);
-                    tabixIndexCache.setCodec(codec);
+                    if (!(codec instanceof RequestScopedCodec)) {
+                        tabixIndexCache.setCodec(codec);
+                    }
                     indexCache.putInCache(tabixIndexCache, indexFilePath);
                 }
-                codec = tabixIndexCache.getCodec();
             } else {
                 source = codec.makeSourceFromStream(new PositionalBufferedStream(
                         new BlockCompressedInputStream(IOHelper.openStream(path))));
@@ -271,21 +271,28 @@ public class TribbleIndexedFeatureReader<T extends Feature, S> extends AbstractF
             if (indexCache != null && indexCache.contains(indexFilePath)) {
                 tribbleIndexCache = (TribbleIndexCache) indexCache.getFromCache(indexFilePath);
                 header = tribbleIndexCache.header;
-                if (header == null) {
+                if (header != null && codec instanceof RequestScopedCodec) {
+                    ((RequestScopedCodec) codec).initHeader(header);
+                } else if (header != null && tribbleIndexCache.codec != null) {
+                    codec = tribbleIndexCache.codec;
+                } else {
                     source = codec.makeSourceFromStream(pbs);
                     header = codec.readHeader(source);
                     tribbleIndexCache.header = header;
-                    tribbleIndexCache.codec = codec;
+                    if (!(codec instanceof RequestScopedCodec)) {
+                        tribbleIndexCache.codec = codec;
+                    }
                     indexCache.putInCache(tribbleIndexCache, indexFilePath);
                 }
-                codec = tribbleIndexCache.codec;
             }  else {
                 source = codec.makeSourceFromStream(pbs);
                 header = codec.readHeader(source);
                 if (indexCache != null) {
                     tribbleIndexCache = new TribbleIndexCache();
                     tribbleIndexCache.header = header;
-                    tribbleIndexCache.codec = codec;
+                    if (!(codec instanceof RequestScopedCodec)) {
+                        tribbleIndexCache.codec = codec;
+                    }
                     indexCache.putInCache(tribbleIndexCache, indexFilePath);
                 }
             }
@@ -24,21 +24,38 @@
 
 package com.epam.catgenome.util.sort;
 
+import com.epam.catgenome.constant.MessagesConstants;
+import com.epam.catgenome.exception.SortingException;
 import com.epam.catgenome.util.NgbFileUtils;
 import htsjdk.samtools.util.BlockCompressedInputStream;
 import htsjdk.samtools.util.BlockCompressedOutputStream;
-import htsjdk.samtools.util.CloseableIterator;
-import htsjdk.samtools.util.SortingCollection;
+import htsjdk.tribble.SimpleFeature;
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.tabix.TabixFormat;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
 import htsjdk.tribble.readers.AsciiLineReader;
-
-import java.io.*;
+import htsjdk.tribble.readers.PositionalBufferedStream;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Comparator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static com.epam.catgenome.component.MessageHelper.getMessage;
+
 public abstract class AbstractFeatureSorter {
 
-    private static final int ESTIMATED_RECORD_SIZE = 150;
+    private static final long MEGABYTE = 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_CHUNK_SIZE = 1 << 30;
     private static final String UTF_8 = "UTF-8";
 
     private File inputFile;
@@ -54,8 +71,6 @@ public abstract class AbstractFeatureSorter {
      */
     private File tmpDir;
 
-    protected Comparator<SortableRecord> comparator = getDefaultComparator();
-
     public AbstractFeatureSorter(File inputFile, File outputFile, File tmpDir) {
         this.inputFile = inputFile;
         this.outputFile = outputFile;
@@ -68,42 +83,72 @@ public abstract class AbstractFeatureSorter {
      *
      */
     public void run(int maxMemory) throws IOException {
+        run(maxMemory, Runtime.getRuntime().availableProcessors(), false);
+    }
+
+    /**
+     * Sorts the input file. Chunks of the input are parsed and sorted on multiple threads, sorted runs are
+     * merged into the output in a single pass, that also builds a tabix index, if it is requested
+     *
+     * @param maxMemory - in megabytes, memory for chunks, that are sorted at the same time
+     * @param threadCount - number of threads, sorting chunks of the input
+     * @param createIndex - if true, a tabix index is written next to the output file, the output must be
+     *                    compressed
+     * @throws IOException
+     */
+    public void run(int maxMemory, int threadCount, boolean createIndex) throws IOException {
+        final boolean compressed = NgbFileUtils.isGzCompressed(outputFile.getName());
+        if (createIndex && !compressed) {
+            throw new SortingException(getMessage(MessagesConstants.ERROR_SORT_INDEX_UNCOMPRESSED,
+                    outputFile.getName()));
+        }
+        final int threads = Math.max(1, threadCount);
+        final TabixFormat format = getTabixFormat();
+        final TabixIndexCreator indexCreator = createIndex ? new TabixIndexCreator(format) : null;
+        // tabix index expects 1-based features
+        final int startShift = (format.flags & TabixFormat.ZERO_BASED) != 0 ? 1 : 0;
+        final byte[] newLine = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+        final Index index;
         try (
-                PrintWriter writer = NgbFileUtils.isGzCompressed(outputFile.getName()) ?
-                        new PrintWriter(new OutputStreamWriter(new BlockCompressedOutputStream(outputFile), UTF_8)) :
-                        new PrintWriter(outputFile, UTF_8);
-                AsciiLineReader reader = NgbFileUtils.isGzCompressed(inputFile.getName()) ?
-                        new AsciiLineReader(new BlockCompressedInputStream(inputFile)) :
-                        new AsciiLineReader(new FileInputStream(inputFile))
+                OutputStream output = compressed ? new BlockCompressedOutputStream(outputFile) :
+                        new BufferedOutputStream(new FileOutputStream(outputFile));
+                PositionalBufferedStream input = new PositionalBufferedStream(
+                        NgbFileUtils.isGzCompressed(inputFile.getName()) ?
+                                new BlockCompressedInputStream(inputFile) :
+                                new FileInputStream(inputFile))
         ) {
-
-            SortableRecordCodec codec = new SortableRecordCodec();
-
-            SortingCollection cltn = SortingCollection.newInstance(
-                    SortableRecord.class, codec, comparator, maxMemory * 1024 * 1024 / ESTIMATED_RECORD_SIZE, tmpDir);
-
-            Parser parser = getParser();
-
-            String firstDataRow = writeHeader(reader, writer);
-            if (firstDataRow != null && !firstDataRow.isEmpty()) {
-                cltn.add(parser.createRecord(firstDataRow));
-            }
-
-            SortableRecord next;
-            while ((next = parser.readNextRecord(reader)) != null) {
-                cltn.add(next);
-            }
-
-            CloseableIterator<SortableRecord> iter = cltn.iterator();
-            while (iter.hasNext()) {
-                SortableRecord al = iter.next();
-                writer.println(al.getText());
-
-            }
-            iter.close();
+            final BlockCompressedOutputStream indexedOutput = createIndex ? (BlockCompressedOutputStream) output
+                    : null;
+            final PrintWriter writer = new PrintWriter(new OutputStreamWriter(output, UTF_8));
+            final String firstDataRow = writeHeader(new AsciiLineReader(input), writer);
+            writer.flush();
+
+            final ParallelFeatureSorter sorter = new ParallelFeatureSorter(getParser(), tmpDir, threads,
+                    getChunkSize(maxMemory, threads));
+            sorter.sort(input, firstDataRow, (chromosome, start, end, line, offset, length) -> {
+                if (indexCreator != null && start != Integer.MAX_VALUE) {
+                    indexCreator.addFeature(new SimpleFeature(chromosome, start + startShift,
+                            Math.max(start + startShift, end)), indexedOutput.getFilePointer());
+                }
+                output.write(line, offset, length);
+                output.write(newLine);
+            });
+            index = indexCreator != null ? indexCreator.finalizeIndex(indexedOutput.getFilePointer()) : null;
+        }
+        if (index != null) {
+            index.writeBasedOnFeatureFile(outputFile);
         }
     }
 
+    /**
+     * Chunks of all threads and the chunk, that is being read, share the memory, half of it is reserved for
+     * keys of lines and buffers
+     */
+    private static int getChunkSize(int maxMemory, int threadCount) {
+        final long size = (long) maxMemory * MEGABYTE / (2L * (threadCount + 1));
+        return (int) Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size));
+    }
+
     public static Comparator<SortableRecord> getDefaultComparator() {
         return (o1, o2) -> {
             int nameComp = o1.getChromosome().compareTo(o2.getChromosome());
@@ -117,6 +162,11 @@ public abstract class AbstractFeatureSorter {
 
     abstract Parser getParser() throws IOException;
 
+    /**
+     * @return a format of a tabix index of the sorted file
+     */
+    abstract TabixFormat getTabixFormat();
+
     /**
      * Write the header to the output file. Since many readers can't help but read
      * one feature line, that line should be returned and will then be treated as a record
@@ -24,6 +24,7 @@
 
 package com.epam.catgenome.util.sort;
 
+import htsjdk.tribble.index.tabix.TabixFormat;
 import htsjdk.tribble.readers.AsciiLineReader;
 
 import java.io.File;
@@ -34,6 +35,7 @@ public class BedSorter extends AbstractFeatureSorter {
 
     private static final int CHR_COL = 0;
     private static final int START_COL = 1;
+    private static final int END_COL = 2;
 
 
     public BedSorter(File inputFile, File outputFile, File tmpDir) {
@@ -42,7 +44,12 @@ public class BedSorter extends AbstractFeatureSorter {
 
     @Override
     Parser getParser() {
-        return new Parser(CHR_COL, START_COL);
+        return new Parser(CHR_COL, START_COL, END_COL);
+    }
+
+    @Override
+    TabixFormat getTabixFormat() {
+        return TabixFormat.BED;
     }
 
     @Override
@@ -0,0 +1,518 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.epam.catgenome.exception.SortingException;
+
+/**
+ * Sorts data lines of a feature file by chromosome name and start position on multiple threads. The input is
+ * cut into chunks of raw bytes, each chunk is parsed into compact keys, sorted and spilled to a run file on a
+ * worker thread, while the next chunk is read. Runs are merged into the output in a single pass. The order is
+ * the same, as {@link AbstractFeatureSorter#getDefaultComparator()} defines, lines with equal keys keep their
+ * input order.
+ */
+final class ParallelFeatureSorter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelFeatureSorter.class);
+
+    /**
+     * Runs are merged into intermediate runs, if there are more of them, to limit open files
+     */
+    private static final int MAX_OPEN_RUNS = 256;
+    private static final int INITIAL_CHUNK_LINES = 1024;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final int INT_BITS = 32;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+    private static final String RUN_PREFIX = "sort";
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    // fields of a line in a chunk
+    private static final int OFFSET = 0;
+    private static final int LENGTH = 1;
+    private static final int CHROMOSOME = 2;
+    private static final int START = 3;
+    private static final int END = 4;
+    private static final int FIELDS = 5;
+
+    private final Parser parser;
+    private final File tmpDir;
+    private final int threadCount;
+    private final int chunkSize;
+
+    private final Map<String, Integer> chromosomeIds = new HashMap<>();
+    private final List<String> chromosomeNames = new ArrayList<>();
+
+    /**
+     * @param parser parses sort keys of lines
+     * @param tmpDir a directory for run files
+     * @param threadCount number of threads, that parse and sort chunks
+     * @param chunkSize size of a chunk in bytes, a chunk may be larger, if it has a single longer line
+     */
+    ParallelFeatureSorter(final Parser parser, final File tmpDir, final int threadCount, final int chunkSize) {
+        this.parser = parser;
+        this.tmpDir = tmpDir;
+        this.threadCount = Math.max(1, threadCount);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Sorts lines of an input and passes them to a writer
+     * @param input a stream of lines, positioned after a header of a file
+     * @param firstLine a data line, that was read from the input with a header, may be null
+     * @param writer receives sorted lines
+     * @throws IOException if the input can't be read or run files can't be written
+     */
+    void sort(final InputStream input, final String firstLine, final LineWriter writer) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        final List<Run> runs = new ArrayList<>();
+        try {
+            split(input, firstLine, executor, runs);
+            final int[] ranks = rankChromosomes(chromosomeNames);
+            while (runs.size() > MAX_OPEN_RUNS) {
+                final List<Run> merged = new ArrayList<>();
+                for (int from = 0; from < runs.size(); from += MAX_OPEN_RUNS) {
+                    merged.add(mergeToRun(runs.subList(from, Math.min(runs.size(), from + MAX_OPEN_RUNS)), ranks));
+                }
+                runs.clear();
+                runs.addAll(merged);
+            }
+            LOGGER.debug("Merging {} sorted runs", runs.size());
+            merge(runs, ranks, line -> writer.write(chromosomeNames.get(line.chromosome), line.start, line.end,
+                    line.text, 0, line.length));
+        } finally {
+            executor.shutdownNow();
+            runs.forEach(run -> run.file.delete());
+        }
+    }
+
+    /**
+     * Reads chunks of an input and sorts them on the executor, the number of chunks in memory is limited by
+     * the number of threads. Runs are added in the order of the input
+     */
+    private void split(final InputStream input, final String firstLine, final ExecutorService executor,
+                       final List<Run> runs) throws IOException {
+        final Deque<Future<Run>> pending = new ArrayDeque<>();
+        try {
+            byte[] buffer = new byte[chunkSize];
+            int filled = 0;
+            if (firstLine != null) {
+                final byte[] line = (firstLine + (char) NEW_LINE).getBytes(StandardCharsets.ISO_8859_1);
+                buffer = line.length > buffer.length ? line : buffer;
+                System.arraycopy(line, 0, buffer, 0, line.length);
+                filled = line.length;
+            }
+            while (true) {
+                filled = fill(input, buffer, filled);
+                final boolean done = filled < buffer.length;
+                final int chunkEnd = done ? filled : lastLineEnd(buffer, filled);
+                if (chunkEnd == 0) {
+                    if (done) {
+                        break;
+                    }
+                    // a line is longer than a chunk
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    continue;
+                }
+                final byte[] chunk = buffer;
+                pending.add(executor.submit(() -> sortChunk(chunk, chunkEnd)));
+                if (pending.size() >= threadCount) {
+                    addRun(runs, pending.poll());
+                }
+                if (done) {
+                    break;
+                }
+                buffer = new byte[Math.max(chunkSize, filled - chunkEnd)];
+                System.arraycopy(chunk, chunkEnd, buffer, 0, filled - chunkEnd);
+                filled -= chunkEnd;
+            }
+            while (!pending.isEmpty()) {
+                addRun(runs, pending.poll());
+            }
+        } finally {
+            // runs of a failed sorting are collected to be deleted
+            for (Future<Run> future : pending) {
+                future.cancel(false);
+                addCompletedRun(runs, future);
+            }
+        }
+    }
+
+    private static int fill(final InputStream input, final byte[] buffer, final int filled) throws IOException {
+        int position = filled;
+        while (position < buffer.length) {
+            final int read = input.read(buffer, position, buffer.length - position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        return position;
+    }
+
+    private static int lastLineEnd(final byte[] buffer, final int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == NEW_LINE) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static void addRun(final List<Run> runs, final Future<Run> future) throws IOException {
+        try {
+            final Run run = future.get();
+            if (run != null) {
+                runs.add(run);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SortingException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof SortingException) {
+                throw (SortingException) e.getCause();
+            }
+            throw new SortingException(e.getCause());
+        }
+    }
+
+    private static void addCompletedRun(final List<Run> runs, final Future<Run> future) {
+        try {
+            final Run run = future.get();
+            if (run != null) {
+                runs.add(run);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            LOGGER.debug("Chunk wasn't sorted: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Parses lines of a chunk, sorts them and writes them to a run file
+     * @return a run or null, if a chunk doesn't have data lines
+     */
+    private Run sortChunk(final byte[] chunk, final int length) throws IOException {
+        final SortKey key = new SortKey();
+        int[] lines = new int[INITIAL_CHUNK_LINES * FIELDS];
+        int count = 0;
+        int chromosomeFrom = 0;
+        int chromosomeTo = 0;
+        int chromosome = -1;
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && chunk[lineEnd] != NEW_LINE) {
+                lineEnd++;
+            }
+            final int next = lineEnd + 1;
+            if (lineEnd > lineStart && chunk[lineEnd - 1] == CARRIAGE_RETURN) {
+                lineEnd--;
+            }
+            if (parser.parseKey(chunk, lineStart, lineEnd, key)) {
+                // lines are usually grouped by chromosomes, so names are looked up only when they change
+                if (chromosome < 0 || !sameBytes(chunk, chromosomeFrom, chromosomeTo,
+                        key.getChromosomeStart(), key.getChromosomeEnd())) {
+                    chromosomeFrom = key.getChromosomeStart();
+                    chromosomeTo = key.getChromosomeEnd();
+                    chromosome = chromosomeId(new String(chunk, chromosomeFrom, chromosomeTo - chromosomeFrom,
+                            StandardCharsets.ISO_8859_1));
+                }
+                if ((count + 1) * FIELDS > lines.length) {
+                    lines = Arrays.copyOf(lines, lines.length * 2);
+                }
+                final int field = count * FIELDS;
+                lines[field + OFFSET] = lineStart;
+                lines[field + LENGTH] = lineEnd - lineStart;
+                lines[field + CHROMOSOME] = chromosome;
+                lines[field + START] = key.getStart();
+                lines[field + END] = key.getEnd();
+                count++;
+            }
+            lineStart = next;
+        }
+        if (count == 0) {
+            return null;
+        }
+
+        final long[] order = order(lines, count);
+        final Run run = new Run(File.createTempFile(RUN_PREFIX, null, tmpDir), count);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(run.file), IO_BUFFER_SIZE))) {
+            for (long position : order) {
+                final int field = (int) (position & INDEX_MASK) * FIELDS;
+                output.writeInt(lines[field + CHROMOSOME]);
+                output.writeInt(lines[field + START]);
+                output.writeInt(lines[field + END]);
+                output.writeInt(lines[field + LENGTH]);
+                output.write(chunk, lines[field + OFFSET], lines[field + LENGTH]);
+            }
+        }
+        return run;
+    }
+
+    private static boolean sameBytes(final byte[] chunk, final int from, final int to, final int otherFrom,
+                                     final int otherTo) {
+        if (to - from != otherTo - otherFrom) {
+            return false;
+        }
+        for (int i = 0; i < to - from; i++) {
+            if (chunk[from + i] != chunk[otherFrom + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Orders lines of a chunk: they are grouped by chromosomes with a counting sort, then each group is
+     * sorted by keys, packing a start and a line number into a long
+     * @return line numbers in the sorted order, in lower bits of longs
+     */
+    private long[] order(final int[] lines, final int count) {
+        int maxChromosome = 0;
+        for (int i = 0; i < count; i++) {
+            maxChromosome = Math.max(maxChromosome, lines[i * FIELDS + CHROMOSOME]);
+        }
+        final boolean[] present = new boolean[maxChromosome + 1];
+        for (int i = 0; i < count; i++) {
+            present[lines[i * FIELDS + CHROMOSOME]] = true;
+        }
+        final List<String> names = new ArrayList<>();
+        final List<Integer> ids = new ArrayList<>();
+        synchronized (chromosomeIds) {
+            for (int id = 0; id < present.length; id++) {
+                if (present[id]) {
+                    names.add(chromosomeNames.get(id));
+                    ids.add(id);
+                }
+            }
+        }
+        final int[] nameRanks = rankChromosomes(names);
+        final int[] ranks = new int[present.length];
+        for (int i = 0; i < ids.size(); i++) {
+            ranks[ids.get(i)] = nameRanks[i];
+        }
+
+        final int[] bounds = new int[names.size() + 1];
+        for (int i = 0; i < count; i++) {
+            bounds[ranks[lines[i * FIELDS + CHROMOSOME]] + 1]++;
+        }
+        for (int i = 1; i < bounds.length; i++) {
+            bounds[i] += bounds[i - 1];
+        }
+        final int[] positions = Arrays.copyOf(bounds, names.size());
+        final long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            final int field = i * FIELDS;
+            order[positions[ranks[lines[field + CHROMOSOME]]]++] = ((long) lines[field + START] << INT_BITS) | i;
+        }
+        for (int i = 0; i < names.size(); i++) {
+            Arrays.sort(order, bounds[i], bounds[i + 1]);
+        }
+        return order;
+    }
+
+    private int chromosomeId(final String name) {
+        synchronized (chromosomeIds) {
+            return chromosomeIds.computeIfAbsent(name, n -> {
+                chromosomeNames.add(n);
+                return chromosomeNames.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * @return ranks of chromosome names in the natural order of strings
+     */
+    private static int[] rankChromosomes(final List<String> names) {
+        final Integer[] sorted = new Integer[names.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, Comparator.comparing(names::get));
+        final int[] ranks = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            ranks[sorted[i]] = i;
+        }
+        return ranks;
+    }
+
+    private Run mergeToRun(final List<Run> sources, final int[] ranks) throws IOException {
+        final Run run = new Run(File.createTempFile(RUN_PREFIX, null, tmpDir),
+                sources.stream().mapToLong(source -> source.count).sum());
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(run.file), IO_BUFFER_SIZE))) {
+            merge(sources, ranks, line -> {
+                output.writeInt(line.chromosome);
+                output.writeInt(line.start);
+                output.writeInt(line.end);
+                output.writeInt(line.length);
+                output.write(line.text, 0, line.length);
+            });
+        }
+        return run;
+    }
+
+    /**
+     * Merges runs, lines with equal keys are taken from the runs in their order. Merged runs are deleted
+     */
+    private static void merge(final List<Run> sources, final int[] ranks, final RunConsumer consumer)
+            throws IOException {
+        final PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparingInt((RunReader reader) -> ranks[reader.chromosome])
+                        .thenComparingInt(reader -> reader.start)
+                        .thenComparingInt(reader -> reader.index));
+        try {
+            for (int i = 0; i < sources.size(); i++) {
+                final RunReader reader = new RunReader(sources.get(i), i);
+                if (reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            while (!queue.isEmpty()) {
+                final RunReader reader = queue.poll();
+                consumer.accept(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            for (RunReader reader : queue) {
+                reader.close();
+            }
+            sources.forEach(source -> source.file.delete());
+        }
+    }
+
+    /**
+     * Receives sorted lines of a file
+     */
+    @FunctionalInterface
+    interface LineWriter {
+        /**
+         * @param chromosome chromosome name of a line
+         * @param start start of a line, as it is written in a file
+         * @param end end of a feature, described by a line, see {@link Parser#parseEnd(byte[], int, int, int)}
+         * @param line an array, containing a line without a line terminator
+         * @param offset offset of a line in the array
+         * @param length length of a line
+         * @throws IOException if a line can't be written
+         */
+        void write(String chromosome, int start, int end, byte[] line, int offset, int length) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RunConsumer {
+        void accept(RunReader line) throws IOException;
+    }
+
+    private static final class Run {
+        private final File file;
+        private final long count;
+
+        private Run(final File file, final long count) {
+            this.file = file;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Reads lines of a run, the current line is kept in the reader fields
+     */
+    private static final class RunReader {
+        private final DataInputStream input;
+        private final int index;
+        private long remaining;
+
+        private int chromosome;
+        private int start;
+        private int end;
+        private int length;
+        private byte[] text = new byte[INITIAL_CHUNK_LINES];
+
+        private RunReader(final Run run, final int index) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(run.file),
+                    IO_BUFFER_SIZE));
+            this.index = index;
+            this.remaining = run.count;
+        }
+
+        private boolean next() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            chromosome = input.readInt();
+            start = input.readInt();
+            end = input.readInt();
+            length = input.readInt();
+            if (length > text.length) {
+                text = new byte[Math.max(length, text.length * 2)];
+            }
+            input.readFully(text, 0, length);
+            return true;
+        }
+
+        private void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -24,11 +24,13 @@
 
 package com.epam.catgenome.util.sort;
 
+import com.epam.catgenome.exception.SortingException;
 import htsjdk.tribble.readers.AsciiLineReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
 
 import static com.epam.catgenome.util.sort.AbstractFeatureSorter.isEmptyLine;
@@ -38,15 +40,32 @@ public class Parser {
 
     private static final Pattern TAB_PATTERN = Pattern.compile("\t");
 
+    private static final byte TAB = '\t';
+    private static final byte COMMENT = '#';
+    private static final int MAX_INT_DIGITS = 10;
+    private static final int RADIX = 10;
+
     private int chrCol;
     private int startCol;
+    private int endCol;
     private String commentPrefix;
 
     private static final Logger LOG = LoggerFactory.getLogger(SortableRecordCodec.class);
 
     public Parser(int chrCol, int startCol) {
+        this(chrCol, startCol, -1);
+    }
+
+    /**
+     * @param chrCol index of a chromosome column
+     * @param startCol index of a start column
+     * @param endCol index of an end column, it is used for indexing of sorted files, if it is negative,
+     *               features are considered to be one base long
+     */
+    public Parser(int chrCol, int startCol, int endCol) {
         this.chrCol = chrCol;
         this.startCol = startCol;
+        this.endCol = endCol;
         this.commentPrefix = "#";
     }
 
@@ -86,4 +105,120 @@ public class Parser {
 
         return new SortableRecord(chr, start, nextLine);
     }
+
+    /**
+     * Parses a sort key of a line, stored in a byte array, without splitting the whole line
+     * @param line an array, containing the line
+     * @param from offset of the line in the array
+     * @param to end offset of the line, exclusive
+     * @param key receives a chromosome name bounds, start and end of the line
+     * @return false if the line is empty or a comment, that shouldn't be sorted
+     */
+    boolean parseKey(byte[] line, int from, int to, SortKey key) {
+        if (from == to || line[from] == COMMENT || isBlank(line, from, to)) {
+            return false;
+        }
+        key.setChromosomeStart(columnStart(line, from, to, chrCol));
+        key.setChromosomeEnd(columnEnd(line, key.getChromosomeStart(), to));
+        final int startFrom = columnStart(line, from, to, startCol);
+        final int start = parseInt(line, startFrom, columnEnd(line, startFrom, to), Integer.MAX_VALUE);
+        key.setStart(start);
+        key.setEnd(parseEnd(line, from, to, start));
+        return true;
+    }
+
+    /**
+     * Parses an end of a feature, described by a line, for indexing of a sorted file
+     * @param line an array, containing the line
+     * @param from offset of the line in the array
+     * @param to end offset of the line, exclusive
+     * @param start parsed start of the line
+     * @return an end of the feature
+     */
+    int parseEnd(byte[] line, int from, int to, int start) {
+        if (endCol < 0) {
+            return start;
+        }
+        final int endFrom = columnStart(line, from, to, endCol);
+        return parseInt(line, endFrom, columnEnd(line, endFrom, to), start);
+    }
+
+    /**
+     * @return offset of a column, the line must contain it
+     */
+    static int columnStart(byte[] line, int from, int to, int column) {
+        final int offset = findColumn(line, from, to, column);
+        if (offset < 0) {
+            throw new SortingException(String.format("Line '%s' doesn't have column %d",
+                    new String(line, from, to - from, StandardCharsets.ISO_8859_1), column));
+        }
+        return offset;
+    }
+
+    /**
+     * @return offset of a column or -1, if the line doesn't contain it
+     */
+    static int findColumn(byte[] line, int from, int to, int column) {
+        int offset = from;
+        for (int i = 0; i < column; i++) {
+            offset = columnEnd(line, offset, to);
+            if (offset == to) {
+                return -1;
+            }
+            offset++;
+        }
+        return offset;
+    }
+
+    /**
+     * @return end offset of a column, exclusive
+     */
+    static int columnEnd(byte[] line, int columnStart, int to) {
+        int offset = columnStart;
+        while (offset < to && line[offset] != TAB) {
+            offset++;
+        }
+        return offset;
+    }
+
+    /**
+     * Parses a decimal integer, surrounding whitespaces are ignored
+     * @return the parsed value or a default one, if a value isn't a valid integer
+     */
+    static int parseInt(byte[] line, int from, int to, int defaultValue) {
+        int begin = from;
+        int end = to;
+        while (begin < end && Character.isWhitespace(line[begin])) {
+            begin++;
+        }
+        while (end > begin && Character.isWhitespace(line[end - 1])) {
+            end--;
+        }
+        final boolean negative = begin < end && line[begin] == '-';
+        if (negative || begin < end && line[begin] == '+') {
+            begin++;
+        }
+        if (begin == end || end - begin > MAX_INT_DIGITS) {
+            return defaultValue;
+        }
+        long value = 0;
+        for (int i = begin; i < end; i++) {
+            final int digit = line[i] - '0';
+            if (digit < 0 || digit >= RADIX) {
+                return defaultValue;
+            }
+            value = value * RADIX + digit;
+        }
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? defaultValue : (int) value;
+    }
+
+    private static boolean isBlank(byte[] line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(line[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
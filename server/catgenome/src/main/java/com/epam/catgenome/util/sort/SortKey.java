@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util.sort;
+
+/**
+ * A mutable sort key of a feature file line, it is reused for all lines of a chunk to avoid allocations
+ */
+class SortKey {
+    private int chromosomeStart;
+    private int chromosomeEnd;
+    private int start;
+    private int end;
+
+    int getChromosomeStart() {
+        return chromosomeStart;
+    }
+
+    void setChromosomeStart(int chromosomeStart) {
+        this.chromosomeStart = chromosomeStart;
+    }
+
+    int getChromosomeEnd() {
+        return chromosomeEnd;
+    }
+
+    void setChromosomeEnd(int chromosomeEnd) {
+        this.chromosomeEnd = chromosomeEnd;
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    void setStart(int start) {
+        this.start = start;
+    }
+
+    int getEnd() {
+        return end;
+    }
+
+    void setEnd(int end) {
+        this.end = end;
+    }
+}
@@ -24,6 +24,7 @@
 
 package com.epam.catgenome.util.sort;
 
+import htsjdk.tribble.index.tabix.TabixFormat;
 import htsjdk.tribble.readers.AsciiLineReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 
 
 public class VCFSorter extends AbstractFeatureSorter {
@@ -43,7 +45,12 @@ public class VCFSorter extends AbstractFeatureSorter {
 
     @Override
     Parser getParser() {
-        return new Parser(0, 1);
+        return new VcfParser();
+    }
+
+    @Override
+    TabixFormat getTabixFormat() {
+        return TabixFormat.VCF;
     }
 
     @Override
@@ -63,4 +70,55 @@ public class VCFSorter extends AbstractFeatureSorter {
 
 
     }
+
+    /**
+     * Calculates an end of a variation by the length of its reference allele or by END attribute, if it is set
+     */
+    private static final class VcfParser extends Parser {
+        private static final int CHR_COL = 0;
+        private static final int POS_COL = 1;
+        private static final int REF_COL = 3;
+        private static final int INFO_COL = 7;
+        private static final byte[] END_KEY = "END=".getBytes(StandardCharsets.US_ASCII);
+        private static final byte INFO_DELIMITER = ';';
+
+        private VcfParser() {
+            super(CHR_COL, POS_COL);
+        }
+
+        @Override
+        int parseEnd(byte[] line, int from, int to, int start) {
+            final int refFrom = columnStart(line, from, to, REF_COL);
+            final int end = start + Math.max(1, columnEnd(line, refFrom, to) - refFrom) - 1;
+            final int infoFrom = findColumn(line, from, to, INFO_COL);
+            if (infoFrom < 0) {
+                return end;
+            }
+            final int infoTo = columnEnd(line, infoFrom, to);
+            int field = infoFrom;
+            while (field < infoTo) {
+                int fieldEnd = field;
+                while (fieldEnd < infoTo && line[fieldEnd] != INFO_DELIMITER) {
+                    fieldEnd++;
+                }
+                if (startsWith(line, field, fieldEnd, END_KEY)) {
+                    return parseInt(line, field + END_KEY.length, fieldEnd, end);
+                }
+                field = fieldEnd + 1;
+            }
+            return end;
+        }
+
+        private static boolean startsWith(byte[] line, int from, int to, byte[] prefix) {
+            if (to - from < prefix.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (line[from + i] != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
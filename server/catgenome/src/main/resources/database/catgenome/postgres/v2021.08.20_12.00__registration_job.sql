@@ -0,0 +1,20 @@
+CREATE SEQUENCE IF NOT EXISTS CATGENOME.S_REGISTRATION_JOB START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS CATGENOME.REGISTRATION_JOB (
+    JOB_ID              BIGINT NOT NULL PRIMARY KEY,
+    JOB_TYPE            INTEGER NOT NULL,
+    STATUS              INTEGER NOT NULL,
+    REQUEST             VARCHAR NOT NULL,
+    OWNER               VARCHAR(250) NOT NULL,
+    CREATED_DATE        TIMESTAMP NOT NULL,
+    START_DATE          TIMESTAMP,
+    END_DATE            TIMESTAMP,
+    STATUS_REASON       VARCHAR,
+    RESULT_ID           BIGINT,
+    RECORDS_PROCESSED   BIGINT NOT NULL DEFAULT 0,
+    BYTES_READ          BIGINT NOT NULL DEFAULT 0,
+    TOTAL_BYTES         BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS registration_job_owner_idx ON CATGENOME.REGISTRATION_JOB (OWNER);
+CREATE INDEX IF NOT EXISTS registration_job_status_idx ON CATGENOME.REGISTRATION_JOB (STATUS);
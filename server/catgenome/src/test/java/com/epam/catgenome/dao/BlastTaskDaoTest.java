@@ -111,6 +111,26 @@ public class BlastTaskDaoTest extends AbstractTransactionalJUnit4SpringContextTe
         Assert.assertEquals(blastTask.getCreatedDate(), loadedBlastTask.getCreatedDate());
     }
 
+    @Test
+    public void testUpdateTasks() {
+        BlastTask first = getBlastTask(1L, "test1");
+        BlastTask second = getBlastTask(2L, "test2");
+        blastTaskDao.saveTask(first);
+        blastTaskDao.saveTask(second);
+
+        first.setStatus(BlastTaskStatus.RUNNING);
+        second.setStatus(BlastTaskStatus.FAILED);
+        second.setStatusReason(TEST);
+        second.setEndDate(LocalDateTime.now());
+        blastTaskDao.updateTasks(Arrays.asList(first, second));
+
+        Assert.assertEquals(BlastTaskStatus.RUNNING, blastTaskDao.loadTaskById(first.getId()).getStatus());
+        BlastTask loadedSecond = blastTaskDao.loadTaskById(second.getId());
+        Assert.assertEquals(BlastTaskStatus.FAILED, loadedSecond.getStatus());
+        Assert.assertEquals(TEST, loadedSecond.getStatusReason());
+        Assert.assertNotNull(loadedSecond.getEndDate());
+    }
+
     @Test
     public void testLoadTasks() {
         blastTaskDao.saveTask(getBlastTask(1L, "test1"));
@@ -59,6 +59,13 @@ public class DaoHelperTest extends AbstractTransactionalJUnit4SpringContextTests
 
     private static final String JUNIT_SEQUENCE_NAME = "catgenome.s_junit";
 
+    /**
+     * A sequence, which values are reserved by blocks of 100
+     */
+    private static final String BLOCK_SEQUENCE_NAME = "catgenome.s_project_item";
+
+    private static final int BLOCK_IDS_COUNT = 250;
+
     @Autowired
     private DaoHelper daoHelper;
 
@@ -82,4 +89,20 @@ public class DaoHelperTest extends AbstractTransactionalJUnit4SpringContextTests
         assertEquals("Unexpected number of retrieved IDs.", TEMP_LIST_CAPACITY.intValue(), createdIds.size());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void testCreateIdByBlocks() {
+        final Long firstId = daoHelper.createId(BLOCK_SEQUENCE_NAME);
+        final Long secondId = daoHelper.createId(BLOCK_SEQUENCE_NAME);
+        assertTrue("IDs from a block should be unique and ascending.", secondId > firstId);
+
+        final List<Long> createdIds = daoHelper.createIds(BLOCK_SEQUENCE_NAME, BLOCK_IDS_COUNT);
+        assertEquals("Unexpected number of retrieved IDs.", BLOCK_IDS_COUNT, createdIds.size());
+        assertTrue("IDs from a block should be unique and ascending.", createdIds.get(0) > secondId);
+        for (int i = 1; i < createdIds.size(); i++) {
+            assertTrue("IDs from a block should be unique and ascending.",
+                    createdIds.get(i) > createdIds.get(i - 1));
+        }
+    }
+
 }
@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.dao.index;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebAppConfiguration()
+@ContextConfiguration({"classpath:applicationContext-test.xml", "classpath:catgenome-servlet-test.xml"})
+public class FeatureIndexReaderPoolTest {
+
+    private static final String FIELD = "featureId";
+
+    @Autowired
+    private FeatureIndexReaderPool featureIndexReaderPool;
+
+    private Path root;
+
+    @Before
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("reader-pool");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        featureIndexReaderPool.close();
+        FileUtils.deleteDirectory(root.toFile());
+    }
+
+    @Test
+    public void testPooledReaderSeesNewDocuments() throws IOException {
+        final Path index = root.resolve("index");
+        writeDocuments(index, IndexWriterConfig.OpenMode.CREATE, 2);
+
+        try (MultiReader reader = featureIndexReaderPool.acquire(Collections.singletonList(index))) {
+            Assert.assertEquals(2, reader.numDocs());
+            writeDocuments(index, IndexWriterConfig.OpenMode.APPEND, 3);
+            // reader, that is already acquired, stays on the same point in time
+            Assert.assertEquals(2, reader.numDocs());
+        }
+
+        try (MultiReader reader = featureIndexReaderPool.acquire(Collections.singletonList(index))) {
+            Assert.assertEquals(5, reader.numDocs());
+        }
+    }
+
+    @Test
+    public void testReadersAreSharedAndStayOpenUntilReleased() throws IOException {
+        final Path first = root.resolve("first");
+        final Path second = root.resolve("second");
+        writeDocuments(first, IndexWriterConfig.OpenMode.CREATE, 1);
+        writeDocuments(second, IndexWriterConfig.OpenMode.CREATE, 2);
+
+        final MultiReader reader = featureIndexReaderPool.acquire(Arrays.asList(first, second));
+        try (MultiReader another = featureIndexReaderPool.acquire(Collections.singletonList(first))) {
+            Assert.assertEquals(3, reader.numDocs());
+            Assert.assertSame(reader.leaves().get(0).reader(), another.leaves().get(0).reader());
+        }
+
+        featureIndexReaderPool.evict(first);
+        Assert.assertEquals(3, reader.numDocs());
+        Assert.assertEquals(1, reader.document(0).getFields().size());
+        reader.close();
+    }
+
+    @Test
+    public void testEvictedIndexIsReopened() throws IOException {
+        final Path index = root.resolve("index");
+        writeDocuments(index, IndexWriterConfig.OpenMode.CREATE, 4);
+        try (MultiReader reader = featureIndexReaderPool.acquire(Collections.singletonList(index))) {
+            Assert.assertEquals(4, reader.numDocs());
+        }
+
+        featureIndexReaderPool.evict(index);
+        FileUtils.deleteDirectory(index.toFile());
+        writeDocuments(index, IndexWriterConfig.OpenMode.CREATE, 1);
+
+        try (MultiReader reader = featureIndexReaderPool.acquire(Collections.singletonList(index))) {
+            Assert.assertEquals(1, reader.numDocs());
+        }
+    }
+
+    private void writeDocuments(final Path path, final IndexWriterConfig.OpenMode mode, final int count)
+            throws IOException {
+        try (Directory directory = FSDirectory.open(path);
+             IndexWriter writer = new IndexWriter(directory,
+                     new IndexWriterConfig(new StandardAnalyzer()).setOpenMode(mode))) {
+            for (int i = 0; i < count; i++) {
+                final Document document = new Document();
+                document.add(new StringField(FIELD, "rs" + i, Field.Store.YES));
+                writer.addDocument(document);
+            }
+        }
+    }
+}
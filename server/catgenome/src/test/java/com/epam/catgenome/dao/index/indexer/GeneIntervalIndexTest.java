@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.dao.index.indexer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class GeneIntervalIndexTest {
+
+    private static final long CHROMOSOME_ID = 1L;
+    private static final int GENE_COUNT = 500;
+    private static final int EXON_COUNT = 2000;
+    private static final int CHROMOSOME_SIZE = 100000;
+    private static final int MAX_GENE_LENGTH = 5000;
+    private static final int MAX_EXON_LENGTH = 300;
+    private static final int SEED = 42;
+
+    private static final int GENE_START = 100;
+    private static final int GENE_END = 200;
+    private static final int NESTED_START = 120;
+    private static final int NESTED_END = 130;
+    private static final int LONG_START = 50;
+    private static final int LONG_END = 1000;
+
+    @Test
+    public void testPointLookup() {
+        final GeneIntervalIndex index = new GeneIntervalIndex.Builder(CHROMOSOME_ID)
+                .addGene(GENE_START, GENE_END, "G1", "GENE1")
+                .addGene(NESTED_START, NESTED_END, "G2", "GENE2")
+                .addGene(LONG_START, LONG_END, "G3", "GENE3")
+                .addExon(NESTED_START, NESTED_END)
+                .build();
+
+        Assert.assertEquals(CHROMOSOME_ID, index.getChromosomeId().longValue());
+        Assert.assertEquals(3, index.geneCount());
+        Assert.assertEquals(1, index.exonCount());
+
+        Assert.assertEquals(set("G3"), genesAt(index, LONG_START));
+        Assert.assertEquals(set("G1", "G3"), genesAt(index, GENE_START));
+        Assert.assertEquals(set("G1", "G2", "G3"), genesAt(index, NESTED_END));
+        Assert.assertEquals(set("G1", "G3"), genesAt(index, NESTED_END + 1));
+        Assert.assertEquals(set("G3"), genesAt(index, LONG_END));
+        Assert.assertTrue(genesAt(index, LONG_END + 1).isEmpty());
+        Assert.assertTrue(genesAt(index, LONG_START - 1).isEmpty());
+
+        Assert.assertTrue(index.overlapsExon(NESTED_START));
+        Assert.assertTrue(index.overlapsExon(NESTED_END));
+        Assert.assertFalse(index.overlapsExon(NESTED_END + 1));
+        Assert.assertFalse(index.overlapsExon(GENE_START));
+    }
+
+    @Test
+    public void testLookupMatchesLinearScan() {
+        final Random random = new Random(SEED);
+        final GeneIntervalIndex.Builder builder = new GeneIntervalIndex.Builder(CHROMOSOME_ID);
+        final List<int[]> genes = new ArrayList<>();
+        for (int i = 0; i < GENE_COUNT; i++) {
+            final int start = random.nextInt(CHROMOSOME_SIZE);
+            final int end = start + random.nextInt(MAX_GENE_LENGTH);
+            builder.addGene(start, end, String.valueOf(i), null);
+            genes.add(new int[] {start, end});
+        }
+        final List<int[]> exons = new ArrayList<>();
+        for (int i = 0; i < EXON_COUNT; i++) {
+            final int start = random.nextInt(CHROMOSOME_SIZE);
+            final int end = start + random.nextInt(MAX_EXON_LENGTH);
+            builder.addExon(start, end);
+            exons.add(new int[] {start, end});
+        }
+        final GeneIntervalIndex index = builder.build();
+
+        for (int position = 0; position < CHROMOSOME_SIZE; position += 7) {
+            final Set<String> expected = new HashSet<>();
+            for (int i = 0; i < genes.size(); i++) {
+                if (genes.get(i)[0] <= position && genes.get(i)[1] >= position) {
+                    expected.add(String.valueOf(i));
+                }
+            }
+            final int point = position;
+            Assert.assertEquals(expected, genesAt(index, position));
+            Assert.assertEquals(exons.stream().anyMatch(e -> e[0] <= point && e[1] >= point),
+                    index.overlapsExon(position));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        final GeneIntervalIndex index = new GeneIntervalIndex.Builder(CHROMOSOME_ID).build();
+        Assert.assertTrue(genesAt(index, GENE_START).isEmpty());
+        Assert.assertFalse(index.overlapsExon(GENE_START));
+    }
+
+    private static Set<String> genesAt(GeneIntervalIndex index, int position) {
+        final Set<String> geneIds = new HashSet<>();
+        index.forEachGene(position, (geneId, geneName) -> geneIds.add(geneId));
+        return geneIds;
+    }
+
+    private static Set<String> set(String... values) {
+        final Set<String> result = new HashSet<>();
+        for (String value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+}
@@ -24,6 +24,7 @@
 
 package com.epam.catgenome.manager;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -60,6 +61,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -126,6 +128,8 @@ public class FeatureIndexManagerTest extends AbstractManagerTest {
     private static final int SVLEN_VALUE = -150;
     //public static final float QUAL_VALUE = -10.0F;
     private static final int CONST_42 = 42;
+    private static final int EXPORT_BATCH_SIZE = 3;
+    private static final int EXPORT_PAGE_SIZE = 100;
     private static final int TEST_WICKED_VCF_LENGTH = 248617560;
     private static final int PERFORMANCE_TEST_WARMING_COUNT = 20;
     private static final int PERFORMANCE_TEST_ATTEMPTS_COUNT = 20;
@@ -1672,6 +1676,40 @@ public class FeatureIndexManagerTest extends AbstractManagerTest {
         assertNotNull(exportResult);
     }
 
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void testExportVariationsInBatches() throws IOException {
+        final FeatureIndexedFileRegistrationRequest request = new FeatureIndexedFileRegistrationRequest();
+        request.setReferenceId(referenceId);
+        final Resource resource = context.getResource("classpath:templates/samples.vcf");
+        request.setPath(resource.getFile().getAbsolutePath());
+
+        final VcfFile samplesVcf = vcfManager.registerVcfFile(request);
+        final Map<Long, List<Long>> filesByProject = Collections.singletonMap(testProject.getId(),
+                Collections.singletonList(samplesVcf.getId()));
+
+        final VcfFilterForm countForm = new VcfFilterForm();
+        countForm.setVcfFileIdsByProject(filesByProject);
+        final int total = featureIndexManager.filterVariations(countForm).getTotalResultsCount();
+        assertTrue(total > EXPORT_BATCH_SIZE);
+
+        final VcfExportFilterForm form = new VcfExportFilterForm();
+        form.setVcfFileIdsByProject(filesByProject);
+        form.setExportFields(Arrays.asList("variationType", "chromosome", "startIndex"));
+
+        // each variation is written once, when variations are read in several batches
+        ReflectionTestUtils.setField(exportManager, "exportPageSize", EXPORT_BATCH_SIZE);
+        try {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            exportManager.exportVariations(form, ExportFormat.CSV, true, outputStream);
+            final String[] lines = outputStream.toString().split("\n");
+            assertEquals(total + 1, lines.length);
+            assertEquals(total, new HashSet<>(Arrays.asList(lines).subList(1, lines.length)).size());
+        } finally {
+            ReflectionTestUtils.setField(exportManager, "exportPageSize", EXPORT_PAGE_SIZE);
+        }
+    }
+
     @Test
     @Ignore // TODO: remove this test before merging to master
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.epam.catgenome.common.AbstractManagerTest;
+import com.epam.catgenome.controller.vo.registration.IndexedFileRegistrationRequest;
+import com.epam.catgenome.entity.BiologicalDataItemFormat;
+import com.epam.catgenome.entity.bed.BedFile;
+import com.epam.catgenome.entity.bed.BedRecord;
+import com.epam.catgenome.entity.reference.Chromosome;
+import com.epam.catgenome.entity.reference.Reference;
+import com.epam.catgenome.entity.track.Block;
+import com.epam.catgenome.entity.track.Track;
+import com.epam.catgenome.entity.wig.Wig;
+import com.epam.catgenome.exception.FeatureFileReadingException;
+import com.epam.catgenome.helper.EntityHelper;
+import com.epam.catgenome.manager.bed.BedManager;
+import com.epam.catgenome.manager.reference.ReferenceGenomeManager;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration({"classpath:applicationContext-test.xml"})
+public class TrackTileCacheTest extends AbstractManagerTest {
+
+    private static final String BED_PATH = "classpath:templates/genes_sorted.bed";
+    private static final int CHROMOSOME_SIZE = 239107476;
+    private static final int START_INDEX = 35000;
+    private static final int END_INDEX = 45000;
+    private static final int TILES_COUNT = 10;
+    private static final int ZOOMED_OUT_END_INDEX = 2000000;
+    private static final double ZOOMED_OUT_SCALE_FACTOR = 0.003;
+
+    @Autowired
+    private TrackTileCache trackTileCache;
+
+    @Autowired
+    private BedManager bedManager;
+
+    @Autowired
+    private ReferenceGenomeManager referenceGenomeManager;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Value("#{catgenome['files.base.directory.path']}")
+    private String baseDirPath;
+
+    private Chromosome testChromosome;
+    private BedFile bedFile;
+    private boolean enabled;
+
+    @Before
+    public void setup() throws IOException {
+        enabled = (boolean) ReflectionTestUtils.getField(trackTileCache, "enabled");
+        ReflectionTestUtils.setField(trackTileCache, "enabled", true);
+        testChromosome = EntityHelper.createNewChromosome();
+        testChromosome.setSize(CHROMOSOME_SIZE);
+        final Reference reference = EntityHelper.createNewReference(testChromosome,
+                referenceGenomeManager.createReferenceId());
+        referenceGenomeManager.create(reference);
+
+        final IndexedFileRegistrationRequest request = new IndexedFileRegistrationRequest();
+        request.setPath(context.getResource(BED_PATH).getFile().getAbsolutePath());
+        request.setReferenceId(reference.getId());
+        bedFile = bedManager.registerBed(request);
+    }
+
+    @After
+    public void tearDown() {
+        ReflectionTestUtils.setField(trackTileCache, "enabled", enabled);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void testLoadTiles() throws FeatureFileReadingException {
+        final Track<BedRecord> expected = bedManager.loadFeatures(createTrack());
+        final AtomicInteger loads = new AtomicInteger();
+
+        final TrackTileCache.CachedTrack<BedRecord> cached = load(trackTileCache, loads);
+        Assert.assertEquals(TILES_COUNT, loads.get());
+        Assert.assertNotNull(cached.getETag());
+        Assert.assertEquals(START_INDEX, cached.getTrack().getStartIndex().intValue());
+        Assert.assertEquals(END_INDEX, cached.getTrack().getEndIndex().intValue());
+        Assert.assertEquals(getIntervals(expected.getBlocks()), getIntervals(cached.getTrack().getBlocks()));
+
+        final TrackTileCache.CachedTrack<BedRecord> fromHeap = load(trackTileCache, loads);
+        Assert.assertEquals(TILES_COUNT, loads.get());
+        Assert.assertEquals(cached.getETag(), fromHeap.getETag());
+
+        trackTileCache.evict(BiologicalDataItemFormat.BED, bedFile.getId());
+        Assert.assertEquals(cached.getETag(), load(trackTileCache, loads).getETag());
+        Assert.assertEquals(TILES_COUNT * 2, loads.get());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void testLoadTilesFromDisk() throws FeatureFileReadingException {
+        final AtomicInteger loads = new AtomicInteger();
+        final TrackTileCache.CachedTrack<BedRecord> cached = load(trackTileCache, loads);
+
+        final TrackTileCache restarted = new TrackTileCache();
+        ReflectionTestUtils.setField(restarted, "enabled", true);
+        ReflectionTestUtils.setField(restarted, "tileWidth", 1024);
+        ReflectionTestUtils.setField(restarted, "maxTiles", TILES_COUNT * 2);
+        ReflectionTestUtils.setField(restarted, "heapSize", 1024L * 1024);
+        ReflectionTestUtils.setField(restarted, "diskSize", 1024L * 1024 * 1024);
+        ReflectionTestUtils.setField(restarted, "baseDirPath", baseDirPath);
+        ReflectionTestUtils.setField(restarted, "referenceGenomeManager", referenceGenomeManager);
+        restarted.init();
+
+        final TrackTileCache.CachedTrack<BedRecord> fromDisk = load(restarted, loads);
+        Assert.assertEquals(TILES_COUNT, loads.get());
+        Assert.assertEquals(cached.getETag(), fromDisk.getETag());
+        Assert.assertEquals(getIntervals(cached.getTrack().getBlocks()),
+                getIntervals(fromDisk.getTrack().getBlocks()));
+        Assert.assertEquals(cached.getTrack().getBlocks().get(0).getName(),
+                fromDisk.getTrack().getBlocks().get(0).getName());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void testZoomedOutTilesHoldWholeRegions() throws FeatureFileReadingException {
+        final Track<BedRecord> track = createTrack();
+        track.setEndIndex(ZOOMED_OUT_END_INDEX);
+        track.setScaleFactor(ZOOMED_OUT_SCALE_FACTOR);
+        final int step = (int) Math.ceil(1 / ZOOMED_OUT_SCALE_FACTOR);
+        final List<Track<BedRecord>> tiles = new ArrayList<>();
+        trackTileCache.load(BiologicalDataItemFormat.BED, track, BedRecord.class, "", tile -> {
+            tiles.add(tile);
+            return bedManager.loadFeatures(tile);
+        });
+
+        Assert.assertFalse(tiles.isEmpty());
+        for (Track<BedRecord> tile : tiles) {
+            Assert.assertEquals(0, (tile.getStartIndex() - 1) % step);
+            Assert.assertEquals(0, (tile.getEndIndex() - tile.getStartIndex() + 1) % step);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void testZoomedOutTilesMatchDirectLoad() {
+        final Track<Wig> track = new Track<>();
+        track.setId(bedFile.getId());
+        track.setChromosome(testChromosome);
+        track.setStartIndex(START_INDEX);
+        track.setEndIndex(ZOOMED_OUT_END_INDEX);
+        track.setScaleFactor(ZOOMED_OUT_SCALE_FACTOR);
+        final Track<Wig> expected = new Track<>(track);
+        TrackHelper.fillBlocks(expected, indexes -> new Wig(indexes.getLeft(), indexes.getRight()));
+
+        final TrackTileCache.CachedTrack<Wig> cached = trackTileCache.load(BiologicalDataItemFormat.WIG, track,
+                Wig.class, "", tile -> {
+                    TrackHelper.fillBlocks(tile, indexes -> new Wig(indexes.getLeft(), indexes.getRight()));
+                    return tile;
+                });
+
+        Assert.assertNotNull(cached.getETag());
+        Assert.assertEquals(getIntervals(expected.getBlocks()), getIntervals(cached.getTrack().getBlocks()));
+    }
+
+    private TrackTileCache.CachedTrack<BedRecord> load(final TrackTileCache cache, final AtomicInteger loads)
+            throws FeatureFileReadingException {
+        return cache.load(BiologicalDataItemFormat.BED, createTrack(), BedRecord.class, "", tile -> {
+            loads.incrementAndGet();
+            return bedManager.loadFeatures(tile);
+        });
+    }
+
+    private Track<BedRecord> createTrack() {
+        final Track<BedRecord> track = new Track<>();
+        track.setId(bedFile.getId());
+        track.setChromosome(new Chromosome(testChromosome.getId()));
+        track.setStartIndex(START_INDEX);
+        track.setEndIndex(END_INDEX);
+        track.setScaleFactor(1D);
+        return track;
+    }
+
+    private static List<String> getIntervals(final List<? extends Block> records) {
+        return records.stream()
+                .map(r -> r.getStartIndex() + "-" + r.getEndIndex())
+                .collect(Collectors.toList());
+    }
+}
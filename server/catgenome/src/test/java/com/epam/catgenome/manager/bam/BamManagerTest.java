@@ -29,6 +29,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Consumer;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -55,6 +59,7 @@ import com.epam.catgenome.entity.reference.Chromosome;
 import com.epam.catgenome.entity.reference.Reference;
 import com.epam.catgenome.entity.reference.Sequence;
 import com.epam.catgenome.entity.track.Track;
+import com.epam.catgenome.manager.FileManager;
 import com.epam.catgenome.manager.bucket.BucketManager;
 import com.epam.catgenome.manager.parallel.TaskExecutorService;
 import com.epam.catgenome.manager.reference.ReferenceManager;
@@ -77,6 +82,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -117,6 +123,12 @@ public class BamManagerTest extends AbstractManagerTest {
     @Autowired
     private TaskExecutorService taskExecutorService;
 
+    @Autowired
+    private FileManager fileManager;
+
+    @Autowired
+    private BamCoverageManager bamCoverageManager;
+
     private static final String TEST_NSAME = "BIG " + BamManagerTest.class.getSimpleName();
     private static final String TEST_REF_NAME = "//dm606.X.fa";
     private static final String TEST_BAM_NAME = "//agnX1.09-28.trim.dm606.realign.bam";
@@ -641,6 +653,85 @@ public class BamManagerTest extends AbstractManagerTest {
         Assert.assertFalse(fullTrack.getRegions().isEmpty());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void testGetRegionsFromPrecomputedCoverage() throws IOException {
+        final String path = resource.getFile().getAbsolutePath() + TEST_BAM_NAME;
+        IndexedFileRegistrationRequest request = new IndexedFileRegistrationRequest();
+        request.setPath(path);
+        request.setIndexPath(path + BAI_EXTENSION);
+        request.setName(TEST_NSAME);
+        request.setReferenceId(testReference.getId());
+        request.setType(BiologicalDataItemResourceType.FILE);
+
+        BamFile bamFile = bamManager.registerBam(request);
+        Assert.assertNotNull(fileManager.getBamCoverageFile(bamFile, testChromosome.getName()));
+
+        Track<Read> fullTrackQ = new Track<>();
+        fullTrackQ.setStartIndex(TEST_START_INDEX_LARGE_RANGE);
+        fullTrackQ.setEndIndex(TEST_END_INDEX_LARGE_RANGE);
+        fullTrackQ.setScaleFactor(SCALE_FACTOR_MEDIUM);
+        fullTrackQ.setChromosome(new Chromosome(testChromosome.getId()));
+        fullTrackQ.setId(bamFile.getId());
+
+        BamQueryOption option = getBaseBamQueryOption();
+        option.setMode(BamTrackMode.REGIONS);
+
+        ResponseEmitterMock emitterMock = new ResponseEmitterMock();
+        bamManager.sendBamTrackToEmitter(fullTrackQ, option, emitterMock);
+        BamTrack<Read> fullTrack = emitterMock.getBamTrack();
+
+        // regions hold real coverage of bins, that are not wider than requested scale
+        Assert.assertFalse(fullTrack.getRegions().isEmpty());
+        Assert.assertTrue(fullTrack.getRegions().stream().allMatch(r -> r.getValue() > 0
+                && r.getEndIndex() - r.getStartIndex() + 1 <= 1 / SCALE_FACTOR_MEDIUM
+                && r.getEndIndex() >= TEST_START_INDEX_LARGE_RANGE
+                && r.getStartIndex() <= TEST_END_INDEX_LARGE_RANGE));
+        Assert.assertTrue(fullTrack.getRegions().stream().anyMatch(r -> r.getValue() > 1));
+
+        bamManager.unregisterBamFile(bamFile.getId());
+        Assert.assertNull(fileManager.getBamCoverageFile(bamFile, testChromosome.getName()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @SuppressWarnings("unchecked")
+    public void testUnregisterCancelsCoverageBuild() throws IOException, InterruptedException {
+        final String path = resource.getFile().getAbsolutePath() + TEST_BAM_NAME;
+        IndexedFileRegistrationRequest request = new IndexedFileRegistrationRequest();
+        request.setPath(path);
+        request.setIndexPath(path + BAI_EXTENSION);
+        request.setName(TEST_NSAME);
+        request.setReferenceId(testReference.getId());
+        request.setType(BiologicalDataItemResourceType.FILE);
+
+        // occupies all index threads, so that the coverage build waits in the queue
+        final ThreadPoolExecutor executor = (ThreadPoolExecutor) taskExecutorService.getIndexExecutor();
+        final CountDownLatch latch = new CountDownLatch(1);
+        for (int i = 0; i < executor.getMaximumPoolSize(); i++) {
+            executor.submit(() -> {
+                latch.await();
+                return null;
+            });
+        }
+        ReflectionTestUtils.setField(bamCoverageManager, "async", true);
+        try {
+            BamFile bamFile = bamManager.registerBam(request);
+            final Map<Long, ?> builds = (Map<Long, ?>) ReflectionTestUtils.getField(bamCoverageManager, "builds");
+            final Future<?> build = (Future<?>) ReflectionTestUtils.getField(builds.get(bamFile.getId()), "future");
+
+            bamManager.unregisterBamFile(bamFile.getId());
+            latch.countDown();
+
+            Assert.assertTrue(build.isCancelled());
+            Assert.assertFalse(builds.containsKey(bamFile.getId()));
+            Assert.assertNull(fileManager.getBamCoverageFile(bamFile, testChromosome.getName()));
+        } finally {
+            latch.countDown();
+            ReflectionTestUtils.setField(bamCoverageManager, "async", false);
+        }
+    }
+
     @Test
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void testGetCoverage() throws IOException {
@@ -0,0 +1,309 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.bam;
+
+import com.epam.catgenome.entity.bam.BamTrack;
+import com.epam.catgenome.entity.bam.BasePosition;
+import com.epam.catgenome.entity.bam.Read;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class BinaryBamTrackEmitterTest {
+
+    private static final int READS_COUNT = BinaryBamTrackEmitter.BLOCK_SIZE * 2 + 100;
+    private static final int READ_LENGTH = 100;
+    private static final int MAPPING_QUALITY = 255;
+    private static final int FIRST_MATE_FLAGS = 99;
+    private static final int SECOND_MATE_FLAGS = 147;
+    private static final int STRING_COLUMNS = 6;
+    private static final int INT_COLUMNS = 5;
+    private static final String ERROR_MESSAGE = "Failed to read file";
+    private static final int LARGE_READS_COUNT = BinaryBamTrackEmitter.BLOCK_SIZE * 16;
+
+    @Test
+    public void testReadsRoundTrip() throws IOException {
+        assertRoundTrip(new BinaryEmitterMock(false), READS_COUNT);
+    }
+
+    @Test
+    public void testDeferredSendOfPooledBuffers() throws IOException {
+        // an emitter, that isn't initialized yet, holds sent buffers, so they shouldn't be reused until written
+        final BinaryEmitterMock emitterMock = new BinaryEmitterMock(true);
+        assertRoundTrip(emitterMock, LARGE_READS_COUNT);
+        Assert.assertTrue(emitterMock.getSendCount() > 1);
+    }
+
+    private static void assertRoundTrip(final BinaryEmitterMock emitterMock, final int readsCount)
+            throws IOException {
+        final BamTrackEmitter emitter = new BinaryBamTrackEmitter(emitterMock);
+        final List<Read> reads = new ArrayList<>();
+        for (int i = 0; i < readsCount; i++) {
+            final Read read = createRead(i);
+            reads.add(read);
+            emitter.writeRecord(read);
+        }
+        final BamTrack<Read> track = new BamTrack<>();
+        track.setStartIndex(1);
+        track.setEndIndex(readsCount + READ_LENGTH);
+        emitter.writeTrackAndFinish(track);
+
+        final DataInputStream input = emitterMock.getInput();
+        final List<Read> decoded = new ArrayList<>();
+        int blocks = 0;
+        byte type = input.readByte();
+        while (type == BinaryBamTrackEmitter.READS_FRAME) {
+            input.readInt();
+            decoded.addAll(readBlock(input));
+            blocks++;
+            type = input.readByte();
+        }
+        Assert.assertEquals(BinaryBamTrackEmitter.TRACK_FRAME, type);
+        final String metadata = readString(input);
+        Assert.assertFalse(metadata.contains("blocks"));
+        Assert.assertTrue(metadata.contains("\"endIndex\":" + (readsCount + READ_LENGTH)));
+        Assert.assertEquals(-1, input.read());
+
+        Assert.assertEquals((readsCount + BinaryBamTrackEmitter.BLOCK_SIZE - 1) / BinaryBamTrackEmitter.BLOCK_SIZE,
+                blocks);
+        Assert.assertEquals(reads.size(), decoded.size());
+        for (int i = 0; i < reads.size(); i++) {
+            assertReadEquals(reads.get(i), decoded.get(i));
+        }
+    }
+
+    @Test
+    public void testErrorFrame() throws IOException {
+        final BinaryEmitterMock emitterMock = new BinaryEmitterMock(false);
+        final BamTrackEmitter emitter = new BinaryBamTrackEmitter(emitterMock);
+        emitter.writeRecord(createRead(1));
+        emitter.finishWithException(new IOException(ERROR_MESSAGE));
+
+        final DataInputStream input = emitterMock.getInput();
+        Assert.assertEquals(BinaryBamTrackEmitter.ERROR_FRAME, input.readByte());
+        Assert.assertEquals(ERROR_MESSAGE, readString(input));
+        Assert.assertEquals(-1, input.read());
+    }
+
+    private static Read createRead(final int index) {
+        final Read read = new Read();
+        read.setStartIndex(index + 1);
+        read.setEndIndex(index + READ_LENGTH);
+        read.setName("read" + index / 2);
+        read.setCigarString(index % 3 == 0 ? "10S90M" : "100M");
+        read.setStand(index % 2 == 0);
+        read.setMappingQuality(index % 2 == 0 ? MAPPING_QUALITY : index % MAPPING_QUALITY);
+        read.setFlagMask(index % 2 == 0 ? FIRST_MATE_FLAGS : SECOND_MATE_FLAGS);
+        read.setTLen(index % 2 == 0 ? READ_LENGTH : -READ_LENGTH);
+        read.setRNext("=");
+        read.setPNext(index + 1);
+        read.setPairedReadName(index % 2 == 0 ? "read" + index / 2 : null);
+        read.setRName("chr1");
+        read.setReadGroup("");
+        read.setHeadSequence(index % 3 == 0 ? "ACGTACGTAC" : null);
+        read.setTailSequence(index % 4 == 0 ? String.format("%0" + READ_LENGTH + "d", index) : null);
+        read.setDifferentBase(index % 5 == 0
+                ? Collections.singletonList(new BasePosition(index % READ_LENGTH, 'T'))
+                : Collections.emptyList());
+        return read;
+    }
+
+    private static List<Read> readBlock(final DataInputStream input) throws IOException {
+        final int count = input.readInt();
+        final int[][] ints = new int[INT_COLUMNS][count];
+        for (int[] column : ints) {
+            for (int i = 0; i < count; i++) {
+                column[i] = input.readInt();
+            }
+        }
+        final List<Read> reads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Read read = new Read();
+            read.setStartIndex(ints[0][i]);
+            read.setEndIndex(ints[1][i]);
+            read.setFlagMask(ints[2][i]);
+            read.setTLen(ints[3][i]);
+            read.setPNext(ints[4][i]);
+            reads.add(read);
+        }
+        reads.forEach(read -> read.setMappingQuality(readUnsignedByte(input)));
+        reads.forEach(read -> read.setStand(readUnsignedByte(input) == 1));
+
+        final String[][] strings = new String[STRING_COLUMNS][];
+        for (int c = 0; c < STRING_COLUMNS; c++) {
+            final String[] dictionary = new String[input.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(input);
+            }
+            strings[c] = new String[count];
+            for (int i = 0; i < count; i++) {
+                final int index = input.readInt();
+                strings[c][i] = index < 0 ? null : dictionary[index];
+            }
+        }
+        final String[] heads = readSequences(input, count);
+        final String[] tails = readSequences(input, count);
+        final int[] diffCounts = new int[count];
+        int totalDiffs = 0;
+        for (int i = 0; i < count; i++) {
+            diffCounts[i] = input.readInt();
+            totalDiffs += diffCounts[i];
+        }
+        final int[] positions = new int[totalDiffs];
+        for (int i = 0; i < totalDiffs; i++) {
+            positions[i] = input.readInt();
+        }
+        int diff = 0;
+        for (int i = 0; i < count; i++) {
+            final Read read = reads.get(i);
+            read.setName(strings[0][i]);
+            read.setCigarString(strings[1][i]);
+            read.setReadGroup(strings[2][i]);
+            read.setRName(strings[3][i]);
+            read.setRNext(strings[4][i]);
+            read.setPairedReadName(strings[5][i]);
+            read.setHeadSequence(heads[i]);
+            read.setTailSequence(tails[i]);
+            final List<BasePosition> bases = new ArrayList<>();
+            for (int j = 0; j < diffCounts[i]; j++) {
+                bases.add(new BasePosition(positions[diff++], (char) input.readByte()));
+            }
+            read.setDifferentBase(bases);
+        }
+        return reads;
+    }
+
+    private static String[] readSequences(final DataInputStream input, final int count) throws IOException {
+        final int[] lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            lengths[i] = input.readInt();
+        }
+        final String[] sequences = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (lengths[i] >= 0) {
+                final byte[] bytes = new byte[lengths[i]];
+                input.readFully(bytes);
+                sequences[i] = new String(bytes, StandardCharsets.US_ASCII);
+            }
+        }
+        return sequences;
+    }
+
+    private static String readString(final DataInputStream input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readUnsignedByte(final DataInputStream input) {
+        try {
+            return input.readUnsignedByte();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void assertReadEquals(final Read expected, final Read actual) {
+        Assert.assertEquals(expected.getStartIndex(), actual.getStartIndex());
+        Assert.assertEquals(expected.getEndIndex(), actual.getEndIndex());
+        Assert.assertEquals(expected.getName(), actual.getName());
+        Assert.assertEquals(expected.getCigarString(), actual.getCigarString());
+        Assert.assertEquals(expected.getStand(), actual.getStand());
+        Assert.assertEquals(expected.getMappingQuality(), actual.getMappingQuality());
+        Assert.assertEquals(expected.getFlagMask(), actual.getFlagMask());
+        Assert.assertEquals(expected.getTLen(), actual.getTLen());
+        Assert.assertEquals(expected.getRNext(), actual.getRNext());
+        Assert.assertEquals(expected.getPNext(), actual.getPNext());
+        Assert.assertEquals(expected.getPairedReadName(), actual.getPairedReadName());
+        Assert.assertEquals(expected.getRName(), actual.getRName());
+        Assert.assertEquals(expected.getReadGroup(), actual.getReadGroup());
+        Assert.assertEquals(expected.getHeadSequence(), actual.getHeadSequence());
+        Assert.assertEquals(expected.getTailSequence(), actual.getTailSequence());
+        Assert.assertEquals(expected.getDifferentBase().size(), actual.getDifferentBase().size());
+        for (int i = 0; i < expected.getDifferentBase().size(); i++) {
+            Assert.assertEquals(expected.getDifferentBase().get(i).getRelativePosition(),
+                    actual.getDifferentBase().get(i).getRelativePosition());
+            Assert.assertEquals(expected.getDifferentBase().get(i).getBase(),
+                    actual.getDifferentBase().get(i).getBase());
+        }
+    }
+
+    private static class BinaryEmitterMock extends ResponseBodyEmitter {
+
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final List<InputStreamResource> deferred = new ArrayList<>();
+        private final boolean defer;
+        private int sendCount;
+
+        BinaryEmitterMock(final boolean defer) {
+            this.defer = defer;
+        }
+
+        @Override
+        public synchronized void send(Object object, MediaType mediaType) throws IOException {
+            if (mediaType != MediaType.APPLICATION_OCTET_STREAM || !(object instanceof InputStreamResource)) {
+                throw new IllegalArgumentException("Only binary values are expected");
+            }
+            sendCount++;
+            if (defer) {
+                deferred.add((InputStreamResource) object);
+            } else {
+                write((InputStreamResource) object);
+            }
+        }
+
+        private void write(final InputStreamResource resource) throws IOException {
+            // the same way as a resource message converter does
+            try (InputStream input = resource.getInputStream()) {
+                StreamUtils.copy(input, output);
+            }
+        }
+
+        private int getSendCount() {
+            return sendCount;
+        }
+
+        private DataInputStream getInput() throws IOException {
+            for (InputStreamResource resource : deferred) {
+                write(resource);
+            }
+            deferred.clear();
+            return new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+        }
+    }
+}
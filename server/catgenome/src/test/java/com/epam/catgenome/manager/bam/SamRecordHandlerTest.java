@@ -27,12 +27,14 @@ package com.epam.catgenome.manager.bam;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import com.epam.catgenome.common.AbstractManagerTest;
 import com.epam.catgenome.controller.vo.registration.ReferenceRegistrationRequest;
 import com.epam.catgenome.dao.BiologicalDataItemDao;
 import com.epam.catgenome.entity.bam.BamQueryOption;
 import com.epam.catgenome.entity.bam.BamTrackMode;
+import com.epam.catgenome.entity.bam.BaseCoverage;
 import com.epam.catgenome.entity.bam.TrackDirectionType;
 import com.epam.catgenome.entity.reference.Reference;
 import com.epam.catgenome.manager.bam.filters.Filter;
@@ -85,6 +87,7 @@ public class SamRecordHandlerTest extends AbstractManagerTest {
     private Filter<SAMRecord> filter;
     private SAMRecordHandler recordHandler;
     private SAMRecordSetBuilder set;
+    private BamTrackEmitter trackEmitter;
 
     @Before
     public void setup() throws IOException {
@@ -106,7 +109,7 @@ public class SamRecordHandlerTest extends AbstractManagerTest {
         options.setChromosomeName(chromosomeName);
 
         ResponseBodyEmitter emitter = new ResponseBodyEmitter(this.timeout);
-        BamTrackEmitter trackEmitter = new BamTrackEmitter(emitter);
+        trackEmitter = new BamTrackEmitter(emitter);
         DownsamplingSifter<SAMRecord> sifter = new FullResultSifter(false, trackEmitter);
         filter = new MiddleSAMRecordFilter(sifter);
 
@@ -129,4 +132,51 @@ public class SamRecordHandlerTest extends AbstractManagerTest {
         Assert.assertEquals(2, recordHandler.getSifter().getFilteredReadsCount());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void getRunLengthCoverageTest() throws IOException {
+        options.setMode(BamTrackMode.COVERAGE);
+        // coverage arrays are reused by the next handler, so the result should be the same
+        for (int i = 0; i < 2; i++) {
+            final SAMRecordHandler coverageHandler = new SAMRecordHandler(1, endTrack, referenceManager,
+                    new MiddleSAMRecordFilter(new FullResultSifter(false, trackEmitter)),
+                    options);
+            coverageHandler.add(set.addFrag("read1" + i, 0, 2, false, false, "75M", "*", 151));
+            coverageHandler.add(set.addFrag("read2" + i, 0, 30, false, false, "75M", "*", 151));
+
+            final List<BaseCoverage> coverage = coverageHandler.getBaseCoverage(1);
+            Assert.assertEquals(3, coverage.size());
+            assertCoverage(coverage.get(0), 2, 29, 1);
+            assertCoverage(coverage.get(1), 30, 76, 2);
+            assertCoverage(coverage.get(2), 77, 104, 1);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void getFullCoverageTest() throws IOException {
+        recordHandler.add(set.addFrag("read1", 0, 2, false, false, "75M", "*", 151));
+        recordHandler.add(set.addFrag("read2", 0, 30, false, false, "75M", "*", 151));
+
+        final List<BaseCoverage> coverage = recordHandler.getBaseCoverage(1);
+        int position = 2;
+        for (BaseCoverage item : coverage) {
+            final int end = item.getEndIndex() == null ? item.getStartIndex() : item.getEndIndex();
+            // positions are covered without gaps and runs have no base details
+            Assert.assertEquals(position, item.getStartIndex().intValue());
+            Assert.assertTrue(end == item.getStartIndex() || item.getaCov() == null && item.getcCov() == null
+                    && item.getgCov() == null && item.gettCov() == null && item.getnCov() == null
+                    && item.getInsCov() == null);
+            Assert.assertEquals(item.getStartIndex() >= 30 && end <= 76 ? 2 : 1, item.getValue().intValue());
+            position = end + 1;
+        }
+        Assert.assertEquals(105, position);
+    }
+
+    private void assertCoverage(final BaseCoverage coverage, final int start, final int end, final int value) {
+        Assert.assertEquals(start, coverage.getStartIndex().intValue());
+        Assert.assertEquals(end, coverage.getEndIndex().intValue());
+        Assert.assertEquals(value, coverage.getValue().intValue());
+    }
+
 }
@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.blast;
+
+import com.epam.catgenome.dao.blast.BlastDatabaseDao;
+import com.epam.catgenome.dao.blast.BlastTaskDao;
+import com.epam.catgenome.entity.blast.BlastDatabase;
+import com.epam.catgenome.entity.blast.BlastDatabaseSource;
+import com.epam.catgenome.entity.blast.BlastDatabaseType;
+import com.epam.catgenome.entity.blast.BlastTask;
+import com.epam.catgenome.entity.blast.BlastTaskStatus;
+import com.epam.catgenome.manager.AuthManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.AbstractTransactionalJUnit4SpringContextTests;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks synchronization of task statuses against a local stub of the BLAST service
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration({"classpath:applicationContext-test.xml"})
+@Transactional
+public class BlastTaskStatusSynchronizerTest extends AbstractTransactionalJUnit4SpringContextTests {
+
+    private static final long MIN_INTERVAL = 60000L;
+    private static final long MAX_INTERVAL = 600000L;
+    private static final int MAX_REQUESTS = 4;
+    private static final long TIMEOUT = 10000L;
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_ERROR = 500;
+    private static final long QUEUED_TASK = 1L;
+    private static final long FINISHED_TASK = 2L;
+    private static final long LONG_RUNNING_TASK = 3L;
+    private static final long FAILING_TASK = 4L;
+    private static final long LONG_RUNNING_AGE_HOURS = 2L;
+    private static final long LATER_MINUTES = 10L;
+    private static final String TASK_PATH = "/restapi/task/";
+
+    @Autowired
+    private BlastTaskManager blastTaskManager;
+    @Autowired
+    private BlastTaskDao blastTaskDao;
+    @Autowired
+    private BlastDatabaseDao blastDatabaseDao;
+    @Autowired
+    private AuthManager authManager;
+
+    private final Map<Long, String> serviceStatuses = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private BlastTaskStatusSynchronizer synchronizer;
+    private BlastDatabase database;
+    private LocalDateTime now;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(TASK_PATH, this::handleTaskRequest);
+        server.start();
+
+        final BlastRequestManager blastRequestManager = new BlastRequestManager();
+        ReflectionTestUtils.setField(blastRequestManager, "blastServer",
+                "http://localhost:" + server.getAddress().getPort() + "/");
+        ReflectionTestUtils.setField(blastRequestManager, "maxConcurrentRequests", MAX_REQUESTS);
+        ReflectionTestUtils.setField(blastRequestManager, "statusTimeout", TIMEOUT);
+        blastRequestManager.init();
+
+        synchronizer = new BlastTaskStatusSynchronizer(blastTaskManager, blastTaskDao, blastRequestManager);
+        ReflectionTestUtils.setField(synchronizer, "minPollInterval", MIN_INTERVAL);
+        ReflectionTestUtils.setField(synchronizer, "maxPollInterval", MAX_INTERVAL);
+
+        database = new BlastDatabase();
+        database.setName("Human");
+        database.setPath("Human");
+        database.setSource(BlastDatabaseSource.CUSTOM);
+        database.setType(BlastDatabaseType.NUCLEOTIDE);
+        blastDatabaseDao.saveDatabase(database);
+        now = LocalDateTime.now();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testSynchronizeStatuses() {
+        saveTask(QUEUED_TASK, BlastTaskStatus.CREATED, now);
+        saveTask(FINISHED_TASK, BlastTaskStatus.SUBMITTED, now);
+        saveTask(LONG_RUNNING_TASK, BlastTaskStatus.RUNNING, now.minusHours(LONG_RUNNING_AGE_HOURS));
+        saveTask(FAILING_TASK, BlastTaskStatus.CREATED, now);
+        serviceStatuses.put(QUEUED_TASK, BlastTaskStatus.RUNNING.name());
+        serviceStatuses.put(FINISHED_TASK, BlastTaskStatus.DONE.name());
+        serviceStatuses.put(LONG_RUNNING_TASK, BlastTaskStatus.RUNNING.name());
+
+        synchronizer.synchronize(now);
+
+        Assert.assertEquals(BlastTaskStatus.RUNNING, blastTaskDao.loadTaskById(QUEUED_TASK).getStatus());
+        final BlastTask finished = blastTaskDao.loadTaskById(FINISHED_TASK);
+        Assert.assertEquals(BlastTaskStatus.DONE, finished.getStatus());
+        Assert.assertNotNull(finished.getEndDate());
+        Assert.assertEquals(BlastTaskStatus.RUNNING, blastTaskDao.loadTaskById(LONG_RUNNING_TASK).getStatus());
+        Assert.assertEquals(BlastTaskStatus.CREATED, blastTaskDao.loadTaskById(FAILING_TASK).getStatus());
+        assertRequests(1, 1, 1, 1);
+    }
+
+    @Test
+    public void testAdaptivePolling() {
+        saveTask(QUEUED_TASK, BlastTaskStatus.CREATED, now);
+        saveTask(FINISHED_TASK, BlastTaskStatus.SUBMITTED, now);
+        saveTask(LONG_RUNNING_TASK, BlastTaskStatus.RUNNING, now.minusHours(LONG_RUNNING_AGE_HOURS));
+        saveTask(FAILING_TASK, BlastTaskStatus.CREATED, now);
+        serviceStatuses.put(QUEUED_TASK, BlastTaskStatus.RUNNING.name());
+        serviceStatuses.put(FINISHED_TASK, BlastTaskStatus.DONE.name());
+        serviceStatuses.put(LONG_RUNNING_TASK, BlastTaskStatus.RUNNING.name());
+
+        synchronizer.synchronize(now);
+        // the task, that has just changed its status, is polled on the next run, the finished task isn't
+        // polled anymore, the long running and the failing tasks are polled later
+        synchronizer.synchronize(now.plusMinutes(1));
+        assertRequests(2, 1, 1, 1);
+
+        synchronizer.synchronize(now.plusMinutes(LATER_MINUTES));
+        assertRequests(3, 1, 2, 2);
+    }
+
+    private void assertRequests(final int queued, final int finished, final int longRunning, final int failing) {
+        Assert.assertEquals(queued, requestCount(QUEUED_TASK));
+        Assert.assertEquals(finished, requestCount(FINISHED_TASK));
+        Assert.assertEquals(longRunning, requestCount(LONG_RUNNING_TASK));
+        Assert.assertEquals(failing, requestCount(FAILING_TASK));
+    }
+
+    private int requestCount(final long id) {
+        final AtomicInteger count = requestCounts.get(id);
+        return count == null ? 0 : count.get();
+    }
+
+    private void saveTask(final long id, final BlastTaskStatus status, final LocalDateTime createdDate) {
+        final BlastTask blastTask = new BlastTask();
+        blastTask.setId(id);
+        blastTask.setTitle("test" + id);
+        blastTask.setStatus(status);
+        blastTask.setOwner(authManager.getAuthorizedUser());
+        blastTask.setCreatedDate(createdDate);
+        blastTask.setDatabase(database);
+        blastTaskDao.saveTask(blastTask);
+    }
+
+    private void handleTaskRequest(final HttpExchange exchange) throws IOException {
+        final long id = Long.parseLong(exchange.getRequestURI().getPath().substring(TASK_PATH.length()));
+        requestCounts.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+        final String status = serviceStatuses.get(id);
+        final byte[] body = (status == null ? "{\"status\":\"ERROR\",\"message\":\"Unavailable\"}"
+                : String.format("{\"status\":\"OK\",\"payload\":{\"requestId\":%d,\"status\":\"%s\"}}", id, status))
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status == null ? HTTP_ERROR : HTTP_OK, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
@@ -33,6 +33,7 @@ import com.epam.catgenome.manager.gene.parser.GeneFeature;
 import com.epam.catgenome.manager.gene.parser.GffCodec;
 import com.epam.catgenome.manager.reference.ReferenceGenomeManager;
 import com.epam.catgenome.util.CachedFeatureReader;
+import com.epam.catgenome.util.PositionIndex;
 import htsjdk.samtools.util.Locatable;
 import com.epam.catgenome.util.feature.reader.AbstractFeatureReader;
 import htsjdk.tribble.readers.LineIterator;
@@ -127,4 +128,46 @@ public class GffManagerUnitTest {
         Assert.assertEquals(firstExon.getStart(), loadPrevExon.getStartIndex().intValue());
         Assert.assertEquals(firstExon.getEnd(), loadPrevExon.getEndIndex().intValue());
     }
+
+    @Test
+    public void testGetNextIndexedFeatureSpanningPosition() throws IOException {
+        GeneFile testGeneFile = new GeneFile();
+        testGeneFile.setId(TEST_GENE_FILE_ID);
+        testGeneFile.setCompressed(false);
+
+        Chromosome testChromosome = EntityHelper.createNewChromosome();
+        testChromosome.setSize(TEST_CHROMOSOME_SIZE);
+        testChromosome.setId(TEST_CHROMOSOME_ID);
+
+        CachedFeatureReader<GeneFeature, LineIterator> reader = new CachedFeatureReader<>(featureList, new GffCodec(
+            GffCodec.GffType.GTF));
+
+        Mockito.when(geneFileManager.load(TEST_GENE_FILE_ID)).thenReturn(testGeneFile);
+        Mockito.when(fileManager.makeGeneReader(testGeneFile, GeneFileType.ORIGINAL)).thenReturn(reader);
+        Mockito.when(referenceGenomeManager.loadChromosome(TEST_CHROMOSOME_ID)).thenReturn(testChromosome);
+
+        List<GeneFeature> exons = featureList.stream().filter(s -> "exon".equals(s.getFeature())).collect(
+            Collectors.toList());
+        Collections.sort(exons, Comparator.comparingInt(Locatable::getStart));
+        PositionIndex.Builder builder = new PositionIndex.Builder(0);
+        exons.forEach(exon -> builder.add(exon.getStart(), exon.getEnd()));
+        GeneFeature spanning = exons.stream().skip(exons.size() / 2).filter(exon -> exon.getEnd() > exon.getStart())
+            .findFirst().orElseThrow(IllegalStateException::new);
+
+        // a position inside an exon, the sequential search returns the exon, spanning it
+        Gene expected = gffManager.getNextOrPreviousFeature(spanning.getStart(), TEST_GENE_FILE_ID,
+                                                            TEST_CHROMOSOME_ID, true);
+        Assert.assertNotNull(expected);
+        Assert.assertTrue(expected.getStartIndex() <= spanning.getStart());
+
+        reader.reOpen();
+        Mockito.when(fileManager.loadPositionIndex(testGeneFile, testChromosome.getName()))
+            .thenReturn(builder.build());
+
+        Gene loadedNextExon = gffManager.getNextOrPreviousFeature(spanning.getStart(), TEST_GENE_FILE_ID,
+                                                                  TEST_CHROMOSOME_ID, true);
+        Assert.assertNotNull(loadedNextExon);
+        Assert.assertEquals(expected.getStartIndex(), loadedNextExon.getStartIndex());
+        Assert.assertEquals(expected.getEndIndex(), loadedNextExon.getEndIndex());
+    }
 }
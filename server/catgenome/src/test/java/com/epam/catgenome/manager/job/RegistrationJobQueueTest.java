@@ -0,0 +1,221 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.job;
+
+import com.epam.catgenome.common.AbstractManagerTest;
+import com.epam.catgenome.controller.vo.registration.FeatureIndexedFileRegistrationRequest;
+import com.epam.catgenome.controller.vo.registration.FileReindexRequest;
+import com.epam.catgenome.controller.vo.registration.ReferenceRegistrationRequest;
+import com.epam.catgenome.entity.BiologicalDataItemResourceType;
+import com.epam.catgenome.entity.job.RegistrationJob;
+import com.epam.catgenome.entity.job.RegistrationJobStatus;
+import com.epam.catgenome.entity.job.RegistrationJobType;
+import com.epam.catgenome.entity.reference.Reference;
+import com.epam.catgenome.manager.reference.ReferenceGenomeManager;
+import com.epam.catgenome.manager.reference.ReferenceManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration({"classpath:applicationContext-test.xml"})
+public class RegistrationJobQueueTest extends AbstractManagerTest {
+
+    private static final String A3_FA_PATH = "classpath:templates/A3.fa";
+    private static final String GTF_PATH = "classpath:templates/Felis_catus.Felis_catus_6.2.81.gtf";
+    private static final String VCF_PATH = "classpath:templates/Felis_catus.vcf";
+    private static final long POLL_INTERVAL = 100;
+    private static final int MAX_POLLS = 600;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private RegistrationJobQueue registrationJobQueue;
+
+    @Autowired
+    private RegistrationJobManager registrationJobManager;
+
+    @Autowired
+    private ReferenceGenomeManager referenceGenomeManager;
+
+    @Autowired
+    private ReferenceManager referenceManager;
+
+    private ReferenceRegistrationRequest request;
+
+    @Before
+    public void setup() throws IOException {
+        request = new ReferenceRegistrationRequest();
+        request.setName("jobReference" + System.nanoTime());
+        request.setPath(context.getResource(A3_FA_PATH).getFile().getPath());
+        request.setType(BiologicalDataItemResourceType.FILE);
+    }
+
+    @Test
+    public void testRegisterReferenceInBackground() throws IOException, InterruptedException {
+        final RegistrationJob job = registrationJobQueue.submit(RegistrationJobType.REFERENCE, request);
+        assertNotNull(job.getId());
+        assertNotNull(job.getTotalBytes());
+
+        final RegistrationJob finished = waitForJob(job.getId());
+        assertEquals(RegistrationJobStatus.DONE, finished.getStatus());
+        assertNotNull(finished.getStartDate());
+        assertNotNull(finished.getEndDate());
+        assertTrue(finished.getRecordsProcessed() > 0);
+
+        assertTrue(finished.getBytesRead() > 0 && finished.getBytesRead() <= finished.getTotalBytes());
+
+        final Reference reference = referenceGenomeManager.load(finished.getResultId());
+        assertNotNull(reference);
+        assertTrue(registrationJobQueue.loadCurrentUserJobs().stream()
+                .anyMatch(loaded -> loaded.getId().equals(job.getId())));
+        referenceManager.unregisterGenome(reference.getId());
+    }
+
+    @Test
+    public void testTotalBytesOnlyForBytesReportingJobs() throws IOException {
+        final FeatureIndexedFileRegistrationRequest geneRequest = new FeatureIndexedFileRegistrationRequest();
+        geneRequest.setPath(context.getResource(GTF_PATH).getFile().getPath());
+        final RegistrationJob geneJob = registrationJobManager.create(RegistrationJobType.GENE, geneRequest);
+        assertEquals(context.getResource(GTF_PATH).getFile().length(), geneJob.getTotalBytes().longValue());
+
+        final FeatureIndexedFileRegistrationRequest vcfRequest = new FeatureIndexedFileRegistrationRequest();
+        vcfRequest.setPath(context.getResource(VCF_PATH).getFile().getPath());
+        final RegistrationJob vcfJob = registrationJobManager.create(RegistrationJobType.VCF, vcfRequest);
+        assertNull(vcfJob.getTotalBytes());
+
+        registrationJobQueue.cancel(geneJob.getId());
+        registrationJobQueue.cancel(vcfJob.getId());
+    }
+
+    @Test
+    public void testCancelQueuedJob() {
+        final RegistrationJob job = registrationJobManager.create(RegistrationJobType.REFERENCE, request);
+
+        final RegistrationJob canceled = registrationJobQueue.cancel(job.getId());
+        assertEquals(RegistrationJobStatus.CANCELED, canceled.getStatus());
+        assertEquals(RegistrationJobStatus.CANCELED, registrationJobQueue.load(job.getId()).getStatus());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCancelFinishedJobFails() {
+        final RegistrationJob job = registrationJobManager.create(RegistrationJobType.REFERENCE, request);
+        registrationJobQueue.cancel(job.getId());
+        registrationJobQueue.cancel(job.getId());
+    }
+
+    @Test
+    public void testCancelRunningJob() {
+        final RegistrationJob job = registrationJobManager.create(RegistrationJobType.REFERENCE, request);
+        final RegistrationJobProgress progress = startJob(job);
+        try {
+            final RegistrationJob canceled = registrationJobQueue.cancel(job.getId());
+            assertEquals(RegistrationJobStatus.CANCELED, canceled.getStatus());
+            assertTrue(progress.isCanceled());
+            progress.addRecords(1);
+            fail("A canceled job should be stopped on the next progress report");
+        } catch (CancellationException e) {
+            assertEquals(0, progress.getRecords());
+        } finally {
+            getActiveJobs().remove(job.getId());
+        }
+    }
+
+    @Test
+    public void testCancelRunningReindexJobFails() {
+        final FileReindexRequest reindexRequest = new FileReindexRequest();
+        reindexRequest.setFileId(1L);
+        final RegistrationJob job = registrationJobManager.create(RegistrationJobType.VCF_REINDEX, reindexRequest);
+        final RegistrationJobProgress progress = startJob(job);
+        try {
+            registrationJobQueue.cancel(job.getId());
+            fail("A running reindex job shouldn't be canceled");
+        } catch (IllegalArgumentException e) {
+            assertFalse(progress.isCanceled());
+            progress.addRecords(1);
+            assertEquals(RegistrationJobStatus.RUNNING, registrationJobQueue.load(job.getId()).getStatus());
+        } finally {
+            getActiveJobs().remove(job.getId());
+        }
+    }
+
+    @Test
+    public void testRecoverJobsAfterRestart() throws IOException, InterruptedException {
+        final RegistrationJob interrupted = registrationJobManager.create(RegistrationJobType.REFERENCE, request);
+        interrupted.setStatus(RegistrationJobStatus.RUNNING);
+        registrationJobManager.update(interrupted);
+        final RegistrationJob queued = registrationJobManager.create(RegistrationJobType.REFERENCE, request);
+
+        registrationJobQueue.recover();
+
+        assertEquals(RegistrationJobStatus.FAILED, registrationJobQueue.load(interrupted.getId()).getStatus());
+        final RegistrationJob finished = waitForJob(queued.getId());
+        assertEquals(RegistrationJobStatus.DONE, finished.getStatus());
+        referenceManager.unregisterGenome(finished.getResultId());
+    }
+
+    /**
+     * Marks a job as running by the queue without running a registration
+     */
+    private RegistrationJobProgress startJob(final RegistrationJob job) {
+        final RegistrationJobProgress progress = new RegistrationJobProgress(job.getId());
+        assertTrue(progress.start());
+        getActiveJobs().put(job.getId(), progress);
+        job.setStatus(RegistrationJobStatus.RUNNING);
+        registrationJobManager.update(job);
+        return progress;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, RegistrationJobProgress> getActiveJobs() {
+        return (Map<Long, RegistrationJobProgress>) ReflectionTestUtils.getField(registrationJobQueue, "activeJobs");
+    }
+
+    private RegistrationJob waitForJob(final long jobId) throws InterruptedException {
+        RegistrationJob job = registrationJobQueue.load(jobId);
+        for (int i = 0; i < MAX_POLLS && !job.getStatus().isFinal(); i++) {
+            Thread.sleep(POLL_INTERVAL);
+            job = registrationJobQueue.load(jobId);
+        }
+        return job;
+    }
+}
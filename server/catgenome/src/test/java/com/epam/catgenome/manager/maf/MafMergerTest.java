@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.maf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ClassPathResource;
+
+import com.epam.catgenome.entity.reference.Chromosome;
+import com.epam.catgenome.helper.EntityHelper;
+import com.epam.catgenome.manager.maf.parser.MafCodec;
+import com.epam.catgenome.manager.maf.parser.MafFeature;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.tabix.TabixFormat;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+
+public class MafMergerTest {
+
+    private static final String MAF_DIRECTORY = "templates/maf";
+    private static final String BIG_MAF_NAME = "merged.bmaf.gz";
+    private static final int SMALL_CHUNK = 16;
+    private static final int LARGE_CHUNK = 100000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<Chromosome> chromosomes;
+    private File[] mafFiles;
+
+    @Before
+    public void setup() throws IOException {
+        chromosomes = EntityHelper.createHumanChromosomes();
+        mafFiles = new ClassPathResource(MAF_DIRECTORY).getFile().listFiles();
+        Assert.assertNotNull(mafFiles);
+    }
+
+    @Test
+    public void testMergeIsSorted() throws IOException {
+        final File merged = merge(SMALL_CHUNK);
+        final List<MafFeature> features = readFeatures(merged);
+        Assert.assertFalse(features.isEmpty());
+
+        final Map<String, Integer> order = new HashMap<>();
+        for (int i = 0; i < chromosomes.size(); i++) {
+            order.put("chr" + chromosomes.get(i).getName(), i);
+        }
+        for (int i = 1; i < features.size(); i++) {
+            final MafFeature previous = features.get(i - 1);
+            final MafFeature current = features.get(i);
+            final int byChromosome = Integer.compare(order.get(previous.getContig()),
+                    order.get(current.getContig()));
+            Assert.assertTrue(byChromosome < 0
+                    || byChromosome == 0 && previous.getStart() <= current.getStart());
+        }
+        // all runs are deleted after merging
+        Assert.assertEquals(0, runsDirectory(SMALL_CHUNK).list().length);
+    }
+
+    @Test
+    public void testMergeDoesNotDependOnChunkSize() throws IOException {
+        Assert.assertEquals(readLines(merge(LARGE_CHUNK)), readLines(merge(SMALL_CHUNK)));
+    }
+
+    private File merge(final int chunkSize) throws IOException {
+        final File runs = runsDirectory(chunkSize);
+        final File output = new File(folder.getRoot(), chunkSize + BIG_MAF_NAME);
+        final MafMerger merger = new MafMerger(chromosomes, runs, chunkSize);
+        for (File file : mafFiles) {
+            merger.addFile(file);
+        }
+        final TabixIndexCreator indexCreator = new TabixIndexCreator(TabixFormat.BED);
+        final Index index;
+        try (BlockCompressedOutputStream stream = new BlockCompressedOutputStream(output)) {
+            index = merger.merge(stream, indexCreator);
+        }
+        Assert.assertTrue(index.containsChromosome("chr1"));
+        return output;
+    }
+
+    private File runsDirectory(final int chunkSize) {
+        final File directory = new File(folder.getRoot(), String.valueOf(chunkSize));
+        if (!directory.exists()) {
+            Assert.assertTrue(directory.mkdirs());
+        }
+        return directory;
+    }
+
+    private List<MafFeature> readFeatures(final File file) throws IOException {
+        final MafCodec codec = new MafCodec(file.getName());
+        final List<MafFeature> features = new ArrayList<>();
+        for (String line : readLines(file)) {
+            features.add(codec.decode(line));
+        }
+        return features;
+    }
+
+    private List<String> readLines(final File file) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new BlockCompressedInputStream(file), Charset.defaultCharset()))) {
+            String line = reader.readLine();
+            while (line != null) {
+                lines.add(line);
+                line = reader.readLine();
+            }
+        }
+        return lines;
+    }
+}
@@ -45,6 +45,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 
 public class ProjectSecurityServiceTest extends AbstractACLSecurityTest {
 
@@ -206,6 +207,20 @@ public class ProjectSecurityServiceTest extends AbstractACLSecurityTest {
         projectSecurityService.addProjectItem(project.getId(), bam2.getBioDataItemId());
     }
 
+    @Test
+    @WithMockUser(TEST_USER2)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void loadTopLevelProjectsTest() {
+        List<Project> loaded = projectSecurityService.loadTopLevelProjects();
+        Project loadedProject = loaded.stream().filter(p -> p.getId().equals(project.getId())).findFirst()
+                .orElse(null);
+        Assert.assertNotNull(loadedProject);
+        Assert.assertEquals(1, loadedProject.getLeaves().size());
+        Assert.assertEquals(0, loadedProject.getChildren().size());
+        Assert.assertNotNull(loadedProject.getMask());
+        Assert.assertTrue((loadedProject.getMask() & ((AclPermission) AclPermission.READ).getSimpleMask()) != 0);
+    }
+
     @Test
     @WithMockUser(TEST_USER_NO_READ)
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -31,12 +31,16 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 
 
+import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import com.epam.catgenome.dao.BiologicalDataItemDao;
 import com.epam.catgenome.entity.reference.Species;
@@ -44,7 +48,9 @@ import com.epam.catgenome.manager.reference.io.FastaUtils;
 import com.epam.catgenome.manager.genbank.GenbankUtils;
 import org.junit.Before;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -53,6 +59,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -94,6 +102,12 @@ import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
     private static final String A3_FA_PATH = "classpath:templates/A3.fa";
     private static final String GENBANK_PATH = "classpath:templates/KU131557.gbk";
     public static final String PRETTY_NAME = "pretty";
+    private static final int[] CHROMOSOME_SIZES = {30001, 250000, 120, 70000, 1, 150000};
+    private static final int FASTA_LINE_LENGTH = 60;
+    private static final long REGISTRATION_MEMORY_BUDGET = 200000;
+    private static final int PARALLEL_THREAD_COUNT = 4;
+    private static final String REGISTRATION_THREAD_COUNT_FIELD = "registrationThreadCount";
+    private static final String REGISTRATION_MEMORY_BUDGET_FIELD = "registrationMemoryBudget";
 
     @Value("${ga4gh.google.referenceSetId}") private String referenseSetID;
 
@@ -117,6 +131,9 @@ import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
 
     @Autowired private BiologicalDataItemDao biologicalDataItemDao;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Before public void fastaToNibFileTest() throws IOException {
         resource = context.getResource(A3_FA_PATH);
 
@@ -445,4 +462,65 @@ import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
         assertTrue(reference.getPath().endsWith(FastaUtils.DEFAULT_FASTA_EXTENSION));
         assertTrue(reference.getSource().endsWith(GenbankUtils.GENBANK_DEFAULT_EXTENSION));
     }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void testParallelRegistrationIsIdenticalToSequential() throws IOException {
+        final File fasta = folder.newFile("scaffolds.fa");
+        final Random random = new Random(CHROMOSOME_SIZES.length);
+        final String bases = "ACGTNacgtn";
+        try (PrintWriter writer = new PrintWriter(fasta)) {
+            for (int i = 0; i < CHROMOSOME_SIZES.length; i++) {
+                writer.println(">scaffold" + i);
+                for (int j = 0; j < CHROMOSOME_SIZES[i]; j++) {
+                    writer.print(bases.charAt(random.nextInt(bases.length())));
+                    if ((j + 1) % FASTA_LINE_LENGTH == 0 || j == CHROMOSOME_SIZES[i] - 1) {
+                        writer.println();
+                    }
+                }
+            }
+        }
+
+        // settings are set on the target bean, the injected manager is a transactional proxy
+        final ReferenceManager target = AopTestUtils.getTargetObject(referenceManager);
+        final Object threadCount = ReflectionTestUtils.getField(target, REGISTRATION_THREAD_COUNT_FIELD);
+        final Object memoryBudget = ReflectionTestUtils.getField(target, REGISTRATION_MEMORY_BUDGET_FIELD);
+        try {
+            ReflectionTestUtils.setField(target, REGISTRATION_THREAD_COUNT_FIELD, 1);
+            final Reference sequential = registerScaffolds(fasta, "sequential");
+            ReflectionTestUtils.setField(target, REGISTRATION_THREAD_COUNT_FIELD, PARALLEL_THREAD_COUNT);
+            ReflectionTestUtils.setField(target, REGISTRATION_MEMORY_BUDGET_FIELD, REGISTRATION_MEMORY_BUDGET);
+            final Reference parallel = registerScaffolds(fasta, "parallel");
+
+            assertEquals(CHROMOSOME_SIZES.length, parallel.getChromosomes().size());
+            assertEquals(sequential.getSize(), parallel.getSize());
+            for (int i = 0; i < CHROMOSOME_SIZES.length; i++) {
+                final Chromosome expected = sequential.getChromosomes().get(i);
+                final Chromosome actual = parallel.getChromosomes().get(i);
+                assertEquals("scaffold" + i, actual.getName());
+                assertEquals(expected.getName(), actual.getName());
+                assertEquals(expected.getSize(), actual.getSize());
+                final Path expectedDir = Paths.get(baseDirPath, expected.getPath()).getParent();
+                final Path actualDir = Paths.get(baseDirPath, actual.getPath()).getParent();
+                final File[] files = expectedDir.toFile().listFiles();
+                assertNotNull(files);
+                assertEquals(files.length, actualDir.toFile().list().length);
+                for (File file : files) {
+                    assertTrue(Arrays.equals(Files.readAllBytes(file.toPath()),
+                            Files.readAllBytes(actualDir.resolve(file.getName()))));
+                }
+            }
+        } finally {
+            ReflectionTestUtils.setField(target, REGISTRATION_THREAD_COUNT_FIELD, threadCount);
+            ReflectionTestUtils.setField(target, REGISTRATION_MEMORY_BUDGET_FIELD, memoryBudget);
+        }
+    }
+
+    private Reference registerScaffolds(final File fasta, final String name) throws IOException {
+        final ReferenceRegistrationRequest request = new ReferenceRegistrationRequest();
+        request.setName(name + this.getClass().getSimpleName());
+        request.setPath(fasta.getPath());
+        request.setType(BiologicalDataItemResourceType.FILE);
+        return referenceManager.registerGenome(request);
+    }
 }
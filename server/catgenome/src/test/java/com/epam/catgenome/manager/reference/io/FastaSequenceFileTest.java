@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.reference.io;
+
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class FastaSequenceFileTest {
+
+    private static final String FASTA = "templates/reference/hp.genome.fa";
+    private static final String CHROMOSOME = "chrA1";
+    private static final int LINE_LENGTH = 51;
+
+    private File fasta;
+    private FastaSequenceFile sequenceFile;
+    private IndexedFastaSequenceFile expectedFile;
+
+    @Before
+    public void setUp() throws IOException {
+        fasta = new ClassPathResource(FASTA).getFile();
+        sequenceFile = new FastaSequenceFile(fasta.getAbsolutePath(), fasta.getAbsolutePath() + ".fai");
+        expectedFile = new IndexedFastaSequenceFile(fasta);
+    }
+
+    @Test
+    public void testGetSequenceAcrossLines() {
+        final int size = sequenceFile.getSequenceSize(CHROMOSOME);
+        for (int start = 1; start <= size; start += LINE_LENGTH / 2) {
+            for (int end = start; end <= size; end += LINE_LENGTH / 3) {
+                Assert.assertArrayEquals(expected(CHROMOSOME, start, end),
+                        sequenceFile.getSequence(CHROMOSOME, start, end));
+            }
+        }
+    }
+
+    @Test
+    public void testGetChromosomes() {
+        for (String chromosome : sequenceFile.getChromosomeNames()) {
+            Assert.assertArrayEquals(expected(chromosome, 1, sequenceFile.getSequenceSize(chromosome)),
+                    sequenceFile.getChromosome(chromosome));
+        }
+    }
+
+    @Test
+    public void testCopySequence() throws IOException {
+        final int size = sequenceFile.getSequenceSize(CHROMOSOME);
+        final int start = LINE_LENGTH - 2;
+        final byte[] target = new byte[size + 2];
+        final int copied = sequenceFile.copySequence(CHROMOSOME, start, size + LINE_LENGTH, target, 1);
+        Assert.assertEquals(size - start + 1, copied);
+        Assert.assertArrayEquals(expected(CHROMOSOME, start, size), Arrays.copyOfRange(target, 1, copied + 1));
+        Assert.assertEquals(0, sequenceFile.copySequence("unknown", 1, LINE_LENGTH, target, 0));
+    }
+
+    private byte[] expected(final String chromosome, final int start, final int end) {
+        return expectedFile.getSubsequenceAt(chromosome, start, end).getBases();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.reference.io;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class ReferenceSequenceCacheTest {
+
+    private static final int BLOCK_SIZE = 100;
+    private static final int SEQUENCE_LENGTH = BLOCK_SIZE * 5 + 42;
+    private static final long REFERENCE_ID = 1L;
+    private static final String CHROMOSOME = "chr1";
+    private static final byte[] NUCLEOTIDES = {'A', 'C', 'G', 'T', 'N', 'a', 'c', 'g', 't'};
+
+    private byte[] sequence;
+    private int loads;
+    private ReferenceSequenceCache cache;
+    private ReferenceSequenceCache.SequenceLoader loader;
+
+    @Before
+    public void setUp() {
+        final Random random = new Random(1);
+        sequence = new byte[SEQUENCE_LENGTH];
+        for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+            sequence[i] = NUCLEOTIDES[random.nextInt(NUCLEOTIDES.length)];
+        }
+        loads = 0;
+        cache = new ReferenceSequenceCache(BLOCK_SIZE, BLOCK_SIZE * 100);
+        loader = (start, end) -> {
+            loads++;
+            return Arrays.copyOfRange(sequence, start - 1, Math.min(end, SEQUENCE_LENGTH));
+        };
+    }
+
+    @Test
+    public void testGetSequenceAcrossBlocks() throws Exception {
+        final int start = BLOCK_SIZE - 10;
+        final int end = BLOCK_SIZE * 3 + 10;
+        Assert.assertArrayEquals(expected(start, end), cache.getSequence(REFERENCE_ID, CHROMOSOME, start, end,
+                loader));
+        Assert.assertEquals(4, loads);
+    }
+
+    @Test
+    public void testRepeatedRequestsAreServedFromCache() throws Exception {
+        for (int start = 1; start < SEQUENCE_LENGTH; start += BLOCK_SIZE / 3) {
+            final int end = Math.min(start + BLOCK_SIZE / 2, SEQUENCE_LENGTH);
+            Assert.assertArrayEquals(expected(start, end), cache.getSequence(REFERENCE_ID, CHROMOSOME, start, end,
+                    loader));
+        }
+        Assert.assertEquals(SEQUENCE_LENGTH / BLOCK_SIZE + 1, loads);
+    }
+
+    @Test
+    public void testSequenceIsTruncatedAtChromosomeEnd() throws Exception {
+        final int start = SEQUENCE_LENGTH - 10;
+        final byte[] result = cache.getSequence(REFERENCE_ID, CHROMOSOME, start, SEQUENCE_LENGTH + BLOCK_SIZE * 2,
+                loader);
+        Assert.assertArrayEquals(expected(start, SEQUENCE_LENGTH), result);
+        Assert.assertEquals(0, cache.getSequence(REFERENCE_ID, CHROMOSOME, SEQUENCE_LENGTH + 1,
+                SEQUENCE_LENGTH + BLOCK_SIZE, loader).length);
+    }
+
+    @Test
+    public void testCopySequence() throws Exception {
+        final int start = BLOCK_SIZE + 1;
+        final int end = BLOCK_SIZE * 2 + 5;
+        final byte[] target = new byte[end - start + 4];
+        final int copied = cache.copySequence(REFERENCE_ID, CHROMOSOME, start, end, loader, target, 2);
+        Assert.assertEquals(end - start + 1, copied);
+        Assert.assertArrayEquals(expected(start, end), Arrays.copyOfRange(target, 2, target.length - 1));
+    }
+
+    @Test
+    public void testEvict() throws Exception {
+        cache.getSequence(REFERENCE_ID, CHROMOSOME, 1, BLOCK_SIZE, loader);
+        cache.getSequence(REFERENCE_ID, CHROMOSOME, 1, BLOCK_SIZE, loader);
+        Assert.assertEquals(1, loads);
+        cache.evict(REFERENCE_ID);
+        cache.getSequence(REFERENCE_ID, CHROMOSOME, 1, BLOCK_SIZE, loader);
+        Assert.assertEquals(2, loads);
+    }
+
+    private byte[] expected(final int start, final int end) {
+        return Arrays.copyOfRange(sequence, start - 1, end);
+    }
+}
@@ -60,6 +60,9 @@ public class SortTest extends AbstractJUnitTest {
     private static final int UNSORTED_BED_EXPECTED_LINES = 9;
     private static final int GENE_SORTED_BED_EXPECTED_LINES = 141;
     private static final int BIG_BED_EXPECTED_LINES = 8178;
+    private static final int FELIS_CATUS_EXPECTED_LINES = 54;
+    private static final String BIG_BED_CHROMOSOME = "chrA1";
+    private static final String FELIS_CATUS_CHROMOSOME = "chrA1";
 
     @Autowired
     private ToolsManager toolsManager;
@@ -82,6 +85,24 @@ public class SortTest extends AbstractJUnitTest {
         testSort(getTemplate("big.bed.gz"), new BEDCodec(), BIG_BED_EXPECTED_LINES, 1);
     }
 
+    @Test
+    public void testSortBedCompressedWithIndex() throws Exception {
+        final File sorted = testSort(getTemplate("big.bed.gz"), new BEDCodec(), BIG_BED_EXPECTED_LINES, 1, true);
+        assertEquals(BIG_BED_EXPECTED_LINES, queryIndexed(sorted, new BEDCodec(), BIG_BED_CHROMOSOME));
+    }
+
+    @Test
+    public void testSortVCFCompressedWithIndex() throws Exception {
+        final File sorted = testSort(getTemplate("Felis_catus.vcf.gz"), new VCFCodec(), FELIS_CATUS_EXPECTED_LINES,
+                MAX_MEMORY, true);
+        assertEquals(FELIS_CATUS_EXPECTED_LINES, queryIndexed(sorted, new VCFCodec(), FELIS_CATUS_CHROMOSOME));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSortUncompressedWithIndex() throws Exception {
+        testSort(getTemplate("invalid/unsorted.bed"), new BEDCodec(), UNSORTED_BED_EXPECTED_LINES, MAX_MEMORY, true);
+    }
+
     @Test
     public void testSortVCF() throws Exception {
         testSort(getTemplate("invalid/unsorted.vcf"), new VCFCodec());
@@ -117,6 +138,11 @@ public class SortTest extends AbstractJUnitTest {
 
     public void testSort(File infile, final FeatureCodec codec, final int expectedLines, final int maxMemory)
             throws IOException {
+        testSort(infile, codec, expectedLines, maxMemory, false);
+    }
+
+    public File testSort(File infile, final FeatureCodec codec, final int expectedLines, final int maxMemory,
+                         final boolean createIndex) throws IOException {
 
         File ofile = new File(
                 infile + (NgbFileUtils.isGzCompressed(infile.getName()) ? ".sorted.gz" : ".sorted")
@@ -127,6 +153,7 @@ public class SortTest extends AbstractJUnitTest {
         request.setOriginalFilePath(infile.getAbsolutePath());
         request.setSortedFilePath(ofile.getAbsolutePath());
         request.setMaxMemory(maxMemory);
+        request.setCreateIndex(createIndex);
 
         toolsManager.sortFeatureFile(request);
 
@@ -135,6 +162,25 @@ public class SortTest extends AbstractJUnitTest {
         if(expectedLines != 0){
             assertEquals(expectedLines, outLines);
         }
+        return ofile;
+    }
+
+    public <F extends Feature, S> int queryIndexed(File ofile, final FeatureCodec<F, S> codec, String chromosome)
+            throws IOException {
+        final File index = new File(ofile.getAbsolutePath() + ".tbi");
+        index.deleteOnExit();
+        assertTrue(index.exists());
+
+        int numlines = 0;
+        try (AbstractFeatureReader<F, S> reader = AbstractEnhancedFeatureReader.getFeatureReader(
+                ofile.getAbsolutePath(), codec, true, indexCache);
+             CloseableTribbleIterator<F> iterator = reader.query(chromosome, 1, Integer.MAX_VALUE)) {
+            while (iterator.hasNext()) {
+                iterator.next();
+                numlines++;
+            }
+        }
+        return numlines;
     }
 
     public <F extends Feature, S> int checkFileSorted(File ofile, final FeatureCodec<F, S> codec)
@@ -24,11 +24,13 @@
 
 package com.epam.catgenome.manager.vcf;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -44,7 +46,9 @@ import org.eclipse.jetty.server.Server;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -60,6 +64,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -82,6 +87,7 @@ import com.epam.catgenome.entity.vcf.Variation;
 import com.epam.catgenome.entity.vcf.VariationQuery;
 import com.epam.catgenome.entity.vcf.VariationType;
 import com.epam.catgenome.entity.vcf.VcfFile;
+import com.epam.catgenome.entity.vcf.VcfFilterForm;
 import com.epam.catgenome.entity.vcf.VcfFilterInfo;
 import com.epam.catgenome.entity.vcf.VcfSample;
 import com.epam.catgenome.exception.ExternalDbUnavailableException;
@@ -98,6 +104,7 @@ import com.epam.catgenome.manager.TrackHelper;
 import com.epam.catgenome.manager.externaldb.HttpDataManager;
 import com.epam.catgenome.manager.externaldb.ParameterNameValue;
 import com.epam.catgenome.manager.gene.GffManager;
+import com.epam.catgenome.manager.parallel.TaskExecutorService;
 import com.epam.catgenome.manager.reference.ReferenceGenomeManager;
 import com.epam.catgenome.manager.reference.ReferenceManager;
 import com.epam.catgenome.manager.vcf.reader.VcfGa4ghReader;
@@ -120,6 +127,7 @@ import com.epam.catgenome.util.Utils;
 public class VcfManagerTest extends AbstractManagerTest {
 
     private static final String CLASSPATH_TEMPLATES_FELIS_CATUS_VCF = "classpath:templates/Felis_catus.vcf";
+    private static final String CLASSPATH_TEMPLATES_LUMPY_VCF = "classpath:templates/sample_2-lumpy.vcf";
     private static final String CLASSPATH_TEMPLATES_FELIS_CATUS_VCF_COMPRESSED = "classpath:templates/Felis_catus.vcf" +
             ".gz";
     private static final String CLASSPATH_TEMPLATES_FELIS_CATUS_VCF_GOOGLE = "classpath:templates/1000-genomes.chrMT" +
@@ -167,6 +175,9 @@ public class VcfManagerTest extends AbstractManagerTest {
     @Autowired
     private GffManager gffManager;
 
+    @Autowired
+    private TaskExecutorService taskExecutorService;
+
     @InjectMocks
     private VcfManager vcfManager;
 
@@ -177,7 +188,14 @@ public class VcfManagerTest extends AbstractManagerTest {
     @Autowired(required = false)
     private EhCacheBasedIndexCache indexCache;
 
+    private static final int PARALLELISM = 4;
+    private static final String PARALLEL_INDEX_FILE_NAME = "Felis_catus_parallel.vcf";
+    private static final String PARALLEL_INDEX_LUMPY_FILE_NAME = "sample_2-lumpy_parallel.vcf";
     private static final int TEST_END_INDEX = 187708306;
+    private static final String DENSE_FILE_NAME = "dense.vcf";
+    private static final int DENSE_CLUSTERS = 10;
+    private static final int DENSE_CLUSTER_SIZE = 300;
+    private static final int DENSE_CLUSTER_DISTANCE = 1000000;
 
     private static final double TEST_SMALL_SCALE_FACTOR = 0.000007682737;
 
@@ -206,11 +224,15 @@ public class VcfManagerTest extends AbstractManagerTest {
     private Chromosome testChromosome;
     private Chromosome testChrGA4GH;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private Logger logger = LoggerFactory.getLogger(VcfManagerTest.class);
 
     @Before
     public void setup() throws Exception {
         MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(vcfManager, "taskExecutorService", taskExecutorService);
 
         Assert.assertNotNull(featureIndexManager);
         Assert.assertNotNull(downloadFileManager);
@@ -266,6 +288,74 @@ public class VcfManagerTest extends AbstractManagerTest {
         entries2.forEach(e -> Assert.assertTrue(e.getFeatureId().startsWith(featureId)));*/
     }
 
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void testSaveLoadVcfFileParallelIndex() throws IOException, InterruptedException {
+        VcfFile sequentialFile = testSave(CLASSPATH_TEMPLATES_FELIS_CATUS_VCF);
+        Track<Variation> sequentialTrack = testLoad(sequentialFile, 1D, true);
+
+        ReflectionTestUtils.setField(vcfManager, "indexParallelism", PARALLELISM);
+        try {
+            FeatureIndexedFileRegistrationRequest request = new FeatureIndexedFileRegistrationRequest();
+            request.setReferenceId(referenceId);
+            request.setPath(context.getResource(CLASSPATH_TEMPLATES_FELIS_CATUS_VCF).getFile().getAbsolutePath());
+            request.setName(PARALLEL_INDEX_FILE_NAME);
+            VcfFile parallelFile = vcfManager.registerVcfFile(request);
+            Track<Variation> parallelTrack = testLoad(parallelFile, 1D, true);
+
+            Assert.assertEquals(sequentialTrack.getBlocks().size(), parallelTrack.getBlocks().size());
+            Assert.assertEquals(fileManager.loadIndexMetadata(sequentialFile),
+                    fileManager.loadIndexMetadata(parallelFile));
+        } finally {
+            ReflectionTestUtils.setField(vcfManager, "indexParallelism", 1);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void testParallelIndexKeepsFileOrder() throws IOException, InterruptedException {
+        // chromosomes of the file aren't sorted: chr5 and chr16 follow chrX
+        Resource resource = context.getResource(CLASSPATH_TEMPLATES_LUMPY_VCF);
+        List<Chromosome> chromosomes = Files.readAllLines(resource.getFile().toPath()).stream()
+                .filter(line -> !line.startsWith("#"))
+                .map(line -> line.substring(0, line.indexOf('\t')))
+                .distinct()
+                .map(name -> EntityHelper.createNewChromosome(name, TEST_CHROMOSOME_SIZE))
+                .collect(Collectors.toList());
+        Reference reference = EntityHelper.createNewReference(chromosomes, referenceGenomeManager.createReferenceId());
+        referenceGenomeManager.create(reference);
+
+        VcfFile sequentialFile = registerVcf(resource, reference.getId(), vcfManager, PRETTY_NAME);
+        // workers must run concurrently, whatever the number of available processors is
+        TaskExecutorService parallelTaskExecutorService = new TaskExecutorService();
+        ReflectionTestUtils.setField(parallelTaskExecutorService, "indexThreadCount", PARALLELISM);
+        parallelTaskExecutorService.init();
+        ReflectionTestUtils.setField(vcfManager, "taskExecutorService", parallelTaskExecutorService);
+        ReflectionTestUtils.setField(vcfManager, "indexParallelism", PARALLELISM);
+        try {
+            FeatureIndexedFileRegistrationRequest request = new FeatureIndexedFileRegistrationRequest();
+            request.setReferenceId(reference.getId());
+            request.setPath(resource.getFile().getAbsolutePath());
+            request.setName(PARALLEL_INDEX_LUMPY_FILE_NAME);
+            VcfFile parallelFile = vcfManager.registerVcfFile(request);
+            List<String> sequentialVariations = loadUnsortedVariations(sequentialFile);
+            Assert.assertFalse(sequentialVariations.isEmpty());
+            Assert.assertEquals(sequentialVariations, loadUnsortedVariations(parallelFile));
+        } finally {
+            ReflectionTestUtils.setField(vcfManager, "indexParallelism", 1);
+            ReflectionTestUtils.setField(vcfManager, "taskExecutorService", taskExecutorService);
+            parallelTaskExecutorService.shutdown();
+        }
+    }
+
+    private List<String> loadUnsortedVariations(VcfFile vcfFile) throws IOException {
+        VcfFilterForm filterForm = new VcfFilterForm();
+        filterForm.setVcfFileIdsByProject(Collections.singletonMap(0L, Collections.singletonList(vcfFile.getId())));
+        return featureIndexManager.filterVariations(filterForm).getEntries().stream()
+                .map(entry -> entry.getChromosome().getName() + ":" + entry.getStartIndex())
+                .collect(Collectors.toList());
+    }
+
     /**
      * Tests vcfFileManager.load() behaviour on small scale factors.
      * Should return a number of variations having type STATISTIC and variationsCount > 1
@@ -293,6 +383,45 @@ public class VcfManagerTest extends AbstractManagerTest {
         Assert.assertTrue(ambiguousVariations.isEmpty());
     }
 
+    /**
+     * Tests that zoomed out track without extended info is collapsed from a variant density summary
+     * the same way, as it is collapsed by a scan of the file
+     */
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void testLoadSmallScaleVcfFileDensity() throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add("##fileformat=VCFv4.2");
+        lines.add("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO");
+        for (int i = 1; i <= DENSE_CLUSTERS; i++) {
+            for (int j = 0; j < DENSE_CLUSTER_SIZE; j++) {
+                lines.add(String.format("chrA1\t%d\t.\tA\tG\t50\tPASS\t.", i * DENSE_CLUSTER_DISTANCE + j * 2));
+            }
+        }
+        final File denseFile = new File(folder.getRoot(), DENSE_FILE_NAME);
+        Files.write(denseFile.toPath(), lines);
+
+        FeatureIndexedFileRegistrationRequest request = new FeatureIndexedFileRegistrationRequest();
+        request.setReferenceId(referenceId);
+        request.setPath(denseFile.getAbsolutePath());
+        VcfFile vcfFile = vcfManager.registerVcfFile(request);
+
+        List<Variation> scanned = testLoad(vcfFile, TEST_SMALL_SCALE_FACTOR, true, true, true).getBlocks();
+        List<Variation> summarized = testLoad(vcfFile, TEST_SMALL_SCALE_FACTOR, true, true, false).getBlocks();
+
+        Assert.assertEquals(DENSE_CLUSTERS, scanned.size());
+        Assert.assertEquals(scanned.size(), summarized.size());
+        for (int i = 0; i < scanned.size(); i++) {
+            Assert.assertEquals(VariationType.STATISTIC, summarized.get(i).getType());
+            Assert.assertEquals(scanned.get(i).getStartIndex(), summarized.get(i).getStartIndex());
+            Assert.assertEquals(scanned.get(i).getEndIndex(), summarized.get(i).getEndIndex());
+            Assert.assertEquals(scanned.get(i).getVariationsCount(), summarized.get(i).getVariationsCount());
+            // collapsed variations of a summary are not read from the file
+            Assert.assertNotNull(scanned.get(i).getReferenceAllele());
+            Assert.assertNull(summarized.get(i).getReferenceAllele());
+        }
+    }
+
     @Test
     @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
     public void testLoadSmallScaleVcfFileGa4GH() throws IOException, InterruptedException, NoSuchAlgorithmException,
@@ -900,6 +1029,11 @@ public class VcfManagerTest extends AbstractManagerTest {
 
     private Track<Variation> testLoad(VcfFile vcfFile, Double scaleFactor, boolean checkBlocks, boolean collapse)
         throws IOException {
+        return testLoad(vcfFile, scaleFactor, checkBlocks, collapse, true);
+    }
+
+    private Track<Variation> testLoad(VcfFile vcfFile, Double scaleFactor, boolean checkBlocks, boolean collapse,
+                                      boolean loadInfo) throws IOException {
         TrackQuery vcfTrackQuery = new TrackQuery();
         vcfTrackQuery.setChromosomeId(testChromosome.getId());
         vcfTrackQuery.setStartIndex(1);
@@ -910,7 +1044,7 @@ public class VcfManagerTest extends AbstractManagerTest {
         Track<Variation> variationTrack = Query2TrackConverter.convertToTrack(vcfTrackQuery);
 
         double time1 = Utils.getSystemTimeMilliseconds();
-        Track<Variation> trackResult = vcfManager.loadVariations(variationTrack, null, true, collapse);
+        Track<Variation> trackResult = vcfManager.loadVariations(variationTrack, null, loadInfo, collapse);
         double time2 = Utils.getSystemTimeMilliseconds();
         logger.debug("Loading VCF records took {} ms", time2 - time1);
 
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.manager.vcf.reader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.epam.catgenome.entity.vcf.Variation;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.tribble.AbstractFeatureReader;
+import htsjdk.tribble.FeatureCodecHeader;
+import htsjdk.tribble.FeatureReader;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFHeader;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+
+public class LazyVcfCodecTest {
+
+    private static final String SAMPLES_VCF = "templates/samples.vcf";
+    private static final int SAMPLE_COUNT = 3;
+    private static final String SOMATIC_KEY = "SOMATIC";
+    private static final int MSK_END = 2246650;
+    private static final String LINE = "A1\t747000\t.\tC\t<MSK>\t.\tPASS\tSOMATIC;END=2246650;SVLEN=1000000"
+            + "\tGT:GQ:DP\t0|1:100:38\t0|0:62:20\t1|1:100:91";
+
+    @Test
+    public void testDecodeSample() throws IOException {
+        final VCFHeader header = readHeader();
+        final List<VariantContext> contexts = read(new VCFCodec());
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            final LazyVcfCodec codec = new LazyVcfCodec(i, false);
+            final List<VariantContext> lazyContexts = read(codec);
+            Assert.assertEquals(Integer.valueOf(0), codec.getDecodedSampleIndex());
+            Assert.assertEquals(contexts.size(), lazyContexts.size());
+            for (int j = 0; j < contexts.size(); j++) {
+                final VariantContext lazyContext = lazyContexts.get(j);
+                Assert.assertEquals(1, lazyContext.getNSamples());
+                assertSameVariation(VcfFileReader.createVariation(contexts.get(j), header, i),
+                        VcfFileReader.createVariation(lazyContext, header, codec.getDecodedSampleIndex()));
+                Assert.assertFalse(lazyContext.hasAttribute(VCFConstants.DEPTH_KEY));
+                Assert.assertFalse(lazyContext.hasAttribute(SOMATIC_KEY));
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeInfo() throws IOException {
+        final List<VariantContext> contexts = read(new VCFCodec());
+        final List<VariantContext> lazyContexts = read(new LazyVcfCodec(1, true));
+        for (int j = 0; j < contexts.size(); j++) {
+            Assert.assertEquals(contexts.get(j).getAttributes(), lazyContexts.get(j).getAttributes());
+        }
+    }
+
+    @Test
+    public void testReduceLine() {
+        final LazyVcfCodec codec = new LazyVcfCodec(2, false);
+        codec.initHeader(new FeatureCodecHeader(readHeader(), 0));
+        Assert.assertEquals("A1\t747000\t.\tC\t<MSK>\t.\tPASS\tEND=2246650\tGT:GQ:DP\t1|1:100:91",
+                codec.reduceLine(LINE));
+
+        final VariantContext context = codec.decode(LINE);
+        Assert.assertEquals(Collections.singletonList("NA19240"), context.getSampleNamesOrderedByName());
+        Assert.assertTrue(context.getGenotype(0).isHomVar());
+        Assert.assertEquals(MSK_END, context.getEnd());
+
+        final LazyVcfCodec sitesCodec = new LazyVcfCodec(null, true);
+        sitesCodec.initHeader(new FeatureCodecHeader(readHeader(), 0));
+        Assert.assertNull(sitesCodec.getDecodedSampleIndex());
+        Assert.assertEquals(LINE.substring(0, LINE.indexOf("\tGT:")), sitesCodec.reduceLine(LINE));
+        Assert.assertFalse(sitesCodec.decode(LINE).hasGenotypes());
+    }
+
+    private static void assertSameVariation(final Variation expected, final Variation actual) {
+        Assert.assertEquals(expected.getStartIndex(), actual.getStartIndex());
+        Assert.assertEquals(expected.getEndIndex(), actual.getEndIndex());
+        Assert.assertEquals(expected.getType(), actual.getType());
+        Assert.assertEquals(expected.getAlternativeAlleles(), actual.getAlternativeAlleles());
+        Assert.assertEquals(expected.getGenotypeData().getOrganismType(),
+                actual.getGenotypeData().getOrganismType());
+        Assert.assertEquals(expected.getGenotypeData().getGenotypeString(),
+                actual.getGenotypeData().getGenotypeString());
+    }
+
+    private static VCFHeader readHeader() {
+        try (FeatureReader<VariantContext> reader = open(new VCFCodec())) {
+            return (VCFHeader) reader.getHeader();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<VariantContext> read(final VCFCodec codec) throws IOException {
+        final List<VariantContext> contexts = new ArrayList<>();
+        try (FeatureReader<VariantContext> reader = open(codec);
+             CloseableIterator<VariantContext> iterator = reader.iterator()) {
+            while (iterator.hasNext()) {
+                contexts.add(iterator.next());
+            }
+        }
+        return contexts;
+    }
+
+    private static FeatureReader<VariantContext> open(final VCFCodec codec) throws IOException {
+        return AbstractFeatureReader.getFeatureReader(new ClassPathResource(SAMPLES_VCF).getFile().getAbsolutePath(),
+                codec, false);
+    }
+}
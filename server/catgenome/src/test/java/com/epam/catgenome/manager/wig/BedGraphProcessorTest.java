@@ -28,22 +28,26 @@ import com.epam.catgenome.common.AbstractManagerTest;
 import com.epam.catgenome.controller.vo.registration.IndexedFileRegistrationRequest;
 import com.epam.catgenome.controller.vo.registration.ReferenceRegistrationRequest;
 import com.epam.catgenome.dao.BiologicalDataItemDao;
+import com.epam.catgenome.entity.BiologicalDataItemFormat;
 import com.epam.catgenome.entity.reference.Chromosome;
 import com.epam.catgenome.entity.reference.Reference;
 import com.epam.catgenome.entity.track.Track;
 import com.epam.catgenome.entity.wig.Wig;
 import com.epam.catgenome.entity.wig.WigFile;
 import com.epam.catgenome.exception.FeatureFileReadingException;
+import com.epam.catgenome.manager.TrackTileCache;
 import com.epam.catgenome.manager.reference.ReferenceManager;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -51,6 +55,9 @@ import java.io.File;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.cache.Cache;
 
 /**
  * Source:      BedGraphProcessorTest.java
@@ -79,6 +86,12 @@ public class BedGraphProcessorTest extends AbstractManagerTest {
     @Autowired
     private ReferenceManager referenceManager;
 
+    @Autowired
+    private TrackTileCache trackTileCache;
+
+    @Value("#{catgenome['files.base.directory.path']}")
+    private String baseDirPath;
+
     private static final String TEST_NSAME = "BIG " + BedGraphProcessorTest.class.getSimpleName();
     private static final String TEST_REF = "/dm606.X.fa";
     private static final String TEST_BDG = "/bedGraph.bdg";
@@ -182,6 +195,42 @@ public class BedGraphProcessorTest extends AbstractManagerTest {
         Assert.assertNull(loadWigFile);
     }
 
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void testUnregisterEvictsTiles() throws IOException {
+        final IndexedFileRegistrationRequest request = new IndexedFileRegistrationRequest();
+        request.setPath(resource.getFile().getAbsolutePath() + TEST_BDG);
+        request.setReferenceId(testReference.getId());
+        final WigFile wigFile = wigManager.registerWigFile(request);
+
+        final boolean enabled = (boolean) ReflectionTestUtils.getField(trackTileCache, "enabled");
+        ReflectionTestUtils.setField(trackTileCache, "enabled", true);
+        try {
+            final Track<Wig> wigTrack = new Track<>();
+            wigTrack.setChromosome(new Chromosome(testChromosomeId));
+            wigTrack.setStartIndex(TEST_START_INDEX);
+            wigTrack.setEndIndex(TEST_END_INDEX);
+            wigTrack.setScaleFactor(TEST_SCALE_FACTOR);
+            wigTrack.setId(wigFile.getId());
+            final AtomicInteger loads = new AtomicInteger();
+            trackTileCache.load(BiologicalDataItemFormat.WIG, wigTrack, Wig.class, "", tile -> {
+                loads.incrementAndGet();
+                return wigManager.getWigTrack(tile);
+            });
+            final File tilesDir = new File(baseDirPath, "tiles/WIG/" + wigFile.getId());
+            Assert.assertTrue(loads.get() > 0);
+            Assert.assertTrue(tilesDir.exists());
+
+            wigManager.unregisterWigFile(wigFile.getId());
+            Assert.assertFalse(tilesDir.exists());
+            final Cache<String, ?> tiles = (Cache<String, ?>) ReflectionTestUtils.getField(trackTileCache, "tiles");
+            Assert.assertTrue(tiles.asMap().keySet().stream()
+                    .noneMatch(key -> key.startsWith("WIG|" + wigFile.getId() + "|")));
+        } finally {
+            ReflectionTestUtils.setField(trackTileCache, "enabled", enabled);
+        }
+    }
+
     @Test
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void testRegisterWrongFormat()
@@ -36,6 +36,7 @@ import com.epam.catgenome.entity.wig.WigFile;
 import com.epam.catgenome.exception.FeatureFileReadingException;
 import com.epam.catgenome.manager.reference.ReferenceManager;
 import com.epam.catgenome.util.Utils;
+import com.google.common.cache.Cache;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -47,6 +48,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -81,6 +83,9 @@ public class WigProcessorTest extends AbstractManagerTest {
     @Autowired
     private ReferenceManager referenceManager;
 
+    @Autowired
+    private BigWigFileCache bigWigFileCache;
+
     private Logger logger = LoggerFactory.getLogger(WigProcessorTest.class);
 
     private static final String TEST_NSAME = "BIG " + WigProcessorTest.class.getSimpleName();
@@ -161,6 +166,37 @@ public class WigProcessorTest extends AbstractManagerTest {
         Assert.assertNull(loadWigFile);
     }
 
+    @Test
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    @SuppressWarnings("unchecked")
+    public void testOpenedFileCache() throws IOException {
+        final String path = resource.getFile().getAbsolutePath() + TEST_WIG;
+        IndexedFileRegistrationRequest request = new IndexedFileRegistrationRequest();
+        request.setPath(path);
+        request.setReferenceId(testReference.getId());
+        request.setName(TEST_WIG);
+
+        final Cache<String, ?> files = (Cache<String, ?>) ReflectionTestUtils.getField(bigWigFileCache, "files");
+        files.invalidate(path);
+        // registration opens the file through the cache
+        WigFile wigFile = wigManager.registerWigFile(request);
+        final Object cachedFile = files.getIfPresent(path);
+        Assert.assertNotNull(cachedFile);
+
+        Track<Wig> wigTrack = new Track<>();
+        wigTrack.setChromosome(new Chromosome(testChromosomeId));
+        wigTrack.setStartIndex(TEST_START_INDEX);
+        wigTrack.setEndIndex(TEST_END_INDEX);
+        wigTrack.setScaleFactor(TEST_SCALE_FACTOR);
+        wigTrack.setId(wigFile.getId());
+        wigManager.getWigTrack(wigTrack);
+        Assert.assertFalse(wigTrack.getBlocks().isEmpty());
+        Assert.assertSame(cachedFile, files.getIfPresent(path));
+
+        wigManager.unregisterWigFile(wigFile.getId());
+        Assert.assertNull(files.getIfPresent(path));
+    }
+
     @Test
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void testRegisterUnsorted()
@@ -73,6 +73,9 @@ public class AclPermissionSecurityServiceTest extends AbstractACLSecurityTest {
     @Autowired
     private UserManager userManager;
 
+    @Autowired
+    private JdbcMutableAclServiceImpl aclService;
+
     private Reference reference;
     private AclTestDao.AclObjectIdentity refIdentity;
     private AclTestDao.AclSid userSid;
@@ -160,4 +163,25 @@ public class AclPermissionSecurityServiceTest extends AbstractACLSecurityTest {
         Assert.assertEquals(0, mask.intValue());
     }
 
-}
\ No newline at end of file
+    @Test
+    @WithMockUser(username = TEST_USER, roles = {ADMIN})
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void setPermissionsAfterMaskIsCachedTest() {
+        Integer mask = permissionHelper.retrieveMaskForSid(reference, true, true,
+                permissionHelper.convertUserToSids(TEST_USER_2));
+        Assert.assertEquals(0, mask.intValue());
+
+        PermissionGrantVO grantVO = new PermissionGrantVO();
+        grantVO.setAclClass(AclClass.REFERENCE);
+        grantVO.setId(reference.getId());
+        grantVO.setUserName(TEST_USER_2);
+        grantVO.setPrincipal(true);
+        grantVO.setMask(1);
+        securityService.setPermissions(grantVO);
+
+        mask = permissionHelper.retrieveMaskForSid(reference, true, true,
+                permissionHelper.convertUserToSids(TEST_USER_2),
+                new BatchAclLookup(aclService, Collections.singletonList(reference)));
+        Assert.assertEquals(1, mask.intValue());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.epam.catgenome.entity.reference.Sequence;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConsensusSequenceCounterTest {
+
+    private static final int CHROMOSOME_LENGTH = 1000;
+    private static final int BLOCK_3_START = 11;
+    private static final int BLOCK_3_END = 14;
+    private static final int GAP_BLOCK_START = 21;
+    private static final int GAP_BLOCK_END = 25;
+
+    private final SAMFileHeader header = new SAMFileHeader();
+
+    @Before
+    public void setUp() {
+        header.setSequenceDictionary(new SAMSequenceDictionary(
+                Collections.singletonList(new SAMSequenceRecord("chr1", CHROMOSOME_LENGTH))));
+    }
+
+    @Test
+    public void testCountsOnlyBasesAlignedToBlocks() {
+        final List<Sequence> blocks = Arrays.asList(new Sequence(1, 5), new Sequence(6, 10),
+                new Sequence(BLOCK_3_START, BLOCK_3_END));
+        final ConsensusSequenceCounter counter = new ConsensusSequenceCounter(blocks);
+        // soft clipped bases and insertions are not aligned to the reference
+        counter.add(read(1, "2S3M2I2M", "GGTTTCCTT"));
+        counter.add(read(2, "4M", "TTTT"));
+        counter.add(read(3, "3M", "tTt"));
+        // a deletion and a read, starting before the first block and ending after the last one
+        counter.add(read(4, "2M1D3M", "GGCCC"));
+        counter.add(read(-2, "20M", "AAAAACCCCCGGGGGTTTTT"));
+        counter.fill();
+
+        Assert.assertEquals(2, counter.getCount(0, ConsensusSequenceCounter.A));
+        Assert.assertEquals(3, counter.getCount(0, ConsensusSequenceCounter.C));
+        Assert.assertEquals(5 + 4 + 3, counter.getCount(0, ConsensusSequenceCounter.T));
+        Assert.assertEquals(2, counter.getCount(0, ConsensusSequenceCounter.G));
+        Assert.assertEquals(0, counter.getCount(0, ConsensusSequenceCounter.DELETION));
+        Assert.assertEquals(1, counter.getCount(1, ConsensusSequenceCounter.DELETION));
+        Assert.assertEquals(3 + 2, counter.getCount(1, ConsensusSequenceCounter.C));
+        Assert.assertEquals(2, counter.getCount(2, ConsensusSequenceCounter.G));
+        Assert.assertEquals(2, counter.getCount(2, ConsensusSequenceCounter.T));
+        Assert.assertEquals("T", blocks.get(0).getText());
+        Assert.assertEquals("[GC]", blocks.get(1).getText());
+        Assert.assertEquals("[TG]", blocks.get(2).getText());
+    }
+
+    @Test
+    public void testCountsBlocksWithGaps() {
+        final List<Sequence> blocks = Arrays.asList(new Sequence(1, 5), new Sequence(BLOCK_3_START, BLOCK_3_END),
+                new Sequence(GAP_BLOCK_START, GAP_BLOCK_END), new Sequence(CHROMOSOME_LENGTH, CHROMOSOME_LENGTH));
+        final ConsensusSequenceCounter counter = new ConsensusSequenceCounter(blocks);
+        counter.add(read(3, "10M5N10M", "CCCCCCCCCCAAANAAAAAA"));
+        counter.add(read(6, "2M", "NN"));
+        counter.fill();
+
+        Assert.assertEquals(3, counter.getCount(0, ConsensusSequenceCounter.C));
+        Assert.assertEquals(2, counter.getCount(1, ConsensusSequenceCounter.C));
+        Assert.assertEquals(4, counter.getCount(2, ConsensusSequenceCounter.A));
+        Assert.assertEquals(1, counter.getCount(2, ConsensusSequenceCounter.N));
+        Assert.assertEquals("C", blocks.get(0).getText());
+        Assert.assertEquals("C", blocks.get(1).getText());
+        Assert.assertEquals("A", blocks.get(2).getText());
+        Assert.assertNull(blocks.get(3).getText());
+    }
+
+    @Test
+    public void testChoosesConsensusNucleotide() {
+        final List<Sequence> blocks = Arrays.asList(new Sequence(1, 5), new Sequence(6, 10),
+                new Sequence(BLOCK_3_START, BLOCK_3_END));
+        final ConsensusSequenceCounter counter = new ConsensusSequenceCounter(blocks);
+        counter.add(read(1, "5M", "ATTGC"));
+        counter.add(read(1, "5M", "TTTGC"));
+        counter.add(read(1, "5M", "TTTTT"));
+        counter.add(read(6, "5M", "GGGCC"));
+        counter.add(read(6, "5M", "ATGCC"));
+        counter.add(read(BLOCK_3_START, "4M", "ATGG"));
+        counter.add(read(BLOCK_3_START, "4M", "CTGA"));
+        counter.fill();
+
+        // the most frequent nucleotide, a pair of the most frequent nucleotides or none of them
+        Assert.assertEquals("T", blocks.get(0).getText());
+        Assert.assertEquals("[GC]", blocks.get(1).getText());
+        Assert.assertEquals("N", blocks.get(2).getText());
+    }
+
+    private SAMRecord read(final int start, final String cigar, final String bases) {
+        final SAMRecord record = new SAMRecord(header);
+        record.setReferenceName("chr1");
+        record.setAlignmentStart(start);
+        record.setCigarString(cigar);
+        record.setReadString(bases);
+        return record;
+    }
+}
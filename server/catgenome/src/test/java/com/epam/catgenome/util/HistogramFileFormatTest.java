@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import com.epam.catgenome.entity.wig.Wig;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HistogramFileFormatTest {
+
+    private static final int HISTOGRAM_SIZE = 100;
+    private static final int BLOCK_SIZE = 1000;
+    private static final float DELTA = 0.0001F;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final List<Wig> histogram = createHistogram();
+        final File file = folder.newFile("chr1.hg");
+        HistogramFileFormat.write(file, histogram);
+        assertHistogram(histogram, HistogramFileFormat.read(file).toWigs());
+
+        // rewriting of an existing file replaces its contents
+        final List<Wig> shorter = histogram.subList(0, HISTOGRAM_SIZE / 2);
+        HistogramFileFormat.write(file, shorter);
+        assertHistogram(shorter, HistogramFileFormat.read(file).toWigs());
+    }
+
+    @Test
+    public void testReadLegacyFormat() throws IOException {
+        final List<Wig> histogram = createHistogram();
+        final File file = folder.newFile("chr2.hg");
+        try (DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(file))) {
+            for (Wig wig : histogram) {
+                outputStream.writeInt(wig.getStartIndex());
+                outputStream.writeInt(wig.getEndIndex());
+                outputStream.writeFloat(wig.getValue());
+            }
+        }
+        assertHistogram(histogram, HistogramFileFormat.read(file).toWigs());
+    }
+
+    @Test
+    public void testReadEmpty() throws IOException {
+        final File file = folder.newFile("chr3.hg");
+        Assert.assertEquals(0, HistogramFileFormat.read(file).size());
+        HistogramFileFormat.write(file, new ArrayList<>());
+        Assert.assertEquals(0, HistogramFileFormat.read(file).size());
+    }
+
+    private List<Wig> createHistogram() {
+        final List<Wig> histogram = new ArrayList<>(HISTOGRAM_SIZE);
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            histogram.add(new Wig(i * BLOCK_SIZE, (i + 1) * BLOCK_SIZE, i * 2 + 1));
+        }
+        return histogram;
+    }
+
+    private void assertHistogram(final List<Wig> expected, final List<Wig> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getStartIndex(), actual.get(i).getStartIndex());
+            Assert.assertEquals(expected.get(i).getEndIndex(), actual.get(i).getEndIndex());
+            Assert.assertEquals(expected.get(i).getValue(), actual.get(i).getValue(), DELTA);
+        }
+    }
+}
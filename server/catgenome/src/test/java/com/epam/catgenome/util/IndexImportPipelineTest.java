@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class IndexImportPipelineTest {
+
+    private static final int ENTRY_COUNT = 1000;
+    private static final int FAILED_ENTRY = 700;
+    private static final int THREAD_COUNT = 4;
+    private static final String FIELD = "id";
+
+    private RAMDirectory directory;
+    private IndexWriter writer;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = new RAMDirectory();
+        writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        writer.close();
+        directory.close();
+    }
+
+    @Test
+    public void testImport() throws IOException {
+        final long count;
+        try (IndexImportPipeline<Integer> pipeline = new IndexImportPipeline<>(writer,
+                entry -> entry % 2 == 0 ? createDocument(entry) : null, FIELD, THREAD_COUNT)) {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                pipeline.add(i);
+            }
+            count = pipeline.finish();
+        }
+        writer.commit();
+
+        Assert.assertEquals(ENTRY_COUNT / 2, count);
+        Assert.assertEquals(ENTRY_COUNT / 2, writer.numDocs());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDocumentBuilderRuntimeFailure() throws IOException {
+        importFailing(entry -> {
+            if (entry == FAILED_ENTRY) {
+                throw new IllegalStateException("Malformed entry " + entry);
+            }
+            return createDocument(entry);
+        });
+    }
+
+    @Test(expected = IOException.class)
+    public void testDocumentBuilderIOFailure() throws IOException {
+        importFailing(entry -> {
+            if (entry == FAILED_ENTRY) {
+                throw new IOException("Unreadable entry " + entry);
+            }
+            return createDocument(entry);
+        });
+    }
+
+    private void importFailing(final IndexImportPipeline.DocumentBuilder<Integer> documentBuilder)
+            throws IOException {
+        try (IndexImportPipeline<Integer> pipeline = new IndexImportPipeline<>(writer, documentBuilder, FIELD,
+                THREAD_COUNT)) {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                pipeline.add(i);
+            }
+            pipeline.finish();
+        }
+        Assert.fail("A failure of a document builder should be reported");
+    }
+
+    private static Document createDocument(final int entry) {
+        final Document document = new Document();
+        document.add(new StringField(FIELD, String.valueOf(entry), Field.Store.YES));
+        return document;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+public class PositionIndexTest {
+
+    private static final int[] STARTS = {100, 200, 200, 300, 450, 500};
+    private static final int[] ENDS = {150, 260, 201, 800, 460, 510};
+    private static final int SAMPLE_COUNT = 2;
+    private static final int DELETION = 3;
+    private static final int POSITION_300 = 300;
+    private static final int POSITION_500 = 500;
+    private static final int POSITION_505 = 505;
+    private static final int POSITION_600 = 600;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testNavigation() {
+        final PositionIndex index = createIndex();
+
+        Assert.assertEquals(0, index.firstAfter(0, null));
+        Assert.assertEquals(1, index.firstAfter(STARTS[0], null));
+        Assert.assertEquals(DELETION, index.firstAfter(STARTS[1], null));
+        Assert.assertEquals(-1, index.firstAfter(POSITION_500, null));
+
+        Assert.assertEquals(-1, index.lastBefore(STARTS[0], null));
+        Assert.assertEquals(2, index.lastBefore(POSITION_300, null));
+        Assert.assertEquals(DELETION + 1, index.lastBefore(POSITION_500, null));
+        Assert.assertEquals(STARTS.length - 1, index.lastBefore(POSITION_600, null));
+        Assert.assertEquals(1, index.previous(1, null));
+        Assert.assertEquals(-1, index.previous(-1, null));
+    }
+
+    @Test
+    public void testSampleNavigation() {
+        final PositionIndex index = createIndex();
+
+        // the first sample has variations at even positions, the second one - at odd positions
+        Assert.assertEquals(2, index.firstAfter(STARTS[0], 0));
+        Assert.assertEquals(1, index.firstAfter(STARTS[0], 1));
+        Assert.assertEquals(DELETION + 1, index.firstAfter(POSITION_300, 0));
+        Assert.assertEquals(-1, index.firstAfter(POSITION_500, 1));
+
+        Assert.assertEquals(DELETION + 1, index.lastBefore(POSITION_505, 0));
+        Assert.assertEquals(STARTS.length - 1, index.lastBefore(POSITION_600, 1));
+        Assert.assertEquals(1, index.previous(2, 1));
+        Assert.assertEquals(-1, index.previous(0, 1));
+
+        // unknown samples are not filtered and should be navigated without the index
+        Assert.assertEquals(1, index.firstAfter(STARTS[0], SAMPLE_COUNT));
+        Assert.assertTrue(index.hasSample(1));
+        Assert.assertTrue(index.hasSample(null));
+        Assert.assertFalse(index.hasSample(SAMPLE_COUNT));
+    }
+
+    @Test
+    public void testSampleLimit() {
+        final PositionIndex.Builder builder = new PositionIndex.Builder(SAMPLE_COUNT, 1);
+        for (int i = 0; i < STARTS.length; i++) {
+            final int ordinal = i;
+            builder.add(STARTS[i], ENDS[i], sample -> ordinal % SAMPLE_COUNT == sample);
+        }
+        final PositionIndex index = builder.build();
+
+        Assert.assertTrue(index.hasSample(0));
+        Assert.assertFalse(index.hasSample(1));
+        Assert.assertEquals(2, index.firstAfter(STARTS[0], 0));
+        Assert.assertTrue(index.getSize() < createIndex().getSize());
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final File file = new File(folder.getRoot(), "chr1.positions");
+        PositionIndex.write(file, new PositionIndex.Builder(0).add(STARTS[0], ENDS[0]).build());
+        PositionIndex.write(file, createIndex());
+        final PositionIndex index = PositionIndex.read(file);
+
+        Assert.assertEquals(STARTS.length, index.size());
+        for (int i = 0; i < STARTS.length; i++) {
+            Assert.assertEquals(STARTS[i], index.getStart(i));
+            Assert.assertEquals(ENDS[i], index.getEnd(i));
+        }
+        Assert.assertEquals(2, index.firstAfter(STARTS[0], 0));
+        // temporary files are moved in place of the index
+        Assert.assertArrayEquals(new String[] {file.getName()}, folder.getRoot().list());
+
+        Assert.assertNull(PositionIndex.read(new File(folder.getRoot(), "missing.positions")));
+    }
+
+    private static PositionIndex createIndex() {
+        final PositionIndex.Builder builder = new PositionIndex.Builder(SAMPLE_COUNT);
+        for (int i = 0; i < STARTS.length; i++) {
+            final int ordinal = i;
+            builder.add(STARTS[i], ENDS[i], sample -> ordinal % SAMPLE_COUNT == sample);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class RemoteBlockCacheTest {
+
+    private static final int BLOCK_SIZE = 1024;
+    private static final int FILE_SIZE = BLOCK_SIZE * 20 + 100;
+    private static final int READ_AHEAD = 2;
+    private static final int CACHE_SIZE = BLOCK_SIZE * 100;
+    private static final int TAIL_SIZE = 50;
+    private static final String URI = "s3://bucket/file.bam";
+
+    private byte[] content;
+    private List<long[]> requests;
+    private RemoteBlockCache cache;
+
+    @Before
+    public void setUp() {
+        content = new byte[FILE_SIZE];
+        new Random(1).nextBytes(content);
+        requests = new ArrayList<>();
+        cache = new RemoteBlockCache(BLOCK_SIZE, CACHE_SIZE, READ_AHEAD);
+    }
+
+    @Test
+    public void testReadWholeFile() throws IOException {
+        final FeatureSeekableStream stream = new InMemoryRemoteStream();
+        final byte[] read = new byte[FILE_SIZE];
+        int total = 0;
+        int count;
+        while ((count = stream.read(read, total, Math.min(BLOCK_SIZE + 7, FILE_SIZE - total))) > 0) {
+            total += count;
+        }
+        Assert.assertEquals(FILE_SIZE, total);
+        Assert.assertArrayEquals(content, read);
+        Assert.assertTrue(stream.eof());
+        Assert.assertEquals(-1, stream.read());
+        // sequential reads fetch several blocks per request
+        Assert.assertTrue(requests.size() < FILE_SIZE / BLOCK_SIZE / 2);
+    }
+
+    @Test
+    public void testRepeatedReadsAreServedFromCache() throws IOException {
+        final long position = BLOCK_SIZE * 5 + 10;
+        final byte[] first = readAt(new InMemoryRemoteStream(), position, BLOCK_SIZE);
+        Assert.assertEquals(1, requests.size());
+        // another stream on the same file reuses cached blocks
+        final byte[] second = readAt(new InMemoryRemoteStream(), position, BLOCK_SIZE);
+        Assert.assertEquals(1, requests.size());
+        Assert.assertArrayEquals(first, second);
+        Assert.assertArrayEquals(Arrays.copyOfRange(content, (int) position, (int) position + BLOCK_SIZE), first);
+    }
+
+    @Test
+    public void testAdjacentMissingBlocksAreCoalesced() throws IOException {
+        final FeatureSeekableStream stream = new InMemoryRemoteStream();
+        readAt(stream, BLOCK_SIZE * 3, BLOCK_SIZE);
+        Assert.assertEquals(1, requests.size());
+
+        // blocks 1-2 and 4-5 are missing, block 3 is cached
+        readAt(stream, BLOCK_SIZE + 1, BLOCK_SIZE * 4);
+        Assert.assertEquals(3, requests.size());
+        Assert.assertArrayEquals(new long[]{BLOCK_SIZE, BLOCK_SIZE * 3 - 1}, requests.get(1));
+        Assert.assertArrayEquals(new long[]{BLOCK_SIZE * 4, BLOCK_SIZE * 6 - 1}, requests.get(2));
+    }
+
+    @Test
+    public void testSequentialReadLoadsAhead() throws IOException {
+        final FeatureSeekableStream stream = new InMemoryRemoteStream();
+        readAt(stream, 0, BLOCK_SIZE);
+        Assert.assertArrayEquals(new long[]{0, BLOCK_SIZE - 1}, requests.get(0));
+
+        stream.read(new byte[BLOCK_SIZE], 0, BLOCK_SIZE);
+        Assert.assertArrayEquals(new long[]{BLOCK_SIZE, BLOCK_SIZE * (2 + READ_AHEAD) - 1}, requests.get(1));
+
+        stream.read(new byte[BLOCK_SIZE * READ_AHEAD], 0, BLOCK_SIZE * READ_AHEAD);
+        Assert.assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testLastBlockIsTruncated() throws IOException {
+        final FeatureSeekableStream stream = new InMemoryRemoteStream();
+        stream.seek(FILE_SIZE - TAIL_SIZE);
+        final byte[] read = new byte[BLOCK_SIZE];
+        Assert.assertEquals(TAIL_SIZE, stream.read(read, 0, BLOCK_SIZE));
+        Assert.assertArrayEquals(Arrays.copyOfRange(content, FILE_SIZE - TAIL_SIZE, FILE_SIZE),
+                Arrays.copyOf(read, TAIL_SIZE));
+        Assert.assertEquals(-1, stream.read(read, 0, BLOCK_SIZE));
+    }
+
+    private byte[] readAt(final FeatureSeekableStream stream, final long position, final int length)
+            throws IOException {
+        stream.seek(position);
+        final byte[] read = new byte[length];
+        Assert.assertEquals(length, stream.read(read, 0, length));
+        Assert.assertEquals(position + length, stream.position());
+        return read;
+    }
+
+    /**
+     * Stand-in for a remote file, that records requested ranges
+     */
+    private final class InMemoryRemoteStream extends FeatureSeekableStream {
+
+        private InMemoryRemoteStream() {
+            super(URI, cache);
+            contentLength = content.length;
+        }
+
+        @Override
+        protected InputStream loadRange(final long from, final long to) {
+            requests.add(new long[]{from, to});
+            return new ByteArrayInputStream(content, (int) from, (int) (to - from + 1));
+        }
+    }
+}
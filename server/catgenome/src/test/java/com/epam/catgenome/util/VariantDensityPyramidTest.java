@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 EPAM Systems
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.epam.catgenome.util;
+
+import com.epam.catgenome.entity.vcf.VariationType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public class VariantDensityPyramidTest {
+
+    private static final int[] STARTS = {10, 20, 5000, 20000, 20005, 100000};
+    private static final int[] ENDS = {10, 25, 5000, 20001, 20005, 100000};
+    private static final VariationType[] TYPES = {VariationType.SNV, VariationType.DEL, VariationType.SNV,
+        VariationType.INS, VariationType.SNV, VariationType.SNV};
+    private static final int SAMPLE_COUNT = 2;
+    private static final int FROM = 1;
+    private static final int TO = 200000;
+    private static final int STEP = VariantDensityPyramid.BASE_BIN_SIZE;
+    private static final int DOUBLE_STEP = VariantDensityPyramid.BASE_BIN_SIZE * 2;
+    private static final int LARGE_STEP = VariantDensityPyramid.BASE_BIN_SIZE * 4;
+    private static final int RANGE_FROM = 19000;
+    private static final int RANGE_TO = 30000;
+    private static final int[] CLUSTER_STARTS = {100, 10000, 14000, 18500};
+    private static final int[] CLUSTER_ENDS = {100, 14010, 14000, 18500};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCollapse() {
+        final VariantDensityPyramid density = createDensity(0, 0);
+
+        final List<VariantDensityPyramid.Bucket> buckets = density.collapse(null, FROM, TO, STEP);
+        assertCounts(buckets, 2, 1, 2, 1);
+        Assert.assertEquals(STARTS[0], buckets.get(0).getStart());
+        Assert.assertEquals(ENDS[1], buckets.get(0).getEnd());
+        Assert.assertEquals(1, buckets.get(0).getCount(VariationType.DEL));
+        Assert.assertEquals(1, buckets.get(0).getCount(VariationType.SNV));
+        Assert.assertEquals(0, buckets.get(0).getCount(VariationType.INS));
+        Assert.assertEquals(STARTS[2], buckets.get(1).getStart());
+
+        assertCounts(density.collapse(null, FROM, TO, LARGE_STEP), 3, 2, 1);
+        assertCounts(density.collapse(null, RANGE_FROM, RANGE_TO, STEP), 2);
+
+        // small regions and samples of a file without genotypes are not summarized
+        Assert.assertNull(density.collapse(null, FROM, TO, STEP - 1));
+        Assert.assertNull(density.collapse(0, FROM, TO, STEP));
+    }
+
+    @Test
+    public void testCollapseAdjacentClusters() {
+        final VariantDensityPyramid.Builder builder = new VariantDensityPyramid.Builder(0, 0);
+        for (int i = 0; i < CLUSTER_STARTS.length; i++) {
+            builder.add(CLUSTER_STARTS[i], CLUSTER_ENDS[i], VariationType.SNV, sample -> true);
+        }
+        final List<VariantDensityPyramid.Bucket> buckets = builder.build().collapse(null, FROM, TO, DOUBLE_STEP);
+
+        // regions are aligned to a grid, that starts at the chromosome start, so variations in adjacent
+        // bins 10000 and 14000 are collapsed together into the region 8193-16384, the next region starts after it
+        assertCounts(buckets, 1, 2, 1);
+        Assert.assertEquals(CLUSTER_STARTS[1], buckets.get(1).getStart());
+        // a region ends at the end of its last variation
+        Assert.assertEquals(CLUSTER_ENDS[2], buckets.get(1).getEnd());
+        Assert.assertEquals(CLUSTER_STARTS[3], buckets.get(2).getStart());
+    }
+
+    @Test
+    public void testSampleCollapse() {
+        final VariantDensityPyramid density = createDensity(SAMPLE_COUNT, SAMPLE_COUNT);
+
+        // the first sample has variations at even positions, the second one - at odd positions
+        assertCounts(density.collapse(0, FROM, TO, STEP), 1, 1, 1);
+        assertCounts(density.collapse(1, FROM, TO, STEP), 1, 1, 1);
+        Assert.assertEquals(STARTS[1], density.collapse(1, FROM, TO, STEP).get(0).getStart());
+        Assert.assertNull(density.collapse(null, FROM, TO, STEP));
+        Assert.assertNull(density.collapse(SAMPLE_COUNT, FROM, TO, STEP));
+
+        final VariantDensityPyramid limited = createDensity(SAMPLE_COUNT, 1);
+        Assert.assertNotNull(limited.collapse(0, FROM, TO, STEP));
+        Assert.assertNull(limited.collapse(1, FROM, TO, STEP));
+    }
+
+    @Test
+    public void testStructural() {
+        final VariantDensityPyramid density = new VariantDensityPyramid.Builder(0, 0)
+                .add(STARTS[0], ENDS[0], TYPES[0], i -> true)
+                .addStructural()
+                .build();
+        Assert.assertTrue(density.isStructural());
+        Assert.assertNull(density.collapse(null, FROM, TO, STEP));
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final File file = folder.newFile("chr1.density");
+        VariantDensityPyramid.write(file, createDensity(SAMPLE_COUNT, SAMPLE_COUNT));
+        final VariantDensityPyramid density = VariantDensityPyramid.read(file);
+
+        Assert.assertFalse(density.isStructural());
+        assertCounts(density.collapse(1, FROM, TO, STEP), 1, 1, 1);
+        assertCounts(density.collapse(0, FROM, TO, LARGE_STEP), 2, 1);
+        Assert.assertEquals(1, density.collapse(1, FROM, TO, STEP).get(1).getCount(VariationType.INS));
+    }
+
+    private static void assertCounts(final List<VariantDensityPyramid.Bucket> buckets, final int... counts) {
+        Assert.assertNotNull(buckets);
+        Assert.assertEquals(counts.length, buckets.size());
+        for (int i = 0; i < counts.length; i++) {
+            Assert.assertEquals(counts[i], buckets.get(i).getCount());
+        }
+    }
+
+    private static VariantDensityPyramid createDensity(final int sampleCount, final int maxSamples) {
+        final VariantDensityPyramid.Builder builder = new VariantDensityPyramid.Builder(sampleCount, maxSamples);
+        for (int i = 0; i < STARTS.length; i++) {
+            final int ordinal = i;
+            builder.add(STARTS[i], ENDS[i], TYPES[i], sample -> ordinal % SAMPLE_COUNT == sample);
+        }
+        return builder.build();
+    }
+}